@@ -122,4 +122,16 @@ public class StringUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * @param bytes the bytes to encode, e.g. a hash
+     * @return the bytes as lower case hex string, two characters per byte
+     */
+    public static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
 }
@@ -43,6 +43,7 @@ public enum CommandLineOptions {
     RESETALL("-reset", "all", "IBOResetAll"),
     RESET("-reset", "name", "IBOReset", NumberOfArguments.ONE_OR_MORE),
     CHECK("-check", "IBOCheck"),
+    SEEDCACHE("-seedcache", "url", "IBOSeedCache", NumberOfArguments.ONE_OR_MORE),
     HELP2("-help", "BOHelp2"),
     //policyeditor
     //-help
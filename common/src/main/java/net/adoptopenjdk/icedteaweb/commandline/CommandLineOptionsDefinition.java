@@ -51,6 +51,7 @@ public class CommandLineOptionsDefinition {
                 CommandLineOptions.RESETALL,
                 CommandLineOptions.HEADLESS,
                 CommandLineOptions.CHECK,
+                CommandLineOptions.SEEDCACHE,
                 CommandLineOptions.VERBOSE);
     }
 
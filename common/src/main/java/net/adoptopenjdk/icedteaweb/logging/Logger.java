@@ -7,6 +7,15 @@ package net.adoptopenjdk.icedteaweb.logging;
  */
 public interface Logger {
 
+    /**
+     * Allows callers to skip building expensive debug messages which would be discarded anyway.
+     *
+     * @return {@code false} if messages at the {@code DEBUG} level are discarded
+     */
+    default boolean isDebugEnabled() {
+        return true;
+    }
+
     /**
      * Log a message at the {@code DEBUG} level.
      *
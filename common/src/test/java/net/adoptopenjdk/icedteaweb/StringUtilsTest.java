@@ -8,6 +8,7 @@ import java.util.stream.Stream;
 import static net.adoptopenjdk.icedteaweb.StringUtils.hasPrefixMatch;
 import static net.adoptopenjdk.icedteaweb.StringUtils.splitIntoMultipleLines;
 import static net.adoptopenjdk.icedteaweb.StringUtils.substringBeforeLast;
+import static net.adoptopenjdk.icedteaweb.StringUtils.toHex;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.blankOrNullString;
 import static org.hamcrest.Matchers.empty;
@@ -162,4 +163,10 @@ public class StringUtilsTest {
         assertThat(substringBeforeLast("https://domain.com/substringtest", ""), equalTo("https://domain.com/substringtest"));
         assertThat(substringBeforeLast("https://domain.com/substringtest", null), equalTo("https://domain.com/substringtest"));
     }
+
+    @Test
+    public void testToHex() {
+        assertThat(toHex(new byte[0]), equalTo(""));
+        assertThat(toHex(new byte[]{0x00, 0x0f, (byte) 0xa0, (byte) 0xff}), equalTo("000fa0ff"));
+    }
 }
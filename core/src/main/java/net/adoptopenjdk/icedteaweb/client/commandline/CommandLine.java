@@ -27,6 +27,7 @@ import net.adoptopenjdk.icedteaweb.config.validators.ConfigurationValidator;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.ui.swing.SwingUtils;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import net.sourceforge.jnlp.config.Setting;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
@@ -37,14 +38,17 @@ import net.sourceforge.jnlp.util.logging.FileLog;
 import net.sourceforge.jnlp.util.logging.OutputController;
 
 import javax.naming.ConfigurationException;
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static net.adoptopenjdk.icedteaweb.JavaSystemPropertiesConstants.ITW_BIN_NAME;
+import static net.adoptopenjdk.icedteaweb.StringUtils.isBlank;
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
 
 /**
@@ -438,6 +442,47 @@ public class CommandLine {
         }
     }
 
+    /**
+     * Prints a help message for the 'seedcache' command
+     */
+    private void printSeedCacheHelp() {
+        OutputController.getLogger().printOutLn(R("Usage"));
+        OutputController.getLogger().printOutLn("  " + programName + " seedcache url [url ...]");
+        OutputController.getLogger().printOutLn(R("CLSeedCacheDescription"));
+    }
+
+    /**
+     * Handles the 'seedcache' command
+     *
+     * @return an integer indicating success (SUCCESS) or error in handling
+     * the command
+     */
+    private int handleSeedCacheCommand() {
+        if (optionParser.hasOption(CommandLineOptions.HELP2)) {
+            printSeedCacheHelp();
+            return SUCCESS;
+        }
+
+        final String systemCacheDir = config.getProperty(ConfigurationConstants.KEY_SYSTEM_CACHE_DIR);
+        if (isBlank(systemCacheDir)) {
+            LOG.info("No system cache is configured. Set {} first.", ConfigurationConstants.KEY_SYSTEM_CACHE_DIR);
+            return ERROR;
+        }
+
+        final List<URL> jnlpUrls = new ArrayList<>();
+        for (String arg : optionParser.getParams(CommandLineOptions.SEEDCACHE)) {
+            try {
+                jnlpUrls.add(new URL(arg));
+            } catch (MalformedURLException e) {
+                LOG.info("Invalid JNLP URL {}", arg);
+                return ERROR;
+            }
+        }
+
+        final boolean seeded = new SystemCacheSeeder(new File(systemCacheDir)).seed(jnlpUrls);
+        return seeded ? SUCCESS : ERROR;
+    }
+
     /**
      * Handles overall command line arguments. The argument array is split
      * into two pieces: the first element is assumed to be the command, and
@@ -469,6 +514,8 @@ public class CommandLine {
             val = handleInfoCommand();
         } else if (optionParser.hasOption(CommandLineOptions.CHECK)) {
             val = handleCheckCommand();
+        } else if (optionParser.hasOption(CommandLineOptions.SEEDCACHE)) {
+            val = handleSeedCacheCommand();
         } else if (optionParser.hasOption(CommandLineOptions.HELP2)) {
             val = handleHelpCommand();
         } else {
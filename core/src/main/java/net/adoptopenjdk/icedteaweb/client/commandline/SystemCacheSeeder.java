@@ -0,0 +1,125 @@
+package net.adoptopenjdk.icedteaweb.client.commandline;
+
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.ExtensionDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.JNLPFileFactory;
+import net.sourceforge.jnlp.ParserSettings;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.sourceforge.jnlp.cache.CacheUtil.isCacheable;
+
+/**
+ * Downloads the resources of JNLP applications into the system cache, which is shared by all
+ * users of a system.
+ * <p>
+ * The resources are added by the regular download code, with the system cache used as the cache
+ * of the current user. Afterwards all files of the system cache are made readable for all users.
+ */
+class SystemCacheSeeder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SystemCacheSeeder.class);
+
+    private final File systemCacheDir;
+
+    private final Set<URL> seededJnlpFiles = new HashSet<>();
+
+    SystemCacheSeeder(final File systemCacheDir) {
+        this.systemCacheDir = systemCacheDir;
+    }
+
+    /**
+     * Must be called before anything else accesses the cache.
+     *
+     * @param jnlpUrls the locations of the JNLP files of the applications
+     * @return true if all resources of all applications were added to the system cache
+     */
+    boolean seed(final List<URL> jnlpUrls) {
+        if (!systemCacheDir.isDirectory() && !systemCacheDir.mkdirs()) {
+            LOG.error("Cannot create the system cache directory {}", systemCacheDir);
+            return false;
+        }
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_USER_CACHE_DIR, systemCacheDir.getAbsolutePath());
+
+        boolean success = true;
+        for (final URL jnlpUrl : jnlpUrls) {
+            try {
+                success &= seed(jnlpUrl, null);
+            } catch (IOException | ParseException e) {
+                LOG.error("Failed to add " + jnlpUrl + " to the system cache", e);
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.error("Interrupted while adding {} to the system cache", jnlpUrl);
+                return false;
+            }
+        }
+
+        makeReadableForAllUsers(systemCacheDir);
+        return success;
+    }
+
+    private boolean seed(final URL jnlpUrl, final VersionString version) throws IOException, ParseException, InterruptedException {
+        if (!seededJnlpFiles.add(jnlpUrl)) {
+            return true;
+        }
+
+        LOG.info("Adding {} to the system cache", jnlpUrl);
+        final JNLPFile jnlpFile = new JNLPFileFactory().create(jnlpUrl, jnlpUrl.toString(), version, new ParserSettings(), UpdatePolicy.ALWAYS);
+        final ResourceTracker tracker = new ResourceTracker(true, jnlpFile.getDownloadOptions(), UpdatePolicy.ALWAYS);
+
+        final List<URL> jars = new ArrayList<>();
+        for (final JARDesc jar : jnlpFile.getResources().getJARs()) {
+            if (jar.isCacheable() && isCacheable(jar.getLocation())) {
+                tracker.addResource(jar.getLocation(), jar.getVersion());
+                jars.add(jar.getLocation());
+            }
+        }
+        tracker.waitForResources(jars.toArray(new URL[0]));
+
+        boolean success = true;
+        for (final URL jar : jars) {
+            if (tracker.getCacheFile(jar) == null) {
+                LOG.error("Failed to add {} of {} to the system cache", jar, jnlpUrl);
+                success = false;
+            }
+        }
+
+        for (final ExtensionDesc extension : jnlpFile.getResources().getExtensions()) {
+            success &= seed(extension.getLocation(), extension.getVersion());
+        }
+        return success;
+    }
+
+    private static void makeReadableForAllUsers(final File file) {
+        if (!file.setReadable(true, false)) {
+            LOG.error("Cannot make {} readable for all users", file);
+        }
+        if (file.isDirectory()) {
+            if (!file.setExecutable(true, false)) {
+                LOG.error("Cannot make {} accessible for all users", file);
+            }
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (final File child : children) {
+                    makeReadableForAllUsers(child);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.adoptopenjdk.icedteaweb.client.console;
+
+import net.adoptopenjdk.icedteaweb.client.console.ConsoleOutputPaneModel.Line;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List model of the lines shown in a {@link ConsoleOutputPane}.
+ * <p>
+ * New lines are added at the beginning or at the end, lines of messages which were
+ * removed from the {@link net.sourceforge.jnlp.util.logging.ConsoleMessageStore} can be
+ * dropped. The list only fires events for the changed ranges, so the list view only
+ * repaints the visible rows.
+ */
+class ConsoleLineListModel extends AbstractListModel<Line> {
+
+    private final List<Line> lines = new ArrayList<>();
+    private int messageCount = 0;
+    private int maxLength = 0;
+
+    @Override
+    public int getSize() {
+        return lines.size();
+    }
+
+    @Override
+    public Line getElementAt(final int index) {
+        return lines.get(index);
+    }
+
+    /**
+     * @return number of messages the lines belong to
+     */
+    int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * @return length of the longest line ever added since the last {@link #replace(List)}
+     */
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    void replace(final List<Line> newLines) {
+        final int oldSize = lines.size();
+        lines.clear();
+        messageCount = 0;
+        maxLength = 0;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        append(newLines);
+    }
+
+    void append(final List<Line> newLines) {
+        if (newLines.isEmpty()) {
+            return;
+        }
+        final int first = lines.size();
+        lines.addAll(newLines);
+        count(newLines);
+        fireIntervalAdded(this, first, lines.size() - 1);
+    }
+
+    void prepend(final List<Line> newLines) {
+        if (newLines.isEmpty()) {
+            return;
+        }
+        lines.addAll(0, newLines);
+        count(newLines);
+        fireIntervalAdded(this, 0, newLines.size() - 1);
+    }
+
+    /**
+     * Removes the lines of all messages with a sequence number smaller than the given one.
+     */
+    void removeOlderThan(final long sequence) {
+        final int oldSize = lines.size();
+        final List<Line> kept = new ArrayList<>(oldSize);
+        for (Line line : lines) {
+            if (line.sequence >= sequence) {
+                kept.add(line);
+            } else if (line.firstLineOfMessage) {
+                messageCount--;
+            }
+        }
+        if (kept.size() == oldSize) {
+            return;
+        }
+        lines.clear();
+        lines.addAll(kept);
+        fireIntervalRemoved(this, kept.size(), oldSize - 1);
+        if (!kept.isEmpty()) {
+            fireContentsChanged(this, 0, kept.size() - 1);
+        }
+    }
+
+    private void count(final List<Line> newLines) {
+        for (Line line : newLines) {
+            if (line.firstLineOfMessage) {
+                messageCount++;
+            }
+            maxLength = Math.max(maxLength, line.text.length());
+        }
+    }
+}
@@ -6,42 +6,47 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.ui.swing.SwingUtils;
 import net.sourceforge.jnlp.util.logging.LogConfig;
+import net.sourceforge.jnlp.util.logging.OutputControllerLevel;
 import net.sourceforge.jnlp.util.logging.headers.ObservableMessagesProvider;
 
 import javax.swing.ButtonGroup;
 import javax.swing.DefaultComboBoxModel;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.GroupLayout;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
-import javax.swing.JEditorPane;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
-import javax.swing.JTextPane;
 import javax.swing.LayoutStyle;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DefaultHighlighter;
-import javax.swing.text.Document;
 import javax.swing.text.PlainDocument;
-import javax.swing.text.html.HTMLDocument;
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.IOException;
+import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -82,9 +87,10 @@ public class ConsoleOutputPane extends JPanel implements Observer {
     }
 
     private final ConsoleOutputPaneModel model;
+    private final ConsoleLineListModel lines = new ConsoleLineListModel();
+    private final LineRenderer lineRenderer = new LineRenderer();
+    private final WrappingLineRenderer wrappingLineRenderer = new WrappingLineRenderer();
     private int lastPosition; //index of search
-    private final DefaultHighlighter.DefaultHighlightPainter searchHighlight = new DefaultHighlighter.DefaultHighlightPainter(Color.blue);
-    private Object lastSearchTag;
 
     public ConsoleOutputPane(final ObservableMessagesProvider dataProvider) {
         model = new ConsoleOutputPaneModel(dataProvider);
@@ -130,7 +136,7 @@ public class ConsoleOutputPane extends JPanel implements Observer {
         revertSort = new JCheckBox();
         mark = new JCheckBox();
         jScrollPane1 = new JScrollPane();
-        jEditorPane1 = new JTextPane();
+        linesList = new JList<>(lines);
         showHide = new JButton();
         insertChars = new JPopupMenu();
         initComponents();
@@ -245,16 +251,11 @@ public class ConsoleOutputPane extends JPanel implements Observer {
     }
 
     private synchronized final void refreshPane() {
-        if (highLight.isSelected()) {
-            jEditorPane1.setContentType("text/html");
-        } else {
-            jEditorPane1.setContentType("text/plain");
-        }
-        model.lastUpdateIndex = 0;
+        model.lastUpdateSequence = 0;
         updatePane(true);
     }
     /**
-     * when various threads update (and it can be)underlying jeditorpane
+     * when various threads update (and it can be)underlying list
      * simultaneously, then it can lead to unpredictable issues synchronization
      * is done in invoke later
      */
@@ -279,34 +280,122 @@ public class ConsoleOutputPane extends JPanel implements Observer {
         });
     }
 
-    private final void refreshPaneBody(final boolean reset) throws BadLocationException, IOException {
+    private final void refreshPaneBody(final boolean reset) {
         if (reset) {
-            jEditorPane1.setText(model.importList(0));
+            lines.replace(model.createLines(0));
         } else {
-            final String s = model.importList();
-            if (highLight.isSelected()) {
-                HTMLDocument orig = (HTMLDocument) jEditorPane1.getDocument();
-                if (revertSort.isSelected()) {
-                    orig.insertAfterEnd(orig.getRootElements()[0].getElement(0)/*body*/, s);
-                } else {
-                    orig.insertBeforeEnd(orig.getRootElements()[0], s);
-                }
+            final List<ConsoleOutputPaneModel.Line> newLines = model.createLines(model.lastUpdateSequence);
+            lines.removeOlderThan(model.dataProvider.getMessageStore().getFirstSequence());
+            if (revertSort.isSelected()) {
+                lines.prepend(newLines);
             } else {
-                if (revertSort.isSelected()) {
-                    jEditorPane1.setText(s + jEditorPane1.getText());
-                } else {
-                    jEditorPane1.setText(jEditorPane1.getText() + s);
-                }
+                lines.append(newLines);
             }
         }
-        jEditorPane1.setCaretPosition(0);
-        //jEditorPane1.repaint();
+        updateCellSize();
+        if (reset) {
+            linesList.ensureIndexIsVisible(0);
+        }
         if (mark.isSelected()) {
             markActionPerformed(null);
         }
+        model.statisticsShown = lines.getMessageCount();
         statistics.setText(model.createStatisticHint());
     }
 
+    /**
+     * @return true if the line contains the text of the search field
+     */
+    private boolean isFound(final ConsoleOutputPaneModel.Line line) {
+        return countFound(line) > 0;
+    }
+
+    private int countFound(final ConsoleOutputPaneModel.Line line) {
+        final String find = caseSensitive.isSelected() ? search.getText() : search.getText().toLowerCase();
+        if (find.length() == 0) {
+            return 0;
+        }
+        final String text = caseSensitive.isSelected() ? line.text : line.text.toLowerCase();
+        int count = 0;
+        for (int index = text.indexOf(find); index >= 0; index = text.indexOf(find, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Colors the lines the same way as the html highlighting did, lines containing
+     * the search text get an orange background when marking is on.
+     */
+    private final class LineRenderer extends DefaultListCellRenderer {
+
+        @Override
+        public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            final ConsoleOutputPaneModel.Line line = (ConsoleOutputPaneModel.Line) value;
+            if (highLight.isSelected() && !isSelected) {
+                setForeground(lineColor(line));
+            }
+            if (mark.isSelected() && !isSelected && isFound(line)) {
+                setBackground(Color.orange);
+            }
+            return this;
+        }
+
+        private Color lineColor(final ConsoleOutputPaneModel.Line line) {
+            if (line.isClientApp) {
+                return line.level == OutputControllerLevel.ERROR ? COLOR_PURPLE : COLOR_GREEN;
+            }
+            if (line.level == OutputControllerLevel.WARN) {
+                return COLOR_GREENYELLOW;
+            }
+            if (line.level == OutputControllerLevel.ERROR) {
+                return COLOR_PINKYREAD;
+            }
+            return Color.black;
+        }
+    }
+
+    /**
+     * Renders a line wrapped at the width of the view, used when word wrap is on.
+     */
+    private final class WrappingLineRenderer extends JTextArea implements ListCellRenderer<ConsoleOutputPaneModel.Line> {
+
+        private WrappingLineRenderer() {
+            setLineWrap(true);
+            setWrapStyleWord(true);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(final JList<? extends ConsoleOutputPaneModel.Line> list, final ConsoleOutputPaneModel.Line value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+            final Component colored = lineRenderer.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            setFont(list.getFont());
+            setForeground(colored.getForeground());
+            setBackground(colored.getBackground());
+            setText(value.text);
+            // the preferred height is the height of the text wrapped at this width
+            setSize(list.getFixedCellWidth(), Short.MAX_VALUE);
+            return this;
+        }
+    }
+
+    /**
+     * Without word wrap all rows have the same height and are as wide as the longest line. With word
+     * wrap the rows are as wide as the view and every row is as high as its wrapped text.
+     */
+    private void updateCellSize() {
+        if (wordWrap.isSelected()) {
+            linesList.setFixedCellHeight(-1);
+            linesList.setFixedCellWidth(Math.max(1, jScrollPane1.getViewport().getExtentSize().width));
+            linesList.setCellRenderer(wrappingLineRenderer);
+        } else {
+            final FontMetrics metrics = linesList.getFontMetrics(linesList.getFont());
+            linesList.setFixedCellHeight(metrics.getHeight());
+            linesList.setFixedCellWidth(metrics.charWidth('m') * (lines.getMaxLength() + 1));
+            linesList.setCellRenderer(lineRenderer);
+        }
+    }
+
     private final void initComponents() {
         //this is crucial, otherwise PlainDocument implementation is replacing all \n by space
         ((PlainDocument)regExFilter.getDocument()).getDocumentProperties().remove("filterNewlines");
@@ -588,8 +677,18 @@ public class ConsoleOutputPane extends JPanel implements Observer {
                 addComponent(mark).
                 addComponent(next))).addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)));
 
-        jEditorPane1.setEditable(false);
-        jScrollPane1.setViewportView(jEditorPane1);
+        linesList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, linesList.getFont().getSize()));
+        updateCellSize();
+        linesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        jScrollPane1.setViewportView(linesList);
+        jScrollPane1.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(final ComponentEvent e) {
+                if (wordWrap.isSelected()) {
+                    updateCellSize();
+                }
+            }
+        });
 
         showHide.setText(Translator.R("ButHideDetails"));
         showHide.addActionListener(new ActionListener() {
@@ -715,86 +814,49 @@ public class ConsoleOutputPane extends JPanel implements Observer {
     }
 
     private final void markActionPerformed(final ActionEvent evt) {
-        int matches = 0;
-        if (!mark.isSelected()) {
-            jEditorPane1.getHighlighter().removeAllHighlights();
-            return;
-        }
-        try {
-            final Document document = jEditorPane1.getDocument();
-            final String find = search.getText();
-            if (find.length() == 0) {
-                jEditorPane1.getHighlighter().removeAllHighlights();
-                return;
-            }
-            for (int index = 0; index + find.length() < document.getLength(); index++) {
-                final String subMatch = document.getText(index, find.length());
-                if ((caseSensitive.isSelected() && find.equals(subMatch)) || (!caseSensitive.isSelected() && find.equalsIgnoreCase(subMatch))) {
-                    matches++;
-                    DefaultHighlighter.DefaultHighlightPainter highlightPainter =
-                            new DefaultHighlighter.DefaultHighlightPainter(Color.orange);
-                    jEditorPane1.getHighlighter().addHighlight(index, index + find.length(),
-                            highlightPainter);
-                }
+        if (mark.isSelected() && search.getText().length() > 0) {
+            int matches = 0;
+            for (int i = 0; i < lines.getSize(); i++) {
+                matches += countFound(lines.getElementAt(i));
             }
             mark.setText(Translator.R("COPmark") + "(" + matches + ")");
-        } catch (BadLocationException ex) {
-            LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, ex);
         }
+        linesList.repaint();
     }
 
     private final void previousActionPerformed(final ActionEvent evt) {
-        try {
-            final Document document = jEditorPane1.getDocument();
-            final String find = search.getText();
-            if (find.length() == 0) {
-                lastPosition = document.getLength() - find.length() - 1;
+        if (search.getText().length() == 0) {
+            lastPosition = lines.getSize() - 1;
+            return;
+        }
+        for (int index = Math.min(lastPosition, lines.getSize() - 1); index >= 0; index--) {
+            if (isFound(lines.getElementAt(index))) {
+                showFound(index);
+                lastPosition = index - 1;
                 return;
             }
-            for (int index = lastPosition; index >= 0; index--) {
-                final String subMatch = document.getText(index, find.length());
-                if ((caseSensitive.isSelected() && find.equals(subMatch)) || (!caseSensitive.isSelected() && find.equalsIgnoreCase(subMatch))) {
-                    if (lastSearchTag != null) {
-                        jEditorPane1.getHighlighter().removeHighlight(lastSearchTag);
-                    }
-                    lastSearchTag = jEditorPane1.getHighlighter().addHighlight(index, index + find.length(), searchHighlight);
-                    jEditorPane1.setCaretPosition(index);
-
-                    lastPosition = index - find.length() - 1;
-                    return;
-                }
-            }
-            lastPosition = document.getLength() - find.length() - 1;
-        } catch (BadLocationException ex) {
-            LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, ex);
         }
+        lastPosition = lines.getSize() - 1;
     }
 
     private final void nextActionPerformed(final ActionEvent evt) {
-        try {
-            final Document document = jEditorPane1.getDocument();
-            final String find = search.getText();
-            if (find.length() == 0) {
-                lastPosition = 0;
+        if (search.getText().length() == 0) {
+            lastPosition = 0;
+            return;
+        }
+        for (int index = Math.max(lastPosition, 0); index < lines.getSize(); index++) {
+            if (isFound(lines.getElementAt(index))) {
+                showFound(index);
+                lastPosition = index + 1;
                 return;
             }
-            for (int index = lastPosition; index + find.length() < document.getLength(); index++) {
-                final String subMatch = document.getText(index, find.length());
-                if ((caseSensitive.isSelected() && find.equals(subMatch)) || (!caseSensitive.isSelected() && find.equalsIgnoreCase(subMatch))) {
-                    if (lastSearchTag != null) {
-                        jEditorPane1.getHighlighter().removeHighlight(lastSearchTag);
-                    }
-                    lastSearchTag = jEditorPane1.getHighlighter().addHighlight(index, index + find.length(), searchHighlight);
-                    jEditorPane1.setCaretPosition(index);
-
-                    lastPosition = index + 1;
-                    return;
-                }
-            }
-            lastPosition = 0;
-        } catch (BadLocationException ex) {
-            LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, ex);
         }
+        lastPosition = 0;
+    }
+
+    private final void showFound(final int index) {
+        linesList.setSelectedIndex(index);
+        linesList.ensureIndexIsVisible(index);
     }
 
     private final void showHideActionPerformed(final ActionEvent evt) {
@@ -866,7 +928,7 @@ public class ConsoleOutputPane extends JPanel implements Observer {
     private final JButton copyPlain;
     private final JButton copyRich;
     private final JCheckBox highLight;
-    private final JEditorPane jEditorPane1;
+    private final JList<ConsoleOutputPaneModel.Line> linesList;
     private final JScrollPane jpanel2scrollpane;
     private final JPanel jPanel2;
     private final JScrollPane jScrollPane1;
@@ -903,4 +965,9 @@ public class ConsoleOutputPane extends JPanel implements Observer {
     private final JLabel statistics;
     private final JCheckBox wordWrap;
     private final JPopupMenu insertChars;
+
+    private static final Color COLOR_GREENYELLOW = new Color(0xAAAA00);
+    private static final Color COLOR_PINKYREAD = new Color(0xFF0055);
+    private static final Color COLOR_GREEN = new Color(0x669966);
+    private static final Color COLOR_PURPLE = new Color(0x990066);
 }
@@ -1,5 +1,6 @@
 package net.adoptopenjdk.icedteaweb.client.console;
 
+import net.sourceforge.jnlp.util.logging.ConsoleMessageStore;
 import net.sourceforge.jnlp.util.logging.OutputControllerLevel;
 import net.sourceforge.jnlp.util.logging.headers.Header;
 import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
@@ -9,9 +10,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingLong;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.DEBUG;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.ERROR;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
@@ -24,8 +27,12 @@ public class ConsoleOutputPaneModel {
     }
 
     boolean shouldUpdate() {
-        for (int i = lastUpdateIndex; i < dataProvider.getData().size(); i++) {
-            if (!filtered(dataProvider.getData().get(i))) {
+        final ConsoleMessageStore data = dataProvider.getMessageStore();
+        if (!regExLabel) {
+            return data.hasEntriesSince(lastUpdateSequence, this::acceptsCategory);
+        }
+        for (ConsoleMessageStore.Entry entry : data.getEntries(lastUpdateSequence, this::acceptsCategory)) {
+            if (!filtered(entry.getMessage())) {
                 return true;
             }
         }
@@ -60,7 +67,7 @@ public class ConsoleOutputPaneModel {
     ObservableMessagesProvider dataProvider;
     Pattern lastValidPattern = defaultPattern;
     Pattern usedPattern = lastValidPattern;
-    int lastUpdateIndex; //to add just what was added newly
+    long lastUpdateSequence; //to add just what was added newly
     int statisticsShown;
     private static final String HTMLCOLOR_GREENYELLOW = "AAAA00";
     private static final String HTMLCOLOR_PINKYREAD = "FF0055";
@@ -68,19 +75,19 @@ public class ConsoleOutputPaneModel {
     private static final String HTMLCOLOR_GREEN = "669966";
     private static final String HTMLCOLOR_PURPLE = "990066";
     String importList() {
-        return importList(lastUpdateIndex);
+        return importList(lastUpdateSequence);
     }
 
-    String importList(int start) {
+    String importList(long start) {
         return importList(highLight, start);
     }
 
-    String importList(boolean mark, int start) {
+    String importList(boolean mark, long start) {
         return  importList(mark, start, sortBy);
     }
 
-    String importList(boolean mark, int start, int sortByLocal) {
-        int added = start;
+    String importList(boolean mark, long start, int sortByLocal) {
+        int added = 0;
         StringBuilder sb = new StringBuilder();
         if (mark) {
             sb.append("<div style='");
@@ -90,15 +97,11 @@ public class ConsoleOutputPaneModel {
             sb.append("font-family:\"Monospaced\"'>");
         }
 
-        List<MessageWithHeader> sortedList;
-        synchronized (dataProvider.getData()) {
-            if (start == 0) {
-                sortedList = preSort(dataProvider.getData(), sortByLocal);
-            } else {
-                sortedList = preSort(Collections.synchronizedList(dataProvider.getData().subList(start, dataProvider.getData().size())), sortByLocal);
-            }
+        final List<MessageWithHeader> sortedList = new ArrayList<>();
+        for (ConsoleMessageStore.Entry entry : collectNewEntries(start)) {
+            sortedList.add(entry.getMessage());
         }
-        lastUpdateIndex = dataProvider.getData().size();
+        sort(sortedList, sortByLocal, m -> m);
 
         for (MessageWithHeader messageWithHeader : sortedList) {
             if (filtered(messageWithHeader)) {
@@ -150,6 +153,38 @@ public class ConsoleOutputPaneModel {
 
     }
 
+    /**
+     * Creates the lines for the list view, a message with several lines results in several list entries.
+     *
+     * @param start sequence number of the first message to add
+     * @return the lines of the messages which are not filtered out, sorted according to {@link #sortBy}
+     */
+    List<Line> createLines(long start) {
+        final List<ConsoleMessageStore.Entry> entries = collectNewEntries(start);
+        sort(entries, sortBy, ConsoleMessageStore.Entry::getMessage);
+        final List<Line> lines = new ArrayList<>();
+        for (ConsoleMessageStore.Entry entry : entries) {
+            final MessageWithHeader messageWithHeader = entry.getMessage();
+            if (filtered(messageWithHeader)) {
+                continue;
+            }
+            final Header header = messageWithHeader.getHeader();
+            final String[] texts = createLine(messageWithHeader).split("\n", -1);
+            for (int i = 0; i < texts.length; i++) {
+                lines.add(new Line(texts[i].replace("\t", "    "), entry.getSequence(), i == 0, header.level, header.isClientApp));
+            }
+        }
+        return lines;
+    }
+
+    private List<ConsoleMessageStore.Entry> collectNewEntries(long start) {
+        final ConsoleMessageStore data = dataProvider.getMessageStore();
+        synchronized (data) {
+            lastUpdateSequence = data.getNextSequence();
+            return data.getEntries(start, this::acceptsCategory);
+        }
+    }
+
     public static String escapeHtmlForJTextPane(String line) {
         line = line.replaceAll("<", "&lt;")
                 .replaceAll(">", "&gt;")
@@ -181,66 +216,83 @@ public class ConsoleOutputPaneModel {
 
     List<MessageWithHeader> preSort(List<MessageWithHeader> data, int sortByLocal) {
         final List<MessageWithHeader> sortedData = new ArrayList<>(data);
+        sort(sortedData, sortByLocal, m -> m);
+        return Collections.synchronizedList(sortedData);
+    }
+
+    /**
+     * Sorts a list which is in the order of arrival of the messages.
+     */
+    private <T> void sort(List<T> data, int sortByLocal, Function<T, MessageWithHeader> toMessage) {
+        if (sortByLocal == 0) {
+            if (revertSort) {
+                Collections.reverse(data);
+            }
+        } else {
+            data.sort(comparing(toMessage, createComparator(sortByLocal)));
+        }
+    }
+
+    /**
+     * @return comparator for the given sort column
+     */
+    private Comparator<MessageWithHeader> createComparator(int sortByLocal) {
         switch (sortByLocal) {
-            case 0:
-                if (revertSort) {
-                    Collections.reverse(sortedData);
-                }
-                break;
             case 1:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.osUser)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.osUser));
             case 2:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.isClientApp)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.isClientApp));
             case 3:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.level)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.level));
             case 4:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.timestampForSorting)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparingLong(h -> h.timestampMillis));
             case 5:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.callerClass)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.callerClass));
             case 6:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.threadHash)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.threadHash));
             case 7:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(null) {
+                return new CatchedMessageWithHeaderComparator(null) {
                     @Override
                     public int body(MessageWithHeader o1, MessageWithHeader o2) {
                         return o1.getMessage().compareTo(o2.getMessage());
                     }
-                });
-                break;
+                };
             case 8:
-                sortedData.sort(new CatchedMessageWithHeaderComparator(comparing(h -> h.threadName)));
-                break;
+                return new CatchedMessageWithHeaderComparator(comparing(h -> h.threadName));
+            default:
+                throw new IllegalArgumentException("Unknown sort column " + sortByLocal);
         }
-
-        return Collections.synchronizedList(sortedData);
     }
 
-    boolean filtered(MessageWithHeader m) {
-        final Header header = m.getHeader();
-        final OutputControllerLevel level = header.level;
-
+    /**
+     * Filtering by level and origin is done by the indexes of the {@link ConsoleMessageStore}.
+     */
+    boolean acceptsCategory(OutputControllerLevel level, boolean isClientApp) {
         if (!showOut && !level.printToErrStream()) {
-            return true;
+            return false;
         }
         if (!showErr && !level.printToOutStream()) {
-            return true;
+            return false;
         }
         if (!showDebug && level == DEBUG) {
-            return true;
+            return false;
         }
         if (!showInfo && level == INFO) {
-            return true;
+            return false;
         }
-        if (!showItw && !header.isClientApp) {
-            return true;
+        if (!showItw && !isClientApp) {
+            return false;
+        }
+        if (!showApp && isClientApp) {
+            return false;
         }
-        if (!showApp && header.isClientApp) {
+        return true;
+    }
+
+    boolean filtered(MessageWithHeader m) {
+        final Header header = m.getHeader();
+
+        if (!acceptsCategory(header.level, header.isClientApp)) {
             return true;
         }
         if (regExLabel) {
@@ -254,7 +306,33 @@ public class ConsoleOutputPaneModel {
     }
 
     String createStatisticHint() {
-        return statisticsShown + "/" + dataProvider.getData().size();
+        final ConsoleMessageStore data = dataProvider.getMessageStore();
+        final long spilled = data.getSpilledCount();
+        return statisticsShown + "/" + data.size() + (spilled > 0 ? " (+" + spilled + " in " + data.getSpillFile().getName() + ")" : "");
+    }
+
+    /**
+     * One line of a message as shown in the list view.
+     */
+    static final class Line {
+        final String text;
+        final long sequence;
+        final boolean firstLineOfMessage;
+        final OutputControllerLevel level;
+        final boolean isClientApp;
+
+        Line(String text, long sequence, boolean firstLineOfMessage, OutputControllerLevel level, boolean isClientApp) {
+            this.text = text;
+            this.sequence = sequence;
+            this.firstLineOfMessage = firstLineOfMessage;
+            this.level = level;
+            this.isClientApp = isClientApp;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
     }
     boolean highLight;
     boolean matchPattern;
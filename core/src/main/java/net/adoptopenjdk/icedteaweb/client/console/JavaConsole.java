@@ -40,6 +40,8 @@ import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.util.ImageResources;
+import net.sourceforge.jnlp.util.logging.ConsoleMessageStore;
+import net.sourceforge.jnlp.util.logging.FileLog;
 import net.sourceforge.jnlp.util.logging.LogConfig;
 import net.sourceforge.jnlp.util.logging.TeeOutputStream;
 import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
@@ -55,6 +57,7 @@ import javax.swing.JPanel;
 import javax.swing.JSpinner;
 import javax.swing.JSplitPane;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.text.DefaultFormatter;
@@ -67,6 +70,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -76,6 +80,7 @@ import java.util.Map;
 import java.util.Observable;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
 
@@ -86,7 +91,14 @@ public class JavaConsole implements ObservableMessagesProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(JavaConsole.class);
 
-    private final List<MessageWithHeader> rawData = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Minimal delay between two refreshes of the outputs, caps the refresh rate to 10 per second.
+     */
+    private static final int REFRESH_DELAY_MILLIS = 100;
+
+    private final ConsoleMessageStore rawData = createMessageStore();
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+    private final Timer refreshTimer = new Timer(REFRESH_DELAY_MILLIS, e -> refresh());
     private final List<ConsoleOutputPane> outputs = new ArrayList<>();
     private final PublicObservable observable = new PublicObservable();
 
@@ -106,10 +118,29 @@ public class JavaConsole implements ObservableMessagesProvider {
         // internal stdOut/Err are going through outLog/errLog
         // when console is off, those tees are not installed
 
+        refreshTimer.setRepeats(false);
+
         // initialize SwingUtils
         updateModel();
     }
 
+    private static ConsoleMessageStore createMessageStore() {
+        final DeploymentConfiguration config = JNLPRuntime.getConfiguration();
+        int capacity;
+        try {
+            capacity = Integer.parseInt(config.getProperty(ConfigurationConstants.KEY_CONSOLE_BUFFER_SIZE));
+        } catch (NumberFormatException e) {
+            capacity = 10000;
+        }
+        final String logDir = LogConfig.getLogConfig().getIcedteaLogDir();
+        final boolean spill = LogConfig.getLogConfig().isLogToFile()
+                && Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_CONSOLE_BUFFER_SPILL));
+        final File spillFile = spill && logDir != null
+                ? new File(logDir + FileLog.getConsoleSpillFileName())
+                : null;
+        return new ConsoleMessageStore(Math.max(1, capacity), spillFile);
+    }
+
     private TeeOutputStream teeOutStream(final PrintStream original) {
         return new TeeOutputStream(original, false);
     }
@@ -391,10 +422,8 @@ public class JavaConsole implements ObservableMessagesProvider {
 
             @Override
             public void actionPerformed(final ActionEvent e) {
-                synchronized (rawData) {
-                    rawData.clear();
-                    updateModel(true);
-                }
+                rawData.clear();
+                updateModel(true);
             }
         });
 
@@ -444,6 +473,7 @@ public class JavaConsole implements ObservableMessagesProvider {
         consoleWindow.setModal(false);
         consoleWindow.setVisible(false);
         consoleWindow.dispose();
+        rawData.closeSpill();
     }
 
     public void showConsoleLater() {
@@ -530,8 +560,17 @@ public class JavaConsole implements ObservableMessagesProvider {
 
     }
 
-    public synchronized void addMessage(MessageWithHeader m) {
+    public void addMessage(MessageWithHeader m) {
         rawData.add(m);
+        // coalesce the refreshes of many messages arriving in a short time
+        if (refreshPending.compareAndSet(false, true)) {
+            SwingUtils.invokeLater(refreshTimer::restart);
+        }
+    }
+
+    private void refresh() {
+        refreshPending.set(false);
+        rawData.flushSpill();
         updateModel();
     }
 
@@ -558,6 +597,11 @@ public class JavaConsole implements ObservableMessagesProvider {
 
     @Override
     public List<MessageWithHeader> getData() {
+        return rawData.getMessages();
+    }
+
+    @Override
+    public ConsoleMessageStore getMessageStore() {
         return rawData;
     }
 
@@ -49,7 +49,10 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
 
@@ -233,6 +236,11 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
         /** list of ProgressPanels */
         private final List<ProgressPanel> panels = new ArrayList<>();
 
+        /** latest progress per URL not yet shown, in order of arrival */
+        private final Map<String, Progress> pendingProgress = new LinkedHashMap<>();
+        private int pendingOverallPercent;
+        private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
         /**
          * Create a new download panel for with the specified download
          * name.
@@ -323,21 +331,47 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
         }
 
         /**
-         * Update the download progress of a url.
+         * Update the download progress of a url. Only the latest progress of each url is kept
+         * until the event dispatch thread gets to show it.
          */
         protected void update(final URL url, final String version,
                               final long readSoFar, final long total,
                               final int overallPercent) {
-            SwingUtils.invokeLater(() -> {
-                if (!urls.contains(url))
-                    addProgressPanel(url, version);
+            synchronized (pendingProgress) {
+                pendingProgress.put(url.toExternalForm(), new Progress(url, version, readSoFar, total));
+                pendingOverallPercent = overallPercent;
+            }
+            if (updateScheduled.compareAndSet(false, true)) {
+                SwingUtils.invokeLater(this::showPendingProgress);
+            }
+        }
 
-                setOverallPercent(overallPercent);
-                ProgressPanel panel = panels.get(urls.indexOf(url));
-                panel.setProgress(readSoFar, total);
-                panel.repaint();
+        /**
+         * Shows the latest progress snapshot, called via invokeLater.
+         */
+        private void showPendingProgress() {
+            updateScheduled.set(false);
+            final List<Progress> snapshot;
+            final int overallPercent;
+            synchronized (pendingProgress) {
+                snapshot = new ArrayList<>(pendingProgress.values());
+                overallPercent = pendingOverallPercent;
+                pendingProgress.clear();
+            }
+            if (snapshot.isEmpty()) {
+                return;
+            }
 
-            });
+            for (Progress progress : snapshot) {
+                if (!urls.contains(progress.url))
+                    addProgressPanel(progress.url, progress.version);
+            }
+            setOverallPercent(overallPercent);
+            for (Progress progress : snapshot) {
+                ProgressPanel panel = panels.get(urls.indexOf(progress.url));
+                panel.setProgress(progress.readSoFar, progress.total);
+                panel.repaint();
+            }
         }
 
         /**
@@ -403,6 +437,23 @@ public class DefaultDownloadIndicator implements DownloadIndicator {
 
     }
 
+    /**
+     * Snapshot of the progress of a single download.
+     */
+    private static class Progress {
+        private final URL url;
+        private final String version;
+        private final long readSoFar;
+        private final long total;
+
+        private Progress(final URL url, final String version, final long readSoFar, final long total) {
+            this.url = url;
+            this.version = version;
+            this.readSoFar = readSoFar;
+            this.total = total;
+        }
+    }
+
     /**
      * A progress bar with the URL next to it.
      */
@@ -138,6 +138,14 @@ public class ManifestAttributesChecker {
         }
     }
 
+    /**
+     * The reader keeps the snapshot, so the jars are read and the codebase matchers are
+     * compiled only once for all checks.
+     */
+    private ManifestAttributesSnapshot getAttributes() {
+        return file.getManifestAttributesReader().getSnapshot();
+    }
+
     public static List<MANIFEST_ATTRIBUTES_CHECK> getAttributesCheck() {
         final List<String> configs = JNLPRuntime.getConfiguration().getPropertyAsList(ConfigurationConstants.KEY_ENABLE_MANIFEST_ATTRIBUTES_CHECK);
         List<MANIFEST_ATTRIBUTES_CHECK> manifestAttributesCheckList = new ArrayList<>();
@@ -166,7 +174,7 @@ public class ManifestAttributesChecker {
             LOG.debug("Entry-Point can not be checked now, because of unknown main class.");
             return;
         }
-        final String[] eps = file.getManifestAttributesReader().getEntryPoints();
+        final String[] eps = getAttributes().getEntryPoints();
         String mainClass = file.getEntryPointDesc().getMainClass();
         if (eps == null) {
             LOG.debug("Entry-Point manifest attribute for yours '{}' not found. Continuing.", mainClass);
@@ -178,14 +186,14 @@ public class ManifestAttributesChecker {
                 return;
             }
         }
-        throw new LaunchException("None of the entry points specified: '" + file.getManifestAttributesReader().getEntryPoint() + "' matched the main class " + mainClass + " and applet is signed. This is a security error and the app will not be launched.");
+        throw new LaunchException("None of the entry points specified: '" + getAttributes().getEntryPoint() + "' matched the main class " + mainClass + " and applet is signed. This is a security error and the app will not be launched.");
     }
 
     /**
      * http://docs.oracle.com/javase/7/docs/technotes/guides/jweb/security/manifest.html#trusted_only
      */
     private void checkTrustedOnlyAttribute() throws LaunchException {
-        final ManifestBoolean trustedOnly = file.getManifestAttributesReader().isTrustedOnly();
+        final ManifestBoolean trustedOnly = getAttributes().isTrustedOnly();
         if (trustedOnly == ManifestBoolean.UNDEFINED) {
             LOG.debug("Trusted Only manifest attribute not found. Continuing.");
             return;
@@ -239,7 +247,7 @@ public class ManifestAttributesChecker {
         }
         final Object securityType = security.getSecurityType();
         final URL codebase = UrlUtils.guessCodeBase(file);
-        final ClasspathMatchers codebaseAtt = file.getManifestAttributesReader().getCodebase();
+        final ClasspathMatchers codebaseAtt = getAttributes().getCodebase();
         if (codebaseAtt == null) {
             LOG.warn("This application does not specify a Codebase in its manifest. Please verify with the applet''s vendor. Continuing. See: http://docs.oracle.com/javase/7/docs/technotes/guides/jweb/security/no_redeploy.html for details.");
             return;
@@ -386,7 +394,7 @@ public class ManifestAttributesChecker {
         final ClasspathMatchers att;
         if (signing != SigningState.NONE) {
             // we only consider values in manifest for signed apps (as they may be faked)
-            att = file.getManifestAttributesReader().getApplicationLibraryAllowableCodebase();
+            att = getAttributes().getApplicationLibraryAllowableCodebase();
         } else {
             att = null;
         }
@@ -446,7 +454,7 @@ public class ManifestAttributesChecker {
     }
 
     private String permissionsToString() {
-        final String value = file.getManifestAttributesReader().getPermissions();
+        final String value = getAttributes().getPermissions();
         if (value == null) {
             return "Not defined";
         } else if (value.trim().equalsIgnoreCase(AppletPermissionLevel.SANDBOX.getValue())) {
@@ -459,7 +467,7 @@ public class ManifestAttributesChecker {
     }
 
     private ManifestBoolean isSandboxForced() {
-        final String permissionLevel = file.getManifestAttributesReader().getPermissions();
+        final String permissionLevel = getAttributes().getPermissions();
         if (permissionLevel == null) {
             return ManifestBoolean.UNDEFINED;
         } else if (permissionLevel.trim().equalsIgnoreCase(AppletPermissionLevel.SANDBOX.getValue())) {
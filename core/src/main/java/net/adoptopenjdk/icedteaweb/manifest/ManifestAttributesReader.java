@@ -25,15 +25,21 @@ import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.runtime.classloader.JNLPClassLoader;
 import net.sourceforge.jnlp.util.ClasspathMatcher;
-import net.sourceforge.jnlp.util.JarFile;
 
 import java.io.File;
-import java.io.IOException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.jar.Attributes.Name;
 import java.util.jar.Manifest;
 
@@ -48,6 +54,7 @@ public class ManifestAttributesReader {
 
     private final JNLPFile jnlpFile;
     private JNLPClassLoader loader;
+    private volatile ManifestAttributesSnapshot snapshot;
 
     public ManifestAttributesReader(final JNLPFile jnlpFile) {
         this.jnlpFile = jnlpFile;
@@ -55,12 +62,54 @@ public class ManifestAttributesReader {
 
     public void setLoader(JNLPClassLoader loader) {
         this.loader = loader;
+        this.snapshot = null;
     }
 
     public boolean isLoader() {
         return loader != null;
     }
 
+    /**
+     * Returns the values of all {@link ManifestAttributes} of the application. The attributes are
+     * read in a single pass over the jars. The snapshot is kept until another loader is set, unless
+     * a jar was not available, then it is read again on the next call.
+     *
+     * @return the attribute values, {@link ManifestAttributesSnapshot#EMPTY} if the jars are not ready
+     */
+    public ManifestAttributesSnapshot getSnapshot() {
+        final JNLPClassLoader currentLoader = loader;
+        if (currentLoader == null) {
+            LOG.debug("Jars not ready to provide manifest attributes");
+            return ManifestAttributesSnapshot.EMPTY;
+        }
+        ManifestAttributesSnapshot result = snapshot;
+        if (result == null) {
+            result = readSnapshot(Arrays.asList(jnlpFile.getResources().getJARs()), currentLoader.getTracker()::getCacheFile);
+            if (result.isComplete()) {
+                snapshot = result;
+            }
+        }
+        return result;
+    }
+
+    static ManifestAttributesSnapshot readSnapshot(final List<JARDesc> jars, final Function<URL, File> cacheFiles) {
+        final Map<Name, ManifestAttributes> names = new HashMap<>();
+        for (ManifestAttributes attribute : ManifestAttributes.values()) {
+            names.put(new Name(attribute.toString()), attribute);
+        }
+        final AtomicBoolean complete = new AtomicBoolean(true);
+        final Function<URL, File> recordingCacheFiles = location -> {
+            final File file = cacheFiles.apply(location);
+            if (file == null) {
+                complete.set(false);
+            }
+            return file;
+        };
+        final Map<ManifestAttributes, String> values = new EnumMap<>(ManifestAttributes.class);
+        getAttributesFromJars(names.keySet(), jars, recordingCacheFiles).forEach((name, value) -> values.put(names.get(name), value));
+        return new ManifestAttributesSnapshot(values, complete.get());
+    }
+
     /**
      * main class can be defined outside of manifest.
      * This method is mostly for completeness
@@ -83,7 +132,7 @@ public class ManifestAttributesReader {
      * @return the Entry-Point manifest attribute value
      */
     public String getEntryPoint() {
-        return getAttribute(ManifestAttributes.ENTRY_POINT.toString());
+        return getSnapshot().getEntryPoint();
     }
 
     /**
@@ -114,7 +163,7 @@ public class ManifestAttributesReader {
      * @return value of Application-Name manifest attribute
      */
     public String getApplicationName() {
-        return getAttribute(ManifestAttributes.APPLICATION_NAME.toString());
+        return getSnapshot().getApplicationName();
     }
 
     /**
@@ -125,7 +174,7 @@ public class ManifestAttributesReader {
      * @return values of Caller-Allowable-Codebase manifest attribute
      */
     public ClasspathMatcher.ClasspathMatchers getCallerAllowableCodebase() {
-        return getCodeBaseMatchersAttribute(ManifestAttributes.CALLER_ALLOWABLE_CODEBASE.toString(), false);
+        return getSnapshot().getCallerAllowableCodebase();
     }
 
     /**
@@ -135,7 +184,7 @@ public class ManifestAttributesReader {
      * @return values of Application-Library-Allowable-Codebase manifest attribute
      */
     public ClasspathMatcher.ClasspathMatchers getApplicationLibraryAllowableCodebase() {
-        return getCodeBaseMatchersAttribute(ManifestAttributes.APPLICATION_LIBRARY_ALLOWABLE_CODEBASE.toString(), true);
+        return getSnapshot().getApplicationLibraryAllowableCodebase();
     }
 
     /**
@@ -146,15 +195,7 @@ public class ManifestAttributesReader {
      * @return values of Codebase manifest attribute
      */
     public ClasspathMatcher.ClasspathMatchers getCodebase() {
-        return getCodeBaseMatchersAttribute(ManifestAttributes.CODEBASE.toString(), false);
-    }
-
-    private ClasspathMatcher.ClasspathMatchers getCodeBaseMatchersAttribute(final String name, final boolean includePath) {
-        final String value = getAttribute(name);
-        if (value == null) {
-            return null;
-        }
-        return ClasspathMatcher.ClasspathMatchers.compile(value, includePath);
+        return getSnapshot().getCodebase();
     }
 
     /**
@@ -164,7 +205,7 @@ public class ManifestAttributesReader {
      * @return value of Trusted-Only manifest attribute
      */
     public ManifestBoolean isTrustedOnly() {
-        return getBooleanAttribute(ManifestAttributes.TRUSTED_ONLY.toString());
+        return getSnapshot().isTrustedOnly();
     }
 
     /**
@@ -174,7 +215,7 @@ public class ManifestAttributesReader {
      * @return value of Trusted-Library manifest attribute
      */
     public ManifestBoolean isTrustedLibrary() {
-        return getBooleanAttribute(ManifestAttributes.TRUSTED_LIBRARY.toString());
+        return getSnapshot().isTrustedLibrary();
     }
 
     /**
@@ -184,14 +225,7 @@ public class ManifestAttributesReader {
      * @return value of Permissions manifest attribute
      */
     public String getPermissions() {
-        return getAttribute(ManifestAttributes.PERMISSIONS.toString());
-    }
-
-    /**
-     * Get the manifest attribute value.
-     */
-    private String getAttribute(final String name) {
-        return getAttribute(new Name(name));
+        return getSnapshot().getPermissions();
     }
 
     /**
@@ -208,23 +242,6 @@ public class ManifestAttributesReader {
         return getAttributeFromJars(name, Arrays.asList(jnlpFile.getResources().getJARs()), loader.getTracker());
     }
 
-    private ManifestBoolean getBooleanAttribute(final String name) throws IllegalArgumentException {
-        String value = getAttribute(name);
-        if (value == null) {
-            return ManifestBoolean.UNDEFINED;
-        } else {
-            value = value.toLowerCase().trim();
-            switch (value) {
-                case "true":
-                    return  ManifestBoolean.TRUE;
-                case "false":
-                    return ManifestBoolean.FALSE;
-                default:
-                    throw new IllegalArgumentException("Unknown value of " + name + " attribute " + value + ". Expected true or false");
-            }
-        }
-    }
-
     /**
      * Returns the value of the specified manifest attribute name. To do so, the given jar files
      * are consulted in the following order: "main" jar in the given list, first jar in the given list,
@@ -236,43 +253,88 @@ public class ManifestAttributesReader {
      * @return the attribute value, null if no attribute could be found for some reason
      */
     public static String getAttributeFromJars(final Name name, final List<JARDesc> jars, final ResourceTracker tracker) {
+        return getAttributesFromJars(Collections.singleton(name), jars, tracker).get(name);
+    }
+
+    /**
+     * Returns the values of the specified manifest attribute names, resolving each of them as
+     * described in {@link #getAttributeFromJars(Name, List, ResourceTracker)}. Each jar is
+     * looked up only once for all attributes.
+     *
+     * @param names attributes to be found
+     * @param jars Jars that are checked to see if they contain the attributes
+     * @param tracker tracker to use for the jar file lookup
+     * @return the attribute values, attributes which could not be found are missing
+     */
+    public static Map<Name, String> getAttributesFromJars(final Collection<Name> names, final List<JARDesc> jars, final ResourceTracker tracker) {
+        return getAttributesFromJars(names, jars, tracker::getCacheFile);
+    }
+
+    /**
+     * @param cacheFiles provides the local file of a jar, {@code null} if the jar is not available
+     */
+    static Map<Name, String> getAttributesFromJars(final Collection<Name> names, final List<JARDesc> jars, final Function<URL, File> cacheFiles) {
+        final Map<Name, String> result = new HashMap<>();
         if (jars.isEmpty()) {
-            return null;
+            return result;
         }
 
         // Check main jar
         final JARDesc mainJarDesc = ResourcesDesc.getMainJAR(jars);
         if (mainJarDesc == null) {
-            return null;
-        }
-        String result = getAttributeFromJar(name, mainJarDesc.getLocation(), tracker);
-        if (result != null) {
             return result;
         }
+        final Set<Name> missing = new LinkedHashSet<>(names);
+        readAttributesFromJar(missing, mainJarDesc.getLocation(), cacheFiles, result);
 
         // Check first jar
-        JARDesc firstJarDesc = jars.get(0);
-        result = getAttributeFromJar(name, firstJarDesc.getLocation(), tracker);
-
-        if (result != null) {
-            return result;
+        if (!missing.isEmpty()) {
+            readAttributesFromJar(missing, jars.get(0).getLocation(), cacheFiles, result);
         }
 
         // Still not found? Iterate and set if only 1 was found
-        for (JARDesc jarDesc : jars) {
-            final String attributeInThisJar = getAttributeFromJar(name, jarDesc.getLocation(), tracker);
-            if (attributeInThisJar != null) {
-                if (result == null) { // first main class
-                    result = attributeInThisJar;
-                } else { // There is more than one main class. Set to null and break.
-                    result = null;
+        if (!missing.isEmpty()) {
+            final Map<Name, String> found = new HashMap<>();
+            final Set<Name> ambiguous = new HashSet<>();
+            for (JARDesc jarDesc : jars) {
+                final File file = cacheFiles.apply(jarDesc.getLocation());
+                if (file == null) {
+                    continue;
+                }
+                for (Name name : missing) {
+                    final String attributeInThisJar = ManifestCache.getInstance().getMainAttribute(file, name);
+                    if (attributeInThisJar != null && !ambiguous.contains(name)) {
+                        if (found.remove(name) != null) { // There is more than one value, ignore it
+                            ambiguous.add(name);
+                        } else {
+                            found.put(name, attributeInThisJar);
+                        }
+                    }
+                }
+                if (ambiguous.containsAll(missing)) {
                     break;
                 }
             }
+            result.putAll(found);
         }
         return result;
     }
 
+    private static void readAttributesFromJar(final Set<Name> missing, final URL location, final Function<URL, File> cacheFiles, final Map<Name, String> result) {
+        final File file = cacheFiles.apply(location);
+        if (file == null) {
+            return;
+        }
+        missing.removeIf(name -> {
+            final String value = ManifestCache.getInstance().getMainAttribute(file, name);
+            if (value != null) {
+                result.put(name, value);
+                return true;
+            }
+            return false;
+        });
+    }
+
     /**
      * Returns the value of the specified manifest attribute name, or null if the JAR referenced by the given location URL
      * does not contain a manifest or the attribute could not not be found in the manifest.
@@ -289,20 +351,10 @@ public class ManifestAttributesReader {
         Assert.requireNonNull(tracker, "tracker");
 
         final File file = tracker.getCacheFile(location);
-
-        if (file != null) {
-            try (JarFile mainJar = new JarFile(file)) {
-                final Manifest manifest = mainJar.getManifest();
-                if (manifest == null || manifest.getMainAttributes() == null) {
-                    //yes, jars without manifest exists
-                    return null;
-                }
-                return manifest.getMainAttributes().getValue(name);
-            } catch (IOException ioe) {
-                return null;
-            }
+        if (file == null) {
+            return null;
         }
-        return null;
+        return ManifestCache.getInstance().getMainAttribute(file, name);
     }
 
     /**
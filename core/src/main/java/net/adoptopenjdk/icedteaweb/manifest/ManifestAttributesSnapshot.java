@@ -0,0 +1,124 @@
+package net.adoptopenjdk.icedteaweb.manifest;
+
+import net.sourceforge.jnlp.util.ClasspathMatcher.ClasspathMatchers;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.APPLICATION_LIBRARY_ALLOWABLE_CODEBASE;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.APPLICATION_NAME;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.CALLER_ALLOWABLE_CODEBASE;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.CODEBASE;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.ENTRY_POINT;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.PERMISSIONS;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.TRUSTED_LIBRARY;
+import static net.adoptopenjdk.icedteaweb.manifest.ManifestAttributes.TRUSTED_ONLY;
+
+/**
+ * The values of all {@link ManifestAttributes} of an application, read in a single pass over its jars.
+ * <p>
+ * The codebase attributes are compiled to {@link ClasspathMatchers} once when the snapshot is
+ * created, so all checks using them share the same compiled matchers.
+ */
+public final class ManifestAttributesSnapshot {
+
+    /**
+     * Snapshot of an application whose jars are not available (yet).
+     */
+    public static final ManifestAttributesSnapshot EMPTY = new ManifestAttributesSnapshot(Collections.emptyMap(), false);
+
+    private final Map<ManifestAttributes, String> values;
+    private final boolean complete;
+    private final ClasspathMatchers codebase;
+    private final ClasspathMatchers applicationLibraryAllowableCodebase;
+    private final ClasspathMatchers callerAllowableCodebase;
+
+    /**
+     * @param values   the values of the attributes, attributes which are not defined are missing
+     * @param complete whether all jars were available when the values were read
+     */
+    ManifestAttributesSnapshot(final Map<ManifestAttributes, String> values, final boolean complete) {
+        this.values = values.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new EnumMap<>(values));
+        this.complete = complete;
+        this.codebase = compile(CODEBASE, false);
+        this.applicationLibraryAllowableCodebase = compile(APPLICATION_LIBRARY_ALLOWABLE_CODEBASE, true);
+        this.callerAllowableCodebase = compile(CALLER_ALLOWABLE_CODEBASE, false);
+    }
+
+    private ClasspathMatchers compile(final ManifestAttributes attribute, final boolean includePath) {
+        final String value = values.get(attribute);
+        return value != null ? ClasspathMatchers.compile(value, includePath) : null;
+    }
+
+    /**
+     * @return true if all jars were available when the values were read
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the raw value of the attribute, {@code null} if it is not defined
+     */
+    public String get(final ManifestAttributes attribute) {
+        return values.get(attribute);
+    }
+
+    public String getEntryPoint() {
+        return values.get(ENTRY_POINT);
+    }
+
+    public String[] getEntryPoints() {
+        return ManifestAttributesReader.splitEntryPoints(getEntryPoint());
+    }
+
+    public String getApplicationName() {
+        return values.get(APPLICATION_NAME);
+    }
+
+    public String getPermissions() {
+        return values.get(PERMISSIONS);
+    }
+
+    public ClasspathMatchers getCodebase() {
+        return codebase;
+    }
+
+    public ClasspathMatchers getApplicationLibraryAllowableCodebase() {
+        return applicationLibraryAllowableCodebase;
+    }
+
+    public ClasspathMatchers getCallerAllowableCodebase() {
+        return callerAllowableCodebase;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is neither true nor false
+     */
+    public ManifestBoolean isTrustedOnly() {
+        return toManifestBoolean(TRUSTED_ONLY);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is neither true nor false
+     */
+    public ManifestBoolean isTrustedLibrary() {
+        return toManifestBoolean(TRUSTED_LIBRARY);
+    }
+
+    private ManifestBoolean toManifestBoolean(final ManifestAttributes attribute) {
+        final String value = values.get(attribute);
+        if (value == null) {
+            return ManifestBoolean.UNDEFINED;
+        }
+        switch (value.toLowerCase().trim()) {
+            case "true":
+                return ManifestBoolean.TRUE;
+            case "false":
+                return ManifestBoolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Unknown value of " + attribute + " attribute " + value.toLowerCase().trim() + ". Expected true or false");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package net.adoptopenjdk.icedteaweb.manifest;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.util.JarFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Cache of the main attributes of the manifests of jars in the local cache.
+ * <p>
+ * The manifest of a jar is read once, all further lookups of its attributes are map reads.
+ * An entry is only used as long as the modification time and length of the jar file are
+ * unchanged, so a jar which is updated in the cache is read again.
+ */
+public final class ManifestCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ManifestCache.class);
+
+    private static final ManifestCache INSTANCE = new ManifestCache();
+
+    private final Map<File, CachedManifest> manifests = new ConcurrentHashMap<>();
+
+    public static ManifestCache getInstance() {
+        return INSTANCE;
+    }
+
+    ManifestCache() {
+    }
+
+    /**
+     * @param jarFile the jar file in the local cache
+     * @param name    name of the attribute
+     * @return value of the main attribute of the manifest of the jar, {@code null} if the jar
+     * has no manifest, the manifest does not contain the attribute or the jar can not be read
+     */
+    public String getMainAttribute(final File jarFile, final Attributes.Name name) {
+        Assert.requireNonNull(name, "name");
+        final Attributes attributes = getMainAttributes(jarFile);
+        return attributes != null ? attributes.getValue(name) : null;
+    }
+
+    /**
+     * @param jarFile the jar file in the local cache
+     * @return true if the main attributes of the manifest of the jar contain the attribute
+     */
+    public boolean hasMainAttribute(final File jarFile, final Attributes.Name name) {
+        return getMainAttribute(jarFile, name) != null;
+    }
+
+    private Attributes getMainAttributes(final File jarFile) {
+        Assert.requireNonNull(jarFile, "jarFile");
+        final long lastModified = jarFile.lastModified();
+        final long length = jarFile.length();
+        final CachedManifest cached = manifests.get(jarFile);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.mainAttributes;
+        }
+
+        try (JarFile jar = new JarFile(jarFile)) {
+            final Manifest manifest = jar.getManifest();
+            //yes, jars without manifest exists
+            final Attributes mainAttributes = manifest != null ? manifest.getMainAttributes() : null;
+            manifests.put(jarFile, new CachedManifest(lastModified, length, mainAttributes));
+            return mainAttributes;
+        } catch (IOException e) {
+            LOG.debug("Could not read manifest of {}: {}", jarFile, e.getMessage());
+            manifests.remove(jarFile);
+            return null;
+        }
+    }
+
+    /**
+     * Removes all cached manifests.
+     */
+    public void clear() {
+        manifests.clear();
+    }
+
+    private static class CachedManifest {
+        private final long lastModified;
+        private final long length;
+        private final Attributes mainAttributes;
+
+        private CachedManifest(final long lastModified, final long length, final Attributes mainAttributes) {
+            this.lastModified = lastModified;
+            this.length = length;
+            // copy, the manifest may be changed by its jar file
+            this.mainAttributes = mainAttributes != null ? new Attributes(mainAttributes) : null;
+        }
+    }
+}
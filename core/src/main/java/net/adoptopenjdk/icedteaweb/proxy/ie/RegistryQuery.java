@@ -6,13 +6,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.ioPool;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.HIGH;
+
 class RegistryQuery {
 
     static Map<String, RegistryValue> getAllValuesForKey(final String key) throws IOException, InterruptedException, ExecutionException {
@@ -22,6 +23,7 @@ class RegistryQuery {
         final Future<List<String>> linesFuture = getLines(start.getInputStream());
         final int exitValue = start.waitFor();
         if (exitValue != 0) {
+            linesFuture.cancel(true);
             throw new RuntimeException("Process ended with error code: " + exitValue);
         }
         final List<String> lines = linesFuture.get();
@@ -58,21 +60,14 @@ class RegistryQuery {
     }
 
     private static Future<List<String>> getLines(final InputStream src) {
-        final CompletableFuture<List<String>> result = new CompletableFuture<>();
-
-        Executors.newSingleThreadExecutor().execute(() -> {
-            try {
-                final List<String> lines = new ArrayList<>();
-                final Scanner sc = new Scanner(src);
-                while (sc.hasNextLine()) {
-                    lines.add(sc.nextLine());
-                }
-                result.complete(lines);
-            } catch (final Exception e) {
-                result.completeExceptionally(e);
+        return ioPool().submit(HIGH, () -> {
+            final List<String> lines = new ArrayList<>();
+            final Scanner sc = new Scanner(src);
+            while (sc.hasNextLine()) {
+                lines.add(sc.nextLine());
             }
+            return lines;
         });
-        return result;
     }
 
 }
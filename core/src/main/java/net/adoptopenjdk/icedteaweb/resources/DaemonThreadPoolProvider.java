@@ -32,17 +32,72 @@ obligated to do so. If you do not wish to do so, delete this exception
 statement from your version. */
 package net.adoptopenjdk.icedteaweb.resources;
 
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Provides the thread pools of the runtime.
+ * <p>
+ * Work should be submitted to one of the shared {@link ManagedThreadPool managed pools}:
+ * <ul>
+ *     <li>the resource pool processes resources, its tasks wait for tasks of the I/O pool</li>
+ *     <li>the I/O pool runs blocking network, file and process I/O</li>
+ * </ul>
+ * Tasks of the I/O pool must not wait for tasks of the resource pool. The queue depths of the
+ * managed pools are reported by {@link #getManagedPools()}.
+ * <p>
+ * The stages of a download pipeline wait for each other and for the download which reads
+ * their output, so they run on the unbounded stage pool.
+ */
 public class DaemonThreadPoolProvider {
 
-    private static final ExecutorService DAEMON_THREAD_POOL = createFixedDaemonThreadPool(6);
+    private static final int IO_POOL_SIZE = 6;
+
+    private static final ManagedThreadPool IO_POOL = new ManagedThreadPool("io", IO_POOL_SIZE);
+
+    /**
+     * The resource pool is created on first use as its size is read from the configuration.
+     */
+    private static class ResourcePoolHolder {
+        private static final ManagedThreadPool RESOURCE_POOL = new ManagedThreadPool("resource", getConfiguredParallelDownloadCount());
+    }
+
+    private static final ExecutorService STAGE_POOL = Executors.newCachedThreadPool(DaemonThreadFactory.named("stage"));
+
+    public static ExecutorService stagePool() {
+        return STAGE_POOL;
+    }
+
+    public static ManagedThreadPool resourcePool() {
+        return ResourcePoolHolder.RESOURCE_POOL;
+    }
+
+    public static ManagedThreadPool ioPool() {
+        return IO_POOL;
+    }
 
-    public static ExecutorService globalFixedThreadPool() {
-        return DAEMON_THREAD_POOL;
+    /**
+     * @return the managed pools, for reading their {@link ManagedThreadPool#getQueueDepth() queue depth}
+     * and {@link ManagedThreadPool#getPeakQueueDepth() peak queue depth}
+     */
+    public static List<ManagedThreadPool> getManagedPools() {
+        return Arrays.asList(resourcePool(), ioPool());
+    }
+
+    private static int getConfiguredParallelDownloadCount() {
+        try {
+            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT);
+            return Math.max(1, Integer.parseInt(configValue));
+        } catch (Exception e) {
+            return ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT;
+        }
     }
 
     public static ExecutorService createCachedDaemonThreadPool() {
@@ -64,7 +119,7 @@ public class DaemonThreadPoolProvider {
      * Except creating new threads, the rest of class is complicated creation of
      * name.
      */
-    private static class DaemonThreadFactory implements ThreadFactory {
+    static class DaemonThreadFactory implements ThreadFactory {
 
         private static final AtomicInteger poolNumber = new AtomicInteger(1);
 
@@ -75,12 +130,18 @@ public class DaemonThreadPoolProvider {
         private final String namePrefix;
 
         public DaemonThreadFactory() {
+            this("itwpool-" + poolNumber.getAndIncrement() + "-itwthread-");
+        }
+
+        private DaemonThreadFactory(final String namePrefix) {
             SecurityManager s = System.getSecurityManager();
             group = (s != null) ? s.getThreadGroup()
                     : Thread.currentThread().getThreadGroup();
-            namePrefix = "itwpool-"
-                    + poolNumber.getAndIncrement()
-                    + "-itwthread-";
+            this.namePrefix = namePrefix;
+        }
+
+        static DaemonThreadFactory named(final String poolName) {
+            return new DaemonThreadFactory("itw-" + poolName + "-");
         }
 
         @Override
@@ -0,0 +1,35 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+/**
+ * Priority of the transfer of a resource, from the highest to the lowest. Transfers of a
+ * higher priority take the bandwidth of transfers with a lower priority.
+ */
+public enum DownloadPriority {
+    /**
+     * The jar containing the main class of the application.
+     */
+    MAIN_JAR,
+    /**
+     * Resources needed before the application starts or by a waiting caller.
+     */
+    EAGER,
+    /**
+     * Lazy resources downloaded ahead of time.
+     */
+    LAZY_PREFETCH,
+    /**
+     * Newer versions of resources which are already usable.
+     */
+    UPDATE_CHECK;
+
+    /**
+     * @return {@code true} if nobody waits for transfers of this priority
+     */
+    public boolean isBackground() {
+        return this == LAZY_PREFETCH || this == UPDATE_CHECK;
+    }
+
+    public boolean isHigherThan(final DownloadPriority other) {
+        return ordinal() < other.ordinal();
+    }
+}
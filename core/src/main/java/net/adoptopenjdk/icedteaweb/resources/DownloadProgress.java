@@ -0,0 +1,163 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import javax.jnlp.DownloadServiceListener;
+import java.net.URL;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of a group of resources reported to a {@link DownloadServiceListener}.
+ * <p>
+ * Each resource contributes its own percentage to a sum, which is updated by the difference
+ * whenever the resource changes, so the overall percentage never has to be computed from all
+ * resources again. Changes are passed on to the listener at most once per publish interval,
+ * the first and the last change of each resource are always passed on. A change which is held
+ * back is passed on by a scheduled flush at the end of the interval, so the listener also
+ * shows the latest progress if no further change follows.
+ */
+class DownloadProgress {
+
+    static final long PUBLISH_INTERVAL_MILLIS = 50;
+
+    /**
+     * Runs a flush after a delay.
+     */
+    interface FlushScheduler {
+        void schedule(Runnable flush, long delayNanos);
+    }
+
+    private static class DefaultSchedulerHolder {
+        private static final ScheduledExecutorService SCHEDULER =
+                Executors.newSingleThreadScheduledExecutor(DaemonThreadPoolProvider.DaemonThreadFactory.named("progress"));
+
+        private static final FlushScheduler INSTANCE = (flush, delayNanos) -> SCHEDULER.schedule(flush, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Percentages are kept in hundredths to keep some precision when summing up.
+     */
+    private static final long COMPLETE = 100 * 100;
+
+    private final URL[] urls;
+    private final Resource[] resources;
+    private final boolean[] reported;
+    private final DownloadServiceListener listener;
+    private final long publishIntervalNanos;
+    private final LongSupplier nanoTime;
+    private final FlushScheduler flushScheduler;
+
+    private final AtomicLongArray percentages;
+    private final AtomicLong percentageSum = new AtomicLong();
+    private final AtomicIntegerArray pending;
+    private final AtomicIntegerArray seen;
+    private final AtomicLong nextPublish;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    DownloadProgress(final URL[] urls, final Resource[] resources, final DownloadServiceListener listener) {
+        this(urls, resources, null, listener);
+    }
+
+    /**
+     * @param reportedUrl the only resource whose progress is passed on, {@code null} for all of them.
+     *                    The overall percentage always covers all resources.
+     */
+    DownloadProgress(final URL[] urls, final Resource[] resources, final URL reportedUrl, final DownloadServiceListener listener) {
+        this(urls, resources, reportedUrl, listener, PUBLISH_INTERVAL_MILLIS, System::nanoTime, DefaultSchedulerHolder.INSTANCE);
+    }
+
+    DownloadProgress(final URL[] urls, final Resource[] resources, final URL reportedUrl, final DownloadServiceListener listener,
+                     final long publishIntervalMillis, final LongSupplier nanoTime, final FlushScheduler flushScheduler) {
+        this.urls = urls.clone();
+        this.resources = resources.clone();
+        this.reported = new boolean[resources.length];
+        for (int i = 0; i < urls.length; i++) {
+            reported[i] = reportedUrl == null || reportedUrl.equals(urls[i]);
+        }
+        this.listener = listener;
+        this.publishIntervalNanos = TimeUnit.MILLISECONDS.toNanos(publishIntervalMillis);
+        this.nanoTime = nanoTime;
+        this.flushScheduler = flushScheduler;
+        this.percentages = new AtomicLongArray(resources.length);
+        this.pending = new AtomicIntegerArray(resources.length);
+        this.seen = new AtomicIntegerArray(resources.length);
+        this.nextPublish = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Starts listening to the size and transfer changes of the resources.
+     */
+    void register() {
+        for (int i = 0; i < resources.length; i++) {
+            final int index = i;
+            resources[i].addPropertyChangeListener(Resource.SIZE_PROPERTY, e -> changed(index));
+            resources[i].addPropertyChangeListener(Resource.TRANSFERRED_PROPERTY, e -> changed(index));
+        }
+    }
+
+    /**
+     * @return the overall percentage of the group
+     */
+    int getOverallPercentage() {
+        return resources.length == 0 ? 100 : (int) (percentageSum.get() / resources.length / 100);
+    }
+
+    void changed(final int index) {
+        final long percentage = percentageOf(resources[index]);
+        final long previous = percentages.getAndSet(index, percentage);
+        percentageSum.addAndGet(percentage - previous);
+        pending.set(index, 1);
+
+        final boolean first = seen.getAndSet(index, 1) == 0;
+        if (first || percentage == COMPLETE) {
+            publish(index);
+        }
+
+        final long now = nanoTime.getAsLong();
+        final long next = nextPublish.get();
+        if (now - next >= 0 && nextPublish.compareAndSet(next, now + publishIntervalNanos)) {
+            publishAll();
+        } else if (reported[index] && pending.get(index) == 1 && flushScheduled.compareAndSet(false, true)) {
+            flushScheduler.schedule(this::flush, Math.max(0, nextPublish.get() - now));
+        }
+    }
+
+    /**
+     * Passes on the changes held back during the last interval.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        nextPublish.set(nanoTime.getAsLong() + publishIntervalNanos);
+        publishAll();
+    }
+
+    private void publishAll() {
+        for (int i = 0; i < resources.length; i++) {
+            publish(i);
+        }
+    }
+
+    private void publish(final int index) {
+        if (pending.getAndSet(index, 0) == 1 && reported[index]) {
+            final Resource resource = resources[index];
+            listener.progress(urls[index], "version", resource.getTransferred(), resource.getSize(), getOverallPercentage());
+        }
+    }
+
+    private static long percentageOf(final Resource resource) {
+        if (resource.isComplete()) {
+            return COMPLETE;
+        }
+        final long size = resource.getSize();
+        if (resource.isBeingProcessed() && size > 0) {
+            final long percentage = COMPLETE * resource.getTransferred() / size;
+            return Math.max(0, Math.min(COMPLETE, percentage));
+        }
+        return 0;
+    }
+}
@@ -8,6 +8,9 @@ public interface JnlpDownloadProtocolConstants {
     String CONTENT_ENCODING_HEADER = "Content-Encoding";
     String CONTENT_TYPE_HEADER = "Content-Type";
     String LAST_MODIFIED_HEADER = "Last-Modified";
+    String DIGEST_HEADER = "Digest";
+    String REPR_DIGEST_HEADER = "Repr-Digest";
+    String CHECKSUM_SHA_256_HEADER = "X-Checksum-Sha256";
 
     String VERSION_ID_HEADER = "x-java-jnlp-version-id";
 
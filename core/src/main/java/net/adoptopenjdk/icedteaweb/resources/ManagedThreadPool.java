@@ -0,0 +1,192 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named pool of daemon threads with a bounded number of threads. Waiting tasks are ordered
+ * by their {@link Priority} and run in submission order within the same priority.
+ * <p>
+ * Cancelling the future of a waiting task removes it from the queue. The pools are shared
+ * by the whole runtime and are provided by {@link DaemonThreadPoolProvider}, they must not be
+ * shut down by their users.
+ */
+public class ManagedThreadPool extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    public enum Priority {
+        /**
+         * Someone is blocked until the task is done.
+         */
+        HIGH,
+        NORMAL,
+        /**
+         * Work done ahead of time, nobody waits for it yet.
+         */
+        LOW
+    }
+
+    private final String name;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    public ManagedThreadPool(final String name, final int threads) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), DaemonThreadPoolProvider.DaemonThreadFactory.named(name));
+        this.name = name;
+        allowCoreThreadTimeOut(true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return the highest number of tasks which have been waiting for a thread at the same time
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public <T> Future<T> submit(final Priority priority, final Callable<T> task) {
+        final PrioritizedTask<T> prioritizedTask = new PrioritizedTask<>(priority, task);
+        execute(prioritizedTask);
+        return prioritizedTask;
+    }
+
+    public Future<?> submit(final Priority priority, final Runnable task) {
+        final PrioritizedTask<?> prioritizedTask = new PrioritizedTask<>(priority, task, null);
+        execute(prioritizedTask);
+        return prioritizedTask;
+    }
+
+    /**
+     * @param priority the priority of the tasks
+     * @return a view of this pool which submits all tasks with the given priority.
+     * The view can not be shut down.
+     */
+    public ExecutorService withPriority(final Priority priority) {
+        Assert.requireNonNull(priority, "priority");
+        return new PriorityView(priority);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        Assert.requireNonNull(command, "command");
+        super.execute(command instanceof PrioritizedTask ? command : new PrioritizedTask<>(Priority.NORMAL, command, null));
+        peakQueueDepth.accumulateAndGet(getQueueDepth(), Math::max);
+    }
+
+    @Override
+    protected <T> FutureTask<T> newTaskFor(final Callable<T> callable) {
+        return new PrioritizedTask<>(Priority.NORMAL, callable);
+    }
+
+    @Override
+    protected <T> FutureTask<T> newTaskFor(final Runnable runnable, final T value) {
+        return new PrioritizedTask<>(Priority.NORMAL, runnable, value);
+    }
+
+    @Override
+    public String toString() {
+        return "pool '" + name + "' [threads: " + getPoolSize() + ", active: " + getActiveCount()
+                + ", queued: " + getQueueDepth() + ", peak queued: " + getPeakQueueDepth()
+                + ", completed: " + getCompletedTaskCount() + "]";
+    }
+
+    private class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+        private final Priority priority;
+        private final long order = sequence.getAndIncrement();
+
+        private PrioritizedTask(final Priority priority, final Callable<T> callable) {
+            super(callable);
+            this.priority = Assert.requireNonNull(priority, "priority");
+        }
+
+        private PrioritizedTask(final Priority priority, final Runnable runnable, final T result) {
+            super(runnable, result);
+            this.priority = Assert.requireNonNull(priority, "priority");
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                remove(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(final PrioritizedTask<?> other) {
+            final int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+
+    private class PriorityView extends AbstractExecutorService {
+        private final Priority priority;
+
+        private PriorityView(final Priority priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        protected <T> FutureTask<T> newTaskFor(final Callable<T> callable) {
+            return new PrioritizedTask<>(priority, callable);
+        }
+
+        @Override
+        protected <T> FutureTask<T> newTaskFor(final Runnable runnable, final T value) {
+            return new PrioritizedTask<>(priority, runnable, value);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            ManagedThreadPool.this.execute(command instanceof PrioritizedTask ? command : newTaskFor(command, null));
+        }
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException("The shared pool '" + name + "' can not be shut down");
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException("The shared pool '" + name + "' can not be shut down");
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return ManagedThreadPool.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return ManagedThreadPool.this.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return ManagedThreadPool.this.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -19,8 +19,7 @@ package net.adoptopenjdk.icedteaweb.resources;
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.sourceforge.jnlp.DownloadOptions;
-import net.sourceforge.jnlp.util.UrlUtils;
-import net.sourceforge.jnlp.util.WeakList;
+import net.sourceforge.jnlp.util.ResourceLocation;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -28,8 +27,9 @@ import java.io.File;
 import java.net.URL;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
@@ -56,8 +56,8 @@ import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.INCOMPLETE;
  */
 public class Resource {
 
-    /** list of weak references of resources currently in use */
-    private static final WeakList<Resource> resources = new WeakList<>();
+    /** resources currently in use */
+    private static final ResourceRegistry resources = new ResourceRegistry();
     public static final String SIZE_PROPERTY = "size";
     public static final String TRANSFERRED_PROPERTY = "transferred";
 
@@ -66,6 +66,9 @@ public class Resource {
     /** the remote location of the resource */
     private final URL location;
 
+    /** the canonical identity of the location */
+    private final ResourceLocation resourceLocation;
+
     /** the requested version */
     private final VersionString requestVersion;
 
@@ -85,16 +88,20 @@ public class Resource {
     private volatile long size = -1;
 
     /** A future to wait for completion of download of this resource */
-    private volatile Future<Resource> futureForDownloaded;
+    private volatile ResourceHandler.Download futureForDownloaded;
 
     /** the status of the resource */
     private volatile ResourceStatus status = INCOMPLETE;
 
+    /** the highest priority any tracker requested, null if none was requested yet */
+    private final AtomicReference<DownloadPriority> downloadPriority = new AtomicReference<>();
+
     /**
      * Create a resource.
      */
-    private Resource(final URL location, final VersionString requestVersion, final DownloadOptions downloadOptions, final UpdatePolicy updatePolicy) {
+    private Resource(final URL location, final ResourceLocation resourceLocation, final VersionString requestVersion, final DownloadOptions downloadOptions, final UpdatePolicy updatePolicy) {
         this.location = location;
+        this.resourceLocation = resourceLocation;
         this.requestVersion = requestVersion;
         this.downloadOptions = downloadOptions;
         this.updatePolicy = updatePolicy;
@@ -120,24 +127,9 @@ public class Resource {
      * @return new resource, which is already added in resources list
      */
     static Resource createOrGetResource(final URL location, final VersionString requestVersion, final DownloadOptions downloadOptions, final UpdatePolicy updatePolicy) {
-        synchronized (resources) {
-            Resource resource = new Resource(location, requestVersion, downloadOptions, updatePolicy);
-
-            //FIXME - url ignores port during its comparison
-            //this may affect test-suites
-            int index = resources.indexOf(resource);
-            if (index >= 0) { // return existing object
-                Resource result = resources.get(index);
-                if (result != null) {
-                    return result;
-                }
-            }
-
-            resources.add(resource);
-            resources.trimToSize();
-
-            return resource;
-        }
+        final ResourceLocation resourceLocation = ResourceLocation.of(location);
+        return resources.getOrCreate(resourceLocation, requestVersion,
+                () -> new Resource(location, resourceLocation, requestVersion, downloadOptions, updatePolicy));
     }
 
     /**
@@ -149,6 +141,13 @@ public class Resource {
         return location;
     }
 
+    /**
+     * @return the canonical identity of the location
+     */
+    ResourceLocation getResourceLocation() {
+        return resourceLocation;
+    }
+
     /**
      * @return the local file currently being downloaded
      */
@@ -239,6 +238,24 @@ public class Resource {
         return updatePolicy == UpdatePolicy.FORCE;
     }
 
+    /**
+     * @return the priority of the transfer of this resource
+     */
+    public DownloadPriority getDownloadPriority() {
+        final DownloadPriority priority = downloadPriority.get();
+        return priority != null ? priority : DownloadPriority.EAGER;
+    }
+
+    /**
+     * Requests a priority for the transfer. The resource keeps the highest priority requested.
+     *
+     * @param priority the requested priority
+     */
+    void requestDownloadPriority(final DownloadPriority priority) {
+        Assert.requireNonNull(priority, "priority");
+        downloadPriority.accumulateAndGet(priority, (current, requested) -> current == null || requested.isHigherThan(current) ? requested : current);
+    }
+
     /**
      * Changes the status.
      *
@@ -255,7 +272,8 @@ public class Resource {
 
     @Override
     public int hashCode() {
-        return Objects.hash(location, requestVersion);
+        // VersionString has no hash code of its own
+        return resourceLocation.hashCode();
     }
 
     @Override
@@ -267,7 +285,7 @@ public class Resource {
             // Resource is already in a tracker, and better for offline
             // mode on some OS.
             final Resource otherResource = (Resource) other;
-            return UrlUtils.urlEquals(location, otherResource.location) && Objects.equals(requestVersion, otherResource.getRequestVersion());
+            return resourceLocation.equals(otherResource.resourceLocation) && Objects.equals(requestVersion, otherResource.getRequestVersion());
         }
         return false;
     }
@@ -285,10 +303,29 @@ public class Resource {
                 .orElse("UNKNOWN");
     }
 
-    Future<Resource> putIntoCache(final Executor downloadExecutor) {
+    Future<Resource> putIntoCache(final ExecutorService downloadExecutor) {
+        synchronized (this) {
+            // a cancelled download has not been completed and is started again
+            if (futureForDownloaded == null || futureForDownloaded.isCancelled()) {
+                this.futureForDownloaded = ResourceHandler.putIntoCache(this, downloadExecutor);
+            }
+            return futureForDownloaded;
+        }
+    }
+
+    /**
+     * Like {@link #putIntoCache(ExecutorService)}, but a download which is still waiting for a
+     * thread is moved to the given executor, as someone is waiting for it now.
+     *
+     * @param downloadExecutor executor of a higher priority than the one of a prefetch
+     * @return the future of the download
+     */
+    Future<Resource> putIntoCacheNow(final ExecutorService downloadExecutor) {
         synchronized (this) {
-            if (futureForDownloaded == null) {
+            if (futureForDownloaded == null || futureForDownloaded.isCancelled()) {
                 this.futureForDownloaded = ResourceHandler.putIntoCache(this, downloadExecutor);
+            } else {
+                futureForDownloaded.submitTo(downloadExecutor);
             }
             return futureForDownloaded;
         }
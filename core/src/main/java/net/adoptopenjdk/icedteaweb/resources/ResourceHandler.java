@@ -13,25 +13,25 @@ import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import java.io.File;
 import java.net.URL;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
 import static net.sourceforge.jnlp.cache.CacheUtil.isNonCacheable;
 import static net.sourceforge.jnlp.util.UrlUtils.FILE_PROTOCOL;
 import static net.sourceforge.jnlp.util.UrlUtils.decodeUrlQuietly;
-import static net.sourceforge.jnlp.util.whitelist.UrlWhiteListUtils.getApplicationUrlWhiteList;
-import static net.sourceforge.jnlp.util.whitelist.UrlWhiteListUtils.isUrlInWhitelist;
+import static net.sourceforge.jnlp.util.whitelist.UrlWhiteListUtils.isUrlInApplicationUrlWhiteList;
 
 class ResourceHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceHandler.class);
 
-    static Future<Resource> putIntoCache(final Resource resource, final Executor downloadExecutor) {
+    static Download putIntoCache(final Resource resource, final ExecutorService downloadExecutor) {
         validateWithWhitelist(resource.getLocation());
 
-        final CompletableFuture<Resource> result = new CompletableFuture<>();
+        final Download result = new Download(resource);
         if (resource.isComplete()) {
             LOG.debug("Resource is already completed: {} ", resource.getSimpleName());
             result.complete(resource);
@@ -39,17 +39,66 @@ class ResourceHandler {
             LOG.debug("Resource is not cacheable: {}", resource.getSimpleName());
             result.complete(initNoneCacheableResources(resource));
         } else {
-            downloadExecutor.execute(() -> {
-                try {
-                    result.complete(process(resource));
-                } catch (Exception e) {
-                    result.completeExceptionally(e);
+            result.submitTo(downloadExecutor);
+            result.whenComplete((r, e) -> {
+                if (result.isCancelled()) {
+                    result.cancelTask(true);
                 }
             });
         }
         return result;
     }
 
+    /**
+     * The future of a download. As long as the download waits for a thread, it can be moved to
+     * another executor, so someone who needs the resource now does not wait behind the queued
+     * downloads of lower priority.
+     */
+    static class Download extends CompletableFuture<Resource> {
+        private final Resource resource;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private Future<?> task;
+
+        private Download(final Resource resource) {
+            this.resource = resource;
+        }
+
+        /**
+         * Submits the download to the executor unless it is already running or done. A task
+         * submitted before is removed from its queue, if it has not started meanwhile it does
+         * nothing when it is run.
+         *
+         * @param downloadExecutor the executor to run the download
+         */
+        synchronized void submitTo(final ExecutorService downloadExecutor) {
+            if (started.get() || isDone()) {
+                return;
+            }
+            final Future<?> previous = task;
+            task = downloadExecutor.submit(this::run);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        private synchronized void cancelTask(final boolean mayInterruptIfRunning) {
+            if (task != null) {
+                task.cancel(mayInterruptIfRunning);
+            }
+        }
+
+        private void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                complete(process(resource));
+            } catch (Exception e) {
+                completeExceptionally(e);
+            }
+        }
+    }
+
     private static Resource initNoneCacheableResources(final Resource resource) {
         resource.setStatus(DOWNLOADED);
         if (resource.getLocation().getProtocol().equals(FILE_PROTOCOL)) {
@@ -90,7 +139,7 @@ class ResourceHandler {
 
     private static void validateWithWhitelist(URL url) {
         // Validate with whitelist specified in deployment.properties. localhost is considered valid.
-        if (isUrlInWhitelist(url, getApplicationUrlWhiteList())) {
+        if (isUrlInApplicationUrlWhiteList(url)) {
             return;
         }
         BasicExceptionDialog.show(new SecurityException(Translator.R("SWPInvalidURL") + ": " + url));
@@ -0,0 +1,116 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.util.ResourceLocation;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the resources currently in use, so all trackers share one {@link Resource}
+ * per location and requested version.
+ * <p>
+ * Resources are only weakly referenced. Entries of collected resources are removed from the
+ * map when the next resource is registered. Lookups do not lock.
+ */
+class ResourceRegistry {
+
+    /**
+     * Creates the weak reference registered for a resource.
+     */
+    interface ReferenceFactory {
+        ResourceReference create(Key key, Resource resource, ReferenceQueue<Resource> queue);
+    }
+
+    private final ConcurrentMap<Key, ResourceReference> resources = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Resource> collected = new ReferenceQueue<>();
+    private final ReferenceFactory referenceFactory;
+
+    ResourceRegistry() {
+        this(ResourceReference::new);
+    }
+
+    ResourceRegistry(final ReferenceFactory referenceFactory) {
+        this.referenceFactory = referenceFactory;
+    }
+
+    /**
+     * @param location       the location of the resource
+     * @param requestVersion the requested version, may be {@code null}
+     * @param factory        creates the resource if there is none in use
+     * @return the resource in use for location and version, or the newly created one
+     */
+    Resource getOrCreate(final ResourceLocation location, final VersionString requestVersion, final Supplier<Resource> factory) {
+        removeCollected();
+
+        final Key key = new Key(location, requestVersion);
+        while (true) {
+            final ResourceReference reference = resources.get(key);
+            final Resource existing = reference != null ? reference.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+
+            final Resource created = factory.get();
+            final ResourceReference newReference = referenceFactory.create(key, created, collected);
+            final boolean registered = reference == null
+                    ? resources.putIfAbsent(key, newReference) == null
+                    : resources.replace(key, reference, newReference);
+            if (registered) {
+                return created;
+            }
+            // another thread registered a resource in the meantime
+        }
+    }
+
+    int size() {
+        removeCollected();
+        return resources.size();
+    }
+
+    private void removeCollected() {
+        Reference<? extends Resource> reference;
+        while ((reference = collected.poll()) != null) {
+            final ResourceReference resourceReference = (ResourceReference) reference;
+            resources.remove(resourceReference.key, resourceReference);
+        }
+    }
+
+    static class Key {
+        private final ResourceLocation location;
+        private final VersionString requestVersion;
+
+        private Key(final ResourceLocation location, final VersionString requestVersion) {
+            this.location = location;
+            this.requestVersion = requestVersion;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Key key = (Key) o;
+            return location.equals(key.location) && Objects.equals(requestVersion, key.requestVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            // VersionString has no hash code, all versions of a location share a bucket
+            return location.hashCode();
+        }
+    }
+
+    static class ResourceReference extends WeakReference<Resource> {
+        private final Key key;
+
+        ResourceReference(final Key key, final Resource resource, final ReferenceQueue<Resource> queue) {
+            super(resource, queue);
+            this.key = key;
+        }
+    }
+}
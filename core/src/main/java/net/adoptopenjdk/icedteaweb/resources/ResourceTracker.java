@@ -22,8 +22,7 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.sourceforge.jnlp.DownloadOptions;
 import net.sourceforge.jnlp.cache.CacheUtil;
-import net.sourceforge.jnlp.config.ConfigurationConstants;
-import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.ResourceLocation;
 import net.sourceforge.jnlp.util.UrlUtils;
 
 import javax.jnlp.DownloadServiceListener;
@@ -35,17 +34,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
-import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createSingletonDaemonThreadPool;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.resourcePool;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.HIGH;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.LOW;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.NORMAL;
 import static net.adoptopenjdk.icedteaweb.resources.Resource.createOrGetResource;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
 import static net.sourceforge.jnlp.util.UrlUtils.FILE_PROTOCOL;
-import static net.sourceforge.jnlp.util.UrlUtils.normalizeUrlQuietly;
 
 /**
  * This class tracks the downloading of various resources of a
@@ -60,11 +59,13 @@ import static net.sourceforge.jnlp.util.UrlUtils.normalizeUrlQuietly;
  * tracker.
  * </p>
  * <p>
- * Multiple threads are used to download and cache resources that
- * are actively being waited for (blocking a caller) or those that
- * have been started downloading by calling the startDownload
- * method.  Resources that are prefetched are downloaded one at a
- * time and only if no other trackers have requested downloads.
+ * The resources are downloaded and cached by the shared resource
+ * pool of {@link DaemonThreadPoolProvider}. Resources that are
+ * actively being waited for (blocking a caller) are queued with a
+ * high priority.  Resources that are prefetched in the background
+ * are queued with a low priority and only downloaded if no other
+ * downloads are waiting. The transfers themselves share the bandwidth
+ * by their {@link DownloadPriority}.
  * This allows the tracker to start downloading many items without
  * using many system resources, but still quickly download items
  * as needed.
@@ -97,7 +98,7 @@ public class ResourceTracker {
     /**
      * the resources known about by this resource tracker
      */
-    private final Map<URL, Resource> resources = new HashMap<>();
+    private final Map<ResourceLocation, Resource> resources = new HashMap<>();
 
     /**
      * whether to download parts before requested
@@ -147,15 +148,32 @@ public class ResourceTracker {
      * @param updatePolicy whether to check for updates if already in cache
      */
     public void addResource(URL location, final VersionString version, final UpdatePolicy updatePolicy) {
+        addResource(location, version, updatePolicy, DownloadPriority.EAGER);
+    }
+
+    /**
+     * Add a resource identified by the specified location and
+     * version.  The tracker only downloads one version of a given
+     * resource per instance (ie cannot download both versions 1 and
+     * 2 of a resource in the same tracker).
+     *
+     * @param location     the location of the resource
+     * @param version      the resource version
+     * @param updatePolicy whether to check for updates if already in cache
+     * @param priority     the priority of the transfer of the resource
+     */
+    public void addResource(URL location, final VersionString version, final UpdatePolicy updatePolicy, final DownloadPriority priority) {
         Assert.requireNonNull(location, "location");
+        Assert.requireNonNull(priority, "priority");
         LOG.debug("Create resource for '{}'", location);
 
-        final URL normalizedLocation = normalizeUrlQuietly(location);
+        final URL normalizedLocation = ResourceLocation.of(location).getUrl();
         if (!location.toString().equals(normalizedLocation.toString())) {
             LOG.debug("Normalized location {} -> {}", location, normalizedLocation);
         }
 
         final Resource resource = createOrGetResource(normalizedLocation, version, downloadOptions, updatePolicy);
+        resource.requestDownloadPriority(priority);
         if (addToResources(resource)) {
             startDownloadingIfPrefetch(resource);
         }
@@ -166,10 +184,10 @@ public class ResourceTracker {
      */
     private boolean addToResources(Resource resource) {
         synchronized (resources) {
-            final Resource existingResource = resources.get(resource.getLocation());
+            final Resource existingResource = resources.get(resource.getResourceLocation());
 
             if (existingResource == null) {
-                resources.put(resource.getLocation(), resource);
+                resources.put(resource.getResourceLocation(), resource);
                 return true;
             }
 
@@ -187,7 +205,8 @@ public class ResourceTracker {
     private void startDownloadingIfPrefetch(Resource resource) {
         if (prefetch && !resource.isComplete() && !resource.isBeingProcessed()) {
             LOG.debug("Prefetching resource {}", resource.getSimpleName());
-            triggerDownloadFor(resource, createSingletonDaemonThreadPool());
+            final ManagedThreadPool.Priority priority = resource.getDownloadPriority().isBackground() ? LOW : NORMAL;
+            triggerDownloadFor(resource, resourcePool().withPriority(priority));
         }
     }
 
@@ -203,7 +222,7 @@ public class ResourceTracker {
     public void removeResource(URL location) {
         synchronized (resources) {
             Resource resource = getResource(location);
-            resources.remove(resource.getLocation());
+            resources.remove(resource.getResourceLocation());
         }
     }
 
@@ -360,9 +379,9 @@ public class ResourceTracker {
      * @throws IllegalResourceDescriptorException if the resource is not being tracked
      */
     private Resource getResource(URL location) {
-        final URL normalizedLocation = normalizeUrlQuietly(location);
+        final ResourceLocation resourceLocation = ResourceLocation.of(location);
         synchronized (resources) {
-            final Resource result = resources.get(normalizedLocation);
+            final Resource result = resources.get(resourceLocation);
             if (result == null) {
                 throw new IllegalResourceDescriptorException("Location " + location + " does not specify a resource being tracked.");
             }
@@ -383,55 +402,48 @@ public class ResourceTracker {
             return;
         }
 
-        final int threadCount = Math.min(getConfiguredThreadCount(), resources.length);
-        final ExecutorService downloadExecutor = createFixedDaemonThreadPool(threadCount);
+        final ExecutorService downloadExecutor = resourcePool().withPriority(HIGH);
+        // someone is waiting now, lazy resources must not yield to other transfers any longer
+        Arrays.stream(resources).forEach(r -> r.requestDownloadPriority(DownloadPriority.EAGER));
+        final List<Future<Resource>> futures = Arrays.asList(resources).stream()
+                .map(r -> r.putIntoCacheNow(downloadExecutor))
+                .collect(Collectors.toList());
         try {
-            final List<Future<Resource>> futures = Arrays.asList(resources).stream()
-                    .map(r -> triggerDownloadFor(r, downloadExecutor))
-                    .collect(Collectors.toList());
-
             for (Future<Resource> future : futures) {
                 future.get();
             }
+            LOG.debug("Download done. {}", DaemonThreadPoolProvider.getManagedPools());
         } catch (final Exception e) {
+            // the downloads are shared with other trackers, so they are not cancelled
             throw new RuntimeException("Error while waiting for download", e);
-        } finally {
-            LOG.debug("Download done. Shutting down executor");
-            downloadExecutor.shutdownNow();
-        }
-    }
-
-    private int getConfiguredThreadCount() {
-        try {
-            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT);
-            return Integer.parseInt(configValue);
-        } catch (Exception e) {
-            return ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT;
         }
     }
 
-    private Future<Resource> triggerDownloadFor(Resource resource, final Executor downloadExecutor) {
+    private Future<Resource> triggerDownloadFor(Resource resource, final ExecutorService downloadExecutor) {
         return resource.putIntoCache(downloadExecutor);
     }
 
-    public void addDownloadListener(final URL resourceUrl, URL[] allResources, final DownloadServiceListener listener) {
-        final Resource resource = getResource(resourceUrl);
-        resource.addPropertyChangeListener(Resource.SIZE_PROPERTY, e -> listener.progress(resourceUrl, "version", resource.getTransferred(), resource.getSize(), getPercentageDownloaded(allResources)));
-        resource.addPropertyChangeListener(Resource.TRANSFERRED_PROPERTY, e -> listener.progress(resourceUrl, "version", resource.getTransferred(), resource.getSize(), getPercentageDownloaded(allResources)));
+    /**
+     * Reports the progress of the resources to the listener. The percentage is the overall
+     * progress of all the resources, updates are passed on at a bounded rate.
+     *
+     * @param urls     the resources to report
+     * @param listener the listener to report to
+     */
+    public void addDownloadListener(final URL[] urls, final DownloadServiceListener listener) {
+        new DownloadProgress(urls, getResources(urls), listener).register();
     }
 
-    private int getPercentageDownloaded(URL[] allResources) {
-        return (int) Arrays.asList(allResources).stream()
-                .map(u -> getResource(u))
-                .mapToDouble(r -> {
-                    if (r.isComplete()) {
-                        return 100.0d;
-                    }
-                    if (r.isBeingProcessed() && r.getSize() > 0) {
-                        final double p = (100.0d * r.getTransferred()) / r.getSize();
-                        return Math.max(0.0d, Math.min(100.0d, p));
-                    }
-                    return 0.0d;
-                }).sum() / allResources.length;
+    /**
+     * Reports the progress of a single resource to the listener. The percentage is the overall
+     * progress of all the resources. To report all of them use
+     * {@link #addDownloadListener(URL[], DownloadServiceListener)} once instead.
+     *
+     * @param resourceUrl  the resource to report
+     * @param allResources the resources the overall percentage is computed of
+     * @param listener     the listener to report to
+     */
+    public void addDownloadListener(final URL resourceUrl, final URL[] allResources, final DownloadServiceListener listener) {
+        new DownloadProgress(allResources, getResources(allResources), resourceUrl, listener).register();
     }
 }
@@ -0,0 +1,171 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the content of cache files once, named by the SHA-256 hash of the content.
+ * <p>
+ * A cache file with the same content as a blob is replaced by a hard link to the blob, so
+ * identical files of several cache entries use the disk space only once. The info file of a
+ * cache entry records the hash of its content. A blob which is no longer referenced by any
+ * info file is removed when the cache is cleaned. If the file system does not support hard
+ * links the cache files are kept as copies.
+ */
+class BlobStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStore.class);
+
+    static final String BLOB_DIR_NAME = "blobs";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final File root;
+
+    BlobStore(final File cacheDir) {
+        this.root = new File(cacheDir, BLOB_DIR_NAME);
+    }
+
+    static boolean isEnabled() {
+        try {
+            return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_CACHE_DEDUPLICATION));
+        } catch (Exception e) {
+            LOG.debug("Cache deduplication is disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every java implementation has to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    static boolean isValidHash(final String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    boolean contains(final String hash) {
+        return isValidHash(hash) && getBlobFile(hash).isFile();
+    }
+
+    /**
+     * Makes a cache file share the blob of its content. If there is no blob yet, the cache file
+     * becomes the blob.
+     *
+     * @param cacheFile the complete cache file
+     * @param hash      the SHA-256 hash of the content of the cache file
+     * @return true if the cache file shares the blob
+     */
+    boolean share(final File cacheFile, final String hash) {
+        if (!isValidHash(hash)) {
+            return false;
+        }
+        final File blob = getBlobFile(hash);
+        try {
+            if (blob.isFile() && blob.length() == cacheFile.length()) {
+                replaceByLink(cacheFile.toPath(), blob.toPath());
+                LOG.debug("Cache file {} shares blob {}", cacheFile, hash);
+            } else {
+                if (!blob.getParentFile().isDirectory() && !blob.getParentFile().mkdirs()) {
+                    throw new IOException("Cannot create directory " + blob.getParentFile());
+                }
+                replaceByLink(blob.toPath(), cacheFile.toPath());
+                LOG.debug("Cache file {} is stored as blob {}", cacheFile, hash);
+            }
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.debug("Cache file {} is kept as a copy: {}", cacheFile, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates a cache file from an existing blob.
+     *
+     * @param hash      the SHA-256 hash of the content
+     * @param cacheFile the cache file to create
+     * @return true if the cache file was created
+     */
+    boolean linkInto(final String hash, final File cacheFile) {
+        if (!contains(hash)) {
+            return false;
+        }
+        try {
+            replaceByLink(cacheFile.toPath(), getBlobFile(hash).toPath());
+            LOG.debug("Cache file {} is created from blob {}", cacheFile, hash);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.debug("Cache file {} can not be created from blob {}: {}", cacheFile, hash, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the blobs which are not referenced by a cache entry. The caller has to hold the
+     * lock of the cache index, which is also held while blobs are shared or linked, otherwise
+     * a blob which is just being referenced could be deleted.
+     *
+     * @param referenced the hashes of all cache entries
+     */
+    void removeUnreferenced(final Set<String> referenced) {
+        final File[] dirs = root.listFiles(File::isDirectory);
+        if (dirs == null) {
+            return;
+        }
+        for (final File dir : dirs) {
+            final File[] blobs = dir.listFiles();
+            if (blobs != null) {
+                for (final File blob : blobs) {
+                    if (!referenced.contains(blob.getName())) {
+                        LOG.debug("Deleting unreferenced blob {}", blob.getName());
+                        if (!blob.delete()) {
+                            LOG.error("Failed to delete blob {}", blob);
+                        }
+                    }
+                }
+            }
+            final String[] remaining = dir.list();
+            if (remaining != null && remaining.length == 0 && !dir.delete()) {
+                LOG.debug("Failed to delete empty blob directory {}", dir);
+            }
+        }
+    }
+
+    File getBlobFile(final String hash) {
+        return new File(new File(root, hash.substring(0, 2)), hash);
+    }
+
+    /**
+     * Atomically replaces a file by a hard link to another file.
+     */
+    private static void replaceByLink(final Path file, final Path existing) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            Files.createLink(temp, existing);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -10,8 +10,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static net.sourceforge.jnlp.cache.CacheUtil.isNonCacheable;
 
@@ -25,6 +28,10 @@ import static net.sourceforge.jnlp.cache.CacheUtil.isNonCacheable;
  * - get(cacheKey) -> file
  * - add(inputStream, downloadInfo) -> void
  * - bestMatchingVersion(url, versionRange) -> versionId
+ * <p>
+ * If a system cache is configured, lookups consult it before the cache of the user. A copy in
+ * the system cache is used unless the cache of the user holds a newer one. Resources are only
+ * added to and removed from the cache of the user.
  */
 public class Cache {
     /**
@@ -63,7 +70,14 @@ public class Cache {
     }
     private static File getCacheFile(final CacheKey key) {
         assertLocationIsCacheable(key.getLocation());
-        return CacheImpl.getInstance().getCacheFile(key);
+        return getCacheFile(SystemCache.getInstance(), CacheImpl.getInstance(), key);
+    }
+    static File getCacheFile(final SystemCache systemCache, final CacheImpl userCache, final CacheKey key) {
+        final Optional<CachedFile> systemCopy = getSystemCopy(systemCache, userCache, key);
+        if (systemCopy.isPresent()) {
+            return systemCopy.get().getCacheFile();
+        }
+        return userCache.getCacheFile(key);
     }
 
     public static File addToCache(DownloadInfo infoFromRemote, InputStream unpackedStream) throws IOException {
@@ -71,6 +85,20 @@ public class Cache {
         return CacheImpl.getInstance().addToCache(infoFromRemote, unpackedStream);
     }
 
+    /**
+     * Adds a file to the cache without a download if its content is already stored by the
+     * deduplicating blob store.
+     *
+     * @param infoFromRemote the information about the remote file
+     * @param sha256         the SHA-256 hash of the content, as lower case hex string
+     * @return the cache file, empty if the content is not known
+     * @throws IllegalArgumentException if the resource is not cacheable
+     */
+    public static Optional<File> addKnownContentToCache(DownloadInfo infoFromRemote, String sha256) {
+        assertLocationIsCacheable(infoFromRemote.getCacheKey().getLocation());
+        return CacheImpl.getInstance().addKnownContentToCache(infoFromRemote, sha256);
+    }
+
     /**
      * Invalidate the entry and make it eligible for removal.
      *
@@ -109,7 +137,10 @@ public class Cache {
     }
     private static boolean isCached(final CacheKey key) {
         assertLocationIsCacheable(key.getLocation());
-        return CacheImpl.getInstance().isCached(key);
+        return isCached(SystemCache.getInstance(), CacheImpl.getInstance(), key);
+    }
+    static boolean isCached(final SystemCache systemCache, final CacheImpl userCache, final CacheKey key) {
+        return systemCache.getResourceInfo(key).isPresent() || userCache.isCached(key);
     }
 
     public static ResourceInfo getInfo(final URL resource, final VersionId version) {
@@ -117,7 +148,14 @@ public class Cache {
     }
     private static ResourceInfo getInfo(final CacheKey key) {
         assertLocationIsCacheable(key.getLocation());
-        return CacheImpl.getInstance().getResourceInfo(key).orElse(null);
+        return getInfo(SystemCache.getInstance(), CacheImpl.getInstance(), key);
+    }
+    static ResourceInfo getInfo(final SystemCache systemCache, final CacheImpl userCache, final CacheKey key) {
+        final Optional<CachedFile> systemCopy = getSystemCopy(systemCache, userCache, key);
+        if (systemCopy.isPresent()) {
+            return systemCopy.get();
+        }
+        return userCache.getResourceInfo(key).orElse(null);
     }
 
     /**
@@ -131,21 +169,32 @@ public class Cache {
      */
     public static boolean isAnyCached(final URL resource, final VersionString version) {
         assertLocationIsCacheable(resource);
-        return CacheImpl.getInstance().getBestMatchingEntryInCache(resource, version).isPresent();
+        return SystemCache.getInstance().getBestMatchingEntry(resource, version).isPresent()
+                || CacheImpl.getInstance().getBestMatchingEntryInCache(resource, version).isPresent();
     }
 
     public static VersionId getBestMatchingVersionInCache(final URL resource, final VersionString version) {
         assertLocationIsCacheable(resource);
-        return CacheImpl.getInstance().getBestMatchingEntryInCache(resource, version)
+        return Stream.of(SystemCache.getInstance().getBestMatchingEntry(resource, version), CacheImpl.getInstance().getBestMatchingEntryInCache(resource, version))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(CacheImpl.bestMatchingVersionFirst(version))
                 .map(CacheIndexEntry::getVersion)
                 .orElse(null);
     }
 
     public static List<VersionId> getAllVersionsInCache(final URL resourceHref) {
         assertLocationIsCacheable(resourceHref);
-        return CacheImpl.getInstance().getAllEntriesInCache(resourceHref).stream()
+        final List<VersionId> versions = CacheImpl.getInstance().getAllEntriesInCache(resourceHref).stream()
                 .map(CacheIndexEntry::getVersion)
                 .collect(Collectors.toList());
+        if (!SystemCache.getInstance().isEnabled()) {
+            return versions;
+        }
+        return Stream.concat(SystemCache.getInstance().getAllEntries(resourceHref).stream().map(CacheIndexEntry::getVersion), versions.stream())
+                .distinct()
+                .sorted(Comparator.nullsFirst(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -164,7 +213,25 @@ public class Cache {
     }
     private static boolean isUpToDate(final CacheKey key, long lastModified) {
         assertLocationIsCacheable(key.getLocation());
-        return CacheImpl.getInstance().isUpToDate(key, lastModified);
+        return isUpToDate(SystemCache.getInstance(), CacheImpl.getInstance(), key, lastModified);
+    }
+    static boolean isUpToDate(final SystemCache systemCache, final CacheImpl userCache, final CacheKey key, long lastModified) {
+        final boolean systemCopyIsUpToDate = systemCache.getResourceInfo(key)
+                .map(cachedFile -> cachedFile.isCurrent(lastModified))
+                .orElse(false);
+        return systemCopyIsUpToDate || userCache.isUpToDate(key, lastModified);
+    }
+
+    /**
+     * Returns the copy of the system cache unless the cache of the user holds a copy downloaded
+     * later, because the copy of the system cache was outdated. The download times are compared,
+     * as resources served without a Last-Modified header have no modification time.
+     */
+    private static Optional<CachedFile> getSystemCopy(final SystemCache systemCache, final CacheImpl userCache, final CacheKey key) {
+        return systemCache.getResourceInfo(key)
+                .filter(systemCopy -> userCache.getResourceInfo(key)
+                        .map(userCopy -> userCopy.getDownloadedAt() <= systemCopy.getDownloadedAt())
+                        .orElse(true));
     }
 
     private static void assertLocationIsCacheable(URL location) {
@@ -33,6 +33,7 @@ statement from your version.
 */
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.client.controlpanel.CacheIdInfo;
 import net.adoptopenjdk.icedteaweb.io.FileUtils;
 import net.adoptopenjdk.icedteaweb.io.IOUtils;
@@ -42,6 +43,7 @@ import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.os.OsUtil;
+import net.sourceforge.jnlp.cache.NativeLibraryStorage;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
 import net.sourceforge.jnlp.config.PathsAndFiles;
@@ -58,6 +60,8 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -87,20 +91,27 @@ class CacheImpl {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheImpl.class);
 
+    /**
+     * Matches the chunks of the download pipeline, so a chunk is written with one call.
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     static CacheImpl getInstance() {
         return CacheHolder.INSTANCE;
     }
 
     private final CacheIndexHolder cacheIndex;
     private final InfrastructureFileDescriptor rootCacheDir;
+    private final BlobStore blobStore;
 
     /**
      * @param recentlyUsed file to be used as recently_used file
      * @param cacheDir     dir with cache
      */
-    private CacheImpl(final InfrastructureFileDescriptor recentlyUsed, final InfrastructureFileDescriptor cacheDir) {
+    CacheImpl(final InfrastructureFileDescriptor recentlyUsed, final InfrastructureFileDescriptor cacheDir) {
         this.cacheIndex = new CacheIndexHolder(recentlyUsed);
         this.rootCacheDir = cacheDir;
+        this.blobStore = new BlobStore(cacheDir.getFile());
     }
 
     File getCacheFile(CacheKey key) {
@@ -127,12 +138,22 @@ class CacheImpl {
 
         final CachedFile infoFile = getInfoFile(entry);
         final File cacheFile = infoFile.getCacheFile();
+        final MessageDigest digest = BlobStore.isEnabled() ? BlobStore.newDigest() : null;
         try {
             LOG.debug("Downloading file: {} into: {}", info.getCacheKey().getLocation(), cacheFile.getCanonicalPath());
             try (final OutputStream out = new FileOutputStream(cacheFile)) {
-                IOUtils.copy(inputStream, out);
+                IOUtils.copy(inputStream, digest != null ? new DigestOutputStream(out, digest) : out, WRITE_BUFFER_SIZE);
+            }
+            if (digest != null) {
+                final String sha256 = StringUtils.toHex(digest.digest());
+                // under the index lock, so cleaning the cache never sees the blob without its reference
+                cacheIndex.runSynchronized(idx -> {
+                    final boolean shared = blobStore.share(cacheFile, sha256);
+                    infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length(), shared ? sha256 : null);
+                });
+            } else {
+                infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length());
             }
-            infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length());
         } catch (IOException e) {
             ex.add(e);
         }
@@ -144,6 +165,62 @@ class CacheImpl {
         return cacheFile;
     }
 
+    /**
+     * Adds a file to the cache whose content is already stored in the {@link BlobStore}.
+     * Only a blob which a cache entry of the same origin references is used, so a server can not
+     * get the content of another server by advertising its hash.
+     *
+     * @param info   the information about the downloaded file
+     * @param sha256 the SHA-256 hash of the content
+     * @return the cache file, empty if there is no blob with the content from the same origin
+     */
+    Optional<File> addKnownContentToCache(DownloadInfo info, String sha256) {
+        if (!BlobStore.isEnabled() || !blobStore.contains(sha256)) {
+            return Optional.empty();
+        }
+        final URL location = info.getCacheKey().getLocation();
+        if (!cacheIndex.getSynchronized(idx -> isReferencedByOrigin(idx, sha256, location))) {
+            LOG.debug("Content of {} is only known from other origins", location);
+            return Optional.empty();
+        }
+
+        final CacheIndexEntry entry = cacheIndex.getSynchronized(idx -> createCacheEntry(idx, info.getCacheKey()));
+        final CachedFile infoFile = getInfoFile(entry);
+        final File cacheFile = infoFile.getCacheFile();
+        // under the index lock, so cleaning the cache can not remove the blob before it is referenced
+        final boolean linked = cacheIndex.getSynchronized(idx -> {
+            if (!blobStore.linkInto(sha256, cacheFile)) {
+                idx.removeEntry(info.getCacheKey());
+                return false;
+            }
+            infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length(), sha256);
+            return true;
+        });
+        if (!linked) {
+            deleteDir(cacheFile.getParentFile());
+            return Optional.empty();
+        }
+        LOG.debug("Content of {} is known, no download needed", info.getCacheKey().getLocation());
+        return Optional.of(cacheFile);
+    }
+
+    private boolean isReferencedByOrigin(CacheIndex idx, String sha256, URL location) {
+        return idx.getAllEntries().stream()
+                .filter(entry -> isSameOrigin(entry.getResourceHref(), location))
+                .map(this::getInfoFile)
+                .anyMatch(infoFile -> infoFile.isCached() && sha256.equals(infoFile.getSha256()));
+    }
+
+    private static boolean isSameOrigin(URL first, URL second) {
+        return first.getProtocol().equalsIgnoreCase(second.getProtocol())
+                && first.getHost().equalsIgnoreCase(second.getHost())
+                && getPort(first) == getPort(second);
+    }
+
+    private static int getPort(URL url) {
+        return url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+    }
+
     private CacheIndexEntry createCacheEntry(CacheIndex idx, CacheKey key) {
         final File dir = makeNewCacheDir();
         createInfoFile(dir);
@@ -224,9 +301,7 @@ class CacheImpl {
         final List<CacheIndexEntry> all = new ArrayList<>(cacheIndex.getSynchronized(idx -> idx.findAllEntries(resourceHref, version)));
 
         if (all.size() > 1) {
-            final Comparator<VersionId> versionIdComparator = version != null ? new VersionIdComparator(version) : VersionId::compareTo;
-            final Comparator<CacheIndexEntry> versionComparator = comparing(CacheIndexEntry::getVersion, versionIdComparator);
-            all.sort(versionComparator);
+            all.sort(bestMatchingVersionFirst(version));
         }
 
         return all.stream()
@@ -425,6 +500,7 @@ class CacheImpl {
             LOG.debug("start cleaning the cache");
             final Set<String> entryIdsFromFileSystem = collectAllEntryIdsFromFileSystem(levelOneDirs);
             final Set<String> entryIdsFromIndex = new HashSet<>();
+            final Set<String> referencedBlobs = new HashSet<>();
             cacheIndex.runSynchronized(idx -> {
                 idx.requestCompression();
 
@@ -453,7 +529,9 @@ class CacheImpl {
                         continue;
                     }
 
-                    final long size = cacheFile.length();
+                    // a blob shared with an entry which is kept already counts
+                    final String sha256 = infoFile.getSha256();
+                    final long size = sha256 != null && referencedBlobs.contains(sha256) ? 0 : cacheFile.length();
                     if (maxSize >= 0 && curSize + size > maxSize) {
                         LOG.debug("Current cache size is {} - file {} has size {} and would exceed max cache size {}",
                                 curSize, entry.getResourceHref(), size, maxSize);
@@ -473,9 +551,15 @@ class CacheImpl {
                     }
 
                     curSize += size;
+                    if (sha256 != null) {
+                        referencedBlobs.add(sha256);
+                    }
                 }
 
                 toRemoveFromIndex.forEach(idx::removeEntry);
+
+                // blobs are only shared under the index lock, so no blob can become referenced meanwhile
+                blobStore.removeUnreferenced(referencedBlobs);
             });
 
             // delete dirs with no entry in the least recently used index
@@ -497,6 +581,7 @@ class CacheImpl {
                 deleteAll(emptyDirs);
             }
         }
+        NativeLibraryStorage.removeStaleExtractions(rootCacheDir.getFile());
         LOG.debug("done cleaning the cache");
     }
 
@@ -530,16 +615,32 @@ class CacheImpl {
     // Helpers
 
     private File getCacheFile(CacheIndexEntry entry) {
-        final String cacheFilName = getCacheFileName(entry.getResourceHref());
-        return new File(cacheDirFromEntryId(entry.getId()), cacheFilName);
+        return getCacheFile(rootCacheDir.getFile(), entry);
     }
 
     private CachedFile getInfoFile(CacheIndexEntry entry) {
-        final File cacheFile = getCacheFile(entry);
+        return getInfoFile(rootCacheDir.getFile(), entry);
+    }
+
+    static File getCacheFile(File cacheRoot, CacheIndexEntry entry) {
+        final String cacheFilName = getCacheFileName(entry.getResourceHref());
+        return new File(new File(cacheRoot, entry.getId()), cacheFilName);
+    }
+
+    static CachedFile getInfoFile(File cacheRoot, CacheIndexEntry entry) {
+        final File cacheFile = getCacheFile(cacheRoot, entry);
         final File infoFile = new File(cacheFile.getParentFile(), CachedFile.INFO_SUFFIX);
         return new CachedFile(entry, cacheFile, infoFile);
     }
 
+    /**
+     * Orders the entries with the best matching version first.
+     */
+    static Comparator<CacheIndexEntry> bestMatchingVersionFirst(final VersionString version) {
+        final Comparator<VersionId> versionIdComparator = version != null ? new VersionIdComparator(version) : VersionId::compareTo;
+        return comparing(CacheIndexEntry::getVersion, versionIdComparator);
+    }
+
     private String entryIdFromCacheDir(File dir) {
         return dir.getParentFile().getName() + File.separatorChar + dir.getName();
     }
@@ -548,12 +649,12 @@ class CacheImpl {
         return new File(rootCacheDir.getFullPath(), entryId);
     }
 
-    private String getCacheFileName(URL resourceHref) {
+    private static String getCacheFileName(URL resourceHref) {
         final String fileName = extractFileNameFromUrl(resourceHref);
         return isBlank(fileName) ? "0" : fileName;
     }
 
-    private String extractFileNameFromUrl(URL resourceHref) {
+    private static String extractFileNameFromUrl(URL resourceHref) {
         final String path = resourceHref.getPath();
         final int i = path.lastIndexOf('/');
         if (i < 0) {
@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.util.ResourceLocation;
 
 import java.net.URL;
 import java.util.List;
@@ -28,7 +29,7 @@ class CacheIndex {
      * @return the entry found or {@code empty}, never {@code null}.
      */
     Optional<CacheIndexEntry> findEntry(CacheKey key) {
-        return cacheFile.getAllEntries().stream()
+        return cacheFile.getEntries(key.getResourceLocation()).stream()
                 .filter(e -> e.matches(key))
                 .findFirst();
     }
@@ -52,8 +53,9 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref))
+        final ResourceLocation location = ResourceLocation.of(resourceHref);
+        return cacheFile.getEntries(location).stream()
+                .filter(e -> e.matches(location))
                 .collect(Collectors.toSet());
     }
 
@@ -63,8 +65,9 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref, versionString))
+        final ResourceLocation location = ResourceLocation.of(resourceHref);
+        return cacheFile.getEntries(location).stream()
+                .filter(e -> e.matches(location, versionString))
                 .collect(Collectors.toSet());
     }
 
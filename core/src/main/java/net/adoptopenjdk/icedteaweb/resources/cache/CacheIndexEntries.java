@@ -1,8 +1,12 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.sourceforge.jnlp.util.ResourceLocation;
+
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static java.util.Collections.sort;
@@ -11,11 +15,20 @@ class CacheIndexEntries {
 
     private final List<CacheIndexEntry> entries = new ArrayList<>();
     private final List<CacheIndexEntry> unmodifiableEntries = Collections.unmodifiableList(entries);
+    private final Map<ResourceLocation, List<CacheIndexEntry>> entriesByLocation = new HashMap<>();
 
     List<CacheIndexEntry> getAllEntries() {
         return unmodifiableEntries;
     }
 
+    /**
+     * @return the entries of all versions of the location, in the same order as {@link #getAllEntries()}
+     */
+    List<CacheIndexEntry> getEntries(ResourceLocation location) {
+        final List<CacheIndexEntry> result = entriesByLocation.get(location);
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
     Stream<CacheIndexEntry> stream() {
         return entries.stream();
     }
@@ -26,6 +39,7 @@ class CacheIndexEntries {
 
     boolean addEntry(CacheIndexEntry entry) {
         entries.add(0, entry);
+        addToLocation(entry);
         return true;
     }
 
@@ -33,14 +47,20 @@ class CacheIndexEntries {
         final int idx = entries.indexOf(entry);
         if (idx > -1) {
             final CacheIndexEntry old = entries.remove(idx);
+            removeFromLocation(old);
             CacheIndexEntry accessedEntry = new CacheIndexEntry(old.getId(), lastAccessed, old.getCacheKey());
             entries.add(0, accessedEntry);
+            addToLocation(accessedEntry);
         }
         return idx > -1;
     }
 
     boolean removeEntry(CacheIndexEntry entry) {
-        return entries.remove(entry);
+        final int idx = entries.indexOf(entry);
+        if (idx > -1) {
+            removeFromLocation(entries.remove(idx));
+        }
+        return idx > -1;
     }
 
     boolean clear() {
@@ -49,10 +69,27 @@ class CacheIndexEntries {
         }
 
         entries.clear();
+        entriesByLocation.clear();
         return true;
     }
 
     void sortByLastAccessed() {
         sort(entries);
+        entriesByLocation.values().forEach(Collections::sort);
+    }
+
+    private void addToLocation(CacheIndexEntry entry) {
+        entriesByLocation.computeIfAbsent(entry.getCacheKey().getResourceLocation(), l -> new ArrayList<>(1)).add(0, entry);
+    }
+
+    private void removeFromLocation(CacheIndexEntry entry) {
+        final ResourceLocation location = entry.getCacheKey().getResourceLocation();
+        final List<CacheIndexEntry> locationEntries = entriesByLocation.get(location);
+        if (locationEntries != null) {
+            locationEntries.remove(entry);
+            if (locationEntries.isEmpty()) {
+                entriesByLocation.remove(location);
+            }
+        }
     }
 }
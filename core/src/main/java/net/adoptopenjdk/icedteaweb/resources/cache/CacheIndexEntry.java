@@ -2,6 +2,7 @@ package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.util.ResourceLocation;
 
 import java.net.URL;
 import java.util.Objects;
@@ -49,15 +50,15 @@ class CacheIndexEntry implements Comparable<CacheIndexEntry> {
         return lastAccessed;
     }
 
-    boolean matches(URL resource) {
-        return key.getLocation().equals(resource);
+    boolean matches(ResourceLocation resource) {
+        return key.getResourceLocation().equals(resource);
     }
 
     boolean matches(CacheKey key) {
         return this.key.equals(key);
     }
 
-    boolean matches(URL resource, VersionString versionString) {
+    boolean matches(ResourceLocation resource, VersionString versionString) {
         if (matches(resource)) {
             final VersionId version = key.getVersion();
             if (versionString == null && version == null) {
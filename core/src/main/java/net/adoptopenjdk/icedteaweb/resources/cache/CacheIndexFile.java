@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.lockingfile.LockableFile;
+import net.sourceforge.jnlp.util.ResourceLocation;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -60,6 +61,13 @@ class CacheIndexFile {
         return entries.getAllEntries();
     }
 
+    List<CacheIndexEntry> getEntries(ResourceLocation location) {
+        if (hasNeverBeenLoaded()) {
+            throw new IllegalStateException("Cannot access entries before loading the file");
+        }
+        return entries.getEntries(location);
+    }
+
     void addEntry(CacheIndexEntry entry) {
         applyAndSort(createAddActionFor(entry));
     }
@@ -103,19 +111,27 @@ class CacheIndexFile {
         // in such a case one can only see a difference in between lastModified and lastLoadOrStore if at least one second has passed.
         if (hasNeverBeenLoaded() || hasBeenModifiedSinceLastLoadOrStore || almostNoTimeHasPassedSinceLastModification) {
 
-            final String content = loadFileAsUtf8String(file);
-            final String[] lines = content.split(LINE_END);
-
-            entries.clear();
-            Stream.of(lines)
-                    .map(CacheAction::parse)
-                    .forEach(entries::apply);
-
+            readEntries(file, entries);
             lastLoadOrStore = lastModified;
-            entries.sortByLastAccessed();
         }
     }
 
+    /**
+     * Reads the entries of an index file without locking it. A line which is appended
+     * concurrently is incomplete and therefore ignored.
+     */
+    static void readEntries(final File file, final CacheIndexEntries entries) throws IOException {
+        final String content = loadFileAsUtf8String(file);
+        final String[] lines = content.split(LINE_END);
+
+        entries.clear();
+        Stream.of(lines)
+                .map(CacheAction::parse)
+                .forEach(entries::apply);
+
+        entries.sortByLastAccessed();
+    }
+
     boolean isDirty() {
         return !unsavedActions.isEmpty() || requestCompression;
     }
@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.sourceforge.jnlp.util.ResourceLocation;
 
 import java.net.URL;
 import java.util.Objects;
@@ -10,10 +11,12 @@ import static net.adoptopenjdk.icedteaweb.Assert.requireNonNull;
 class CacheKey {
 
     private final URL location;
+    private final ResourceLocation resourceLocation;
     private final VersionId version;
 
     public CacheKey(final URL location, final VersionId version) {
         this.location = requireNonNull(location, "location");
+        this.resourceLocation = ResourceLocation.of(location);
         this.version = version;
     }
 
@@ -21,6 +24,10 @@ class CacheKey {
         return location;
     }
 
+    ResourceLocation getResourceLocation() {
+        return resourceLocation;
+    }
+
     public VersionId getVersion() {
         return version;
     }
@@ -38,11 +45,11 @@ class CacheKey {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CacheKey cacheKey = (CacheKey) o;
-        return location.equals(cacheKey.location) && Objects.equals(version, cacheKey.version);
+        return resourceLocation.equals(cacheKey.resourceLocation) && Objects.equals(version, cacheKey.version);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(location, version);
+        return Objects.hash(resourceLocation, version);
     }
 }
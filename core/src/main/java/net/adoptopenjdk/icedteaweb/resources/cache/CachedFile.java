@@ -42,6 +42,7 @@ class CachedFile implements ResourceInfo {
     private static final String KEY_SIZE = "content-length";
     private static final String KEY_LAST_MODIFIED = "last-modified";
     private static final String KEY_DOWNLOADED_AT = "last-updated";
+    private static final String KEY_SHA_256 = "sha-256";
     static final String KEY_JNLP_PATH = "jnlp-path";
 
     private final CacheKey key;
@@ -87,6 +88,13 @@ class CachedFile implements ResourceInfo {
         return getLongKey(KEY_LAST_MODIFIED);
     }
 
+    /**
+     * @return the SHA-256 hash of the content if it is stored in the {@link BlobStore}
+     */
+    String getSha256() {
+        return properties.getProperty(KEY_SHA_256);
+    }
+
     String getJnlpPath() {
         return properties.getProperty(KEY_JNLP_PATH);
     }
@@ -163,11 +171,18 @@ class CachedFile implements ResourceInfo {
     }
 
     void storeInfo(long downloadedAt, long lastModified, long size) {
+        storeInfo(downloadedAt, lastModified, size, null);
+    }
+
+    void storeInfo(long downloadedAt, long lastModified, long size, String sha256) {
         properties.lock();
         try {
             setLongKey(KEY_SIZE, size);
             setLongKey(KEY_LAST_MODIFIED, lastModified);
             setLongKey(KEY_DOWNLOADED_AT, downloadedAt);
+            if (sha256 != null) {
+                properties.setProperty(KEY_SHA_256, sha256);
+            }
 
             final String jnlpPath = JNLPRuntime.getJnlpPath();
             if (StringUtils.isBlank(jnlpPath)) {
@@ -0,0 +1,131 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.ResourceLocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static net.adoptopenjdk.icedteaweb.StringUtils.isBlank;
+
+/**
+ * Read only view of a cache shared by all users of a system.
+ * <p>
+ * The system cache has the same layout as the cache of a user. It is filled by an administrator,
+ * see {@code itweb-settings -seedcache}, and configured by
+ * {@link ConfigurationConstants#KEY_SYSTEM_CACHE_DIR}. As the users may not write to it, its
+ * index is read without locking and re-read whenever the administrator changed it.
+ */
+class SystemCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SystemCache.class);
+
+    static SystemCache getInstance() {
+        return SystemCacheHolder.INSTANCE;
+    }
+
+    private final File rootDir;
+    private final File indexFile;
+
+    private final CacheIndexEntries entries = new CacheIndexEntries();
+    private long loadedLastModified = -1;
+    private long loadedLength = -1;
+
+    /**
+     * @param rootDir the root of the system cache, {@code null} if there is no system cache
+     */
+    SystemCache(final File rootDir) {
+        this.rootDir = rootDir;
+        this.indexFile = rootDir == null ? null : new File(rootDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME);
+    }
+
+    boolean isEnabled() {
+        return rootDir != null;
+    }
+
+    Optional<CachedFile> getResourceInfo(final CacheKey key) {
+        return getEntries(key.getResourceLocation()).stream()
+                .filter(entry -> entry.matches(key))
+                .findFirst()
+                .map(entry -> CacheImpl.getInfoFile(rootDir, entry))
+                .filter(CachedFile::isCached);
+    }
+
+    Optional<CacheIndexEntry> getBestMatchingEntry(final URL resourceHref, final VersionString version) {
+        final ResourceLocation location = ResourceLocation.of(resourceHref);
+        return getEntries(location).stream()
+                .filter(entry -> entry.matches(location, version))
+                .sorted(CacheImpl.bestMatchingVersionFirst(version))
+                .filter(entry -> CacheImpl.getInfoFile(rootDir, entry).isCached())
+                .findFirst();
+    }
+
+    List<CacheIndexEntry> getAllEntries(final URL resourceHref) {
+        final ResourceLocation location = ResourceLocation.of(resourceHref);
+        return getEntries(location).stream()
+                .filter(entry -> entry.matches(location))
+                .filter(entry -> CacheImpl.getInfoFile(rootDir, entry).isCached())
+                .collect(Collectors.toList());
+    }
+
+    private synchronized List<CacheIndexEntry> getEntries(final ResourceLocation location) {
+        if (rootDir == null) {
+            return Collections.emptyList();
+        }
+
+        final long lastModified = indexFile.lastModified();
+        final long length = indexFile.length();
+        if (lastModified != loadedLastModified || length != loadedLength) {
+            loadedLastModified = lastModified;
+            loadedLength = length;
+            try {
+                if (indexFile.isFile()) {
+                    CacheIndexFile.readEntries(indexFile, entries);
+                    LOG.debug("Read {} entries of the system cache {}", entries.getAllEntries().size(), rootDir);
+                } else {
+                    entries.clear();
+                    LOG.debug("The system cache {} has no index file", rootDir);
+                }
+            } catch (IOException e) {
+                entries.clear();
+                LOG.error("Failed to read the index of the system cache {}: {}", indexFile, e.getMessage());
+            }
+        }
+        return new ArrayList<>(entries.getEntries(location));
+    }
+
+    private static File configuredRootDir() {
+        try {
+            final String path = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_SYSTEM_CACHE_DIR);
+            if (isBlank(path)) {
+                return null;
+            }
+            final File rootDir = new File(path).getAbsoluteFile();
+            if (rootDir.equals(PathsAndFiles.CACHE_DIR.getFile().getAbsoluteFile())) {
+                // the administrator is seeding the system cache
+                LOG.debug("The system cache {} is used as the cache of the user", rootDir);
+                return null;
+            }
+            LOG.info("Using the system cache {}", rootDir);
+            return rootDir;
+        } catch (Exception e) {
+            LOG.debug("The system cache is disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static class SystemCacheHolder {
+        private static final SystemCache INSTANCE = new SystemCache(configuredRootDir());
+    }
+}
@@ -0,0 +1,82 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.StringUtils;
+
+import java.util.Base64;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CHECKSUM_SHA_256_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.DIGEST_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.REPR_DIGEST_HEADER;
+
+/**
+ * Reads the SHA-256 hash of a download from the response headers, if the server advertises it
+ * in a {@code Digest} (RFC 3230), {@code Repr-Digest} (RFC 9530) or {@code X-Checksum-Sha256}
+ * header.
+ */
+class AdvertisedDigest {
+
+    private static final String SHA_256 = "sha-256";
+
+    private static final int SHA_256_LENGTH = 32;
+
+    private static final Pattern HEX_PATTERN = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private AdvertisedDigest() {
+    }
+
+    /**
+     * @param headers the response headers by name
+     * @return the hash as lower case hex string, {@code null} if no valid hash is advertised
+     */
+    static String sha256(final Function<String, String> headers) {
+        final String checksum = trim(headers.apply(CHECKSUM_SHA_256_HEADER));
+        if (checksum != null && HEX_PATTERN.matcher(checksum).matches()) {
+            return checksum.toLowerCase(Locale.ENGLISH);
+        }
+        final String reprDigest = fromDigestList(headers.apply(REPR_DIGEST_HEADER));
+        if (reprDigest != null) {
+            return reprDigest;
+        }
+        return fromDigestList(headers.apply(DIGEST_HEADER));
+    }
+
+    /**
+     * Parses a list like {@code "SHA-256=base64, MD5=base64"}. A value may be enclosed in colons
+     * as in the structured fields of {@code Repr-Digest}.
+     */
+    private static String fromDigestList(final String header) {
+        if (header == null) {
+            return null;
+        }
+        for (final String digest : header.split(",")) {
+            final int separator = digest.indexOf('=');
+            if (separator > 0 && SHA_256.equalsIgnoreCase(digest.substring(0, separator).trim())) {
+                String value = digest.substring(separator + 1).trim();
+                if (value.length() > 1 && value.startsWith(":") && value.endsWith(":")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return fromBase64(value);
+            }
+        }
+        return null;
+    }
+
+    private static String fromBase64(final String value) {
+        try {
+            final byte[] hash = Base64.getDecoder().decode(value);
+            if (hash.length != SHA_256_LENGTH) {
+                return null;
+            }
+            return StringUtils.toHex(hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String trim(final String value) {
+        return value == null ? null : value.trim();
+    }
+}
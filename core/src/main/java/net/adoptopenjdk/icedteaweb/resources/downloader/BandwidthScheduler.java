@@ -0,0 +1,224 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.DownloadPriority;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Shares the bandwidth between the running transfers by their {@link DownloadPriority}.
+ * <p>
+ * A transfer has to acquire bytes before reading them. If a limit is configured, the bytes are
+ * taken from a token bucket which is refilled at the limit rate, and a transfer has to wait as
+ * long as a transfer of a higher priority is running. So the main jar gets the whole link
+ * before the other eager resources, and these before the background transfers. Transfers of
+ * the same priority share the link.
+ * <p>
+ * Without a limit no transfer has to wait, the link is not known to be the bottleneck and a
+ * held back connection could be dropped by the server.
+ * <p>
+ * A transfer which did not read for {@link #IDLE_MILLIS} no longer holds back other transfers
+ * and is forgotten until it reads again, so a stream which is never closed can not block the
+ * others.
+ */
+class BandwidthScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BandwidthScheduler.class);
+
+    static final int CHUNK_SIZE = 16 * 1024;
+    static final long IDLE_MILLIS = 2000;
+    private static final long MAX_WAIT_MILLIS = 100;
+
+    private final long bytesPerSecond;
+    private final long capacity;
+    private final LongSupplier nanoTime;
+    private final Set<Transfer> transfers = new HashSet<>();
+
+    private long tokens;
+    private long lastRefill;
+
+    /**
+     * @param bytesPerSecond the maximum rate of all transfers together, 0 for no limit
+     */
+    BandwidthScheduler(final long bytesPerSecond) {
+        this(bytesPerSecond, System::nanoTime);
+    }
+
+    BandwidthScheduler(final long bytesPerSecond, final LongSupplier nanoTime) {
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        this.capacity = Math.max(CHUNK_SIZE, this.bytesPerSecond / 10);
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    private static class SharedHolder {
+        private static final BandwidthScheduler SHARED = new BandwidthScheduler(getConfiguredLimit() * 1024);
+    }
+
+    /**
+     * @return the scheduler shared by all downloads of the runtime
+     */
+    static BandwidthScheduler getShared() {
+        return SharedHolder.SHARED;
+    }
+
+    private static long getConfiguredLimit() {
+        try {
+            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_DOWNLOAD_BANDWIDTH_LIMIT);
+            return Math.max(0, Long.parseLong(configValue));
+        } catch (Exception e) {
+            LOG.debug("Using default bandwidth limit: {}", e.getMessage());
+            return ConfigurationConstants.DEFAULT_DOWNLOAD_BANDWIDTH_LIMIT;
+        }
+    }
+
+    /**
+     * @param priority the current priority of the transfer, it is asked before every acquire
+     * @return a new running transfer
+     */
+    Transfer open(final Supplier<DownloadPriority> priority) {
+        synchronized (this) {
+            final long now = nanoTime.getAsLong();
+            final Transfer transfer = new Transfer(priority, now);
+            transfers.removeIf(t -> !t.waiting && isIdle(t, now));
+            transfers.add(transfer);
+            return transfer;
+        }
+    }
+
+    private static boolean isIdle(final Transfer transfer, final long now) {
+        return now - transfer.lastActivity >= TimeUnit.MILLISECONDS.toNanos(IDLE_MILLIS);
+    }
+
+    private boolean mustYield(final Transfer transfer, final long now) {
+        if (bytesPerSecond <= 0) {
+            return false;
+        }
+        for (final Transfer other : transfers) {
+            if (other.priority.isHigherThan(transfer.priority) && (other.waiting || !isIdle(other, now))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refill(final long now) {
+        if (bytesPerSecond > 0) {
+            final long elapsed = now - lastRefill;
+            final long refill = elapsed * bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+            if (refill > 0) {
+                tokens = Math.min(capacity, tokens + refill);
+                lastRefill = now;
+            }
+        }
+    }
+
+    private long millisUntilAvailable(final long bytes) {
+        if (bytesPerSecond <= 0 || tokens >= bytes) {
+            return 0;
+        }
+        return Math.max(1, (bytes - tokens) * 1000 / bytesPerSecond);
+    }
+
+    private synchronized int acquire(final Transfer transfer, final int requested) throws InterruptedIOException {
+        final int wanted = (int) Math.min(Math.min(requested, CHUNK_SIZE), capacity);
+        if (transfer.closed) {
+            return wanted;
+        }
+        transfers.add(transfer);
+        transfer.priority = transfer.prioritySupplier.get();
+        transfer.waiting = true;
+        try {
+            while (true) {
+                final long now = nanoTime.getAsLong();
+                refill(now);
+                if (!mustYield(transfer, now)) {
+                    final long waitMillis = millisUntilAvailable(wanted);
+                    if (waitMillis == 0) {
+                        if (bytesPerSecond > 0) {
+                            tokens -= wanted;
+                        }
+                        transfer.lastActivity = now;
+                        return wanted;
+                    }
+                    wait(Math.min(waitMillis, MAX_WAIT_MILLIS));
+                } else {
+                    wait(MAX_WAIT_MILLIS);
+                }
+                transfer.priority = transfer.prioritySupplier.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+        } finally {
+            transfer.waiting = false;
+            notifyAll();
+        }
+    }
+
+    private synchronized void release(final Transfer transfer, final int unused) {
+        if (unused > 0 && bytesPerSecond > 0) {
+            tokens = Math.min(capacity, tokens + unused);
+        }
+        transfer.lastActivity = nanoTime.getAsLong();
+        notifyAll();
+    }
+
+    private synchronized void close(final Transfer transfer) {
+        transfer.closed = true;
+        if (transfers.remove(transfer)) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * A running transfer, must be closed when it ends.
+     */
+    class Transfer implements AutoCloseable {
+        private final Supplier<DownloadPriority> prioritySupplier;
+        private DownloadPriority priority;
+        private boolean waiting;
+        private boolean closed;
+        private long lastActivity;
+
+        private Transfer(final Supplier<DownloadPriority> prioritySupplier, final long now) {
+            this.prioritySupplier = prioritySupplier;
+            this.priority = prioritySupplier.get();
+            this.lastActivity = now;
+        }
+
+        /**
+         * Waits until the transfer may read.
+         *
+         * @param requested the number of bytes the transfer wants to read
+         * @return the number of bytes the transfer may read, at least one and at most requested
+         * @throws InterruptedIOException if the thread was interrupted while waiting
+         */
+        int acquire(final int requested) throws InterruptedIOException {
+            return BandwidthScheduler.this.acquire(this, requested);
+        }
+
+        /**
+         * Gives back acquired bytes which were not read.
+         *
+         * @param unused number of bytes not read
+         */
+        void release(final int unused) {
+            BandwidthScheduler.this.release(this, unused);
+        }
+
+        @Override
+        public void close() {
+            BandwidthScheduler.this.close(this);
+        }
+    }
+}
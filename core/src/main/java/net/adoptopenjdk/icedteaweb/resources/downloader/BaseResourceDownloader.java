@@ -33,7 +33,7 @@ import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.globalFixedThreadPool;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.ioPool;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ACCEPT_ENCODING_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_ENCODING_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_TYPE_HEADER;
@@ -114,7 +114,7 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
     private CompletableFuture<Resource> downloadFrom(final URL url) {
         LOG.debug("Will download in background: {}", url);
         final CompletableFuture<Resource> result = new CompletableFuture<>();
-        globalFixedThreadPool().execute(() -> {
+        ioPool().execute(() -> {
             try {
                 result.complete(tryDownloading(url));
             } catch (Exception | Error e) {
@@ -181,13 +181,30 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
             final CountingInputStream countingInputStream = downloadDetails.inputStream;
 
             final StreamUnpacker compressionUnpacker = StreamUnpacker.getCompressionUnpacker(downloadDetails);
-            final InputStream unpackedStream = compressionUnpacker.unpack(countingInputStream);
-
             final StreamUnpacker contentUnpacker = StreamUnpacker.getContentUnpacker(downloadDetails, resourceHref);
-            final InputStream unpackedContent = contentUnpacker.unpack(unpackedStream);
-
             final DownloadInfo downloadInfo = new DownloadInfo(resourceHref, version, downloadDetails.lastModified);
-            final File cacheFile = Cache.addToCache(downloadInfo, unpackedContent);
+
+            // the advertised hash describes the transferred bytes, so it only identifies unpacked content
+            if (downloadDetails.contentSha256 != null && compressionUnpacker instanceof NotUnpacker && contentUnpacker instanceof NotUnpacker) {
+                final Optional<File> knownFile = Cache.addKnownContentToCache(downloadInfo, downloadDetails.contentSha256);
+                if (knownFile.isPresent()) {
+                    countingInputStream.close();
+                    resource.setLocalFile(knownFile.get());
+                    return knownFile.get().length();
+                }
+            }
+
+            // the network is read and the content is unpacked by stages of the pipeline while
+            // this thread writes the content into the cache
+            final File cacheFile;
+            try (final InputStream networkStream = DownloadPipeline.readAhead("network", countingInputStream)) {
+                final InputStream unpackedStream = compressionUnpacker.unpack(networkStream);
+                final InputStream unpackedContent = contentUnpacker.unpack(unpackedStream);
+
+                try (final InputStream content = unpackedContent) {
+                    cacheFile = Cache.addToCache(downloadInfo, content);
+                }
+            }
 
             final long expectedBytes = downloadDetails.totalSize;
             final long actualBytes = countingInputStream.numBytesRead();
@@ -215,13 +232,18 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
             final String contentType = connection.getHeaderField(CONTENT_TYPE_HEADER);
             final String contentEncoding = connection.getHeaderField(CONTENT_ENCODING_HEADER);
             final long totalSize = connection.getContentLength();
-            final NotifyingInputStream inputStream = new NotifyingInputStream(connection.getInputStream(), totalSize, resource::setTransferred);
+            final InputStream connectionStream = connection.getInputStream();
 
             if (!String.valueOf(connection.getResponseCode()).startsWith("2")) {
                 throw new IllegalStateException("Request returned " + connection.getResponseCode() + " for URL " + connection.getURL());
             }
 
-            return new DownloadDetails(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize);
+            final InputStream throttledStream = new ThrottledInputStream(connectionStream, BandwidthScheduler.getShared().open(resource::getDownloadPriority));
+            final NotifyingInputStream inputStream = new NotifyingInputStream(throttledStream, totalSize, resource::setTransferred);
+
+            final String contentSha256 = AdvertisedDigest.sha256(connection::getHeaderField);
+
+            return new DownloadDetails(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize, contentSha256);
         } catch (IOException ex) {
             if (INVALID_HTTP_RESPONSE.equals(ex.getMessage())) {
                 LOG.warn(INVALID_HTTP_RESPONSE + " message detected. Attempting direct socket");
@@ -251,7 +273,7 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         final String contentEncoding = headerMap.get(CONTENT_ENCODING_HEADER);
         final CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(body));
 
-        return new DownloadDetails(url, inputStream, contentType, contentEncoding, version, lastModified, body.length);
+        return new DownloadDetails(url, inputStream, contentType, contentEncoding, version, lastModified, body.length, null);
     }
 
     private Object[] loadUrlWithInvalidHeaderBytes(final URL url) throws IOException {
@@ -14,8 +14,9 @@ class DownloadDetails {
     final String version;
     final long lastModified;
     final long totalSize;
+    final String contentSha256;
 
-    DownloadDetails(URL downloadFrom, CountingInputStream inputStream, String contentType, String contentEncoding, String version, long lastModified, long totalSize) {
+    DownloadDetails(URL downloadFrom, CountingInputStream inputStream, String contentType, String contentEncoding, String version, long lastModified, long totalSize, String contentSha256) {
         this.downloadFrom = downloadFrom;
         this.inputStream = inputStream;
         this.contentType = contentType;
@@ -23,5 +24,6 @@ class DownloadDetails {
         this.version = version;
         this.lastModified = lastModified;
         this.totalSize = totalSize;
+        this.contentSha256 = contentSha256;
     }
 }
@@ -0,0 +1,263 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.stagePool;
+
+/**
+ * Splits a download into stages which run on their own threads: reading from the network,
+ * decompressing and writing to the cache. The stages are connected by bounded queues of byte
+ * chunks, so a stage only waits for another one if the queue between them is empty or full.
+ * <p>
+ * A stage writes to a pipe and the next stage reads the pipe as an {@link InputStream}. A
+ * failure of a stage is thrown by the stream of the next stage. Closing the stream stops the
+ * stage writing to it.
+ */
+class DownloadPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DownloadPipeline.class);
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Up to 1 MB may be buffered between two stages.
+     */
+    static final int QUEUE_CAPACITY = 16;
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * The work of a stage.
+     */
+    interface Stage {
+        /**
+         * @param input  the stream the stage reads from, it is closed when the stage ends
+         * @param output the pipe to the next stage, it is ended when the stage returns
+         * @throws IOException if the stage fails
+         */
+        void run(InputStream input, OutputStream output) throws IOException;
+    }
+
+    /**
+     * Reads a stream ahead on its own thread.
+     *
+     * @param name  the name of the stage, used for logging
+     * @param input the stream to read, for example the stream of a network connection
+     * @return the content of the input
+     */
+    static InputStream readAhead(final String name, final InputStream input) {
+        return start(name, input, IOUtils::copy);
+    }
+
+    /**
+     * Starts a stage on its own thread.
+     *
+     * @param name  the name of the stage, used for logging
+     * @param input the stream the stage reads from
+     * @param stage the work of the stage
+     * @return the stream of everything the stage writes
+     */
+    static InputStream start(final String name, final InputStream input, final Stage stage) {
+        Assert.requireNonNull(input, "input");
+        Assert.requireNonNull(stage, "stage");
+
+        final Pipe pipe = new Pipe(name);
+        final Future<?> future = stagePool().submit(() -> {
+            try (final InputStream in = input) {
+                stage.run(in, pipe.sink);
+                pipe.sink.end();
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Stage '{}' of download pipeline failed: {}", name, e.getMessage());
+                pipe.fail(e);
+            }
+        });
+        pipe.onClose = () -> {
+            // also unblocks a stage which did not start yet or waits for its input
+            future.cancel(true);
+            closeQuietly(input);
+        };
+        return pipe.source;
+    }
+
+    private static void closeQuietly(final InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            LOG.debug("Closing the input of a download pipeline stage failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A bounded queue of byte chunks between two stages.
+     */
+    private static class Pipe {
+
+        private static final byte[] END = new byte[0];
+
+        private final String name;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Sink sink = new Sink();
+        private final Source source = new Source();
+
+        private volatile Exception failure;
+        private volatile boolean readerClosed;
+        private volatile Runnable onClose;
+
+        private Pipe(final String name) {
+            this.name = name;
+        }
+
+        private void fail(final Exception e) {
+            failure = e;
+            try {
+                sink.end();
+            } catch (IOException ignored) {
+                // the reader is gone or the stage was interrupted, nobody waits for the failure
+            }
+        }
+
+        private void put(final byte[] chunk) throws IOException {
+            try {
+                while (!queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (readerClosed) {
+                        throw new IOException("Download pipeline '" + name + "' was closed by the reader");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing to download pipeline '" + name + "'");
+            }
+        }
+
+        private class Sink extends OutputStream {
+            private byte[] buffer = new byte[CHUNK_SIZE];
+            private int count;
+            private boolean ended;
+
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, int off, int len) throws IOException {
+                if (ended) {
+                    throw new IOException("Download pipeline '" + name + "' is already closed");
+                }
+                while (len > 0) {
+                    final int copied = Math.min(len, buffer.length - count);
+                    System.arraycopy(b, off, buffer, count, copied);
+                    count += copied;
+                    off += copied;
+                    len -= copied;
+                    if (count == buffer.length) {
+                        put(buffer);
+                        buffer = new byte[CHUNK_SIZE];
+                        count = 0;
+                    }
+                }
+            }
+
+            /**
+             * The pipe is ended by the pipeline when the stage returns, so a stage which closes
+             * its output before failing does not end the pipe as if it had succeeded.
+             */
+            @Override
+            public void close() {
+            }
+
+            private void end() throws IOException {
+                if (!ended) {
+                    ended = true;
+                    if (count > 0 && failure == null) {
+                        final byte[] rest = new byte[count];
+                        System.arraycopy(buffer, 0, rest, 0, count);
+                        put(rest);
+                    }
+                    put(END);
+                }
+            }
+        }
+
+        private class Source extends InputStream {
+            private byte[] chunk;
+            private int position;
+            private boolean eof;
+
+            @Override
+            public int read() throws IOException {
+                final byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!nextChunk()) {
+                    return -1;
+                }
+                final int read = Math.min(len, chunk.length - position);
+                System.arraycopy(chunk, position, b, off, read);
+                position += read;
+                return read;
+            }
+
+            @Override
+            public int available() {
+                return chunk == null ? 0 : chunk.length - position;
+            }
+
+            private boolean nextChunk() throws IOException {
+                if (readerClosed) {
+                    throw new IOException("Download pipeline '" + name + "' is closed");
+                }
+                while (!eof && (chunk == null || position == chunk.length)) {
+                    try {
+                        chunk = queue.take();
+                        position = 0;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while reading from download pipeline '" + name + "'");
+                    }
+                    if (chunk == END) {
+                        eof = true;
+                        chunk = null;
+                    }
+                }
+                if (eof && failure != null) {
+                    if (failure instanceof IOException) {
+                        throw (IOException) failure;
+                    }
+                    throw new IOException("Stage '" + name + "' of download pipeline failed", failure);
+                }
+                return !eof;
+            }
+
+            @Override
+            public void close() {
+                if (!readerClosed) {
+                    readerClosed = true;
+                    queue.clear();
+                    final Runnable closeAction = onClose;
+                    if (closeAction != null) {
+                        closeAction.run();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -18,18 +18,18 @@ package net.adoptopenjdk.icedteaweb.resources.downloader;
 
 import net.adoptopenjdk.icedteaweb.io.IOUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 
 /**
- * Unpacker for Gzip streams.
+ * Unpacker for Gzip streams. The content is inflated by a stage of the {@link DownloadPipeline}
+ * while the download continues.
  */
 public class GzipUnpacker implements StreamUnpacker {
     @Override
     public InputStream unpack(InputStream input) throws IOException {
-        final byte[] content = IOUtils.readContent(new GZIPInputStream(input));
-        return new ByteArrayInputStream(content);
+        return DownloadPipeline.start("gzip", input,
+                (in, out) -> IOUtils.copy(new GZIPInputStream(in, DownloadPipeline.CHUNK_SIZE), out, DownloadPipeline.CHUNK_SIZE));
     }
 }
@@ -16,8 +16,6 @@
 
 package net.adoptopenjdk.icedteaweb.resources.downloader;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.jar.JarOutputStream;
@@ -25,15 +23,16 @@ import java.util.jar.Pack200;
 import java.util.zip.GZIPInputStream;
 
 /**
- * Unpacker for PACK200 and Gzip streams.
+ * Unpacker for PACK200 and Gzip streams. The jar is unpacked by a stage of the
+ * {@link DownloadPipeline} while the download continues.
  */
 public class PackGzipUnpacker implements StreamUnpacker {
     @Override
     public InputStream unpack(InputStream input) throws IOException {
-        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        try (final JarOutputStream outputStream = new JarOutputStream(buffer)) {
-            Pack200.newUnpacker().unpack(new GZIPInputStream(input), outputStream);
-        }
-        return new ByteArrayInputStream(buffer.toByteArray());
+        return DownloadPipeline.start("pack200", input, (in, out) -> {
+            try (final JarOutputStream outputStream = new JarOutputStream(out)) {
+                Pack200.newUnpacker().unpack(new GZIPInputStream(in), outputStream);
+            }
+        });
     }
 }
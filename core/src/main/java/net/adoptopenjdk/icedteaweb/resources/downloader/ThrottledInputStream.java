@@ -0,0 +1,80 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream which acquires the bytes it reads from a {@link BandwidthScheduler}.
+ * The transfer ends with the end of the stream, a failed read or when the stream is closed.
+ */
+class ThrottledInputStream extends FilterInputStream {
+
+    private final BandwidthScheduler.Transfer transfer;
+
+    ThrottledInputStream(final InputStream in, final BandwidthScheduler.Transfer transfer) {
+        super(in);
+        this.transfer = transfer;
+    }
+
+    @Override
+    public int read() throws IOException {
+        transfer.acquire(1);
+        final int value = readOrEnd(() -> super.read());
+        if (value == -1) {
+            transfer.release(1);
+            transfer.close();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final int granted = transfer.acquire(len);
+        final int read = readOrEnd(() -> super.read(b, off, granted));
+        if (read == -1) {
+            transfer.release(granted);
+            transfer.close();
+        } else {
+            transfer.release(granted - read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        // skipped bytes are read from the network as well
+        final byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), BandwidthScheduler.CHUNK_SIZE)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        transfer.close();
+        super.close();
+    }
+
+    private int readOrEnd(final Read read) throws IOException {
+        try {
+            return read.read();
+        } catch (IOException | RuntimeException e) {
+            transfer.close();
+            throw e;
+        }
+    }
+
+    private interface Read {
+        int read() throws IOException;
+    }
+}
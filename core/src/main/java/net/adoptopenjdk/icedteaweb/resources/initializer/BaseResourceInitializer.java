@@ -25,7 +25,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.globalFixedThreadPool;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.ioPool;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ACCEPT_ENCODING_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.PACK_200_OR_GZIP;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
@@ -36,7 +36,7 @@ import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
 abstract class BaseResourceInitializer implements ResourceInitializer {
     private static final Logger LOG = LoggerFactory.getLogger(BaseResourceInitializer.class);
 
-    private static final ExecutorService remoteExecutor = globalFixedThreadPool();
+    private static final ExecutorService remoteExecutor = ioPool();
 
     private static final int NETWORK_AUTHENTICATION_REQUIRED = 511;
 
@@ -0,0 +1,130 @@
+package net.adoptopenjdk.icedteaweb.resources.jardiff;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The commands of the {@code META-INF/INDEX.JD} file of a jardiff.
+ * <p>
+ * After the version line every line holds one command and its paths. Paths are separated by
+ * whitespace, a space within a path is escaped by a backslash.
+ */
+class JarDiffIndex {
+
+    static final String INDEX_FILE = "META-INF/INDEX.JD";
+
+    private static final String VERSION_INFORMATION = "version 1.0";
+
+    private static final String REMOVE_KEYWORD = "remove";
+
+    private static final String MOVE_KEYWORD = "move";
+
+    private final Set<String> removed;
+    private final List<Move> moves;
+    private final Set<String> moveSources = new HashSet<>();
+
+    private JarDiffIndex(final Set<String> removed, final List<Move> moves) {
+        this.removed = Collections.unmodifiableSet(removed);
+        this.moves = Collections.unmodifiableList(moves);
+        moves.forEach(m -> moveSources.add(m.oldName));
+    }
+
+    static JarDiffIndex read(final InputStream inputStream) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        final String versionLine = reader.readLine();
+        if (versionLine == null || !versionLine.equals(VERSION_INFORMATION)) {
+            throw new IllegalStateException("Index file does is not based on jardiff version 1.0");
+        }
+
+        final Set<String> removed = new HashSet<>();
+        final List<Move> moves = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final List<String> tokens = tokenize(line);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            final String command = tokens.get(0);
+            if (REMOVE_KEYWORD.equals(command)) {
+                if (tokens.size() != 2) {
+                    throw new IllegalStateException("Found invalid remove definition: '" + line + "'");
+                }
+                removed.add(tokens.get(1));
+            } else if (MOVE_KEYWORD.equals(command)) {
+                if (tokens.size() != 3) {
+                    throw new IllegalStateException("Found invalid move definition: '" + line + "'");
+                }
+                moves.add(new Move(tokens.get(1), tokens.get(2)));
+            }
+        }
+        return new JarDiffIndex(removed, moves);
+    }
+
+    /**
+     * Splits a line at unescaped whitespace, {@code "\ "} is replaced by a space.
+     */
+    static List<String> tokenize(final String line) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == ' ') {
+                token.append(' ');
+                inToken = true;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    boolean isRemoved(final String name) {
+        return removed.contains(name);
+    }
+
+    boolean isMoveSource(final String name) {
+        return moveSources.contains(name);
+    }
+
+    List<Move> getMoves() {
+        return moves;
+    }
+
+    static class Move {
+        private final String oldName;
+        private final String newName;
+
+        private Move(final String oldName, final String newName) {
+            this.oldName = oldName;
+            this.newName = newName;
+        }
+
+        String getOldName() {
+            return oldName;
+        }
+
+        String getNewName() {
+            return newName;
+        }
+    }
+}
@@ -4,194 +4,137 @@ import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.zip.RawZipFile;
+import net.adoptopenjdk.icedteaweb.zip.RawZipWriter;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.Collection;
-import java.util.Collections;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.jar.JarEntry;
+import java.util.Map;
 import java.util.jar.JarFile;
-import java.util.jar.JarOutputStream;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
 
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.JarDiffIndex.INDEX_FILE;
+
+/**
+ * Applies a jardiff to the jar it was created for.
+ * <p>
+ * The entries are copied from the original jar and the jardiff as they are stored, without
+ * decompressing and compressing them again. The merged jar is written in one pass.
+ */
 public class JarDiffMerger {
 
     private static final Logger LOG = LoggerFactory.getLogger(JarDiffMerger.class);
 
-    private static final Pattern MOVED_PATH_PATTERN = Pattern.compile("(.+[^\\\\])\\s(.*)");
-    private static final String ESCAPED_WHITESPACE_PATTERN = Pattern.quote("\\ ");
-
-    private static final String VERSION_INFORMATION = "version 1.0";
-
-    private static final String INDEX_FILE = "META-INF/INDEX.JD";
+    private static final String META_INF = "META-INF/";
 
-    private static final String REMOVE_KEYWORD = "remove";
+    public static void merge(final File oldJar, final File jarDiff, final OutputStream outputStream) throws IOException {
+        Assert.requireNonNull(outputStream, "outputStream");
 
-    private static final String MOVE_KEYWORD = "move";
+        try (final InputStream merged = openMerged(oldJar, jarDiff)) {
+            IOUtils.copy(merged, outputStream);
+        }
+    }
 
-    public static void merge(final JarFile oldJar, final JarFile jarDiff, final JarOutputStream outputStream)
-            throws IOException {
+    /**
+     * Provides the merged jar as a stream. The entries are read from the original jar and the
+     * jardiff while the stream is consumed, both files are closed with the stream.
+     *
+     * @param oldJar  the jar the jardiff was created for
+     * @param jarDiff the jardiff
+     * @return the content of the merged jar
+     * @throws IOException if a file can not be read or the jardiff is invalid
+     */
+    public static InputStream openMerged(final File oldJar, final File jarDiff) throws IOException {
         Assert.requireNonNull(oldJar, "oldJar");
         Assert.requireNonNull(jarDiff, "jarDiff");
-        Assert.requireNonNull(outputStream, "outputStream");
 
         LOG.debug("JarDiff merge for original jar '{}' and diff jar '{}' starts", oldJar.getName(), jarDiff.getName());
 
+        final RawZipFile oldZip = new RawZipFile(oldJar);
+        RawZipFile diffZip = null;
         try {
-            final Set<JarEntry> newContent = getNewContent(jarDiff);
-            final Set<String> removedContent = getRemovedContent(jarDiff);
-            final Set<MovedJar> movedContent = getMovedContent(jarDiff);
-            final Set<JarEntry> unmodifiedContent = oldJar.stream()
-                    .filter(e -> !containsEntryWithSameName(newContent, e.getName()))
-                    .filter(e -> !removedContent.contains(e.getName()))
-                    .filter(e -> !containsOldName(movedContent, e.getName()))
-                    .collect(Collectors.toSet());
-
-            newContent.forEach(e -> {
-                LOG.debug("JarDiff: Adding new content '{}'", e.getName());
-                try (final InputStream inputStream = jarDiff.getInputStream(e)) {
-                    writeEntry(inputStream, outputStream, e.getName());
-                } catch (IOException ex) {
-                    throw new RuntimeException("Error in jardiff merge", ex);
-                }
-            });
-
-            movedContent.forEach(j -> {
-                final String oldName = j.getOldName();
-                final String newName = j.getNewName();
-                LOG.debug("JarDiff: Adding moved content '{}' -> '{}'", oldName, newName);
-                final JarEntry oldEntry = oldJar.getJarEntry(oldName);
-                if (oldEntry == null) {
-                    throw new IllegalStateException("Error in jardiff merge. Moved entry '" + oldName + "' can not be found in original jar");
-                }
-                try (final InputStream inputStream = oldJar.getInputStream(oldEntry)) {
-                    writeEntry(inputStream, outputStream, newName);
-                } catch (final Exception e) {
-                    throw new RuntimeException("Error in jardiff merge", e);
-                }
-            });
-
-            unmodifiedContent.forEach(e -> {
-                LOG.debug("JarDiff: Adding unmodified content '{}'", e.getName());
-                try (final InputStream inputStream = oldJar.getInputStream(e)) {
-                    writeEntry(inputStream, outputStream, e.getName());
-                } catch (final IOException ex) {
-                    throw new RuntimeException("Error in jardiff merge", ex);
+            diffZip = new RawZipFile(jarDiff);
+            final RawZipWriter writer = plan(oldZip, diffZip);
+            final RawZipFile openDiffZip = diffZip;
+            return new FilterInputStream(writer.open()) {
+                @Override
+                public void close() throws IOException {
+                    try (final RawZipFile ignoredOld = oldZip; final RawZipFile ignoredDiff = openDiffZip) {
+                        super.close();
+                    }
                 }
-            });
-        } finally {
-            outputStream.finish();
+            };
+        } catch (IOException | RuntimeException e) {
+            try (final RawZipFile ignoredOld = oldZip; final RawZipFile ignoredDiff = diffZip) {
+                throw e;
+            }
         }
     }
 
-    private static boolean containsEntryWithSameName(final Collection<JarEntry> collection, final String name) {
-        Assert.requireNonNull(collection, "collection");
-        Assert.requireNonBlank(name, "name");
-
-        return collection.stream()
-                .anyMatch(e -> Objects.equals(name, e.getName()));
-    }
-
-    private static boolean containsOldName(final Collection<MovedJar> collection, final String oldName) {
-        Assert.requireNonNull(collection, "collection");
-        Assert.requireNonBlank(oldName, "oldName");
-
-        return collection.stream()
-                .map(MovedJar::getOldName)
-                .anyMatch(n -> Objects.equals(n, oldName));
-    }
-
-    private static Set<JarEntry> getNewContent(final JarFile jarDiff) {
-        return jarDiff.stream().filter(e -> !Objects.equals(e.getName(), INDEX_FILE)).collect(Collectors.toSet());
-    }
-
-    private static List<String> getIndexFileLines(final JarFile jarDiff) throws IOException {
-        Assert.requireNonNull(jarDiff, "jarDiff");
-        final ZipEntry indexEntry = jarDiff.getEntry(INDEX_FILE);
+    private static RawZipWriter plan(final RawZipFile oldZip, final RawZipFile diffZip) throws IOException {
+        final RawZipFile.Entry indexEntry = diffZip.getEntry(INDEX_FILE);
         if (indexEntry == null) {
-            throw new IllegalStateException("Given JarFile '" + jarDiff.getName() + "' does not contain a JARDIFF index file");
+            throw new IllegalStateException("Given JarFile '" + diffZip.getName() + "' does not contain a JARDIFF index file");
+        }
+        final JarDiffIndex index;
+        try (final InputStream inputStream = diffZip.getInputStream(indexEntry)) {
+            index = JarDiffIndex.read(inputStream);
         }
 
-        try (final InputStream inputStream = jarDiff.getInputStream(indexEntry)) {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            final String line = reader.readLine();
-            if (line == null || !line.equals(VERSION_INFORMATION)) {
-                throw new IllegalStateException("Index file does is not based on jardiff version 1.0");
+        // an entry replaced by a later one keeps its position
+        final Map<String, Source> content = new LinkedHashMap<>();
+        for (final RawZipFile.Entry entry : oldZip.getEntries()) {
+            final String name = entry.getName();
+            if (!index.isRemoved(name) && !index.isMoveSource(name)) {
+                LOG.debug("JarDiff: Adding unmodified content '{}'", name);
+                content.put(name, new Source(oldZip, entry));
+            }
+        }
+        for (final JarDiffIndex.Move move : index.getMoves()) {
+            LOG.debug("JarDiff: Adding moved content '{}' -> '{}'", move.getOldName(), move.getNewName());
+            final RawZipFile.Entry oldEntry = oldZip.getEntry(move.getOldName());
+            if (oldEntry == null) {
+                throw new IllegalStateException("Error in jardiff merge. Moved entry '" + move.getOldName() + "' can not be found in original jar");
+            }
+            content.put(move.getNewName(), new Source(oldZip, oldEntry));
+        }
+        for (final RawZipFile.Entry entry : diffZip.getEntries()) {
+            if (!INDEX_FILE.equals(entry.getName())) {
+                LOG.debug("JarDiff: Adding new content '{}'", entry.getName());
+                content.put(entry.getName(), new Source(diffZip, entry));
             }
-            return reader.lines().collect(Collectors.toList());
         }
-    }
 
-    private static Set<String> getRemovedContent(final JarFile jarDiff) throws IOException {
-        final Set<String> result = getIndexFileLines(jarDiff).stream()
-                .filter(l -> l.startsWith(REMOVE_KEYWORD))
-                .map(l -> l.substring(REMOVE_KEYWORD.length()).trim())
-                .collect(Collectors.toSet());
-        return Collections.unmodifiableSet(result);
+        final RawZipWriter writer = new RawZipWriter();
+        manifestFirst(content).forEach((name, source) -> writer.add(name, source.zip, source.entry));
+        return writer;
     }
 
-    private static Set<MovedJar> getMovedContent(final JarFile jarDiff) throws IOException {
-        final Set<MovedJar> result = getIndexFileLines(jarDiff).stream()
-                .map(String::trim)
-                .filter(l -> l.startsWith(MOVE_KEYWORD))
-                .map(l -> l.substring(MOVE_KEYWORD.length()).trim())
-                .map(l -> {
-                    final Matcher matcher = MOVED_PATH_PATTERN.matcher(l);
-
-                    if (!matcher.matches() || matcher.groupCount() != 2) {
-                        throw new IllegalStateException("Found invalid move definition: '" + l + "'");
-                    }
-
-                    final String first = matcher.group(1).replaceAll(ESCAPED_WHITESPACE_PATTERN, " ");
-                    final String second = matcher.group(2).replaceAll(ESCAPED_WHITESPACE_PATTERN, " ");
-
-                    return new MovedJar(first, second);
-                })
-                .collect(Collectors.toSet());
-        return Collections.unmodifiableSet(result);
+    /**
+     * The manifest has to be at the start of a jar to be found when the jar is read as a stream.
+     */
+    private static Map<String, Source> manifestFirst(final Map<String, Source> content) {
+        final Map<String, Source> result = new LinkedHashMap<>();
+        final List<String> first = new ArrayList<>();
+        first.add(META_INF);
+        first.add(JarFile.MANIFEST_NAME);
+        first.stream().filter(content::containsKey).forEach(name -> result.put(name, content.get(name)));
+        content.forEach(result::putIfAbsent);
+        return result;
     }
 
-    private static void writeEntry(final InputStream inputStream, final JarOutputStream jarOutputStream, final String entryName)
-            throws IOException {
-        Assert.requireNonNull(jarOutputStream, "jarOutputStream");
-        Assert.requireNonNull(inputStream, "inputStream");
-        Assert.requireNonBlank(entryName, "entryName");
-        try {
-            jarOutputStream.putNextEntry(new ZipEntry(entryName));
-            IOUtils.copy(inputStream, jarOutputStream);
-        } catch (final IOException e) {
-            throw new IOException("Error in writing jar entry '" + entryName + "'", e);
-        }
-    }
-
-    private static class MovedJar {
-
-        private final String oldName;
-
-        private final String newName;
-
-        MovedJar(final String oldLocation, final String newLocation) {
-            this.newName = newLocation;
-            this.oldName = oldLocation;
-        }
-
-        String getOldName() {
-            return oldName;
-        }
+    private static class Source {
+        private final RawZipFile zip;
+        private final RawZipFile.Entry entry;
 
-        String getNewName() {
-            return newName;
+        private Source(final RawZipFile zip, final RawZipFile.Entry entry) {
+            this.zip = zip;
+            this.entry = entry;
         }
     }
 }
-
-
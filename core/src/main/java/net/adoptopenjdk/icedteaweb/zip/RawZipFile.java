@@ -0,0 +1,334 @@
+package net.adoptopenjdk.icedteaweb.zip;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Read access to the entries of a zip file as they are stored, without decompressing them.
+ * <p>
+ * Together with {@link RawZipWriter} entries can be copied between zip files with their
+ * compressed bytes, CRC and sizes preserved. Only the central directory is read when the file
+ * is opened. ZIP64 archives and encrypted entries are not supported.
+ */
+public class RawZipFile implements Closeable {
+
+    static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int CENTRAL_HEADER_SIZE = 46;
+    static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+    static final int ZIP64_MAGIC = 0xFFFF;
+    static final long ZIP64_MAGIC_SIZE = 0xFFFFFFFFL;
+
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int ENCRYPTED_FLAG = 0x0001;
+
+    private final String name;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+
+    public RawZipFile(final File zipFile) throws IOException {
+        this.name = zipFile.getPath();
+        this.file = new RandomAccessFile(zipFile, "r");
+        this.channel = file.getChannel();
+        try {
+            this.entries = Collections.unmodifiableMap(readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the entries in the order of the central directory
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    public Entry getEntry(final String entryName) {
+        return entries.get(entryName);
+    }
+
+    /**
+     * @return the stored, possibly compressed bytes of the entry
+     */
+    public InputStream getRawInputStream(final Entry entry) {
+        return new RangeInputStream(channel, entry.getDataOffset(), entry.compressedSize);
+    }
+
+    /**
+     * @return the uncompressed content of the entry
+     */
+    public InputStream getInputStream(final Entry entry) throws IOException {
+        final InputStream raw = getRawInputStream(entry);
+        if (entry.method == ZipEntry.STORED) {
+            return raw;
+        }
+        if (entry.method == ZipEntry.DEFLATED) {
+            return new EntryInflaterInputStream(raw);
+        }
+        throw new ZipException("Unsupported compression method " + entry.method + " of entry '" + entry.name + "' in " + name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        final ByteBuffer end = findEndOfCentralDirectory();
+        final int entryCount = end.getShort(10) & 0xFFFF;
+        final long directorySize = end.getInt(12) & 0xFFFFFFFFL;
+        final long directoryOffset = end.getInt(16) & 0xFFFFFFFFL;
+        if (entryCount == ZIP64_MAGIC || directorySize == ZIP64_MAGIC_SIZE || directoryOffset == ZIP64_MAGIC_SIZE) {
+            throw new ZipException("ZIP64 archives are not supported: " + name);
+        }
+
+        final ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        final Map<String, Entry> result = new LinkedHashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            if (directory.remaining() < CENTRAL_HEADER_SIZE || directory.getInt() != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory in " + name);
+            }
+            final Entry entry = new Entry();
+            entry.versionMadeBy = directory.getShort();
+            entry.versionNeeded = directory.getShort();
+            entry.flags = directory.getShort() & 0xFFFF;
+            entry.method = directory.getShort() & 0xFFFF;
+            entry.dosTime = directory.getInt();
+            entry.crc = directory.getInt();
+            entry.compressedSize = directory.getInt() & 0xFFFFFFFFL;
+            entry.size = directory.getInt() & 0xFFFFFFFFL;
+            final int nameLength = directory.getShort() & 0xFFFF;
+            final int extraLength = directory.getShort() & 0xFFFF;
+            final int commentLength = directory.getShort() & 0xFFFF;
+            directory.getShort(); // disk number
+            entry.internalAttributes = directory.getShort();
+            entry.externalAttributes = directory.getInt();
+            entry.localHeaderOffset = directory.getInt() & 0xFFFFFFFFL;
+            entry.name = new String(bytes(directory, nameLength), StandardCharsets.UTF_8);
+            entry.centralExtra = bytes(directory, extraLength);
+            directory.position(directory.position() + commentLength);
+
+            if ((entry.flags & ENCRYPTED_FLAG) != 0) {
+                throw new ZipException("Encrypted entry '" + entry.name + "' is not supported in " + name);
+            }
+            if (entry.compressedSize == ZIP64_MAGIC_SIZE || entry.size == ZIP64_MAGIC_SIZE || entry.localHeaderOffset == ZIP64_MAGIC_SIZE) {
+                throw new ZipException("ZIP64 entry '" + entry.name + "' is not supported in " + name);
+            }
+            readLocalHeader(entry);
+            result.put(entry.name, entry);
+        }
+        return result;
+    }
+
+    private void readLocalHeader(final Entry entry) throws IOException {
+        final ByteBuffer header = read(entry.localHeaderOffset, LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local header of entry '" + entry.name + "' in " + name);
+        }
+        final int nameLength = header.getShort(26) & 0xFFFF;
+        final int extraLength = header.getShort(28) & 0xFFFF;
+        entry.localExtra = bytes(read(entry.localHeaderOffset + LOCAL_HEADER_SIZE + nameLength, extraLength), extraLength);
+        entry.dataOffset = entry.localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+    }
+
+    private ByteBuffer findEndOfCentralDirectory() throws IOException {
+        final long length = channel.size();
+        if (length < END_OF_CENTRAL_DIRECTORY_SIZE) {
+            throw new ZipException("Not a zip file: " + name);
+        }
+        final long searchStart = Math.max(0, length - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_LENGTH);
+        final ByteBuffer tail = read(searchStart, (int) (length - searchStart));
+        for (int i = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                tail.position(i);
+                return tail.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        throw new ZipException("No end of central directory found in " + name);
+    }
+
+    private ByteBuffer read(final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + name);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer, final int length) {
+        final byte[] result = new byte[length];
+        buffer.get(result);
+        return result;
+    }
+
+    /**
+     * An entry as found in the central directory.
+     */
+    public static class Entry {
+        private String name;
+        private short versionMadeBy;
+        private short versionNeeded;
+        private int flags;
+        private int method;
+        private int dosTime;
+        private int crc;
+        private long compressedSize;
+        private long size;
+        private short internalAttributes;
+        private int externalAttributes;
+        private long localHeaderOffset;
+        private long dataOffset;
+        private byte[] centralExtra;
+        private byte[] localExtra;
+
+        public String getName() {
+            return name;
+        }
+
+        public short getVersionMadeBy() {
+            return versionMadeBy;
+        }
+
+        public short getVersionNeeded() {
+            return versionNeeded;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public int getDosTime() {
+            return dosTime;
+        }
+
+        public int getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public short getInternalAttributes() {
+            return internalAttributes;
+        }
+
+        public int getExternalAttributes() {
+            return externalAttributes;
+        }
+
+        public long getDataOffset() {
+            return dataOffset;
+        }
+
+        public byte[] getCentralExtra() {
+            return centralExtra;
+        }
+
+        public byte[] getLocalExtra() {
+            return localExtra;
+        }
+    }
+
+    /**
+     * Inflates the content of an entry and releases the native memory of its inflater on close.
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean closed;
+
+        private EntryInflaterInputStream(final InputStream raw) {
+            super(raw, new Inflater(true));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a range of a file channel without changing the position of the channel.
+     */
+    private static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        private RangeInputStream(final FileChannel channel, final long position, final long length) {
+            this.channel = channel;
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            final int toRead = (int) Math.min(len, end - position);
+            final int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of zip file");
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
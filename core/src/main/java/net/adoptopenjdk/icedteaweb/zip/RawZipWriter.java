@@ -0,0 +1,174 @@
+package net.adoptopenjdk.icedteaweb.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.ZipException;
+
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.CENTRAL_HEADER_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.CENTRAL_HEADER_SIZE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.END_OF_CENTRAL_DIRECTORY_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.END_OF_CENTRAL_DIRECTORY_SIZE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.LOCAL_HEADER_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.LOCAL_HEADER_SIZE;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.ZIP64_MAGIC;
+import static net.adoptopenjdk.icedteaweb.zip.RawZipFile.ZIP64_MAGIC_SIZE;
+
+/**
+ * Builds a zip file from entries of other zip files. The stored bytes of the entries are
+ * copied as they are, nothing is decompressed or compressed again.
+ * <p>
+ * As the sizes of all entries are known in advance, the new zip file is provided as a stream
+ * which reads the entries from their zip files while it is consumed.
+ */
+public class RawZipWriter {
+
+    private static final int DATA_DESCRIPTOR_FLAG = 0x0008;
+    private static final int UTF8_FLAG = 0x0800;
+
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * @param name   the name of the entry in the new zip file
+     * @param source the zip file containing the entry
+     * @param entry  the entry to copy
+     */
+    public void add(final String name, final RawZipFile source, final RawZipFile.Entry entry) {
+        items.add(new Item(name, source, entry));
+    }
+
+    /**
+     * @return the content of the new zip file, the source zip files must stay open until the
+     * stream is consumed
+     * @throws ZipException if the new zip file would need ZIP64 extensions
+     */
+    public InputStream open() throws ZipException {
+        if (items.size() >= ZIP64_MAGIC) {
+            throw new ZipException("Too many entries for a zip file without ZIP64 extensions: " + items.size());
+        }
+
+        final List<Supplier<InputStream>> segments = new ArrayList<>();
+        final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+        long offset = 0;
+        for (final Item item : items) {
+            if (offset >= ZIP64_MAGIC_SIZE) {
+                throw new ZipException("Zip file without ZIP64 extensions would exceed 4 GB at entry '" + item.name + "'");
+            }
+            final byte[] localHeader = localHeader(item);
+            final byte[] centralHeader = centralHeader(item, offset);
+            centralDirectory.write(centralHeader, 0, centralHeader.length);
+            segments.add(() -> new ByteArrayInputStream(localHeader));
+            segments.add(() -> item.source.getRawInputStream(item.entry));
+            offset += localHeader.length + item.entry.getCompressedSize();
+        }
+        if (offset >= ZIP64_MAGIC_SIZE) {
+            throw new ZipException("Zip file without ZIP64 extensions would exceed 4 GB");
+        }
+
+        final byte[] end = endOfCentralDirectory(items.size(), centralDirectory.size(), offset);
+        centralDirectory.write(end, 0, end.length);
+        final byte[] tail = centralDirectory.toByteArray();
+        segments.add(() -> new ByteArrayInputStream(tail));
+
+        final Iterator<Supplier<InputStream>> iterator = segments.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return iterator.next().get();
+            }
+        });
+    }
+
+    private static byte[] localHeader(final Item item) {
+        final RawZipFile.Entry entry = item.entry;
+        final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE + item.nameBytes.length + entry.getLocalExtra().length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort(entry.getVersionNeeded());
+        header.putShort((short) flags(entry));
+        header.putShort((short) entry.getMethod());
+        header.putInt(entry.getDosTime());
+        header.putInt(entry.getCrc());
+        header.putInt((int) entry.getCompressedSize());
+        header.putInt((int) entry.getSize());
+        header.putShort((short) item.nameBytes.length);
+        header.putShort((short) entry.getLocalExtra().length);
+        header.put(item.nameBytes);
+        header.put(entry.getLocalExtra());
+        return header.array();
+    }
+
+    private static byte[] centralHeader(final Item item, final long localHeaderOffset) {
+        final RawZipFile.Entry entry = item.entry;
+        final ByteBuffer header = ByteBuffer.allocate(CENTRAL_HEADER_SIZE + item.nameBytes.length + entry.getCentralExtra().length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort(entry.getVersionMadeBy());
+        header.putShort(entry.getVersionNeeded());
+        header.putShort((short) flags(entry));
+        header.putShort((short) entry.getMethod());
+        header.putInt(entry.getDosTime());
+        header.putInt(entry.getCrc());
+        header.putInt((int) entry.getCompressedSize());
+        header.putInt((int) entry.getSize());
+        header.putShort((short) item.nameBytes.length);
+        header.putShort((short) entry.getCentralExtra().length);
+        header.putShort((short) 0); // comment length
+        header.putShort((short) 0); // disk number
+        header.putShort(entry.getInternalAttributes());
+        header.putInt(entry.getExternalAttributes());
+        header.putInt((int) localHeaderOffset);
+        header.put(item.nameBytes);
+        header.put(entry.getCentralExtra());
+        return header.array();
+    }
+
+    private static byte[] endOfCentralDirectory(final int entryCount, final long directorySize, final long directoryOffset) {
+        final ByteBuffer end = ByteBuffer.allocate(END_OF_CENTRAL_DIRECTORY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        end.putShort((short) 0); // disk number
+        end.putShort((short) 0); // disk with central directory
+        end.putShort((short) entryCount);
+        end.putShort((short) entryCount);
+        end.putInt((int) directorySize);
+        end.putInt((int) directoryOffset);
+        end.putShort((short) 0); // comment length
+        return end.array();
+    }
+
+    /**
+     * The sizes are known, so no data descriptor follows the data. Names are written as UTF-8.
+     */
+    private static int flags(final RawZipFile.Entry entry) {
+        return (entry.getFlags() & ~DATA_DESCRIPTOR_FLAG) | UTF8_FLAG;
+    }
+
+    private static class Item {
+        private final String name;
+        private final byte[] nameBytes;
+        private final RawZipFile source;
+        private final RawZipFile.Entry entry;
+
+        private Item(final String name, final RawZipFile source, final RawZipFile.Entry entry) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.source = source;
+            this.entry = entry;
+        }
+    }
+}
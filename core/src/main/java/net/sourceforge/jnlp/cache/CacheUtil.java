@@ -242,9 +242,7 @@ public class CacheUtil {
                     .orElseGet(() -> new DummyDownloadIndicator());
             final DownloadServiceListener listener = getDownloadServiceListener(jnlpClassLoader, title, resources, indicator);
             try {
-                for (URL url : resources) {
-                    tracker.addDownloadListener(url, resources, listener);
-                }
+                tracker.addDownloadListener(resources, listener);
                 tracker.waitForResources(resources);
             } finally {
                 indicator.disposeListener(listener);
@@ -1,27 +1,46 @@
 package net.sourceforge.jnlp.cache;
 
 import net.adoptopenjdk.icedteaweb.JavaSystemProperties;
+import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.io.FileUtils;
-import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
+import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.util.RestrictedFileUtils;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Handles loading and access of native code loading through a JNLP application or applet.
- * Stores native code in a temporary folder.
+ * <p>
+ * Native libraries are extracted into a directory per content hash of their jar below the
+ * cache directory and reused by later launches as long as the jar does not change. If that
+ * directory can not be used, they are stored in a temporary folder.
  * Be sure to call {@link #cleanupTemporaryFolder()}  when finished with the object.
  */
 public class NativeLibraryStorage {
@@ -33,8 +52,27 @@ public class NativeLibraryStorage {
     public static final String NATIVE_LIB_EXT_JNILIB = ".jnilib";
     static final String[] NATIVE_LIBRARY_EXTENSIONS = {".so", NATIVE_LIB_EXT_DYLIB, NATIVE_LIB_EXT_JNILIB, ".framework", ".dll"};
 
+    /**
+     * Name of the directory below the cache directory holding the extracted libraries.
+     */
+    static final String EXTRACTION_DIR_NAME = "natives";
+
+    /**
+     * File in each extraction directory naming the cache files the libraries were extracted from,
+     * one line per jar. Jars with the same content share one extraction directory.
+     */
+    static final String SOURCE_FILE_NAME = ".source";
+
+    /**
+     * File below the extraction directory recording the content hash of each jar together with its
+     * size and modification time, so a jar is only hashed again once it has changed.
+     */
+    static final String HASHES_FILE_NAME = ".hashes";
+
     private final ResourceTracker tracker;
+    private final File extractionRoot;
     private final List<File> nativeSearchDirectories = new ArrayList<>();
+    private final Map<String, File> libraries = new ConcurrentHashMap<>();
 
     /**
      * Temporary directory to store native jar entries, added to our search path
@@ -42,7 +80,12 @@ public class NativeLibraryStorage {
     private File jarEntryDirectory = null;
 
     public NativeLibraryStorage(final ResourceTracker tracker) {
+        this(tracker, PathsAndFiles.CACHE_DIR.getFile());
+    }
+
+    NativeLibraryStorage(final ResourceTracker tracker, final File cacheDir) {
         this.tracker = tracker;
+        this.extractionRoot = new File(cacheDir, EXTRACTION_DIR_NAME);
     }
 
     /**
@@ -79,13 +122,17 @@ public class NativeLibraryStorage {
     }
 
     /**
-     * Looks in the search directories for 'fileName',
-     * returning a path to the found file if it exists.
+     * Looks for 'fileName' in the libraries extracted from jars and then
+     * in the search directories, returning a path to the found file if it exists.
      *
      * @param fileName name of library to be found
      * @return path to library if found, null otherwise.
      */
     public File findLibrary(final String fileName) {
+        final File library = libraries.get(fileName);
+        if (library != null && library.isFile()) {
+            return library;
+        }
         for (final File dir : nativeSearchDirectories) {
             final File target = new File(dir, fileName);
             if (target.exists()) {
@@ -109,40 +156,290 @@ public class NativeLibraryStorage {
             return;
         }
 
+        try (JarFile jarFile = new JarFile(localFile, false)) {
+            // a later entry with the same name replaces an earlier one
+            final Map<String, JarEntry> nativeEntries = new LinkedHashMap<>();
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry e = entries.nextElement();
+                if (!e.isDirectory()) {
+                    final String name = new File(e.getName()).getName();
+                    if (isLibrary(name)) {
+                        nativeEntries.put(name, e);
+                    }
+                }
+            }
+            if (nativeEntries.isEmpty()) {
+                return;
+            }
+
+            final File directory = getExtractionDirectory(localFile);
+            for (final Map.Entry<String, JarEntry> e : nativeEntries.entrySet()) {
+                final File outFile = new File(directory, e.getKey());
+                final JarEntry entry = e.getValue();
+                if (isExtracted(entry, outFile)) {
+                    LOG.debug("Reusing extracted native library {}", outFile);
+                } else {
+                    extract(jarFile, entry, outFile);
+                }
+                libraries.put(e.getKey(), outFile);
+            }
+            synchronized (this) {
+                if (!nativeSearchDirectories.contains(directory)) {
+                    nativeSearchDirectories.add(directory);
+                }
+            }
+        } catch (IOException ex) {
+            LOG.error("Exception while adding '" + localFile + "' to native search storage", ex);
+        }
+    }
+
+    private static boolean isLibrary(final String name) {
+        for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the extracted file with the size and CRC-32 checksum the jar records for the entry,
+     * which are known without decompressing the entry.
+     */
+    private static boolean isExtracted(final JarEntry entry, final File outFile) throws IOException {
+        if (!outFile.isFile() || entry.getSize() < 0 || entry.getCrc() < 0 || outFile.length() != entry.getSize()) {
+            return false;
+        }
+        final CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(outFile)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue() == entry.getCrc();
+    }
+
+    /**
+     * Writes the entry to a temporary file which then replaces the target, so other processes
+     * never see a partially written library.
+     */
+    private static void extract(final JarFile jarFile, final JarEntry entry, final File outFile) throws IOException {
+        final Path target = outFile.toPath();
+        final Path temp = Files.createTempFile(target.getParent(), outFile.getName(), ".tmp");
         try {
-            try (JarFile jarFile = new JarFile(localFile, false)) {
-                final Enumeration<JarEntry> entries = jarFile.entries();
+            try (InputStream in = jarFile.getInputStream(entry)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-                while (entries.hasMoreElements()) {
-                    final JarEntry e = entries.nextElement();
+    /**
+     * @return the directory for the libraries of the jar, the persistent one of its content
+     * hash if possible and the temporary folder otherwise
+     */
+    private File getExtractionDirectory(final File jar) {
+        try {
+            createDirectory(extractionRoot);
+            final File directory = new File(extractionRoot, getContentHash(extractionRoot, jar));
+            createDirectory(directory);
+            writeSource(directory, jar);
+            return directory;
+        } catch (IOException e) {
+            LOG.warn("Cannot use native library cache {}, using a temporary folder: {}", extractionRoot, e.getMessage());
+            return getNativeStoreDirectory();
+        }
+    }
 
-                    if (e.isDirectory()) {
-                        continue;
-                    }
+    private static void createDirectory(final File directory) throws IOException {
+        if (!directory.isDirectory()) {
+            try {
+                RestrictedFileUtils.createRestrictedDirectory(directory);
+            } catch (IOException e) {
+                // may have been created by another process in the meantime
+                if (!directory.isDirectory()) {
+                    throw e;
+                }
+            }
+        }
+    }
 
-                    final String name = new File(e.getName()).getName();
-                    boolean isLibrary = false;
+    /**
+     * Adds the jar to the sources of the directory. Sources which have changed or are gone are dropped.
+     */
+    private static void writeSource(final File directory, final File jar) throws IOException {
+        final String source = describeSource(jar);
+        final Path sourceFile = new File(directory, SOURCE_FILE_NAME).toPath();
+        final List<String> sources = readSources(sourceFile);
+        if (sources.contains(source)) {
+            return;
+        }
+        final List<String> updated = new ArrayList<>();
+        updated.add(source);
+        for (final String other : sources) {
+            if (!getSourcePath(other).equals(jar.getAbsolutePath()) && isCurrent(other)) {
+                updated.add(other);
+            }
+        }
+        final Path temp = Files.createTempFile(directory.toPath(), SOURCE_FILE_NAME, ".tmp");
+        try {
+            Files.write(temp, updated, UTF_8);
+            Files.move(temp, sourceFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-                    for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
-                        if (name.endsWith(suffix)) {
-                            isLibrary = true;
-                            break;
-                        }
-                    }
+    private static List<String> readSources(final Path sourceFile) throws IOException {
+        if (!Files.isRegularFile(sourceFile)) {
+            return new ArrayList<>();
+        }
+        return Files.readAllLines(sourceFile, UTF_8);
+    }
 
-                    if (isLibrary) {
-                        final File outFile = new File(getNativeStoreDirectory(), name);
-                        if (!outFile.isFile()) {
-                            RestrictedFileUtils.createRestrictedFile(outFile);
-                        }
-                        try (FileOutputStream out = new FileOutputStream(outFile)) {
-                            IOUtils.copy(jarFile.getInputStream(e), out, 4096);
-                        }
-                    }
+    /**
+     * @return size, modification time and path of the jar, separated by spaces
+     */
+    private static String describeSource(final File jar) {
+        return jar.length() + " " + jar.lastModified() + " " + jar.getAbsolutePath();
+    }
+
+    private static String getSourcePath(final String source) {
+        final String[] parts = source.split(" ", 3);
+        return parts.length == 3 ? parts[2] : "";
+    }
+
+    private static boolean isCurrent(final String source) {
+        final String path = getSourcePath(source);
+        return !path.isEmpty() && source.equals(describeSource(new File(path)));
+    }
+
+    /**
+     * Returns the content hash of the jar. The hash is only computed if the size or modification time
+     * of the jar differ from the ones recorded with its last hash.
+     */
+    private static String getContentHash(final File extractionRoot, final File jar) throws IOException {
+        final String stamp = jar.length() + " " + jar.lastModified() + " ";
+        synchronized (NativeLibraryStorage.class) {
+            final Properties hashes = readHashes(extractionRoot);
+            final String recorded = hashes.getProperty(jar.getAbsolutePath());
+            if (recorded != null && recorded.startsWith(stamp)) {
+                return recorded.substring(stamp.length());
+            }
+            final String hash = sha256(jar);
+            hashes.setProperty(jar.getAbsolutePath(), stamp + hash);
+            writeHashes(extractionRoot, hashes);
+            return hash;
+        }
+    }
+
+    private static Properties readHashes(final File extractionRoot) {
+        final Properties hashes = new Properties();
+        final File hashesFile = new File(extractionRoot, HASHES_FILE_NAME);
+        if (hashesFile.isFile()) {
+            try (InputStream in = new FileInputStream(hashesFile)) {
+                hashes.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debug("Ignoring unreadable jar hashes {} - {}", hashesFile, e.getMessage());
+                hashes.clear();
+            }
+        }
+        return hashes;
+    }
+
+    private static void writeHashes(final File extractionRoot, final Properties hashes) throws IOException {
+        final Path temp = Files.createTempFile(extractionRoot.toPath(), HASHES_FILE_NAME, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                hashes.store(out, null);
+            }
+            Files.move(temp, new File(extractionRoot, HASHES_FILE_NAME).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String sha256(final File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every java implementation has to support SHA-256
+            throw new RuntimeException(e);
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return StringUtils.toHex(digest.digest());
+    }
+
+    /**
+     * Removes the extracted libraries of jars which are no longer in the cache or have changed.
+     *
+     * @param cacheDir the cache directory
+     */
+    public static void removeStaleExtractions(final File cacheDir) {
+        final File extractionRoot = new File(cacheDir, EXTRACTION_DIR_NAME);
+        final File[] directories = extractionRoot.listFiles(File::isDirectory);
+        if (directories == null) {
+            return;
+        }
+        removeStaleHashes(extractionRoot);
+        for (final File directory : directories) {
+            if (isStale(directory)) {
+                LOG.debug("Removing stale native libraries {}", directory);
+                try {
+                    FileUtils.recursiveDelete(directory, extractionRoot);
+                } catch (IOException e) {
+                    LOG.error("Failed to delete directory {} - {}", directory, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if none of the jars the libraries were extracted from is unchanged
+     */
+    private static boolean isStale(final File directory) {
+        try {
+            for (final String source : readSources(new File(directory, SOURCE_FILE_NAME).toPath())) {
+                if (isCurrent(source)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void removeStaleHashes(final File extractionRoot) {
+        synchronized (NativeLibraryStorage.class) {
+            final Properties hashes = readHashes(extractionRoot);
+            final boolean changed = hashes.entrySet().removeIf(e -> {
+                final File jar = new File((String) e.getKey());
+                return !((String) e.getValue()).startsWith(jar.length() + " " + jar.lastModified() + " ");
+            });
+            if (changed) {
+                try {
+                    writeHashes(extractionRoot, hashes);
+                } catch (IOException e) {
+                    LOG.error("Failed to update jar hashes in {} - {}", extractionRoot, e.getMessage());
                 }
             }
-        } catch (IOException ex) {
-            LOG.error("Exception while adding '" + localFile + "' to temporary search storage", ex);
         }
     }
 
@@ -61,6 +61,11 @@ public interface ConfigurationConstants {
 
     String KEY_CACHE_COMPRESSION_ENABLED = "deployment.cache.jarcompression";
 
+    /**
+     * Boolean. Store identical cache files only once, named by the SHA-256 hash of their content
+     */
+    String KEY_CACHE_DEDUPLICATION = "deployment.cache.deduplicate";
+
     String KEY_USER_LOG_DIR = "deployment.user.logdir";
 
     String KEY_USER_TMP_DIR = "deployment.user.tmp";
@@ -134,6 +139,12 @@ public interface ConfigurationConstants {
     String KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT = "deployment.cache.parallelDownloadCount";
     int DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT = 6;
 
+    /**
+     * Integer. Maximum rate of all downloads together in kilobytes per second, 0 for no limit
+     */
+    String KEY_DOWNLOAD_BANDWIDTH_LIMIT = "deployment.cache.bandwidthLimit";
+    int DEFAULT_DOWNLOAD_BANDWIDTH_LIMIT = 0;
+
     /**
      * Boolean. Only install the custom authenticator if true
      */
@@ -163,6 +174,16 @@ public interface ConfigurationConstants {
 
     String KEY_PROXY_AUTO_CONFIG_URL = "deployment.proxy.auto.config.url";
 
+    /**
+     * Integer. Seconds a result of the proxy auto config (PAC) file is cached
+     */
+    String KEY_PROXY_AUTO_CONFIG_CACHE_TTL = "deployment.proxy.auto.config.cache.ttl";
+
+    /**
+     * Integer. Maximum number of cached results of the proxy auto config (PAC) file
+     */
+    String KEY_PROXY_AUTO_CONFIG_CACHE_SIZE = "deployment.proxy.auto.config.cache.size";
+
     String KEY_PROXY_BYPASS_LIST = "deployment.proxy.bypass.list";
 
     String KEY_PROXY_BYPASS_LOCAL = "deployment.proxy.bypass.local";
@@ -204,6 +225,42 @@ public interface ConfigurationConstants {
 
     String KEY_ENABLE_LOGGING_TOSYSTEMLOG = "deployment.log.system";
 
+    /**
+     * What to do with log messages if the logging queue is full, either {@link #LOG_BUFFER_OVERFLOW_BLOCK}
+     * or {@link #LOG_BUFFER_OVERFLOW_DROP}.
+     */
+    String KEY_LOG_BUFFER_OVERFLOW = "deployment.log.buffer.overflow";
+
+    String LOG_BUFFER_OVERFLOW_BLOCK = "block";
+
+    String LOG_BUFFER_OVERFLOW_DROP = "drop";
+
+    /**
+     * Size in kilobytes at which a log file is rotated, 0 disables rotation
+     */
+    String KEY_LOG_FILE_MAX_SIZE = "deployment.log.file.maxsize";
+
+    /**
+     * Number of rotated log files kept per log file
+     */
+    String KEY_LOG_FILE_MAX_COUNT = "deployment.log.file.maxcount";
+
+    /**
+     * Whether rotated log files are compressed with gzip
+     */
+    String KEY_LOG_FILE_COMPRESS = "deployment.log.file.compress";
+
+    /**
+     * Number of sessions whose log files are kept in the log directory, 0 keeps all of them
+     */
+    String KEY_LOG_FILE_MAX_SESSIONS = "deployment.log.file.maxsessions";
+
+    /**
+     * What to do with log messages if writing the log file can not keep up, either {@link #LOG_BUFFER_OVERFLOW_BLOCK}
+     * or {@link #LOG_BUFFER_OVERFLOW_DROP}.
+     */
+    String KEY_LOG_FILE_OVERFLOW = "deployment.log.file.overflow";
+
     /*
      * manifest check
      */
@@ -223,6 +280,17 @@ public interface ConfigurationConstants {
      */
     String KEY_CONSOLE_STARTUP_MODE = "deployment.console.startup.mode";
 
+    /**
+     * Maximum number of messages kept in memory by the java console
+     */
+    String KEY_CONSOLE_BUFFER_SIZE = "deployment.console.buffer.size";
+
+    /**
+     * to a file in the log directory instead of being discarded, only used when logging to files is enabled
+     * to a file in the log directory instead of being discarded
+     */
+    String KEY_CONSOLE_BUFFER_SPILL = "deployment.console.buffer.spill";
+
     String KEY_JNLP_ASSOCIATIONS = "deployment.javaws.associations";
 
     String KEY_CREATE_DESKTOP_SHORTCUT = "deployment.javaws.shortcut";
@@ -265,6 +265,16 @@ public class Defaults {
                     null,
                     ValidatorFactory.createUrlValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_PROXY_AUTO_CONFIG_CACHE_TTL,
+                    String.valueOf(10),
+                    ValidatorFactory.createRangedIntegerValidator(0, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_PROXY_AUTO_CONFIG_CACHE_SIZE,
+                    String.valueOf(1000),
+                    ValidatorFactory.createRangedIntegerValidator(0, Integer.MAX_VALUE)
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_PROXY_BYPASS_LIST,
                     null,
@@ -334,6 +344,11 @@ public class Defaults {
                     String.valueOf(0),
                     ValidatorFactory.createRangedIntegerValidator(0, 10)
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_DEDUPLICATION,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_CACHE_ENABLED,
                     String.valueOf(false),
@@ -354,6 +369,16 @@ public class Defaults {
                             ConfigurationConstants.CONSOLE_SHOW_JAVAWS
                     })
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CONSOLE_BUFFER_SIZE,
+                    String.valueOf(10000),
+                    ValidatorFactory.createRangedIntegerValidator(1, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CONSOLE_BUFFER_SPILL,
+                    String.valueOf(true),
+                    ValidatorFactory.createBooleanValidator()
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_ENABLE_DEBUG_LOGGING,
                     String.valueOf(false),
@@ -394,6 +419,42 @@ public class Defaults {
                     String.valueOf(true),
                     ValidatorFactory.createBooleanValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_BUFFER_OVERFLOW,
+                    ConfigurationConstants.LOG_BUFFER_OVERFLOW_BLOCK,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.LOG_BUFFER_OVERFLOW_BLOCK,
+                            ConfigurationConstants.LOG_BUFFER_OVERFLOW_DROP
+                    })
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_FILE_MAX_SIZE,
+                    String.valueOf(10 * 1024),
+                    ValidatorFactory.createRangedIntegerValidator(0, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_FILE_MAX_COUNT,
+                    String.valueOf(5),
+                    ValidatorFactory.createRangedIntegerValidator(0, 1000)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_FILE_COMPRESS,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_FILE_MAX_SESSIONS,
+                    String.valueOf(20),
+                    ValidatorFactory.createRangedIntegerValidator(0, 10000)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOG_FILE_OVERFLOW,
+                    ConfigurationConstants.LOG_BUFFER_OVERFLOW_BLOCK,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.LOG_BUFFER_OVERFLOW_BLOCK,
+                            ConfigurationConstants.LOG_BUFFER_OVERFLOW_DROP
+                    })
+            ),
 
             /*
              * JNLP association
@@ -486,6 +547,12 @@ public class Defaults {
                     ValidatorFactory.createRangedIntegerValidator(1, 24)
             ),
 
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_DOWNLOAD_BANDWIDTH_LIMIT,
+                    String.valueOf(ConfigurationConstants.DEFAULT_DOWNLOAD_BANDWIDTH_LIMIT),
+                    ValidatorFactory.createRangedIntegerValidator(0, Integer.MAX_VALUE)
+            ),
+
             /*
              * JVM executable for itw
              */
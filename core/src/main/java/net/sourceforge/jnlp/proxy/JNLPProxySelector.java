@@ -18,7 +18,6 @@ package net.sourceforge.jnlp.proxy;
 
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.IcedTeaWebConstants;
-import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
@@ -39,7 +38,6 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static net.sourceforge.jnlp.proxy.ProxyConstants.FTP_SCHEMA;
 import static net.sourceforge.jnlp.proxy.ProxyConstants.HTTPS_SCHEMA;
@@ -81,8 +79,8 @@ public abstract class JNLPProxySelector extends ProxySelector {
     private final String proxySocks4Host;
     private final int proxySocks4Port;
 
-    /** a list of URLs that should be bypassed for proxy purposes */
-    private final List<String> bypassList;
+    /** matches the hosts that should be bypassed for proxy purposes */
+    private final ProxyBypassMatcher bypassMatcher;
 
     /**
      * whether the http proxy should be used for https and ftp protocols as well
@@ -107,9 +105,7 @@ public abstract class JNLPProxySelector extends ProxySelector {
             pacEvaluator = PacEvaluatorFactory.getPacEvaluator(autoConfigUrl);
         }
 
-        bypassList = config.getPropertyAsList(ConfigurationConstants.KEY_PROXY_BYPASS_LIST).stream()
-                .filter(s -> !StringUtils.isBlank(s))
-                .collect(Collectors.toList());
+        bypassMatcher = new ProxyBypassMatcher(config.getPropertyAsList(ConfigurationConstants.KEY_PROXY_BYPASS_LIST));
 
         bypassLocal = Boolean.valueOf(config
                 .getProperty(ConfigurationConstants.KEY_PROXY_BYPASS_LOCAL));
@@ -219,7 +215,7 @@ public abstract class JNLPProxySelector extends ProxySelector {
                     if (bypassLocal && isLocalhostOrLoopback(url)) {
                         return true;
                     }
-                    if (bypassList.contains(url.getHost())) {
+                    if (bypassMatcher.matches(url.getHost())) {
                         return true;
                     }
                     break;
@@ -227,7 +223,7 @@ public abstract class JNLPProxySelector extends ProxySelector {
                     if (bypassLocal && isLocalhostOrLoopback(uri)) {
                         return true;
                     }
-                    if (bypassList.contains(uri.getHost())) {
+                    if (bypassMatcher.matches(uri.getHost())) {
                         return true;
                     }
                     break;
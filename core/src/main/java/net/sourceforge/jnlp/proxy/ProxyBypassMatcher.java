@@ -0,0 +1,274 @@
+package net.sourceforge.jnlp.proxy;
+
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
+import net.adoptopenjdk.icedteaweb.StringUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Matches hosts against the entries of the proxy bypass list.
+ * <p>
+ * The entries are compiled once into lookup structures so that matching a host does
+ * not depend on the length of the list:
+ * <ul>
+ *     <li>plain host names like {@code example.com} are matched exactly using a hash set</li>
+ *     <li>domain suffixes like {@code *.example.com} or {@code .example.com} match all subdomains
+ *     and are stored in a trie of the reversed labels</li>
+ *     <li>IP addresses and ranges like {@code 10.0.0.0/8}, {@code 192.168.*} or {@code fe80::/10}
+ *     are stored in a binary prefix trie per address family</li>
+ *     <li>{@code *} matches every host</li>
+ * </ul>
+ * Any other entry containing a wildcard is matched as a pattern. Matching never performs DNS lookups.
+ */
+public class ProxyBypassMatcher {
+
+    private final static Logger LOG = LoggerFactory.getLogger(ProxyBypassMatcher.class);
+
+    private static final String WILDCARD = "*";
+
+    private static final Pattern IP_RANGE = Pattern.compile("[0-9a-f.:]+(/\\d{1,3})?");
+
+    /**
+     * Only the complete notations of IP addresses are accepted. Short forms like {@code 10}
+     * or {@code 10.1}, which {@code inet_aton} would expand to full addresses, are host names.
+     */
+    private static final IPAddressStringParameters RANGE_PARAMETERS = strictParameters(true);
+
+    private static final IPAddressStringParameters HOST_PARAMETERS = strictParameters(false);
+
+    private final Set<String> exactHosts = new HashSet<>();
+    private final DomainNode domainSuffixes = new DomainNode();
+    private final PrefixNode ipv4Ranges = new PrefixNode();
+    private final PrefixNode ipv6Ranges = new PrefixNode();
+    private final List<Pattern> patterns = new ArrayList<>();
+    private boolean matchAll = false;
+    private boolean hasIpRanges = false;
+
+    /**
+     * @param bypassList the entries of the bypass list
+     */
+    public ProxyBypassMatcher(final List<String> bypassList) {
+        for (final String entry : bypassList) {
+            if (!StringUtils.isBlank(entry)) {
+                add(entry.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private void add(final String entry) {
+        if (entry.equals(WILDCARD)) {
+            matchAll = true;
+        } else if (entry.startsWith("*.") && entry.indexOf('*', 1) < 0) {
+            domainSuffixes.addSuffix(entry.substring(2));
+        } else if (entry.startsWith(".") && entry.indexOf('*') < 0) {
+            domainSuffixes.addSuffix(entry.substring(1));
+        } else if (addIpRange(entry)) {
+            hasIpRanges = true;
+        } else if (entry.contains(WILDCARD)) {
+            patterns.add(toPattern(entry));
+        } else {
+            exactHosts.add(stripBrackets(entry));
+        }
+    }
+
+    /**
+     * @param host the host to check
+     * @return true if the host matches an entry of the bypass list
+     */
+    public boolean matches(final String host) {
+        if (matchAll) {
+            return true;
+        }
+        if (StringUtils.isBlank(host)) {
+            return false;
+        }
+
+        final String normalized = stripBrackets(host.toLowerCase(Locale.ROOT));
+        if (exactHosts.contains(normalized)) {
+            return true;
+        }
+        if (domainSuffixes.matchesSubdomain(normalized)) {
+            return true;
+        }
+        if (hasIpRanges && looksLikeIpAddress(normalized) && matchesIpRange(normalized)) {
+            return true;
+        }
+        for (final Pattern pattern : patterns) {
+            if (pattern.matcher(normalized).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean addIpRange(final String entry) {
+        final String rangeEntry = toCidr(stripBrackets(entry));
+        if (rangeEntry == null || !IP_RANGE.matcher(rangeEntry).matches()) {
+            return false;
+        }
+        final IPAddress address = new IPAddressString(rangeEntry, RANGE_PARAMETERS).getAddress();
+        if (address == null) {
+            return false;
+        }
+        final byte[] bytes = address.getBytes();
+        final Integer prefixLength = address.getNetworkPrefixLength();
+        final int bits = prefixLength != null ? prefixLength : bytes.length * 8;
+        (address.isIPv4() ? ipv4Ranges : ipv6Ranges).add(bytes, bits);
+        return true;
+    }
+
+    private boolean matchesIpRange(final String host) {
+        final IPAddress address = new IPAddressString(host, HOST_PARAMETERS).getAddress();
+        if (address == null) {
+            return false;
+        }
+        return (address.isIPv4() ? ipv4Ranges : ipv6Ranges).matches(address.getBytes());
+    }
+
+    private static IPAddressStringParameters strictParameters(final boolean allowPrefix) {
+        return new IPAddressStringParameters.Builder()
+                .allowEmpty(false)
+                .allowAll(false)
+                .allowSingleSegment(false)
+                .allowMask(false)
+                .allowPrefixOnly(false)
+                .allowPrefix(allowPrefix)
+                .allowWildcardedSeparator(false)
+                .allow_inet_aton(false)
+                .toParams();
+    }
+
+    /**
+     * Converts IPv4 wildcard entries like {@code 192.168.*} to CIDR notation.
+     *
+     * @return the entry in CIDR notation, the entry itself if it has no wildcard
+     * or {@code null} if the entry is no IP address entry
+     */
+    private static String toCidr(final String entry) {
+        if (!entry.endsWith(".*")) {
+            return looksLikeIpAddress(entry) ? entry : null;
+        }
+        final String[] octets = entry.substring(0, entry.length() - 2).split("\\.");
+        if (octets.length > 3) {
+            return null;
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final String octet : octets) {
+            if (!octet.matches("\\d{1,3}") || Integer.parseInt(octet) > 255) {
+                return null;
+            }
+            result.append(octet).append('.');
+        }
+        for (int i = octets.length; i < 4; i++) {
+            result.append("0.");
+        }
+        return result.substring(0, result.length() - 1) + "/" + octets.length * 8;
+    }
+
+    private static boolean looksLikeIpAddress(final String host) {
+        return !host.isEmpty() && (Character.isDigit(host.charAt(0)) || host.indexOf(':') >= 0);
+    }
+
+    private static String stripBrackets(final String host) {
+        if (host.startsWith("[") && host.endsWith("]")) {
+            return host.substring(1, host.length() - 1);
+        }
+        return host;
+    }
+
+    private static Pattern toPattern(final String entry) {
+        final String[] parts = entry.split("\\*", -1);
+        final StringBuilder regex = new StringBuilder(Pattern.quote(parts[0]));
+        for (int i = 1; i < parts.length; i++) {
+            regex.append(".*").append(Pattern.quote(parts[i]));
+        }
+        LOG.debug("Matching proxy bypass entry '{}' as pattern", entry);
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Node of a trie of reversed domain labels. {@code com -> example} represents {@code example.com}.
+     */
+    private static class DomainNode {
+        private final Map<String, DomainNode> children = new HashMap<>();
+        private boolean matchesSubdomains = false;
+
+        void addSuffix(final String domain) {
+            DomainNode node = this;
+            int end = domain.length();
+            while (end > 0) {
+                final int start = domain.lastIndexOf('.', end - 1);
+                final String label = domain.substring(start + 1, end);
+                node = node.children.computeIfAbsent(label, l -> new DomainNode());
+                end = start;
+            }
+            node.matchesSubdomains = true;
+        }
+
+        boolean matchesSubdomain(final String host) {
+            DomainNode node = this;
+            int end = host.length();
+            while (end > 0) {
+                final int start = host.lastIndexOf('.', end - 1);
+                node = node.children.get(host.substring(start + 1, end));
+                if (node == null) {
+                    return false;
+                }
+                if (node.matchesSubdomains && start > 0) {
+                    return true;
+                }
+                end = start;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Node of a binary trie over the bits of IP addresses.
+     */
+    private static class PrefixNode {
+        private final PrefixNode[] children = new PrefixNode[2];
+        private boolean terminal = false;
+
+        void add(final byte[] address, final int prefixLength) {
+            PrefixNode node = this;
+            for (int i = 0; i < prefixLength && !node.terminal; i++) {
+                final int bit = bit(address, i);
+                if (node.children[bit] == null) {
+                    node.children[bit] = new PrefixNode();
+                }
+                node = node.children[bit];
+            }
+            node.terminal = true;
+        }
+
+        boolean matches(final byte[] address) {
+            PrefixNode node = this;
+            for (int i = 0; i < address.length * 8; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                node = node.children[bit(address, i)];
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.terminal;
+        }
+
+        private static int bit(final byte[] address, final int index) {
+            return (address[index / 8] >> (7 - index % 8)) & 1;
+        }
+    }
+}
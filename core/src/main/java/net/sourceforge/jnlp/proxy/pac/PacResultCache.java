@@ -0,0 +1,135 @@
+package net.sourceforge.jnlp.proxy.pac;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe, size-bounded cache for the results of a PAC file.
+ * <p>
+ * Entries expire a fixed time after they have been added. Lookups do not lock
+ * and do not modify the cache unless they find an expired entry. If the cache
+ * grows beyond its maximum size all expired entries and then the entries
+ * closest to expiry are evicted by a single thread.
+ */
+public class PacResultCache {
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        private Entry(final String value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final long timeToLive;
+    private final int maxSize;
+    private final LongSupplier nanoTime;
+
+    /**
+     * @param timeToLive how long an entry is valid after it has been added
+     * @param unit the unit of the time to live
+     * @param maxSize the maximum number of entries kept in the cache
+     */
+    public PacResultCache(final long timeToLive, final TimeUnit unit, final int maxSize) {
+        this(timeToLive, unit, maxSize, System::nanoTime);
+    }
+
+    PacResultCache(final long timeToLive, final TimeUnit unit, final int maxSize, final LongSupplier nanoTime) {
+        requireNonNull(unit);
+        requireNonNull(nanoTime);
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("time to live must not be negative");
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("max size must not be negative");
+        }
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.maxSize = maxSize;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @param key the key of the entry
+     * @return the cached value or {@code null} if there is no valid entry for the key
+     */
+    public String get(final String key) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(nanoTime.getAsLong())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Adds an entry to the cache. If the cache is full older entries are evicted.
+     *
+     * @param key the key of the entry
+     * @param value the value to cache
+     */
+    public void put(final String key, final String value) {
+        requireNonNull(key);
+        if (value == null || timeToLive == 0 || maxSize == 0) {
+            return;
+        }
+        entries.put(key, new Entry(value, nanoTime.getAsLong() + timeToLive));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long now = nanoTime.getAsLong();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+
+            // shrink below the limit so a full cache does not evict on every put
+            final int target = maxSize - maxSize / 4;
+            while (entries.size() > target) {
+                // evict the oldest entry of a small sample instead of sorting the whole cache
+                Map.Entry<String, Entry> oldest = null;
+                final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+                for (int i = 0; i < 16 && iterator.hasNext(); i++) {
+                    final Map.Entry<String, Entry> candidate = iterator.next();
+                    if (oldest == null || candidate.getValue().expiresAt - oldest.getValue().expiresAt < 0) {
+                        oldest = candidate;
+                    }
+                }
+                if (oldest == null) {
+                    break;
+                }
+                entries.remove(oldest.getKey(), oldest.getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
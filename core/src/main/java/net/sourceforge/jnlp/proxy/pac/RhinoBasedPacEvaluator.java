@@ -37,10 +37,15 @@ package net.sourceforge.jnlp.proxy.pac;
 import net.adoptopenjdk.icedteaweb.IcedTeaWebConstants;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
-import net.sourceforge.jnlp.util.TimedHashMap;
+import net.sourceforge.jnlp.config.Defaults;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -54,13 +59,23 @@ import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.PropertyPermission;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static net.adoptopenjdk.icedteaweb.JavaSystemPropertiesConstants.VM_NAME;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.KEY_PROXY_AUTO_CONFIG_CACHE_SIZE;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.KEY_PROXY_AUTO_CONFIG_CACHE_TTL;
 import static sun.security.util.SecurityConstants.PROPERTY_READ_ACTION;
 
 /**
  * Represents a Proxy Auto Config file. This object can be used to evaluate the
  * proxy file to find the proxy for a given url.
+ * <p>
+ * The helper functions and the PAC script are compiled once into a sealed
+ * shared scope. Each lookup then only calls {@code FindProxyForURL} in a
+ * new lightweight scope which uses the shared scope as prototype, so no
+ * state written by the PAC script survives from one lookup to the next.
  *
  * @see <a href="http://en.wikipedia.org/wiki/Proxy_auto-config#The_PAC_file">The PAC File</a>
  */
@@ -68,10 +83,27 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
 
     private final static Logger LOG = LoggerFactory.getLogger(RhinoBasedPacEvaluator.class);
 
+    private static final String FIND_PROXY_FOR_URL = "FindProxyForURL";
+
+    private static final ContextFactory CONTEXT_FACTORY = new PacContextFactory();
+
+    /**
+     * Matches the usual declaration of the PAC function, in which the first parameter is named {@code url}.
+     */
+    private static final Pattern URL_DECLARATION = Pattern.compile("function\\s+" + FIND_PROXY_FOR_URL + "\\s*\\(\\s*url\\s*[,)]");
+
+    /**
+     * Matches any other use of {@code url} and the {@code arguments} object through which the url can be accessed as well.
+     */
+    private static final Pattern URL_REFERENCE = Pattern.compile("(?<![\\w$])(url|arguments)(?![\\w$])");
+
     private final String pacHelperFunctionContents;
     private final String pacContents;
     private final URL pacUrl;
-    private final TimedHashMap<String, String> cache;
+    private final PacResultCache cache;
+    private final boolean cacheByUrl;
+
+    private volatile CompiledPac compiledPac;
 
     /**
      * Initialize a new object by using the PAC file located at the given URL.
@@ -79,18 +111,44 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      * @param pacUrl the url of the PAC file to use
      */
     public RhinoBasedPacEvaluator(URL pacUrl) {
+        this(pacUrl, createCache(JNLPRuntime.getConfiguration()));
+    }
+
+    RhinoBasedPacEvaluator(URL pacUrl, PacResultCache cache) {
         LOG.debug("Create Rhino-based PAC evaluator for '{}'", pacUrl);
         pacHelperFunctionContents = getHelperFunctionContents();
         this.pacUrl = pacUrl;
         pacContents = getPacContents(pacUrl);
-        cache = new TimedHashMap<String, String>();
+        this.cache = cache;
+        cacheByUrl = dependsOnUrl(pacContents);
+    }
+
+    private static PacResultCache createCache(DeploymentConfiguration config) {
+        return new PacResultCache(
+                getIntProperty(config, KEY_PROXY_AUTO_CONFIG_CACHE_TTL), TimeUnit.SECONDS,
+                getIntProperty(config, KEY_PROXY_AUTO_CONFIG_CACHE_SIZE));
+    }
+
+    private static int getIntProperty(DeploymentConfiguration config, String key) {
+        final int defaultValue = Integer.parseInt(Defaults.getDefaults().get(key).getDefaultValue());
+        final String value = config.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.error("Invalid value '{}' for '{}', using {}", value, key, defaultValue);
+            return defaultValue;
+        }
     }
 
     /**
      * Get the proxies for accessing a given URL. The result is obtained by
      * evaluating the PAC file with the given url (and the host) as input.
      *
-     * This method performs caching of the result.
+     * This method performs caching of the result. Results are cached per host
+     * unless the PAC file makes use of the full url.
      *
      * @param url the url for which a proxy is desired
      * @return a list of proxies in a string like
@@ -99,13 +157,14 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      * @see #getProxiesWithoutCaching(URL)
      */
     public String getProxies(URL url) {
-        String cachedResult = getFromCache(url);
+        final String cacheKey = getCacheKey(url);
+        String cachedResult = cache.get(cacheKey);
         if (cachedResult != null) {
             return cachedResult;
         }
 
         String result = getProxiesWithoutCaching(url);
-        addToCache(url, result);
+        cache.put(cacheKey, result);
         return result;
     }
 
@@ -119,27 +178,51 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      *
      * @see #getProxies(URL)
      */
-    private String getProxiesWithoutCaching(URL url) {
+    String getProxiesWithoutCaching(URL url) {
         if (pacHelperFunctionContents == null) {
             LOG.error("Error loading pac functions");
             return PacConstants.DIRECT;
         }
 
-        EvaluatePacAction evaluatePacAction = new EvaluatePacAction(pacContents, pacUrl.toString(),
-                pacHelperFunctionContents, url);
+        final CompiledPac compiled = getCompiledPac();
+        if (compiled.isBroken()) {
+            return PacConstants.DIRECT;
+        }
+
+        return AccessController.doPrivileged(new EvaluatePacAction(compiled, url), createSandbox());
+    }
+
+    /**
+     * Returns the compiled PAC script. The script is only compiled on first use.
+     */
+    private CompiledPac getCompiledPac() {
+        CompiledPac result = compiledPac;
+        if (result == null) {
+            synchronized (this) {
+                result = compiledPac;
+                if (result == null) {
+                    final CompilePacAction compilePacAction = new CompilePacAction(pacContents, pacUrl.toString(), pacHelperFunctionContents);
+                    result = AccessController.doPrivileged(compilePacAction, createSandbox());
+                    compiledPac = result;
+                }
+            }
+        }
+        return result;
+    }
 
-        // Purposefully giving only these permissions rather than using java.policy. The "evaluatePacAction"
-        // isn't supposed to do very much and so doesn't require all the default permissions given by
-        // java.policy
+    /**
+     * Purposefully giving only these permissions rather than using java.policy. The PAC script
+     * isn't supposed to do very much and so doesn't require all the default permissions given by
+     * java.policy
+     */
+    private static AccessControlContext createSandbox() {
         Permissions p = new Permissions();
         p.add(new RuntimePermission("accessClassInPackage.org.mozilla.javascript"));
         p.add(new SocketPermission("*", "resolve"));
         p.add(new PropertyPermission(VM_NAME, PROPERTY_READ_ACTION));
 
         ProtectionDomain pd = new ProtectionDomain(null, p);
-        AccessControlContext context = new AccessControlContext(new ProtectionDomain[] { pd });
-
-        return AccessController.doPrivileged(evaluatePacAction, context);
+        return new AccessControlContext(new ProtectionDomain[] { pd });
     }
 
     /**
@@ -198,42 +281,81 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
     }
 
     /**
-     * Gets an entry from the cache
+     * Returns the key under which the result for the given url is cached
      */
-    private String getFromCache(URL url) {
-        String lookupString = url.getProtocol() + "://" + url.getHost();
-        String result = cache.get(lookupString);
-        return result;
+    private String getCacheKey(URL url) {
+        if (cacheByUrl) {
+            return url.toString();
+        }
+        return url.getProtocol() + "://" + url.getHost();
     }
 
     /**
-     * Adds an entry to the cache
+     * Returns whether the results of the PAC file may depend on the full url and not only on the host.
+     * Results are only cached per host if {@code FindProxyForURL} is declared with the usual parameter
+     * name {@code url} and the PAC file does not mention {@code url} anywhere else, not even in a comment.
      */
-    private void addToCache(URL url, String proxyResult) {
-        String lookupString = url.getAuthority() + "://" + url.getHost();
-        cache.put(lookupString, proxyResult);
+    static boolean dependsOnUrl(String pacContents) {
+        if (pacContents == null) {
+            return true;
+        }
+        final Matcher declaration = URL_DECLARATION.matcher(pacContents);
+        if (!declaration.find()) {
+            return true;
+        }
+        final String otherContents = pacContents.substring(0, declaration.start()) + pacContents.substring(declaration.end());
+        return URL_REFERENCE.matcher(otherContents).find();
     }
 
     /**
-     * Helper classs to run remote javascript code (specified by the user as
-     * PAC URL) inside a sandbox.
+     * The result of compiling the helper functions and the PAC script: a
+     * sealed scope holding the standard objects, the helper functions and
+     * everything defined by the PAC script.
      */
-    private static class EvaluatePacAction implements PrivilegedAction<String> {
+    private static class CompiledPac {
+
+        private final ScriptableObject sharedScope;
+        private final Function findProxyFunction;
 
-        private String pacContents;
-        private String pacUrl;
-        private String pacFuncsContents;
-        private URL url;
+        CompiledPac(ScriptableObject sharedScope, Function findProxyFunction) {
+            this.sharedScope = sharedScope;
+            this.findProxyFunction = findProxyFunction;
+        }
+
+        boolean isBroken() {
+            return sharedScope == null;
+        }
 
-        public EvaluatePacAction(String pacContents, String pacUrl, String pacFuncsContents, URL url) {
+        /**
+         * Returns a new scope for a single lookup. Variables written by the PAC
+         * script during the lookup end up here and never in the shared scope.
+         */
+        Scriptable newLookupScope(Context cx) {
+            final Scriptable scope = cx.newObject(sharedScope);
+            scope.setPrototype(sharedScope);
+            scope.setParentScope(null);
+            return scope;
+        }
+    }
+
+    /**
+     * Helper class to compile the helper functions and the remote javascript
+     * code (specified by the user as PAC URL) inside a sandbox.
+     */
+    private static class CompilePacAction implements PrivilegedAction<CompiledPac> {
+
+        private final String pacContents;
+        private final String pacUrl;
+        private final String pacFuncsContents;
+
+        CompilePacAction(String pacContents, String pacUrl, String pacFuncsContents) {
             this.pacContents = pacContents;
             this.pacUrl = pacUrl;
             this.pacFuncsContents = pacFuncsContents;
-            this.url = url;
         }
 
-        public String run() {
-            Context cx = Context.enter();
+        public CompiledPac run() {
+            Context cx = CONTEXT_FACTORY.enterContext();
             try {
                 /*
                  * TODO defense in depth.
@@ -241,25 +363,60 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
                  * This is already running within a sandbox, but we can (and we
                  * should) lock it down further. Look into ClassShutter.
                  */
-                Scriptable scope = cx.initStandardObjects();
-                // any optimization level greater than -1 will trigger code generation
-                // and this block will then need classloader permissions
-                cx.setOptimizationLevel(-1);
-                Object result = null;
-                result = cx.evaluateString(scope, pacFuncsContents, "internal", 1, null);
-                result = cx.evaluateString(scope, pacContents, pacUrl, 1, null);
-
-                Object functionObj = scope.get("FindProxyForURL", scope);
+                ScriptableObject scope = cx.initStandardObjects(null, true);
+                Script pacFuncs = cx.compileString(pacFuncsContents, "internal", 1, null);
+                Script pac = cx.compileString(pacContents, pacUrl, 1, null);
+                pacFuncs.exec(cx, scope);
+                pac.exec(cx, scope);
+                // standard objects like "java" are initialized lazily on first access
+                // which would fail once the scope is sealed
+                for (Object id : scope.getAllIds()) {
+                    if (id instanceof String) {
+                        scope.get((String) id, scope);
+                    }
+                }
+                scope.sealObject();
+
+                Object functionObj = scope.get(FIND_PROXY_FOR_URL, scope);
                 if (!(functionObj instanceof Function)) {
                     LOG.error("FindProxyForURL not found");
-                    return null;
-                } else {
-                    Function findProxyFunction = (Function) functionObj;
-
-                    Object[] args = { url.toString(), url.getHost() };
-                    result = findProxyFunction.call(cx, scope, scope, args);
-                    return (String) result;
+                    return new CompiledPac(scope, null);
                 }
+                return new CompiledPac(scope, (Function) functionObj);
+            } catch (Exception e) {
+                LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, e);
+                return new CompiledPac(null, null);
+            } finally {
+                Context.exit();
+            }
+        }
+    }
+
+    /**
+     * Helper classs to run remote javascript code (specified by the user as
+     * PAC URL) inside a sandbox.
+     */
+    private static class EvaluatePacAction implements PrivilegedAction<String> {
+
+        private final CompiledPac compiledPac;
+        private final URL url;
+
+        EvaluatePacAction(CompiledPac compiledPac, URL url) {
+            this.compiledPac = compiledPac;
+            this.url = url;
+        }
+
+        public String run() {
+            if (compiledPac.findProxyFunction == null) {
+                return null;
+            }
+
+            Context cx = CONTEXT_FACTORY.enterContext();
+            try {
+                Scriptable scope = compiledPac.newLookupScope(cx);
+                Object[] args = { url.toString(), url.getHost() };
+                Object result = compiledPac.findProxyFunction.call(cx, scope, scope, args);
+                return (String) result;
             } catch (Exception e) {
                 LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, e);
                 return PacConstants.DIRECT;
@@ -269,4 +426,29 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
         }
     }
 
+    /**
+     * Context factory for evaluating PAC scripts in a shared sealed scope.
+     * Dynamic scoping makes top-level variables written by the PAC functions
+     * resolve to the scope of the lookup instead of the sealed shared one.
+     */
+    private static class PacContextFactory extends ContextFactory {
+
+        @Override
+        protected boolean hasFeature(Context cx, int featureIndex) {
+            if (featureIndex == Context.FEATURE_DYNAMIC_SCOPE) {
+                return true;
+            }
+            return super.hasFeature(cx, featureIndex);
+        }
+
+        @Override
+        protected Context makeContext() {
+            Context cx = super.makeContext();
+            // any optimization level greater than -1 will trigger code generation
+            // and this block will then need classloader permissions
+            cx.setOptimizationLevel(-1);
+            return cx;
+        }
+    }
+
 }
@@ -39,6 +39,7 @@ import net.adoptopenjdk.icedteaweb.http.CloseableConnection;
 import net.adoptopenjdk.icedteaweb.http.ConnectionFactory;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.manifest.ManifestCache;
 import net.sourceforge.jnlp.util.JarFile;
 import net.sourceforge.jnlp.util.UrlUtils;
 import sun.net.www.protocol.jar.URLJarFile;
@@ -103,7 +104,12 @@ public final class CachedJarFileCallback implements URLJarFileCallBack {
 
         if (UrlUtils.isLocalFile(localUrl)) {
             // if it is known to us, just return the cached file
-            java.util.jar.JarFile returnFile = new JarFile(UrlUtils.decodeUrlQuietly(localUrl).getPath()).getNative();
+            final File localFile = new File(UrlUtils.decodeUrlQuietly(localUrl).getPath());
+            java.util.jar.JarFile returnFile = new JarFile(localFile).getNative();
+            if (!ManifestCache.getInstance().hasMainAttribute(localFile, Attributes.Name.CLASS_PATH)) {
+                // nothing to blank out, do not parse the manifest of the returned jar file
+                return returnFile;
+            }
 
             try {
                 // Blank out the class-path because:
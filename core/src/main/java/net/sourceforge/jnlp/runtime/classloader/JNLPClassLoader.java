@@ -17,6 +17,7 @@ package net.sourceforge.jnlp.runtime.classloader;
 import net.adoptopenjdk.icedteaweb.commandline.CommandLineOptions;
 import net.adoptopenjdk.icedteaweb.http.CloseableConnection;
 import net.adoptopenjdk.icedteaweb.http.ConnectionFactory;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.jdk89access.JarIndexAccess;
 import net.adoptopenjdk.icedteaweb.jnlp.element.EntryPoint;
 import net.adoptopenjdk.icedteaweb.jnlp.element.application.AppletDesc;
@@ -30,6 +31,8 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.manifest.ManifestAttributesChecker;
 import net.adoptopenjdk.icedteaweb.manifest.ManifestAttributesReader;
+import net.adoptopenjdk.icedteaweb.manifest.ManifestCache;
+import net.adoptopenjdk.icedteaweb.resources.DownloadPriority;
 import net.adoptopenjdk.icedteaweb.resources.IllegalResourceDescriptorException;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
@@ -52,6 +55,7 @@ import net.sourceforge.jnlp.security.AppVerifier;
 import net.sourceforge.jnlp.security.JNLPAppVerifier;
 import net.sourceforge.jnlp.tools.JarCertVerifier;
 import net.sourceforge.jnlp.util.JarFile;
+import net.sourceforge.jnlp.util.ResourceLocation;
 import net.sourceforge.jnlp.util.UrlUtils;
 
 import java.io.File;
@@ -256,10 +260,10 @@ public class JNLPClassLoader extends URLClassLoader {
      * classloading threads. See loadClass(String) and
      * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    final Map<URL, SecurityDesc> jarLocationSecurityMap = Collections.synchronizedMap(new HashMap<>());
+    final Map<ResourceLocation, SecurityDesc> jarLocationSecurityMap = Collections.synchronizedMap(new HashMap<>());
 
     /*Set to prevent once tried-to-get resources to be tried again*/
-    private final Set<URL> alreadyTried = Collections.synchronizedSet(new HashSet<>());
+    private final Set<ResourceLocation> alreadyTried = Collections.synchronizedSet(new HashSet<>());
 
     /**
      * Loader for codebase (which is a path, rather than a file)
@@ -687,7 +691,8 @@ public class JNLPClassLoader extends URLClassLoader {
             }
             // FIXME: this will trigger an eager download as the tracker is created with prefetch == true
             tracker.addResource(jar.getLocation(), jar.getVersion(),
-                    jar.isCacheable() ? JNLPRuntime.getDefaultUpdatePolicy() : UpdatePolicy.FORCE);
+                    jar.isCacheable() ? JNLPRuntime.getDefaultUpdatePolicy() : UpdatePolicy.FORCE,
+                    jar.isMain() ? DownloadPriority.MAIN_JAR : jar.isEager() ? DownloadPriority.EAGER : DownloadPriority.LAZY_PREFETCH);
         }
 
         //If there are no eager jars, initialize the first jar
@@ -818,7 +823,7 @@ public class JNLPClassLoader extends URLClassLoader {
         for (JARDesc jarDesc : validJars) {
             final URL codebase = getJnlpFileCodebase();
             final SecurityDesc jarSecurity = securityDelegate.getCodebaseSecurityDesc(jarDesc, codebase);
-            jarLocationSecurityMap.put(jarDesc.getLocation(), jarSecurity);
+            jarLocationSecurityMap.put(ResourceLocation.of(jarDesc.getLocation()), jarSecurity);
         }
 
         activateJars(initialJars);
@@ -1212,20 +1217,7 @@ public class JNLPClassLoader extends URLClassLoader {
                                 if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
                                     throw new RuntimeException("Unable to extract nested jar.");
                                 }
-                                FileOutputStream extractedJar = new FileOutputStream(extractedJarLocation);
-                                InputStream is = jarFile.getInputStream(je);
-
-                                byte[] bytes = new byte[1024];
-                                int read = is.read(bytes);
-                                int fileSize = read;
-                                while (read > 0) {
-                                    extractedJar.write(bytes, 0, read);
-                                    read = is.read(bytes);
-                                    fileSize += read;
-                                }
-
-                                is.close();
-                                extractedJar.close();
+                                final long fileSize = extractNestedJar(jarFile, je, new File(extractedJarLocation));
 
                                 // 0 byte file? skip
                                 if (fileSize <= 0) {
@@ -1250,7 +1242,7 @@ public class JNLPClassLoader extends URLClassLoader {
                                     CachedJarFileCallback.getInstance().addMapping(fakeRemote, fileURL);
                                     addURL(fakeRemote);
 
-                                    jarLocationSecurityMap.put(fakeRemote, jarSecurity);
+                                    jarLocationSecurityMap.put(ResourceLocation.of(fakeRemote), jarSecurity);
 
                                 } catch (MalformedURLException mfue) {
                                     LOG.error("Unable to add extracted nested jar to classpath", mfue);
@@ -1291,6 +1283,19 @@ public class JNLPClassLoader extends URLClassLoader {
         return null;
     }
 
+    /**
+     * Extracts a jar nested in a cached jar. The entry is read through the jar file, so its
+     * content is checked against the signature and the CRC of the outer jar.
+     *
+     * @return the size of the extracted jar
+     */
+    private static long extractNestedJar(final JarFile jarFile, final JarEntry je, final File target) throws IOException {
+        try (InputStream is = jarFile.getInputStream(je); FileOutputStream extractedJar = new FileOutputStream(target)) {
+            IOUtils.copy(is, extractedJar);
+        }
+        return target.length();
+    }
+
     /**
      * Return the absolute path to the native library.
      */
@@ -1562,7 +1567,7 @@ public class JNLPClassLoader extends URLClassLoader {
 
                 final SecurityDesc security = securityDelegate.getJarPermissions(file.getCodeBase());
 
-                jarLocationSecurityMap.put(remoteURL, security);
+                jarLocationSecurityMap.put(ResourceLocation.of(remoteURL), security);
 
                 return null;
             });
@@ -1842,16 +1847,17 @@ public class JNLPClassLoader extends URLClassLoader {
      * @return The SecurityDescriptor for that source
      */
     private SecurityDesc getCodeSourceSecurity(URL source) {
-        SecurityDesc sec = jarLocationSecurityMap.get(source);
+        final ResourceLocation sourceLocation = ResourceLocation.of(source);
+        SecurityDesc sec = jarLocationSecurityMap.get(sourceLocation);
         synchronized (alreadyTried) {
-            if (sec == null && !alreadyTried.contains(source)) {
-                alreadyTried.add(source);
+            if (sec == null && !alreadyTried.contains(sourceLocation)) {
+                alreadyTried.add(sourceLocation);
                 //try to load the jar which is requesting the permissions, but was NOT downloaded by standard way
                 LOG.info("Application is trying to get permissions for {}, which was not added by standard way. Trying to download and verify!", source.toString());
                 try {
                     JARDesc des = new JARDesc(source, null, null, false, false, false, false);
                     addNewJar(des);
-                    sec = jarLocationSecurityMap.get(source);
+                    sec = jarLocationSecurityMap.get(sourceLocation);
                 } catch (Throwable t) {
                     LOG.error("Error while getting security", t);
                     sec = null;
@@ -1896,7 +1902,7 @@ public class JNLPClassLoader extends URLClassLoader {
 
         // security descriptors
         synchronized (jarLocationSecurityMap) {
-            for (URL key : extLoader.jarLocationSecurityMap.keySet()) {
+            for (ResourceLocation key : extLoader.jarLocationSecurityMap.keySet()) {
                 jarLocationSecurityMap.put(key, extLoader.jarLocationSecurityMap.get(key));
             }
         }
@@ -2098,8 +2104,8 @@ public class JNLPClassLoader extends URLClassLoader {
 
         // Permissions for all remote hosting urls
         synchronized (jarLocationSecurityMap) {
-            for (URL u : jarLocationSecurityMap.keySet()) {
-                permissions.add(new SocketPermission(UrlUtils.getHostAndPort(u),
+            for (ResourceLocation location : jarLocationSecurityMap.keySet()) {
+                permissions.add(new SocketPermission(UrlUtils.getHostAndPort(location.getUrl()),
                         "connect, accept"));
             }
         }
@@ -2129,8 +2135,7 @@ public class JNLPClassLoader extends URLClassLoader {
     public String getMainClassNameFromManifest(JARDesc mainJarDesc) throws IOException {
         final File f = tracker.getCacheFile(mainJarDesc.getLocation());
         if (f != null) {
-            final JarFile mainJar = new JarFile(f);
-            return mainJar.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            return ManifestCache.getInstance().getMainAttribute(f, Attributes.Name.MAIN_CLASS);
         }
         return null;
     }
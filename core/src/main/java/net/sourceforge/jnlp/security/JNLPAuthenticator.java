@@ -44,7 +44,6 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createSingletonDaemonThreadPool;
-import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.globalFixedThreadPool;
 
 public class JNLPAuthenticator extends Authenticator {
 
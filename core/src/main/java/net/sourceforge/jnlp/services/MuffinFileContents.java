@@ -0,0 +1,108 @@
+package net.sourceforge.jnlp.services;
+
+import javax.jnlp.FileContents;
+import javax.jnlp.JNLPRandomAccessFile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Contents of a muffin in a {@link MuffinStore}.
+ * <p>
+ * Written data becomes visible when the output stream or random access file is closed.
+ */
+class MuffinFileContents implements FileContents {
+
+    private final MuffinStore store;
+    private final String name;
+
+    MuffinFileContents(final MuffinStore store, final String name) {
+        this.store = store;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() throws IOException {
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ByteArrayInputStream(store.read(name));
+    }
+
+    @Override
+    public OutputStream getOutputStream(final boolean overwrite) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    store.write(name, toByteArray());
+                }
+            }
+        };
+        if (!overwrite) {
+            out.write(store.read(name));
+        }
+        return out;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return store.getLength(name);
+    }
+
+    @Override
+    public boolean canRead() throws IOException {
+        return store.exists(name);
+    }
+
+    @Override
+    public boolean canWrite() throws IOException {
+        return store.exists(name);
+    }
+
+    /**
+     * The muffin is copied to a temporary file, which is written back when the file is closed.
+     */
+    @Override
+    public JNLPRandomAccessFile getRandomAccessFile(final String mode) throws IOException {
+        final File copy = Files.createTempFile("muffin", ".tmp").toFile();
+        try {
+            Files.write(copy.toPath(), store.read(name));
+            return new XJNLPRandomAccessFile(copy, mode) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    try {
+                        if (mode.contains("w")) {
+                            store.write(name, Files.readAllBytes(copy.toPath()));
+                        }
+                    } finally {
+                        Files.deleteIfExists(copy.toPath());
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(copy.toPath());
+            throw e;
+        }
+    }
+
+    @Override
+    public long getMaxLength() throws IOException {
+        return store.getMaxSize(name);
+    }
+
+    @Override
+    public long setMaxLength(final long maxLength) throws IOException {
+        return store.setMaxSize(name, maxLength);
+    }
+}
@@ -0,0 +1,522 @@
+package net.sourceforge.jnlp.services;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.util.RestrictedFileUtils;
+
+import javax.jnlp.PersistenceService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * All muffins of one codebase host in a single journal file.
+ * <p>
+ * The file starts with a magic header followed by records. Each record is
+ * {@code int length, int crc32, payload}, the payload starts with the record type and the
+ * muffin name:
+ * <ul>
+ *     <li>{@code PUT name tag maxSize dataLength data} - create or replace a muffin</li>
+ *     <li>{@code META name tag maxSize} - change tag or maximal size of a muffin</li>
+ *     <li>{@code DELETE name} - remove a muffin</li>
+ * </ul>
+ * Records are only ever appended and forced to disk, so a crash can at most leave a torn last
+ * record, which fails its checksum, is ignored when reading and overwritten by the next change. The
+ * live muffins with their data, maximal size and tag are built by replaying the journal and kept in
+ * memory, so reads do not touch the file. When most of the file is superseded records, the live
+ * muffins are written to a new file which atomically replaces the old one.
+ * <p>
+ * Several JVMs may use the same store: changes are made under a file lock and first pick up
+ * records appended or a compaction done by another process. Reads pick them up at most once per
+ * refresh interval.
+ */
+class MuffinStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MuffinStore.class);
+
+    private static final byte[] MAGIC = "ITWMUFF1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte PUT = 1;
+    private static final byte META = 2;
+    private static final byte DELETE = 3;
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 1000;
+
+    private final Path path;
+    private final long refreshIntervalMillis;
+    private final Map<String, Entry> index = new HashMap<>();
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long validSize;
+    /** size of the records a compaction would write, without the magic header */
+    private long liveBytes;
+    private long lastRefresh;
+
+    /**
+     * Opens the store file, creating it if it does not exist yet.
+     */
+    MuffinStore(final File file) throws IOException {
+        this(file, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens the store file, creating it if it does not exist yet.
+     *
+     * @param refreshIntervalMillis how long reads are answered from memory before the file is
+     *                              checked for changes of other processes
+     */
+    MuffinStore(final File file, final long refreshIntervalMillis) throws IOException {
+        this.path = file.toPath();
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        if (!file.exists()) {
+            RestrictedFileUtils.createRestrictedFile(file);
+        }
+        open();
+    }
+
+    synchronized boolean exists(final String name) throws IOException {
+        refreshIfDue();
+        return index.containsKey(name);
+    }
+
+    synchronized List<String> getNames() throws IOException {
+        refreshIfDue();
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Creates an empty muffin.
+     *
+     * @throws IOException if the muffin already exists
+     */
+    synchronized void create(final String name, final long maxSize) throws IOException {
+        change(() -> {
+            if (index.containsKey(name)) {
+                throw new IOException("File already exists.");
+            }
+            append(PUT, name, PersistenceService.CACHED, maxSize, new byte[0]);
+            return null;
+        });
+    }
+
+    /**
+     * @return true if the muffin existed
+     */
+    synchronized boolean delete(final String name) throws IOException {
+        return change(() -> {
+            if (!index.containsKey(name)) {
+                return false;
+            }
+            append(DELETE, name, 0, 0, null);
+            compactIfWorthwhile();
+            return true;
+        });
+    }
+
+    synchronized byte[] read(final String name) throws IOException {
+        refreshIfDue();
+        return getEntry(name).data.clone();
+    }
+
+    /**
+     * Replaces the content of a muffin, keeping its tag and maximal size.
+     *
+     * @throws IOException if the data exceeds the maximal size of the muffin
+     */
+    synchronized void write(final String name, final byte[] data) throws IOException {
+        change(() -> {
+            final Entry entry = getEntry(name);
+            if (data.length > entry.maxSize) {
+                throw new IOException("Data exceeds the maximal size of " + entry.maxSize + " bytes");
+            }
+            append(PUT, name, entry.tag, entry.maxSize, data);
+            compactIfWorthwhile();
+            return null;
+        });
+    }
+
+    /**
+     * Creates a muffin with the given content, tag and maximal size unless it exists already.
+     *
+     * @return true if the muffin was created
+     */
+    synchronized boolean putIfAbsent(final String name, final byte[] data, final int tag, final long maxSize) throws IOException {
+        return change(() -> {
+            if (index.containsKey(name)) {
+                return false;
+            }
+            append(PUT, name, tag, maxSize, data);
+            return true;
+        });
+    }
+
+    synchronized long getLength(final String name) throws IOException {
+        refreshIfDue();
+        return getEntry(name).data.length;
+    }
+
+    synchronized int getTag(final String name) throws IOException {
+        refreshIfDue();
+        return getEntry(name).tag;
+    }
+
+    synchronized void setTag(final String name, final int tag) throws IOException {
+        change(() -> {
+            final Entry entry = getEntry(name);
+            if (entry.tag != tag) {
+                append(META, name, tag, entry.maxSize, null);
+            }
+            return null;
+        });
+    }
+
+    synchronized long getMaxSize(final String name) throws IOException {
+        refreshIfDue();
+        return getEntry(name).maxSize;
+    }
+
+    /**
+     * @return the granted maximal size, never less than the current length of the muffin
+     */
+    synchronized long setMaxSize(final String name, final long maxSize) throws IOException {
+        return change(() -> {
+            final Entry entry = getEntry(name);
+            final long granted = Math.max(maxSize, entry.data.length);
+            if (entry.maxSize != granted) {
+                append(META, name, entry.tag, granted, null);
+            }
+            return granted;
+        });
+    }
+
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes all live muffins to a new file, which atomically replaces the current one.
+     */
+    synchronized void compact() throws IOException {
+        change(() -> {
+            compactLocked();
+            return null;
+        });
+    }
+
+    private <T> T change(final Change<T> change) throws IOException {
+        final FileLock lock = lockForWrite();
+        try {
+            return change.apply();
+        } finally {
+            // a compaction closes the channel and so releases the lock
+            if (lock.isValid()) {
+                lock.release();
+            }
+        }
+    }
+
+    private Entry getEntry(final String name) throws FileNotFoundException {
+        final Entry entry = index.get(name);
+        if (entry == null) {
+            throw new FileNotFoundException("Persistence store for " + name + " is not found.");
+        }
+        return entry;
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileKey = readFileKey();
+        index.clear();
+        liveBytes = 0;
+        validSize = 0;
+        try (FileLock ignored = channel.lock()) {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(MAGIC), 0);
+                channel.force(true);
+            }
+            replay(0);
+        }
+    }
+
+    private Object readFileKey() throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private void refreshIfDue() throws IOException {
+        if (System.currentTimeMillis() - lastRefresh >= refreshIntervalMillis) {
+            refresh();
+        }
+    }
+
+    /**
+     * Picks up changes done by other processes.
+     */
+    private void refresh() throws IOException {
+        lastRefresh = System.currentTimeMillis();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new IOException("Persistence store " + path + " was removed", e);
+        }
+        if (attributes.fileKey() != null && !attributes.fileKey().equals(fileKey)) {
+            // replaced by a compaction of another process
+            channel.close();
+            open();
+        } else if (channel.size() != validSize) {
+            replay(validSize);
+        }
+    }
+
+    /**
+     * Locks the file for a change. The lock is taken on the current store file, also if another
+     * process has replaced it in the meantime.
+     */
+    private FileLock lockForWrite() throws IOException {
+        while (true) {
+            refresh();
+            final FileLock lock = channel.lock();
+            final Object currentKey = readFileKey();
+            if (currentKey == null || currentKey.equals(fileKey)) {
+                if (channel.size() != validSize) {
+                    replay(validSize);
+                }
+                return lock;
+            }
+            lock.release();
+        }
+    }
+
+    private void replay(final long from) throws IOException {
+        final long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Persistence store " + path + " is too large");
+        }
+        if (from > size) {
+            // shrunk by another process, read it again
+            index.clear();
+            liveBytes = 0;
+            replay(0);
+            return;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (size - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0) {
+            // read the appended records
+        }
+        buffer.flip();
+        if (from == 0) {
+            final byte[] magic = new byte[MAGIC.length];
+            if (buffer.remaining() < MAGIC.length) {
+                throw new IOException("Persistence store " + path + " is not valid");
+            }
+            buffer.get(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Persistence store " + path + " is not valid");
+            }
+        }
+        long position = buffer.position();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            final int length = buffer.getInt();
+            final int crc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() || crc != checksum(buffer, buffer.position(), length)) {
+                break;
+            }
+            final int start = buffer.position();
+            try {
+                apply(buffer, RECORD_HEADER_SIZE + length);
+            } catch (BufferUnderflowException | IllegalArgumentException | UTFDataFormatException e) {
+                break;
+            }
+            buffer.position(start + length);
+            position = buffer.position();
+        }
+        // an incomplete record at the end is either still being written by another process
+        // or the remains of a crash, it is overwritten by the next change
+        validSize = from + position;
+    }
+
+    /**
+     * @param recordSize the size of the record including its header
+     */
+    private void apply(final ByteBuffer buffer, final int recordSize) throws UTFDataFormatException {
+        final byte type = buffer.get();
+        final String name = readString(buffer);
+        final Entry previous = index.get(name);
+        if (type == DELETE) {
+            if (previous != null) {
+                index.remove(name);
+                liveBytes -= previous.recordSize;
+            }
+            return;
+        }
+        final int tag = buffer.getInt();
+        final long maxSize = buffer.getLong();
+        if (type == META) {
+            if (previous != null) {
+                // tag and maximal size have a fixed width, the compacted record keeps its size
+                index.put(name, new Entry(previous.data, maxSize, tag, previous.recordSize));
+            }
+            return;
+        }
+        if (type != PUT) {
+            throw new IllegalArgumentException("Unknown record type " + type);
+        }
+        final int dataLength = buffer.getInt();
+        if (dataLength < 0 || dataLength > buffer.remaining()) {
+            throw new IllegalArgumentException("Illegal data length " + dataLength);
+        }
+        final byte[] data = new byte[dataLength];
+        buffer.get(data);
+        index.put(name, new Entry(data, maxSize, tag, recordSize));
+        liveBytes += recordSize - (previous != null ? previous.recordSize : 0);
+    }
+
+    private void append(final byte type, final String name, final int tag, final long maxSize, final byte[] data) throws IOException {
+        final ByteBuffer record = record(type, name, tag, maxSize, data);
+        final long start = validSize;
+        if (channel.size() > start) {
+            LOG.warn("Dropping {} bytes of an incomplete change at the end of persistence store {}", channel.size() - start, path);
+            channel.truncate(start);
+        }
+        while (record.hasRemaining()) {
+            channel.write(record, start + record.position());
+        }
+        channel.force(false);
+        // apply the record as it was written, so offsets are the same as when replaying
+        replay(start);
+    }
+
+    private void compactIfWorthwhile() throws IOException {
+        if (validSize > MIN_COMPACTION_SIZE && validSize > 2 * (liveBytes + MAGIC.length)) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        final Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        RestrictedFileUtils.createRestrictedFile(compacted.toFile());
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.wrap(MAGIC));
+            for (Map.Entry<String, Entry> muffin : index.entrySet()) {
+                final Entry entry = muffin.getValue();
+                final ByteBuffer record = record(PUT, muffin.getKey(), entry.tag, entry.maxSize, entry.data);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("Could not compact persistence store {}: {}", path, e.getMessage());
+            Files.deleteIfExists(compacted);
+            return;
+        }
+        // the lock of the old file is released when its channel is closed
+        channel.close();
+        open();
+    }
+
+    private static ByteBuffer record(final byte type, final String name, final int tag, final long maxSize, final byte[] data) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(type);
+            out.writeUTF(name);
+            if (type != DELETE) {
+                out.writeInt(tag);
+                out.writeLong(maxSize);
+            }
+            if (type == PUT) {
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        }
+        final byte[] bytes = payload.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        record.flip();
+        return record;
+    }
+
+    private static int checksum(final ByteBuffer buffer, final int start, final int length) {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(start);
+        payload.limit(start + length);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static String readString(final ByteBuffer buffer) throws UTFDataFormatException {
+        // format of DataOutput.writeUTF
+        final int length = buffer.getShort() & 0xFFFF;
+        final byte[] bytes = new byte[Short.BYTES + length];
+        bytes[0] = (byte) (length >> 8);
+        bytes[1] = (byte) length;
+        buffer.get(bytes, Short.BYTES, length);
+        try {
+            return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+        } catch (UTFDataFormatException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private interface Change<T> {
+        T apply() throws IOException;
+    }
+
+    /**
+     * A live muffin.
+     */
+    private static class Entry {
+        private final byte[] data;
+        private final long maxSize;
+        private final int tag;
+        /** size of the PUT record of the muffin */
+        private final int recordSize;
+
+        private Entry(final byte[] data, final long maxSize, final int tag, final int recordSize) {
+            this.data = data;
+            this.maxSize = maxSize;
+            this.tag = tag;
+            this.recordSize = recordSize;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.sourceforge.jnlp.services;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the single instance channel.
+ * <p>
+ * A message is a frame of {@code int length} followed by {@code length} bytes. The body holds
+ * the number of arguments ({@code -1} for {@code null}) followed by each argument as
+ * {@code int length} ({@code -1} for {@code null}) and its UTF-8 bytes. All integers are big endian.
+ * <p>
+ * Unlike serialized objects, reading a message never creates anything but strings.
+ */
+final class SingleInstanceProtocol {
+
+    static final int HEADER_SIZE = Integer.BYTES;
+
+    /**
+     * Upper bound of the body of a message, larger messages are rejected.
+     */
+    static final int MAX_MESSAGE_SIZE = 1024 * 1024;
+
+    private static final int NULL_LENGTH = -1;
+
+    private SingleInstanceProtocol() {
+    }
+
+    /**
+     * @param arguments the arguments, may be {@code null} or contain {@code null}
+     * @return the complete frame, ready to be written
+     * @throws IOException if the message is too large
+     */
+    static ByteBuffer encode(final String[] arguments) throws IOException {
+        final byte[][] encoded = new byte[arguments == null ? 0 : arguments.length][];
+        int bodySize = Integer.BYTES;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = arguments[i] == null ? null : arguments[i].getBytes(StandardCharsets.UTF_8);
+            bodySize += Integer.BYTES + (encoded[i] == null ? 0 : encoded[i].length);
+            if (bodySize > MAX_MESSAGE_SIZE) {
+                throw new IOException("Arguments exceed the maximal message size of " + MAX_MESSAGE_SIZE + " bytes");
+            }
+        }
+
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        frame.putInt(bodySize);
+        frame.putInt(arguments == null ? NULL_LENGTH : arguments.length);
+        for (byte[] argument : encoded) {
+            if (argument == null) {
+                frame.putInt(NULL_LENGTH);
+            } else {
+                frame.putInt(argument.length);
+                frame.put(argument);
+            }
+        }
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * @param header the complete header of a frame
+     * @return the length of the body
+     * @throws IOException if the length is not within the allowed bounds
+     */
+    static int readBodySize(final ByteBuffer header) throws IOException {
+        final int size = header.getInt(0);
+        if (size < Integer.BYTES || size > MAX_MESSAGE_SIZE) {
+            throw new IOException("Illegal message size " + size);
+        }
+        return size;
+    }
+
+    /**
+     * @param body the complete body of a frame
+     * @return the arguments of the message
+     * @throws IOException if the body is malformed
+     */
+    static String[] decode(final ByteBuffer body) throws IOException {
+        try {
+            final int count = body.getInt();
+            if (count == NULL_LENGTH) {
+                checkFullyRead(body);
+                return null;
+            }
+            // each argument needs at least its length
+            if (count < 0 || count > body.remaining() / Integer.BYTES) {
+                throw new IOException("Illegal number of arguments " + count);
+            }
+            final String[] arguments = new String[count];
+            for (int i = 0; i < count; i++) {
+                final int length = body.getInt();
+                if (length == NULL_LENGTH) {
+                    continue;
+                }
+                if (length < 0 || length > body.remaining()) {
+                    throw new IOException("Illegal argument length " + length);
+                }
+                arguments[i] = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+                body.position(body.position() + length);
+            }
+            checkFullyRead(body);
+            return arguments;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated message", e);
+        }
+    }
+
+    private static void checkFullyRead(final ByteBuffer body) throws IOException {
+        if (body.hasRemaining()) {
+            throw new IOException(body.remaining() + " unexpected bytes at the end of the message");
+        }
+    }
+}
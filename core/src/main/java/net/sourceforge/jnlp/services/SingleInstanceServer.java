@@ -0,0 +1,238 @@
+package net.sourceforge.jnlp.services;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Server side of the single instance channel. Listens on the loopback interface for the
+ * arguments of new instances of an application.
+ * <p>
+ * All connections are served by one selector thread which never blocks on a client. A
+ * connection which does not deliver a complete message within the timeout is closed, the
+ * received arguments are passed to the handler on the given executor.
+ *
+ * @see SingleInstanceProtocol
+ */
+class SingleInstanceServer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleInstanceServer.class);
+
+    static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final int MAX_CONNECTIONS = 64;
+
+    private final Consumer<String[]> handler;
+    private final Executor executor;
+    private final long connectionTimeoutMillis;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+
+    /**
+     * Binds the server to a free port of the loopback interface and starts serving.
+     *
+     * @param handler                 receives the arguments of each complete message
+     * @param executor                executor to run the handler on
+     * @param connectionTimeoutMillis maximal time a connection may take to deliver its message
+     * @throws IOException if the server socket can not be bound
+     */
+    SingleInstanceServer(final Consumer<String[]> handler, final Executor executor, final long connectionTimeoutMillis) throws IOException {
+        this.handler = handler;
+        this.executor = executor;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+
+        this.selector = Selector.open();
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+
+        selectorThread = new Thread(this::serve, "single-instance-server");
+        // mark as daemon so the JVM can shutdown if the server is the only thread running
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            serverChannel.close();
+        } finally {
+            selector.close();
+        }
+    }
+
+    private void serve() {
+        LOG.debug("Starting SingleInstanceServer on port {}", getPort());
+        try {
+            while (selector.isOpen()) {
+                selector.select(Math.max(1, connectionTimeoutMillis / 4));
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+                closeExpiredConnections();
+            }
+        } catch (ClosedSelectorException ignored) {
+            // server was closed
+        } catch (IOException e) {
+            LOG.error("SingleInstanceServer failed", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (selector.keys().size() > MAX_CONNECTIONS) {
+            LOG.warn("Too many open connections to the SingleInstanceServer, rejecting a new one");
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(System.currentTimeMillis() + connectionTimeoutMillis));
+    }
+
+    private void read(final SelectionKey key) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        final Connection connection = (Connection) key.attachment();
+        try {
+            final String[] arguments = connection.read(channel);
+            if (arguments != Connection.INCOMPLETE) {
+                close(key);
+                dispatch(arguments);
+            }
+        } catch (IOException e) {
+            LOG.warn("Dropping connection to SingleInstanceServer: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    private void dispatch(final String[] arguments) {
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.accept(arguments);
+                } catch (Exception exception) {
+                    // not much to do here...
+                    LOG.error("Exception in SingleInstanceServer", exception);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.error("Could not handle new activation", e);
+        }
+    }
+
+    private void closeExpiredConnections() {
+        final long now = System.currentTimeMillis();
+        for (SelectionKey key : selector.keys()) {
+            final Object attachment = key.attachment();
+            if (attachment instanceof Connection && ((Connection) attachment).deadline < now) {
+                LOG.warn("Connection to SingleInstanceServer timed out");
+                close(key);
+            }
+        }
+    }
+
+    private static void close(final SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOG.debug("Could not close connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Read state of a single connection.
+     */
+    private static class Connection {
+        private static final String[] INCOMPLETE = new String[0];
+
+        private final long deadline;
+        private final ByteBuffer header = ByteBuffer.allocate(SingleInstanceProtocol.HEADER_SIZE);
+        private ByteBuffer body;
+
+        private Connection(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return the arguments if the message is complete, {@link #INCOMPLETE} otherwise
+         */
+        private String[] read(final SocketChannel channel) throws IOException {
+            if (body == null) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Connection closed before the message was complete");
+                }
+                if (header.hasRemaining()) {
+                    return INCOMPLETE;
+                }
+                body = ByteBuffer.allocate(SingleInstanceProtocol.readBodySize(header));
+            }
+            if (channel.read(body) < 0) {
+                throw new IOException("Connection closed before the message was complete");
+            }
+            if (body.hasRemaining()) {
+                return INCOMPLETE;
+            }
+            body.flip();
+            return SingleInstanceProtocol.decode(body);
+        }
+    }
+
+    /**
+     * Sends the arguments to the server listening on the given port of the loopback interface.
+     *
+     * @param port          the port of the server
+     * @param arguments     the arguments to send
+     * @param timeoutMillis timeout for connecting and writing
+     * @throws IOException if the arguments could not be sent
+     */
+    static void send(final int port, final String[] arguments, final int timeoutMillis) throws IOException {
+        final ByteBuffer frame = SingleInstanceProtocol.encode(arguments);
+        try (final Socket socket = new Socket()) {
+            socket.setSoTimeout(timeoutMillis);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), timeoutMillis);
+            socket.getOutputStream().write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            socket.getOutputStream().flush();
+        }
+    }
+}
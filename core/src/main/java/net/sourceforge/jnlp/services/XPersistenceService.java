@@ -23,7 +23,6 @@ import net.sourceforge.jnlp.cache.CacheUtil;
 import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.runtime.ApplicationInstance;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
-import net.sourceforge.jnlp.util.RestrictedFileUtils;
 
 import javax.jnlp.FileContents;
 import javax.jnlp.PersistenceService;
@@ -32,8 +31,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The BasicService JNLP service.
@@ -45,6 +48,22 @@ class XPersistenceService implements PersistenceService {
 
     private static final Logger LOG = LoggerFactory.getLogger(XPersistenceService.class);
 
+    /**
+     * Name of the file holding all muffins of a codebase host.
+     */
+    static final String STORE_FILE_NAME = ".muffins";
+
+    private static final Map<File, MuffinStore> STORES = new HashMap<>();
+
+    /**
+     * Store files of the hosts which had muffins of earlier versions when their store was opened.
+     */
+    private static final Set<File> STORES_WITH_LEGACY_MUFFINS = new HashSet<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(XPersistenceService::closeStores, "MuffinStoreShutdownHook"));
+    }
+
     // todo: recheck delete, etc to make sure security is tight
 
     XPersistenceService() {
@@ -88,13 +107,81 @@ class XPersistenceService implements PersistenceService {
     }
 
     /**
-     * Converts a URL into a file in the persistence store.
-     *
-     * @return the file
+     * @return the name of the muffin at the location within the store of its codebase host
      */
-    private File toCacheFile(URL location) {
-        String pcache = PathsAndFiles.PCACHE_DIR.getFullPath();
-        return CacheUtil.urlToPath(location, pcache);
+    private static String toMuffinName(URL location) {
+        final String query = location.getQuery();
+        return query == null ? location.getPath() : location.getPath() + "?" + query;
+    }
+
+    /**
+     * @return the file of the muffin at the location as kept by earlier versions
+     */
+    private static File toLegacyFile(URL location) {
+        return CacheUtil.urlToPath(location, PathsAndFiles.PCACHE_DIR.getFullPath());
+    }
+
+    private static boolean isLegacyMuffin(File file) {
+        return file.isFile() && !file.getName().startsWith(STORE_FILE_NAME);
+    }
+
+    /**
+     * Returns the store holding all muffins of the host of the location. A muffin kept as
+     * single file by earlier versions is moved into the store when its location is first used,
+     * as only the location tells its name.
+     */
+    private static MuffinStore getStore(URL location) throws IOException {
+        final File storeFile = getStoreFile(location);
+        final MuffinStore store = getStoreOfOrigin(storeFile);
+        if (!hasLegacyMuffins(storeFile)) {
+            return store;
+        }
+        final File legacyFile = toLegacyFile(location);
+        if (isLegacyMuffin(legacyFile)) {
+            try {
+                if (store.putIfAbsent(toMuffinName(location), Files.readAllBytes(legacyFile.toPath()), PersistenceService.CACHED, Long.MAX_VALUE)) {
+                    LOG.info("Moved the muffin {} into the persistence store of its host", legacyFile);
+                }
+                Files.deleteIfExists(legacyFile.toPath());
+            } catch (IOException e) {
+                LOG.warn("Could not move the muffin {} into the persistence store of its host: {}", legacyFile, e.getMessage());
+            }
+        }
+        return store;
+    }
+
+    private static File getStoreFile(URL location) throws MalformedURLException {
+        final URL origin = new URL(location.getProtocol(), location.getHost(), location.getPort(), "/");
+        return new File(CacheUtil.urlToPath(origin, PathsAndFiles.PCACHE_DIR.getFullPath()), STORE_FILE_NAME);
+    }
+
+    private static synchronized MuffinStore getStoreOfOrigin(File storeFile) throws IOException {
+        MuffinStore store = STORES.get(storeFile);
+        if (store == null) {
+            final String[] originContent = storeFile.getParentFile().list((dir, name) -> !name.startsWith(STORE_FILE_NAME));
+            if (originContent != null && originContent.length > 0) {
+                STORES_WITH_LEGACY_MUFFINS.add(storeFile);
+            }
+            FileUtils.createParentDir(storeFile, "Persistence store " + storeFile);
+            store = new MuffinStore(storeFile);
+            STORES.put(storeFile, store);
+        }
+        return store;
+    }
+
+    private static synchronized boolean hasLegacyMuffins(File storeFile) {
+        return STORES_WITH_LEGACY_MUFFINS.contains(storeFile);
+    }
+
+    private static synchronized void closeStores() {
+        for (MuffinStore store : STORES.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                LOG.debug("Could not close persistence store: {}", e.getMessage());
+            }
+        }
+        STORES.clear();
     }
 
     /**
@@ -104,15 +191,7 @@ class XPersistenceService implements PersistenceService {
     public long create(URL location, long maxsize) throws IOException {
         checkLocation(location);
 
-        File file = toCacheFile(location);
-        FileUtils.createParentDir(file, "Persistence store for "
-                + location.toString());
-
-        if (file.exists())
-            throw new IOException("File already exists.");
-
-        RestrictedFileUtils.createRestrictedFile(file);
-
+        getStore(location).create(toMuffinName(location), maxsize);
         return maxsize;
     }
 
@@ -122,7 +201,7 @@ class XPersistenceService implements PersistenceService {
     public void delete(URL location) throws IOException {
         checkLocation(location);
 
-        FileUtils.deleteWithErrMesg(toCacheFile(location), " tocache");
+        getStore(location).delete(toMuffinName(location));
     }
 
     /**
@@ -131,15 +210,14 @@ class XPersistenceService implements PersistenceService {
     public FileContents get(URL location) throws IOException {
         checkLocation(location);
 
-        File file = toCacheFile(location);
-        if (!file.exists()) {
+        final MuffinStore store = getStore(location);
+        final String name = toMuffinName(location);
+        if (!store.exists(name)) {
             throw new FileNotFoundException("Persistence store for "
                     + location.toString() + " is not found.");
         }
-        FileUtils.createParentDir(file, "Persistence store for "
-                + location.toString());
 
-        return (FileContents) ServiceUtil.createPrivilegedProxy(FileContents.class, new XFileContents(file));
+        return (FileContents) ServiceUtil.createPrivilegedProxy(FileContents.class, new MuffinFileContents(store, name));
     }
 
     /**
@@ -148,22 +226,22 @@ class XPersistenceService implements PersistenceService {
     public String[] getNames(URL location) throws IOException {
         checkLocation(location);
 
-        File file = toCacheFile(location);
-        if (!file.isDirectory())
-            return new String[0];
-
-        List<String> result = new ArrayList<>();
+        final String path = location.getPath();
+        final String prefix = path.endsWith("/") ? path : path + "/";
 
-        // check whether this is right: only add files and not directories.
-        File[] entries = file.listFiles();
-        if (entries == null) {
-            return new String[0];
+        final Set<String> result = new LinkedHashSet<>();
+        for (String name : getStore(location).getNames()) {
+            if (name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0) {
+                result.add(name.substring(prefix.length()));
+            }
+        }
+        // muffins of earlier versions not moved into the store yet
+        final File[] legacyFiles = hasLegacyMuffins(getStoreFile(location)) ? toLegacyFile(location).listFiles(XPersistenceService::isLegacyMuffin) : null;
+        if (legacyFiles != null) {
+            for (File legacyFile : legacyFiles) {
+                result.add(legacyFile.getName());
+            }
         }
-
-        for (File entry : entries)
-            if (entry.isFile())
-                result.add(entry.getName());
-
         return result.toArray(new String[0]);
     }
 
@@ -173,12 +251,7 @@ class XPersistenceService implements PersistenceService {
     public int getTag(URL location) throws IOException {
         checkLocation(location);
 
-        // todo: actually implement tags
-
-        if (toCacheFile(location).exists())
-            return PersistenceService.CACHED;
-
-        return PersistenceService.CACHED;
+        return getStore(location).getTag(toMuffinName(location));
     }
 
     /**
@@ -187,7 +260,7 @@ class XPersistenceService implements PersistenceService {
     public void setTag(URL location, int tag) throws IOException {
         checkLocation(location);
 
-        // todo: actually implement tags
+        getStore(location).setTag(toMuffinName(location), tag);
     }
 
 }
@@ -18,20 +18,17 @@ package net.sourceforge.jnlp.services;
 
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider;
 import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 
 import javax.jnlp.SingleInstanceListener;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.UnknownHostException;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This class implements SingleInstanceService
@@ -42,45 +39,11 @@ public class XSingleInstanceService implements ExtendedSingleInstanceService {
 
     private static final Logger LOG = LoggerFactory.getLogger(XSingleInstanceService.class);
 
-    private final List<SingleInstanceListener> listeners = new LinkedList<>();
+    private static final int CLIENT_TIMEOUT_MILLIS = (int) SingleInstanceServer.DEFAULT_CONNECTION_TIMEOUT_MILLIS;
 
-    boolean initialized = false;
-
-    /**
-     * Implements a server that listens for arguments from new instances of this
-     * application
-     */
-    private class SingleInstanceServer implements Runnable {
-
-        private final SingleInstanceLock lockFile;
+    private final List<SingleInstanceListener> listeners = new CopyOnWriteArrayList<>();
 
-        public SingleInstanceServer(SingleInstanceLock lockFile) {
-            this.lockFile = lockFile;
-        }
-
-        public void run() {
-            try (final ServerSocket listeningSocket = new ServerSocket(0)) {
-                lockFile.createWithPort(listeningSocket.getLocalPort());
-
-                LOG.debug("Starting SingleInstanceServer on port {}", listeningSocket);
-
-                while (true) {
-                    try {
-                        final Socket communicationSocket = listeningSocket.accept();
-                        ObjectInputStream ois = new ObjectInputStream(communicationSocket
-                                .getInputStream());
-                        String[] arguments = (String[]) ois.readObject();
-                        notifySingleInstanceListeners(arguments);
-                    } catch (Exception exception) {
-                        // not much to do here...
-                        LOG.error("Exception in SingleInstanceServer", exception);
-                    }
-                }
-            } catch (IOException e) {
-                LOG.error("Failed to create SingleInstanceServer", e);
-            }
-        }
-    }
+    boolean initialized = false;
 
     /**
      * Create a new XSingleInstanceService
@@ -158,13 +121,26 @@ public class XSingleInstanceService implements ExtendedSingleInstanceService {
      * @param lockFile the {@link SingleInstanceLock} that the server should use
      */
     private void startListeningServer(SingleInstanceLock lockFile) {
-        final Thread serverThread = new Thread(new SingleInstanceServer(lockFile));
-        /*
-         * mark as daemon so the JVM can shutdown if the server is the only
-         * thread running
-         */
-        serverThread.setDaemon(true);
-        serverThread.start();
+        // one thread so the listeners are notified in the order the activations arrive
+        final ExecutorService listenerExecutor = DaemonThreadPoolProvider.createSingletonDaemonThreadPool();
+        try {
+            final SingleInstanceServer server = new SingleInstanceServer(this::notifySingleInstanceListeners,
+                    listenerExecutor, SingleInstanceServer.DEFAULT_CONNECTION_TIMEOUT_MILLIS);
+            try {
+                lockFile.createWithPort(server.getPort());
+            } catch (IOException | RuntimeException e) {
+                // nobody can find the server without the lock file, so do not keep it running
+                try {
+                    server.close();
+                } catch (IOException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            listenerExecutor.shutdown();
+            LOG.error("Failed to create SingleInstanceServer", e);
+        }
     }
 
     /**
@@ -175,14 +151,7 @@ public class XSingleInstanceService implements ExtendedSingleInstanceService {
      * @throws IOException on any io exception
      */
     private void sendProgramArgumentsToExistingApplication(int port, String[] arguments) throws IOException {
-        try (final Socket serverCommunicationSocket = new Socket((String) null, port)) {
-            try (final ObjectOutputStream argumentStream = new ObjectOutputStream(serverCommunicationSocket.getOutputStream())) {
-                argumentStream.writeObject(arguments);
-            }
-        } catch (UnknownHostException unknownHost) {
-            LOG.error("Unable to find localhost");
-            throw new RuntimeException(unknownHost);
-        }
+        SingleInstanceServer.send(port, arguments, CLIENT_TIMEOUT_MILLIS);
     }
 
     /**
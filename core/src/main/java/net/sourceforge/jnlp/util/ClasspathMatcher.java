@@ -17,14 +17,27 @@ package net.sourceforge.jnlp.util;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class ClasspathMatcher {
 
     public static class ClasspathMatchers {
 
+        private static final int MAX_REMEMBERED_DECISIONS = 128;
+
         private final ArrayList<ClasspathMatcher> matchers;
         private final boolean includePath;
+        private final DomainNode domainIndex;
+        /**
+         * Lookups happen during class loading from many threads, so they must not lock. Once the limit is
+         * reached all decisions are dropped, which is cheap and rare as few distinct urls are checked.
+         */
+        private final Map<String, Boolean> recentDecisions = new ConcurrentHashMap<>();
 
         ArrayList<ClasspathMatcher> getMatchers() {
             return matchers;
@@ -56,10 +69,47 @@ public class ClasspathMatcher {
         public ClasspathMatchers(ArrayList<ClasspathMatcher> matchers, boolean includePath) {
             this.matchers = matchers;
             this.includePath = includePath;
+            this.domainIndex = new DomainNode();
+            for (ClasspathMatcher matcher : matchers) {
+                domainIndex.add(matcher);
+            }
         }
 
         public boolean matches(URL s) {
-            for (ClasspathMatcher classpathMatcher : matchers) {
+            final String key = includePath ? s.toExternalForm() : s.getProtocol() + PROTOCOL_DELIMITER + s.getHost() + PORT_DELIMITER + s.getPort();
+            final Boolean rememberedDecision = recentDecisions.get(key);
+            if (rememberedDecision != null) {
+                return rememberedDecision;
+            }
+            final boolean decision = matchesUncached(s);
+            if (recentDecisions.size() >= MAX_REMEMBERED_DECISIONS) {
+                recentDecisions.clear();
+            }
+            recentDecisions.put(key, decision);
+            return decision;
+        }
+
+        private boolean matchesUncached(URL s) {
+            // only the matchers whose domain can match the host are checked
+            final String[] labels = s.getHost().split("\\.", -1);
+            DomainNode node = domainIndex;
+            if (matchesAny(node.subdomains, s)) {
+                return true;
+            }
+            for (int i = labels.length - 1; i >= 0; i--) {
+                node = node.children.get(labels[i]);
+                if (node == null) {
+                    return false;
+                }
+                if (matchesAny(node.subdomains, s)) {
+                    return true;
+                }
+            }
+            return matchesAny(node.exact, s);
+        }
+
+        private boolean matchesAny(List<ClasspathMatcher> candidates, URL s) {
+            for (ClasspathMatcher classpathMatcher : candidates) {
                 if (classpathMatcher.match(s, includePath)) {
                     return true;
                 }
@@ -76,6 +126,39 @@ public class ClasspathMatcher {
             return sb.toString();
         }
     }
+
+    /**
+     * Trie of domain labels, starting with the top level domain. Matchers for a plain domain are
+     * stored as exact matchers in the node of the domain, matchers for *.domain as matchers for the
+     * node and all its subdomains. Matchers for other wildcard domains are kept in the root node,
+     * so they are checked for every host.
+     */
+    private static class DomainNode {
+        private final Map<String, DomainNode> children = new HashMap<>();
+        private final List<ClasspathMatcher> exact = new ArrayList<>();
+        private final List<ClasspathMatcher> subdomains = new ArrayList<>();
+
+        private void add(ClasspathMatcher matcher) {
+            final String domain = matcher.parts.domain;
+            if (domain.startsWith("*.") && domain.indexOf('*', 1) < 0) {
+                node(domain.substring(2)).subdomains.add(matcher);
+            } else if (domain.indexOf('*') < 0) {
+                node(domain).exact.add(matcher);
+            } else {
+                subdomains.add(matcher);
+            }
+        }
+
+        private DomainNode node(String domain) {
+            final String[] labels = domain.split("\\.", -1);
+            DomainNode node = this;
+            for (int i = labels.length - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(labels[i], label -> new DomainNode());
+            }
+            return node;
+        }
+    }
+
     public static final String PROTOCOL_DELIMITER = "://";
     public static final String PATH_DELIMITER = "/";
     public static final String PORT_DELIMITER = ":";
@@ -88,10 +171,10 @@ public class ClasspathMatcher {
         String domain;
         String port;
         String path;
-        Pattern protocolRegEx;
-        Pattern domainRegEx;
-        Pattern portRegEx;
-        Pattern pathRegEx;
+        Predicate<String> protocolMatcher;
+        Predicate<String> domainMatcher;
+        Predicate<String> portMatcher;
+        Predicate<String> pathMatcher;
 
         @Override
         public String toString() {
@@ -99,50 +182,44 @@ public class ClasspathMatcher {
         }
 
         public void compilePartsToPatterns() {
-            protocolRegEx = ClasspathMatcher.sourceToRegEx(protocol);
+            protocolMatcher = ClasspathMatcher.sourceToMatcher(protocol);
             //the http://docs.oracle.com/javase/7/docs/technotes/guides/jweb/manifest.html#codebase
             //clearly says: *.example.com  matches  both
             //https://example.com, http://example.com
             //it sounds like bug, but well, who am I...
-            domainRegEx = domainToRegEx(domain);
-            portRegEx = ClasspathMatcher.sourceToRegEx(port);
-            pathRegEx = ClasspathMatcher.sourceToRegEx(path);
+            domainMatcher = domainToMatcher(domain);
+            portMatcher = ClasspathMatcher.sourceToMatcher(port);
+            pathMatcher = ClasspathMatcher.sourceToMatcher(path);
         }
 
         private boolean matchDomain(String source) {
-            return generalMatch(source, domainRegEx);
+            return domainMatcher.test(source);
         }
 
         private boolean matchProtocol(String source) {
-            return generalMatch(source, protocolRegEx);
+            return protocolMatcher.test(source);
         }
 
         private boolean matchPath(String source) {
             if (source.startsWith(PATH_DELIMITER)) {
                 source = source.substring(1);
             }
-            return generalMatch(source, pathRegEx);
+            return pathMatcher.test(source);
         }
 
         private boolean matchPort(int port) {
-            return generalMatch(Integer.toString(port), portRegEx);
-        }
-
-        private static boolean generalMatch(String input, Pattern pattern) {
-            return pattern.matcher(input).matches();
+            return portMatcher.test(Integer.toString(port));
         }
 
-        private static Pattern domainToRegEx(String domain) {
-            String pre = "";
-            String post = "";
+        private static Predicate<String> domainToMatcher(String domain) {
+            final Predicate<String> matcher = ClasspathMatcher.sourceToMatcher(domain);
             if (domain.startsWith("*.")) {
                 //this is handling case, when *.abc.xy
                 //should match also abc.xy except whatever.abc.xz
                 //but NOT whatewerabc.xy
-                pre = "(" + convertWildcardToRegEx(domain.substring(2)) + ")|(";
-                post = ")";
+                return convertWildcardToMatcher(domain.substring(2)).or(matcher);
             }
-            return Pattern.compile(pre + ClasspathMatcher.sourceToRegExString(domain) + post);
+            return matcher;
         }
     }
 
@@ -320,6 +397,32 @@ public class ClasspathMatcher {
         return Pattern.compile(sourceToRegExString(s));
     }
 
+    /**
+     * Same semantics as {@link #sourceToRegEx(String)}, but without regular expressions: a
+     * source is either a literal or a literal with a leading and/or trailing wildcard.
+     */
+    static Predicate<String> sourceToMatcher(String s) {
+        if (s.equals("*")) {
+            return input -> true;
+        }
+        return convertWildcardToMatcher(s);
+    }
+
+    private static Predicate<String> convertWildcardToMatcher(String s) {
+        if (s.length() > 1 && s.startsWith("*") && s.endsWith("*")) {
+            final String infix = s.substring(1, s.length() - 1);
+            return input -> input.contains(infix);
+        } else if (s.endsWith("*")) {
+            final String prefix = s.substring(0, s.length() - 1);
+            return input -> input.startsWith(prefix);
+        } else if (s.startsWith("*")) {
+            final String suffix = s.substring(1);
+            return input -> input.endsWith(suffix);
+        } else {
+            return s::equals;
+        }
+    }
+
     static Parts splitToParts(String source) {
         Parts parts = new Parts();
         String urlWithoutProtocol = source;
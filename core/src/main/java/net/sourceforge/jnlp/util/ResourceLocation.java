@@ -0,0 +1,100 @@
+package net.sourceforge.jnlp.util;
+
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.adoptopenjdk.icedteaweb.Assert.requireNonNull;
+
+/**
+ * Canonical identity of the location of a resource.
+ * <p>
+ * The URL is normalized once when the location is created. Equality is based on a canonical
+ * string of protocol and host (both case insensitive), effective port, path, query and
+ * reference. Unlike {@link URL#equals(Object)} and {@link URL#hashCode()} this never resolves
+ * host names.
+ * <p>
+ * Locations are interned by the external form of the URL they are created from, so looking up
+ * the same URL again does not normalize it again.
+ */
+public final class ResourceLocation {
+
+    /**
+     * Upper bound of the interning table, it is cleared when it grows beyond.
+     */
+    private static final int MAX_INTERNED = 4096;
+
+    private static final Map<String, ResourceLocation> INTERNED = new ConcurrentHashMap<>();
+
+    private final URL url;
+    private final String canonical;
+    private final int hash;
+
+    private ResourceLocation(final URL url) {
+        this.url = url;
+        this.canonical = canonicalize(url);
+        this.hash = canonical.hashCode();
+    }
+
+    /**
+     * @param url the location, normalized with {@link UrlUtils#normalizeUrlQuietly(URL)}
+     * @return the location of the url
+     */
+    public static ResourceLocation of(final URL url) {
+        requireNonNull(url, "url");
+        final String externalForm = url.toExternalForm();
+        final ResourceLocation interned = INTERNED.get(externalForm);
+        if (interned != null) {
+            return interned;
+        }
+        final ResourceLocation location = new ResourceLocation(UrlUtils.normalizeUrlQuietly(url));
+        if (INTERNED.size() >= MAX_INTERNED) {
+            INTERNED.clear();
+        }
+        final ResourceLocation existing = INTERNED.putIfAbsent(externalForm, location);
+        return existing != null ? existing : location;
+    }
+
+    /**
+     * @return the normalized url
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+    private static String canonicalize(final URL url) {
+        final StringBuilder result = new StringBuilder();
+        result.append(url.getProtocol().toLowerCase(Locale.ENGLISH)).append("://");
+        if (url.getUserInfo() != null) {
+            result.append(url.getUserInfo()).append('@');
+        }
+        if (url.getHost() != null) {
+            result.append(url.getHost().toLowerCase(Locale.ENGLISH));
+        }
+        result.append(':').append(UrlUtils.getSanitizedPort(url));
+        result.append(url.getFile());
+        if (url.getRef() != null) {
+            result.append('#').append(url.getRef());
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ResourceLocation that = (ResourceLocation) o;
+        return hash == that.hash && canonical.equals(that.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return url.toString();
+    }
+}
@@ -40,4 +40,11 @@ import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
  */
 public interface BasicOutputController {
     void log(final MessageWithHeader l);
+
+    /**
+     * @return false if debug messages would be discarded anyway and need not be created
+     */
+    default boolean isDebugEnabled() {
+        return true;
+    }
 }
@@ -0,0 +1,371 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.Header;
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded store for the messages shown in the java console.
+ * <p>
+ * Every message gets a sequence number in the order of arrival. Only the newest
+ * {@code capacity} messages are kept in memory, older ones are appended to a spill
+ * file (if there is one) and removed from the store. When the spill file reaches its
+ * maximal size it is renamed to a backup file, replacing the previous backup, and a new
+ * spill file is started.
+ * <p>
+ * For each combination of level and origin the store keeps an index of the sequence
+ * numbers of its messages. This way the messages of the levels and origins selected
+ * in the console can be collected without looking at all other messages.
+ */
+public class ConsoleMessageStore {
+
+    private static final int CATEGORIES = OutputControllerLevel.values().length * 2;
+
+    /**
+     * Default maximal size of the spill file, 10 MB.
+     */
+    public static final long DEFAULT_MAX_SPILL_BYTES = 10 * 1024 * 1024;
+
+    private final Entry[] entries;
+    private final SequenceIndex[] categoryIndexes = new SequenceIndex[CATEGORIES];
+    private final File spillFile;
+    private final long maxSpillBytes;
+    private OutputStream spillOut;
+    private long spillBytes = 0;
+    private boolean spillFailed = false;
+    private long firstSequence = 0;
+    private long nextSequence = 0;
+    private long spilled = 0;
+
+    /**
+     * @param capacity  maximum number of messages kept in memory
+     * @param spillFile file to move messages to which do not fit into memory any more,
+     *                  if {@code null} these messages are discarded
+     */
+    public ConsoleMessageStore(final int capacity, final File spillFile) {
+        this(capacity, spillFile, DEFAULT_MAX_SPILL_BYTES);
+    }
+
+    /**
+     * @param capacity      maximum number of messages kept in memory
+     * @param spillFile     file to move messages to which do not fit into memory any more,
+     *                      if {@code null} these messages are discarded
+     * @param maxSpillBytes size of the spill file at which it is rotated
+     */
+    public ConsoleMessageStore(final int capacity, final File spillFile, final long maxSpillBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        if (maxSpillBytes <= 0) {
+            throw new IllegalArgumentException("maxSpillBytes must be positive but was " + maxSpillBytes);
+        }
+        this.entries = new Entry[capacity];
+        this.spillFile = spillFile;
+        this.maxSpillBytes = maxSpillBytes;
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIndexes[i] = new SequenceIndex();
+        }
+    }
+
+    public synchronized void add(final MessageWithHeader message) {
+        if (nextSequence - firstSequence == entries.length) {
+            evictOldest();
+        }
+        final Entry entry = new Entry(nextSequence, message);
+        entries[slot(nextSequence)] = entry;
+        categoryIndexes[category(message.getHeader())].add(nextSequence);
+        nextSequence++;
+    }
+
+    private void evictOldest() {
+        final int slot = slot(firstSequence);
+        final Entry oldest = entries[slot];
+        entries[slot] = null;
+        categoryIndexes[category(oldest.message.getHeader())].removeFirst();
+        firstSequence++;
+        spill(oldest.message);
+    }
+
+    private void spill(final MessageWithHeader message) {
+        if (spillFile == null || spillFailed) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder()
+                .append(message.getHeader().toString())
+                .append(' ')
+                .append(message.getMessage());
+        if (message.hasStackTrace()) {
+            text.append(System.lineSeparator()).append(message.getStackTrace());
+        }
+        final byte[] bytes = text.append(System.lineSeparator()).toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (spillOut == null) {
+                openSpill();
+            }
+            if (spillBytes > 0 && spillBytes + bytes.length > maxSpillBytes) {
+                closeSpill();
+                Files.move(spillFile.toPath(), getSpillBackupFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                openSpill();
+            }
+            spillOut.write(bytes);
+            spillBytes += bytes.length;
+            spilled++;
+        } catch (IOException e) {
+            // no logging here, the message would end up in this store again
+            spillFailed = true;
+        }
+    }
+
+    private void openSpill() throws IOException {
+        spillBytes = spillFile.length();
+        spillOut = new BufferedOutputStream(new FileOutputStream(spillFile, true));
+    }
+
+    /**
+     * @return the file holding the spilled messages written before the last rotation
+     */
+    public File getSpillBackupFile() {
+        return spillFile == null ? null : new File(spillFile.getPath() + ".1");
+    }
+
+    /**
+     * Writes the buffered spilled messages to the spill file.
+     */
+    public synchronized void flushSpill() {
+        if (spillOut != null && !spillFailed) {
+            try {
+                spillOut.flush();
+            } catch (IOException e) {
+                spillFailed = true;
+            }
+        }
+    }
+
+    /**
+     * Closes the spill file. It is opened again when the next message is spilled.
+     */
+    public synchronized void closeSpill() {
+        if (spillOut != null) {
+            try {
+                spillOut.close();
+            } catch (IOException e) {
+                spillFailed = true;
+            } finally {
+                spillOut = null;
+            }
+        }
+    }
+
+    /**
+     * Removes all messages from memory. The removed messages are not spilled.
+     */
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        for (SequenceIndex index : categoryIndexes) {
+            index.clear();
+        }
+        firstSequence = nextSequence;
+    }
+
+    /**
+     * @return number of messages in memory
+     */
+    public synchronized int size() {
+        return (int) (nextSequence - firstSequence);
+    }
+
+    /**
+     * @return sequence number of the oldest message in memory
+     */
+    public synchronized long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * @return sequence number the next added message will get
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return number of messages moved to the spill file
+     */
+    public synchronized long getSpilledCount() {
+        return spilled;
+    }
+
+    public File getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * @return a copy of all messages in memory in the order of arrival
+     */
+    public List<MessageWithHeader> getMessages() {
+        final List<MessageWithHeader> result = new ArrayList<>();
+        for (Entry entry : getEntries(0, (level, isClientApp) -> true)) {
+            result.add(entry.message);
+        }
+        return result;
+    }
+
+    /**
+     * @param fromSequence the sequence number of the first message to return
+     * @param accepted     decides by level and origin ({@code true} if client application) which messages to return
+     * @return the matching messages in memory with a sequence number not smaller than {@code fromSequence}
+     * in the order of arrival
+     */
+    public synchronized List<Entry> getEntries(final long fromSequence, final BiPredicate<OutputControllerLevel, Boolean> accepted) {
+        final SequenceIndex[] indexes = new SequenceIndex[CATEGORIES];
+        final int[] positions = new int[CATEGORIES];
+        int count = 0;
+        for (OutputControllerLevel level : OutputControllerLevel.values()) {
+            for (boolean isClientApp : new boolean[]{false, true}) {
+                if (accepted.test(level, isClientApp)) {
+                    final SequenceIndex index = categoryIndexes[category(level, isClientApp)];
+                    final int position = index.firstPositionNotBefore(fromSequence);
+                    if (position < index.size()) {
+                        indexes[count] = index;
+                        positions[count] = position;
+                        count++;
+                    }
+                }
+            }
+        }
+
+        // merge the sorted indexes of the accepted categories
+        final List<Entry> result = new ArrayList<>();
+        while (true) {
+            int next = -1;
+            long smallest = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (positions[i] < indexes[i].size() && indexes[i].get(positions[i]) < smallest) {
+                    next = i;
+                    smallest = indexes[i].get(positions[i]);
+                }
+            }
+            if (next < 0) {
+                return result;
+            }
+            positions[next]++;
+            result.add(entries[slot(smallest)]);
+        }
+    }
+
+    /**
+     * @return true if there is a message with the given level and origin which is not older than {@code fromSequence}
+     */
+    public synchronized boolean hasEntriesSince(final long fromSequence, final BiPredicate<OutputControllerLevel, Boolean> accepted) {
+        for (OutputControllerLevel level : OutputControllerLevel.values()) {
+            for (boolean isClientApp : new boolean[]{false, true}) {
+                if (accepted.test(level, isClientApp)) {
+                    final SequenceIndex index = categoryIndexes[category(level, isClientApp)];
+                    if (index.size() > 0 && index.get(index.size() - 1) >= fromSequence) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int slot(final long sequence) {
+        return (int) (sequence % entries.length);
+    }
+
+    private static int category(final Header header) {
+        return category(header.level, header.isClientApp);
+    }
+
+    private static int category(final OutputControllerLevel level, final boolean isClientApp) {
+        return level.ordinal() * 2 + (isClientApp ? 1 : 0);
+    }
+
+    /**
+     * A message together with its sequence number.
+     */
+    public static class Entry {
+        private final long sequence;
+        private final MessageWithHeader message;
+
+        private Entry(final long sequence, final MessageWithHeader message) {
+            this.sequence = sequence;
+            this.message = message;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public MessageWithHeader getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Growable ring of ascending sequence numbers.
+     */
+    private static class SequenceIndex {
+        private long[] sequences = new long[16];
+        private int head = 0;
+        private int size = 0;
+
+        void add(final long sequence) {
+            if (size == sequences.length) {
+                final long[] grown = new long[sequences.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = get(i);
+                }
+                sequences = grown;
+                head = 0;
+            }
+            sequences[(head + size) % sequences.length] = sequence;
+            size++;
+        }
+
+        void removeFirst() {
+            head = (head + 1) % sequences.length;
+            size--;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(final int position) {
+            return sequences[(head + position) % sequences.length];
+        }
+
+        int firstPositionNotBefore(final long sequence) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (get(middle) < sequence) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -38,11 +38,18 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.os.OsUtil;
 import net.sourceforge.jnlp.util.docprovider.TextsProvider;
+import net.sourceforge.jnlp.util.logging.filelogs.AsyncFileLog;
 import net.sourceforge.jnlp.util.logging.filelogs.LogBasedFileLog;
 import net.sourceforge.jnlp.util.logging.filelogs.WriterBasedFileLog;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * This class is utility and factory around file logs.
@@ -55,6 +62,7 @@ public final class FileLog {
     public static String LOG_POSTFIX_ENV = "itwLogFilePostfix";
 
     private static final String DEFAULT_LOGGER_NAME = TextsProvider.ITW + " file-logger";
+    private static final String CONSOLE_SPILL_MARKER = "-console";
     private static final String TIME_SEPARATOR = OsUtil.isWindows() ? "_" : ":";
     private static final SimpleDateFormat FILE_LOG_NAME_FORMATTER = new SimpleDateFormat("yyyy-MM-dd_HH" + TIME_SEPARATOR + "mm" + TIME_SEPARATOR + "ss.S");
 
@@ -85,6 +93,13 @@ public final class FileLog {
         return logFileNamePostfix;
     }
 
+    /**
+     * @return the name of the file the java console of this session moves its older messages to
+     */
+    public static String getConsoleSpillFileName() {
+        return logFileNamePrefix + CONSOLE_SPILL_MARKER + "-" + logFileNamePostfix + ".log";
+    }
+
     public static void setLogFileNamePostfix(String logFileNamePostfix) {
         FileLog.logFileNamePostfix = Assert.requireNonBlank(logFileNamePostfix, "logFileNamePostfix");
     }
@@ -93,12 +108,16 @@ public final class FileLog {
         SingleStreamLogger s;
         try {
             final String fileName = getFileName();
-            if (LogConfig.getLogConfig().isLegacyLogBasedFileLog()) {
-                s = new LogBasedFileLog(DEFAULT_LOGGER_NAME, fileName, false);
+            final LogConfig logConfig = LogConfig.getLogConfig();
+            final SingleStreamLogger fileLog;
+            if (logConfig.isLegacyLogBasedFileLog()) {
+                fileLog = new LogBasedFileLog(DEFAULT_LOGGER_NAME, fileName, false, logConfig.getFileLogRotation());
             } else {
-                s = new WriterBasedFileLog(fileName, false);
+                fileLog = new WriterBasedFileLog(fileName, false, logConfig.getFileLogRotation());
             }
+            s = new AsyncFileLog(fileLog, logConfig.getFileLogOverflowPolicy());
             LOG.debug("Start logging into: {}", s);
+            removeOldSessionLogs(new File(fileName), logConfig.getMaxSessionLogFiles());
         } catch (Exception ex) {
             LOG.error("Exception while creating FileLog", ex);
             // we do not wont to block whole logging just because initialization error in "new FileLog()"
@@ -107,6 +126,57 @@ public final class FileLog {
         return s;
     }
 
+    /**
+     * Deletes the log files of older sessions, including their rotated files and console spill files, so
+     * only the given number of sessions is kept. The sessions are ordered by the last modification of
+     * their files.
+     *
+     * @param currentLogFile the log file of this session, which is never deleted
+     * @param maxSessions    the number of sessions to keep, {@code 0} to keep all
+     */
+    static void removeOldSessionLogs(final File currentLogFile, final int maxSessions) {
+        final File logDir = currentLogFile.getAbsoluteFile().getParentFile();
+        final String suffix = "-" + logFileNamePostfix + ".log";
+        final String spillSuffix = CONSOLE_SPILL_MARKER + suffix;
+        final File[] files = logDir != null ? logDir.listFiles() : null;
+        if (maxSessions <= 0 || files == null) {
+            return;
+        }
+
+        final Map<String, Long> lastModifiedBySession = new HashMap<>();
+        for (final File file : files) {
+            final String name = file.getName();
+            final int end = name.indexOf(suffix);
+            if (end > 0 && file.isFile()) {
+                String session = name.substring(0, end + suffix.length());
+                if (session.endsWith(spillSuffix)) {
+                    // the console spill file belongs to the session of the same prefix
+                    session = session.substring(0, session.length() - spillSuffix.length()) + suffix;
+                }
+                if (!session.equals(currentLogFile.getName())) {
+                    lastModifiedBySession.merge(session, file.lastModified(), Math::max);
+                }
+            }
+        }
+        final List<String> oldSessions = lastModifiedBySession.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .skip(maxSessions - 1)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (final File file : files) {
+            for (final String session : oldSessions) {
+                final String name = file.getName();
+                final String spillName = session.substring(0, session.length() - suffix.length()) + spillSuffix;
+                if (name.equals(session) || name.startsWith(session + ".") || name.equals(spillName) || name.startsWith(spillName + ".")) {
+                    LOG.debug("Deleting log file of an old session {}", file);
+                    if (!file.delete()) {
+                        LOG.warn("Failed to delete old log file {}", file);
+                    }
+                }
+            }
+        }
+    }
+
     private static String getFileName() {
         final String logDir = LogConfig.getLogConfig().getIcedteaLogDir();
         return logDir + (logFileNamePrefix + "-" + logFileNamePostfix + ".log");
@@ -38,6 +38,7 @@ import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.logging.filelogs.LogFileRotation;
 
 import java.io.File;
 
@@ -56,6 +57,10 @@ public class LogConfig {
     private boolean logToStreams;
     private boolean logToSysLog;
     private final boolean legacyLogaAsedFileLog;
+    private final OutputController.OverflowPolicy overflowPolicy;
+    private final OutputController.OverflowPolicy fileLogOverflowPolicy;
+    private final LogFileRotation fileLogRotation;
+    private final int maxSessionLogFiles;
 
     private LogConfig() {
         DeploymentConfiguration config = JNLPRuntime.getConfiguration();
@@ -69,6 +74,13 @@ public class LogConfig {
         logToSysLog = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_LOGGING_TOSYSTEMLOG));
         legacyLogaAsedFileLog = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_LEGACY_LOGBASEDFILELOG));
         logClientAppToFile = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_APPLICATION_LOGGING_TOFILE));
+        overflowPolicy = toOverflowPolicy(config.getProperty(ConfigurationConstants.KEY_LOG_BUFFER_OVERFLOW));
+        fileLogOverflowPolicy = toOverflowPolicy(config.getProperty(ConfigurationConstants.KEY_LOG_FILE_OVERFLOW));
+        fileLogRotation = new LogFileRotation(
+                parseInt(config.getProperty(ConfigurationConstants.KEY_LOG_FILE_MAX_SIZE), 0) * 1024L,
+                parseInt(config.getProperty(ConfigurationConstants.KEY_LOG_FILE_MAX_COUNT), 0),
+                Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_LOG_FILE_COMPRESS)));
+        maxSessionLogFiles = parseInt(config.getProperty(ConfigurationConstants.KEY_LOG_FILE_MAX_SESSIONS), 0);
 
         // Get log directory, create it if it doesn't exist. If unable to create and doesn't exist, don't log.
         icedteaLogDir = PathsAndFiles.LOG_DIR.getFullPath();
@@ -84,6 +96,20 @@ public class LogConfig {
         }
     }
 
+    private static OutputController.OverflowPolicy toOverflowPolicy(final String value) {
+        return ConfigurationConstants.LOG_BUFFER_OVERFLOW_DROP.equals(value)
+                ? OutputController.OverflowPolicy.DROP
+                : OutputController.OverflowPolicy.BLOCK;
+    }
+
+    private static int parseInt(final String value, final int fallback) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
     private static class LogConfigHolder {
 
         //https://en.wikipedia.org/wiki/Double-checked_locking#Usage_in_Java
@@ -154,4 +180,20 @@ public class LogConfig {
         return logClientAppToFile;
     }
 
+    OutputController.OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    OutputController.OverflowPolicy getFileLogOverflowPolicy() {
+        return fileLogOverflowPolicy;
+    }
+
+    LogFileRotation getFileLogRotation() {
+        return fileLogRotation;
+    }
+
+    int getMaxSessionLogFiles() {
+        return maxSessionLogFiles;
+    }
+
 }
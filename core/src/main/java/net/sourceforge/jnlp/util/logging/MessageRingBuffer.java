@@ -0,0 +1,100 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for log messages with many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number which tells producers whether the slot is free
+ * and the consumer whether the message in the slot has been published. Producers only
+ * compete for the tail counter, the consumer never blocks a producer.
+ * <p>
+ * {@link #drainTo(List, int)} and {@link #isEmpty()} must not be called concurrently,
+ * callers have to synchronize the consumer side.
+ */
+class MessageRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<MessageWithHeader> messages;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;
+
+    /**
+     * @param capacity maximum number of messages in the buffer, must be a power of two
+     */
+    MessageRingBuffer(final int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two but was " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.messages = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a message to the buffer.
+     *
+     * @param message the message to add
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(final MessageWithHeader message) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) (position & mask);
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    messages.set(index, message);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves published messages to the target list.
+     *
+     * @param target the list to add the messages to
+     * @param maxMessages maximum number of messages to move
+     * @return the number of messages moved
+     */
+    int drainTo(final List<MessageWithHeader> target, final int maxMessages) {
+        long position = head;
+        int count = 0;
+        while (count < maxMessages) {
+            final int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(messages.get(index));
+            messages.set(index, null);
+            sequences.lazySet(index, position + capacity);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    boolean isEmpty() {
+        final long position = head;
+        return sequences.get((int) (position & mask)) != position + 1;
+    }
+}
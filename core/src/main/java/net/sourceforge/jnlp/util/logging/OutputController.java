@@ -46,8 +46,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.DEBUG;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.ERROR;
@@ -56,17 +60,42 @@ import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.WARN;
 
 /**
  * OutputController class (thread) must NOT call JNLPRuntime.getConfiguration()
+ * <p>
+ * Messages are put into a bounded lock-free ring buffer by any number of threads
+ * and written to the sinks in batches by a single consumer thread. What happens
+ * if the buffer is full is defined by the {@link OverflowPolicy}.
  */
 public class OutputController implements BasicOutputController {
 
+    /**
+     * Defines what happens to a message if the queue of the output controller is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The logging thread drains the queue itself so no message is lost.
+         */
+        BLOCK,
+        /**
+         * The message is discarded. The number of discarded messages is logged later.
+         */
+        DROP
+    }
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+
     private StdInOutErrController inOutErrController;
 
-    private final List<MessageWithHeader> messageQue = new LinkedList<>();
+    private final MessageRingBuffer messageQue = new MessageRingBuffer(QUEUE_CAPACITY);
+    private final AtomicLong droppedMessages = new AtomicLong();
     //itw logger have to be fully initialised before start
     private final Thread consumerThread = new Thread(new MessageQueConsumer(), "Output controller consumer daemon");
     private final Thread shutdownThread = new Thread(this::shutdownLogging);
-    private boolean javaConsoleInitialized;
-    private long pollingInterval = 1000;
+    private volatile boolean consumerStarted;
+    private volatile boolean consumerWaiting;
+    private volatile boolean javaConsoleInitialized;
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private volatile long pollingInterval = 1000;
 
     //bounded to instance
     private class MessageQueConsumer implements Runnable {
@@ -75,13 +104,8 @@ public class OutputController implements BasicOutputController {
         public void run() {
             while (true) {
                 try {
-                    synchronized (OutputController.this) {
-                        if (!messageQue.isEmpty()) {
-                            flush();
-                        }
-                        OutputController.this.wait(pollingInterval);
-                    }
-
+                    flush();
+                    waitForMessages();
                 } catch (Throwable t) {
                     // we must not use the logging framework as this would add a new message to the queue
                     // which most likely will end also in this catch block thus creating an endless loop
@@ -95,49 +119,94 @@ public class OutputController implements BasicOutputController {
                 }
             }
         }
+
+        private void waitForMessages() {
+            consumerWaiting = true;
+            try {
+                if (messageQue.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollingInterval));
+                }
+            } finally {
+                consumerWaiting = false;
+            }
+        }
     }
 
-    private synchronized void shutdownLogging() {
+    private void shutdownLogging() {
         pollingInterval = 100;
         final Header header = new Header(INFO, this.getClass().getName());
         final MessageWithHeader message = new JavaMessage(header, "Increase polling interval for shutdown phase", null);
         log(message);
     }
 
+    /**
+     * A thread writing to a sink may log itself and flush again while the buffer is full, so
+     * every call drains into its own batch.
+     */
     public synchronized void flush() {
-        while (!messageQue.isEmpty()) {
-            consume();
+        final List<MessageWithHeader> batch = new ArrayList<>(BATCH_SIZE);
+        while (messageQue.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                consume(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+        reportDroppedMessages();
+    }
+
+    private void reportDroppedMessages() {
+        final long dropped = droppedMessages.getAndSet(0);
+        if (dropped > 0) {
+            final Header header = new Header(WARN, this.getClass().getName());
+            final String text = dropped + " log messages were dropped because the logging queue was full";
+            consume(Collections.singletonList(new JavaMessage(header, text, null)));
         }
     }
 
-    private void consume() {
-        final MessageWithHeader message = messageQue.remove(0);
+    private void consume(final List<MessageWithHeader> messages) {
+        final LogConfig logConfig = LogConfig.getLogConfig();
+        final boolean logToConsole = javaConsoleInitialized && logConfig.isLogToConsole();
+        final boolean debug = JNLPRuntime.isDebug();
+        final StringBuilder out = new StringBuilder();
+        final StringBuilder err = new StringBuilder();
+        final StringBuilder file = new StringBuilder();
+
+        for (final MessageWithHeader message : messages) {
+            if (logToConsole) {
+                //filtering is done in console during runtime
+                JavaConsole.getConsole().addMessage(message);
+            }
 
-        if (LogConfig.getLogConfig().isLogToConsole() && javaConsoleInitialized) {
-            //filtering is done in console during runtime
-            JavaConsole.getConsole().addMessage(message);
+            if (message.getHeader().isClientApp) {
+                consumeClientAppMessage(message, logConfig, file);
+            } else {
+                consumeItwMessage(message, logConfig, debug, out, err, file);
+            }
         }
 
-        if (message.getHeader().isClientApp) {
-            consumeClientAppMessage(message);
-        } else {
-            consumeItwMessage(message);
+        if (out.length() > 0) {
+            inOutErrController.getOut().log(out.toString());
+        }
+        if (err.length() > 0) {
+            inOutErrController.getErr().log(err.toString());
+        }
+        if (file.length() > 0) {
+            getFileLog().log(file.toString());
         }
     }
 
-    private void consumeClientAppMessage(MessageWithHeader message) {
-        final LogConfig logConfig = LogConfig.getLogConfig();
+    private void consumeClientAppMessage(MessageWithHeader message, LogConfig logConfig, StringBuilder file) {
         if (logConfig.isLogToFile() && logConfig.isLogToFileForClientApp()) {
-            getFileLog().log(convertToPrintableString(message, logConfig));
+            appendLine(file, convertToPrintableString(message, logConfig));
         }
     }
 
-    private void consumeItwMessage(MessageWithHeader message) {
-        final LogConfig logConfig = LogConfig.getLogConfig();
+    private void consumeItwMessage(MessageWithHeader message, LogConfig logConfig, boolean debug, StringBuilder out, StringBuilder err, StringBuilder file) {
         final Header header = message.getHeader();
         final OutputControllerLevel level = header.level;
 
-        if (!JNLPRuntime.isDebug() && level == DEBUG) {
+        if (!debug && level == DEBUG) {
             return;
         }
 
@@ -145,15 +214,15 @@ public class OutputController implements BasicOutputController {
 
         if (logConfig.isLogToStreams()) {
             if (level.printToOutStream()) {
-                inOutErrController.getOut().log(messageString);
+                appendLine(out, messageString);
             }
             if (level.printToErrStream()) {
-                inOutErrController.getErr().log(messageString);
+                appendLine(err, messageString);
             }
         }
 
         if (logConfig.isLogToFile()) {
-            getFileLog().log(messageString);
+            appendLine(file, messageString);
         }
 
         //only crucial stuff is going to system log
@@ -164,6 +233,13 @@ public class OutputController implements BasicOutputController {
         }
     }
 
+    private static void appendLine(StringBuilder lines, String line) {
+        if (lines.length() > 0) {
+            lines.append(System.lineSeparator());
+        }
+        lines.append(line);
+    }
+
     private String convertToPrintableString(MessageWithHeader s, LogConfig logConfig) {
         final boolean withHeaders = logConfig.isEnableHeaders();
         final boolean withStackTrace = s.hasStackTrace();
@@ -215,6 +291,8 @@ public class OutputController implements BasicOutputController {
 
     public void startConsumer() {
         initJavaConsole();
+        overflowPolicy = LogConfig.getLogConfig().getOverflowPolicy();
+        consumerStarted = true;
         consumerThread.start();
     }
 
@@ -237,10 +315,32 @@ public class OutputController implements BasicOutputController {
         this.inOutErrController = Assert.requireNonNull(inOutErrController, "inOutErrController");
     }
 
+    /**
+     * Before the consumer is started the configuration is not loaded yet and nothing is filtered.
+     * Afterwards debug messages of ITW are only needed if debugging is on or the java console is used.
+     * Messages of the client application are not filtered, they are always written to the log file.
+     */
+    @Override
+    public boolean isDebugEnabled() {
+        return !consumerStarted || javaConsoleInitialized || JNLPRuntime.isDebug();
+    }
+
     @Override
-    public synchronized void log(MessageWithHeader l) {
-        messageQue.add(l);
-        this.notifyAll();
+    public void log(MessageWithHeader l) {
+        if (l.getHeader().level == DEBUG && !l.getHeader().isClientApp && !isDebugEnabled()) {
+            return;
+        }
+        while (!messageQue.offer(l)) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                droppedMessages.incrementAndGet();
+                return;
+            }
+            // help the consumer, this blocks while another thread is flushing
+            flush();
+        }
+        if (consumerWaiting) {
+            LockSupport.unpark(consumerThread);
+        }
     }
 
     private static class FileLogHolder {
@@ -287,4 +387,8 @@ public class OutputController implements BasicOutputController {
     void setFileLog(SingleStreamLogger fileLog) {
         FileLogHolder.INSTANCE = fileLog;
     }
+
+    void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = Assert.requireNonNull(overflowPolicy, "overflowPolicy");
+    }
 }
@@ -38,8 +38,13 @@ import net.sourceforge.jnlp.util.docprovider.formatters.formatters.PlainTextForm
 import net.sourceforge.jnlp.util.logging.headers.Header;
 import net.sourceforge.jnlp.util.logging.headers.JavaMessage;
 
-import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.ERROR;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
@@ -47,13 +52,23 @@ import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
 /**
  * Behaves like the 'tee' command, sends output to both actual std stream and a
  * log
+ * <p>
+ * Written bytes are collected until they end with a line separator. Only the
+ * newly written bytes are checked for that and the bytes are decoded once when
+ * the message is logged. Output without line separators is logged in chunks of
+ * at most {@link #MAX_UNTERMINATED_LENGTH} bytes.
  */
 public final class TeeOutputStream extends PrintStream {
 
     private static final String LINE_SEPARATOR = PlainTextFormatter.getLineSeparator();
+    static final int MAX_UNTERMINATED_LENGTH = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 256;
 
     // Everything written to TeeOutputStream is written to our log too
-    private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int count = 0;
+    private final Charset charset = Charset.defaultCharset();
+    private final byte[] lineSeparator = LINE_SEPARATOR.getBytes(charset);
     private final OutputControllerLevel level;
     private final BasicOutputController outputController;
 
@@ -89,7 +104,9 @@ public final class TeeOutputStream extends PrintStream {
             return;
         }
 
-        byteArrayOutputStream.write(b, off, len);
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
         flushLogAtEndOfLine();
 
         super.write(b, off, len);
@@ -97,26 +114,74 @@ public final class TeeOutputStream extends PrintStream {
 
     @Override
     public synchronized void write(int b) {
-        byteArrayOutputStream.write(b);
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
         flushLogAtEndOfLine();
 
         super.write(b);
     }
 
-    private void flushLog() {
-        flushLog(true);
+    private void ensureCapacity(int additional) {
+        if (count + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + additional));
+        }
+    }
+
+    private synchronized void flushLog() {
+        if (count > 0) {
+            log(new String(buffer, 0, count, charset));
+            reset();
+        }
     }
 
     private void flushLogAtEndOfLine() {
-        flushLog(false);
+        if (endsWithLineSeparator()) {
+            flushLog();
+        } else if (count >= MAX_UNTERMINATED_LENGTH) {
+            flushUnterminated();
+        }
+    }
+
+    private boolean endsWithLineSeparator() {
+        final int start = count - lineSeparator.length;
+        if (start < 0) {
+            return false;
+        }
+        for (int i = 0; i < lineSeparator.length; i++) {
+            if (buffer[start + i] != lineSeparator[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void flushLog(boolean always) {
-        final String s = byteArrayOutputStream.toString();
-        if (s.length() > 0 && (always || s.endsWith(LINE_SEPARATOR))) {
-            final JavaMessage jm = new JavaMessage(new Header(level, true), s);
-            outputController.log(jm);
-            byteArrayOutputStream.reset();
+    /**
+     * Logs as much of the buffer as can be decoded and keeps the bytes of an incomplete character.
+     */
+    private void flushUnterminated() {
+        final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final ByteBuffer in = ByteBuffer.wrap(buffer, 0, count);
+        final CharBuffer out = CharBuffer.allocate((int) Math.ceil(count * (double) decoder.maxCharsPerByte()));
+        decoder.decode(in, out, false);
+        out.flip();
+        log(out.toString());
+
+        final int remaining = in.remaining();
+        System.arraycopy(buffer, in.position(), buffer, 0, remaining);
+        count = remaining;
+    }
+
+    private void reset() {
+        count = 0;
+        if (buffer.length > MAX_UNTERMINATED_LENGTH) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
         }
     }
+
+    private void log(String s) {
+        final JavaMessage jm = new JavaMessage(new Header(level, true), s);
+        outputController.log(jm);
+    }
 }
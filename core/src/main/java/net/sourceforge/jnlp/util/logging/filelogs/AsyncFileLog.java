@@ -0,0 +1,177 @@
+package net.sourceforge.jnlp.util.logging.filelogs;
+
+import net.sourceforge.jnlp.util.logging.OutputController.OverflowPolicy;
+import net.sourceforge.jnlp.util.logging.SingleStreamLogger;
+import net.sourceforge.jnlp.util.logging.headers.Header;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.WARN;
+
+/**
+ * Writes to a file log on a dedicated background thread.
+ * <p>
+ * Logged strings are put into a bounded queue. The writer thread takes all strings
+ * which are waiting and passes them to the file log with a single call, so the file
+ * is written and flushed once per batch instead of once per message. If the disk is
+ * slower than the logging and the queue is full, the {@link OverflowPolicy} decides
+ * whether the caller waits for free space or the string is dropped. Dropped strings
+ * are counted and reported in the file.
+ * <p>
+ * A single shutdown hook writes the pending strings of all file logs which are still open.
+ */
+public final class AsyncFileLog implements SingleStreamLogger {
+
+    static final int QUEUE_CAPACITY = 4096;
+    private static final int BATCH_SIZE = 512;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    // marks the end of the queue, compared by identity
+    private static final String STOP = new String("stop");
+
+    private final SingleStreamLogger delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final Thread writerThread;
+    private final Object writeLock = new Object();
+    private final AtomicBoolean warnedAboutClose = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    public AsyncFileLog(final SingleStreamLogger delegate, final OverflowPolicy overflowPolicy) {
+        this(delegate, overflowPolicy, QUEUE_CAPACITY);
+    }
+
+    AsyncFileLog(final SingleStreamLogger delegate, final OverflowPolicy overflowPolicy, final int queueCapacity) {
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::writeLoop, "file-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        ShutdownHook.OPEN_LOGS.add(this);
+    }
+
+    @Override
+    public void log(final String s) {
+        if (closed) {
+            if (warnedAboutClose.compareAndSet(false, true)) {
+                // we must not use the logging framework as this would end up in this file log again
+                System.err.println("The file log " + delegate + " is closed, further log messages are not written to it");
+            }
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (!queue.offer(s)) {
+                droppedMessages.incrementAndGet();
+            }
+            return;
+        }
+        try {
+            queue.put(s);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedMessages.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        final List<String> batch = new ArrayList<>();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+                synchronized (writeLock) {
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    stopped = batch.removeIf(s -> s == STOP);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable t) {
+                // we must not use the logging framework as this would end up in this file log again
+                t.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes all strings which are still in the queue on the calling thread.
+     */
+    private void writePending() {
+        final List<String> batch = new ArrayList<>();
+        synchronized (writeLock) {
+            while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+                batch.removeIf(s -> s == STOP);
+                write(batch);
+                batch.clear();
+            }
+            write(batch);
+        }
+    }
+
+    private void write(final List<String> batch) {
+        final long dropped = droppedMessages.getAndSet(0);
+        if (batch.isEmpty() && dropped == 0) {
+            return;
+        }
+        final StringBuilder sb = new StringBuilder();
+        if (dropped > 0) {
+            sb.append(new Header(WARN, getClass().getName()))
+                    .append(" ").append(dropped).append(" log messages were dropped because writing the log file was too slow")
+                    .append(System.lineSeparator());
+        }
+        for (String s : batch) {
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+                sb.append(System.lineSeparator());
+            }
+            sb.append(s);
+        }
+        delegate.log(sb.toString());
+    }
+
+    /**
+     * Writes the pending strings and closes the file log.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(STOP);
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writePending();
+        ShutdownHook.OPEN_LOGS.remove(this);
+        delegate.close();
+    }
+
+    /**
+     * Registered once, when the first file log is created.
+     */
+    private static class ShutdownHook {
+        private static final Set<AsyncFileLog> OPEN_LOGS = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN_LOGS.forEach(AsyncFileLog::writePending), "file-log-shutdown"));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "async " + delegate;
+    }
+}
@@ -37,6 +37,7 @@ import net.sourceforge.jnlp.util.logging.headers.Header;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.logging.FileHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
@@ -47,12 +48,17 @@ import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
 
 /**
  * This class writes log information to file.
+ * <p>
+ * The file is rotated according to the given {@link LogFileRotation}.
  */
 public final class LogBasedFileLog implements SingleStreamLogger {
 
     //really instance bounded
     private final Logger impl;
-    private final FileHandler fh;
+    private final File file;
+    private final LogFileRotation rotation;
+    private FileHandler fh;
+    private long written;
 
     // testing constructor 
     public LogBasedFileLog(String fileName, boolean append) {
@@ -60,27 +66,37 @@ public final class LogBasedFileLog implements SingleStreamLogger {
     }
 
     public LogBasedFileLog(String loggerName, String fileName, boolean append) {
+        this(loggerName, fileName, append, LogFileRotation.NONE);
+    }
+
+    public LogBasedFileLog(String loggerName, String fileName, boolean append, LogFileRotation rotation) {
         try {
-            File futureFile = new File(fileName);
-            if (!futureFile.exists()) {
-                futureFile.createNewFile();
+            file = new File(fileName);
+            this.rotation = rotation;
+            if (!file.exists()) {
+                file.createNewFile();
             }
-            fh = new FileHandler(fileName, append);
-            fh.setFormatter(new Formatter() {
-                @Override
-                public String format(LogRecord record) {
-                    return record.getMessage() + "\n";
-                }
-            });
             impl = Logger.getLogger(loggerName);
             impl.setLevel(Level.ALL);
-            impl.addHandler(fh);
+            openHandler(append);
             log(new Header(INFO, getClass().getName()) + " log-based impl.");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void openHandler(boolean append) throws IOException {
+        written = append ? file.length() : 0;
+        fh = new FileHandler(file.getPath(), append);
+        fh.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + "\n";
+            }
+        });
+        impl.addHandler(fh);
+    }
+
     /**
      * Log the String to file.
      *
@@ -89,10 +105,37 @@ public final class LogBasedFileLog implements SingleStreamLogger {
     @Override
     public synchronized void log(String s) {
         impl.log(Level.FINE, s);
+        if (!rotation.isEnabled()) {
+            return;
+        }
+        // counted like the formatter writes it, so the file size does not need to be queried after each write
+        written += (s + "\n").getBytes(getEncoding()).length;
+        if (rotation.isRotationNeeded(written)) {
+            try {
+                impl.removeHandler(fh);
+                fh.close();
+                rotation.rotate(file);
+                openHandler(false);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private Charset getEncoding() {
+        final String encoding = fh.getEncoding();
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                // FileHandler would have rejected it already
+            }
+        }
+        return Charset.defaultCharset();
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         fh.close();
     }
 
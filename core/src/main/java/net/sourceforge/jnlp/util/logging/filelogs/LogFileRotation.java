@@ -0,0 +1,94 @@
+package net.sourceforge.jnlp.util.logging.filelogs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and count based rotation of a log file.
+ * <p>
+ * When the log file reaches the maximum size it is renamed to {@code <name>.1}, an
+ * existing {@code <name>.1} becomes {@code <name>.2} and so on. Only the given number
+ * of rotated files is kept. Rotated files can be compressed, they get the additional
+ * suffix {@code .gz} then.
+ */
+public final class LogFileRotation {
+
+    /**
+     * Never rotates, the log file grows without limit.
+     */
+    public static final LogFileRotation NONE = new LogFileRotation(0, 0, false);
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final long maxFileSize;
+    private final int maxRotatedFiles;
+    private final boolean compress;
+
+    /**
+     * @param maxFileSize     size in bytes at which the log file is rotated, {@code 0} for no rotation
+     * @param maxRotatedFiles number of rotated files to keep
+     * @param compress        whether to gzip the rotated files
+     */
+    public LogFileRotation(final long maxFileSize, final int maxRotatedFiles, final boolean compress) {
+        this.maxFileSize = Math.max(0, maxFileSize);
+        this.maxRotatedFiles = Math.max(0, maxRotatedFiles);
+        this.compress = compress;
+    }
+
+    public boolean isEnabled() {
+        return maxFileSize > 0;
+    }
+
+    public boolean isRotationNeeded(final long fileSize) {
+        return isEnabled() && fileSize >= maxFileSize;
+    }
+
+    /**
+     * Moves the log file to the first rotated file and drops the oldest rotated file.
+     * The log file must be closed by the caller and does not exist afterwards.
+     *
+     * @param logFile the log file to rotate
+     * @throws IOException if renaming or compressing fails
+     */
+    public void rotate(final File logFile) throws IOException {
+        if (maxRotatedFiles > 0) {
+            Files.deleteIfExists(rotatedFile(logFile, maxRotatedFiles).toPath());
+        }
+        for (int i = maxRotatedFiles - 1; i >= 1; i--) {
+            final File source = rotatedFile(logFile, i);
+            if (source.exists()) {
+                Files.move(source.toPath(), rotatedFile(logFile, i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxRotatedFiles == 0) {
+            Files.deleteIfExists(logFile.toPath());
+        } else if (compress) {
+            compress(logFile, rotatedFile(logFile, 1));
+        } else {
+            Files.move(logFile.toPath(), rotatedFile(logFile, 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    File rotatedFile(final File logFile, final int index) {
+        return new File(logFile.getPath() + "." + index + (compress ? GZIP_SUFFIX : ""));
+    }
+
+    private static void compress(final File source, final File target) throws IOException {
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(target))) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        Files.delete(source.toPath());
+    }
+}
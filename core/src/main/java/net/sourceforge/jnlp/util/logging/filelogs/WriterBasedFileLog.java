@@ -38,7 +38,9 @@ import net.sourceforge.jnlp.util.logging.headers.Header;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 
@@ -46,24 +48,39 @@ import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
 
 /**
  * This class writes log information to file.
+ * <p>
+ * The file is rotated according to the given {@link LogFileRotation}.
  */
 public final class WriterBasedFileLog implements SingleStreamLogger {
 
-    private final BufferedWriter bw;
+    private final File file;
+    private final LogFileRotation rotation;
+    private CountingOutputStream out;
+    private BufferedWriter bw;
 
     public WriterBasedFileLog(String fileName, boolean append) {
+        this(fileName, append, LogFileRotation.NONE);
+    }
+
+    public WriterBasedFileLog(String fileName, boolean append, LogFileRotation rotation) {
+        this.file = new File(fileName);
+        this.rotation = rotation;
         try {
-            File futureFile = new File(fileName);
-            if (!futureFile.exists()) {
-                futureFile.createNewFile();
+            if (!file.exists()) {
+                file.createNewFile();
             }
-            bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(fileName), append), StandardCharsets.UTF_8));
+            open(append);
             log(new Header(INFO, getClass().getName()) + " writer-based impl.");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void open(boolean append) throws IOException {
+        out = new CountingOutputStream(new FileOutputStream(file, append), append ? file.length() : 0);
+        bw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
     /**
      * Log the String to file.
      *
@@ -77,13 +94,18 @@ public final class WriterBasedFileLog implements SingleStreamLogger {
                 bw.newLine();
             }
             bw.flush();
+            if (rotation.isRotationNeeded(out.getCount())) {
+                bw.close();
+                rotation.rotate(file);
+                open(false);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         try {
             bw.close();
         } catch (IOException e) {
@@ -91,4 +113,31 @@ public final class WriterBasedFileLog implements SingleStreamLogger {
         }
     }
 
+    /**
+     * Counts the bytes written to the file, so the file size does not need to be queried after each write.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out, long initialCount) {
+            super(out);
+            this.count = initialCount;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
 }
@@ -37,17 +37,36 @@ import net.sourceforge.jnlp.util.logging.OutputController;
 import net.sourceforge.jnlp.util.logging.OutputControllerLevel;
 import net.sourceforge.jnlp.util.logging.TeeOutputStream;
 
-import java.text.SimpleDateFormat;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class Header {
 
-    private static final SimpleDateFormat TIMESTAMP_FORMATTER = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS z");
+    private static final DateTimeFormatter SECONDS_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter ZONE_FORMATTER = DateTimeFormatter.ofPattern(" z").withZone(ZoneId.systemDefault());
     private static final String[] LOGGING_INFRASTRUCTURE_CLASSES = {OutputController.class.getName(), Header.class.getName(), TeeOutputStream.class.getName(), "sun.applet.PluginDebug"};
     private static final String DEFAULT_USER = JavaSystemProperties.getUserName();
+    private static final String UNKNOWN_CALLER = "Unknown caller";
+
+    /**
+     * The formatted date and time of the last second a header was created in. Headers are usually created in bursts,
+     * so only the milliseconds have to be formatted for most of them.
+     */
+    private static volatile FormattedSecond lastFormattedSecond = new FormattedSecond(Long.MIN_VALUE, "", "");
 
     public final String osUser = DEFAULT_USER;
     public final OutputControllerLevel level;
+    /**
+     * Creation time of the header in milliseconds since the epoch.
+     */
+    public final long timestampMillis;
     public final Date timestampForSorting;
     public final String timestamp;
     public final boolean isClientApp;
@@ -57,17 +76,18 @@ public class Header {
     public final String threadName;
 
     public Header(OutputControllerLevel level, String callerClass) {
-        this(level, new Date(), false, Thread.currentThread(), callerClass);
+        this(level, System.currentTimeMillis(), false, Thread.currentThread(), callerClass);
     }
 
     public Header(OutputControllerLevel level, boolean isClientApp) {
-        this(level, new Date(), isClientApp, Thread.currentThread(), getCallerClass());
+        this(level, System.currentTimeMillis(), isClientApp, Thread.currentThread(), getCallerClass());
     }
 
-    private Header(OutputControllerLevel level, Date timestamp, boolean isClientApp, Thread thread, String callerClass) {
+    private Header(OutputControllerLevel level, long timestamp, boolean isClientApp, Thread thread, String callerClass) {
         this.level = level;
-        this.timestampForSorting = timestamp;
-        this.timestamp = TIMESTAMP_FORMATTER.format(timestamp);
+        this.timestampMillis = timestamp;
+        this.timestampForSorting = new Date(timestamp);
+        this.timestamp = formatTimestamp(timestamp);
         this.isClientApp = isClientApp;
         this.origin = isClientApp ? "ITW-APP " : "ITW-CORE";
         this.callerClass = callerClass;
@@ -118,9 +138,134 @@ public class Header {
         return sb.toString();
     }
 
+    private static String formatTimestamp(final long timestamp) {
+        final long second = Math.floorDiv(timestamp, 1000);
+        FormattedSecond formatted = lastFormattedSecond;
+        if (formatted.second != second) {
+            final Instant instant = Instant.ofEpochSecond(second);
+            formatted = new FormattedSecond(second, SECONDS_FORMATTER.format(instant), ZONE_FORMATTER.format(instant));
+            lastFormattedSecond = formatted;
+        }
+        final int millis = (int) Math.floorMod(timestamp, 1000);
+        final StringBuilder sb = new StringBuilder(formatted.dateAndTime);
+        if (millis < 100) {
+            sb.append('0');
+        }
+        if (millis < 10) {
+            sb.append('0');
+        }
+        return sb.append(millis).append(formatted.zone).toString();
+    }
+
     private static String getCallerClass() {
-        final StackTraceElement[] stack = (new Exception()).getStackTrace();
         try {
+            return CallerFinderHolder.CALLER_FINDER.findCaller();
+        } catch (Throwable ex) {
+            // cannot log here as we are in the process of creating a log message
+            return UNKNOWN_CALLER;
+        }
+    }
+
+    private static CallerFinder createCallerFinder() {
+        try {
+            return new StackWalkerCallerFinder();
+        } catch (Throwable ex) {
+            // no StackWalker before Java 9
+            return new StackTraceCallerFinder();
+        }
+    }
+
+    private static boolean isLoggingInfrastructureStackElement(StackTraceElement element) {
+        return isLoggingInfrastructureClass(element.getClassName());
+    }
+
+    private static boolean isLoggingInfrastructureClass(String classOfCurrentStackElement) {
+        for (final String loggingInfrastructureClass : LOGGING_INFRASTRUCTURE_CLASSES) {
+            // nested classes and lambdas belong to the logging infrastructure as well, while classes which only
+            // share a prefix, like OutputControllerTest or HeaderTest, are callers
+            if (classOfCurrentStackElement.startsWith(loggingInfrastructureClass)
+                    && (classOfCurrentStackElement.length() == loggingInfrastructureClass.length()
+                    || classOfCurrentStackElement.charAt(loggingInfrastructureClass.length()) == '$')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class FormattedSecond {
+        private final long second;
+        private final String dateAndTime;
+        private final String zone;
+
+        private FormattedSecond(final long second, final String dateAndTime, final String zone) {
+            this.second = second;
+            this.dateAndTime = dateAndTime;
+            this.zone = zone;
+        }
+    }
+
+    /**
+     * Looks up the {@code StackWalker} when the caller of a header is searched for the first time. Most headers
+     * are created with an explicit caller and never need it.
+     */
+    private static class CallerFinderHolder {
+        private static final CallerFinder CALLER_FINDER = createCallerFinder();
+    }
+
+    private interface CallerFinder {
+        String findCaller() throws Throwable;
+    }
+
+    /**
+     * Walks the stack lazily with {@code java.lang.StackWalker} and stops at the first frame outside of
+     * the logging infrastructure. Accessed reflectively as the code is compiled for Java 8.
+     */
+    private static class StackWalkerCallerFinder implements CallerFinder {
+        private final Object walker;
+        private final MethodHandle walk;
+        private final MethodHandle getClassName;
+        private final MethodHandle toStackTraceElement;
+        private final Function<Stream<Object>, String> findFirstCaller = this::findFirstCaller;
+
+        private StackWalkerCallerFinder() throws Throwable {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            final Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            walker = lookup.findStatic(walkerClass, "getInstance", MethodType.methodType(walkerClass)).invoke();
+            walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class));
+            getClassName = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class));
+            toStackTraceElement = lookup.findVirtual(frameClass, "toStackTraceElement", MethodType.methodType(StackTraceElement.class));
+        }
+
+        @Override
+        public String findCaller() throws Throwable {
+            return (String) walk.invoke(walker, findFirstCaller);
+        }
+
+        private String findFirstCaller(Stream<Object> frames) {
+            return frames.filter(frame -> !isLoggingInfrastructureClass(invoke(getClassName, frame).toString()))
+                    .findFirst()
+                    .map(frame -> invoke(toStackTraceElement, frame).toString())
+                    .orElse(UNKNOWN_CALLER);
+        }
+
+        private static Object invoke(MethodHandle handle, Object frame) {
+            try {
+                return handle.invoke(frame);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    /**
+     * Fallback for Java 8 which has to capture the whole stack.
+     */
+    private static class StackTraceCallerFinder implements CallerFinder {
+
+        @Override
+        public String findCaller() {
+            final StackTraceElement[] stack = (new Exception()).getStackTrace();
             //0 is always thread
             //1..? is OutputController itself
             //pick up first after.
@@ -133,20 +278,6 @@ public class Header {
                 }
             }
             return result.toString();
-        } catch (Exception ex) {
-            // cannot log here as we are in the process of creating a log message
-            return "Unknown caller";
         }
     }
-
-    private static boolean isLoggingInfrastructureStackElement(StackTraceElement element) {
-        final String classOfCurrentStackElement = element.getClassName();
-
-        for (final String loggingInfrastructureClass : LOGGING_INFRASTRUCTURE_CLASSES) {
-            if (classOfCurrentStackElement.contains(loggingInfrastructureClass)) {
-                return true;
-            }
-        }
-        return false;
-    }
 }
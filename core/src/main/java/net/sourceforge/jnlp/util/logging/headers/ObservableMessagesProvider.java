@@ -32,6 +32,8 @@ obligated to do so. If you do not wish to do so, delete this exception
 statement from your version. */
 package net.sourceforge.jnlp.util.logging.headers;
 
+import net.sourceforge.jnlp.util.logging.ConsoleMessageStore;
+
 import java.util.List;
 import java.util.Observable;
 
@@ -39,4 +41,15 @@ public interface ObservableMessagesProvider {
      
     List<MessageWithHeader> getData();
     Observable getObservable();
+
+    /**
+     * @return the messages indexed by level and origin. Providers keeping their messages in a
+     * {@link ConsoleMessageStore} return it, others get a store built from {@link #getData()}.
+     */
+    default ConsoleMessageStore getMessageStore() {
+        final List<MessageWithHeader> data = getData();
+        final ConsoleMessageStore store = new ConsoleMessageStore(Math.max(1, data.size()), null);
+        data.forEach(store::add);
+        return store;
+    }
 }
@@ -0,0 +1,179 @@
+package net.sourceforge.jnlp.util.whitelist;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.sourceforge.jnlp.util.IpUtil;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A URL whitelist prepared for fast lookups.
+ * <p>
+ * The hosts of the entries are stored in a trie of host labels, starting with the top level domain.
+ * Each node holds the allowed ports per protocol for the host itself and for all of its subdomains.
+ * The decision for a protocol, host and port is remembered, so checking the many resources of an
+ * application from the same server is a single map lookup.
+ */
+public final class CompiledUrlWhitelist {
+
+    private static final int MAX_REMEMBERED_DECISIONS = 1024;
+
+    private final List<WhitelistEntry> entries;
+    private final HostNode root = new HostNode();
+    private final PortSets anyHost = new PortSets();
+    private final List<WhitelistEntry> otherEntries = new ArrayList<>();
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    public static CompiledUrlWhitelist compile(final List<WhitelistEntry> entries) {
+        Assert.requireNonNull(entries, "entries");
+        return new CompiledUrlWhitelist(entries);
+    }
+
+    private CompiledUrlWhitelist(final List<WhitelistEntry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        for (WhitelistEntry entry : entries) {
+            if (entry instanceof ParsedWhitelistEntry) {
+                ((ParsedWhitelistEntry) entry).compileInto(this);
+            } else if (!(entry instanceof UnparsableWhitelistEntry)) {
+                otherEntries.add(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the entries this whitelist was compiled from
+     */
+    public List<WhitelistEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * An empty whitelist allows all URLs, localhost and the loopback address are always allowed.
+     *
+     * @param url the url to check
+     * @return true if the url is allowed by this whitelist
+     */
+    public boolean isAllowed(final URL url) {
+        Assert.requireNonNull(url, "url");
+
+        if (entries.isEmpty()) {
+            return true; // empty whitelist == allow all connections
+        }
+
+        final String protocol = url.getProtocol().toLowerCase(Locale.ENGLISH);
+        final String host = url.getHost().toLowerCase(Locale.ENGLISH);
+        final int port = url.getPort() > 0 ? url.getPort() : url.getDefaultPort();
+        final String key = protocol + "://" + host + ":" + port;
+
+        final Boolean known = decisions.get(key);
+        if (known != null) {
+            return known;
+        }
+        // is it localhost or loopback, localhost need not be in whitelist
+        final boolean decision = IpUtil.isLocalhostOrLoopback(url) || matches(protocol, host, port) || matchesOtherEntries(url);
+        if (decisions.size() >= MAX_REMEMBERED_DECISIONS) {
+            decisions.clear();
+        }
+        decisions.put(key, decision);
+        return decision;
+    }
+
+    private boolean matches(final String protocol, final String host, final int port) {
+        if (anyHost.matches(protocol, port)) {
+            return true;
+        }
+        final String[] labels = host.split("\\.", -1);
+        HostNode node = root;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            node = node.children.get(labels[i]);
+            if (node == null) {
+                return false;
+            }
+            // a wildcard entry only matches if at least one more label is left
+            if (i > 0 && node.subdomains.matches(protocol, port)) {
+                return true;
+            }
+        }
+        return node.exact.matches(protocol, port);
+    }
+
+    private boolean matchesOtherEntries(final URL url) {
+        for (WhitelistEntry entry : otherEntries) {
+            if (entry.matches(url)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    PortSets exactHost(final String host) {
+        return node(host).exact;
+    }
+
+    PortSets subdomainsOf(final String domain) {
+        return node(domain).subdomains;
+    }
+
+    PortSets anyHost() {
+        return anyHost;
+    }
+
+    private HostNode node(final String domain) {
+        final String[] labels = domain.toLowerCase(Locale.ENGLISH).split("\\.", -1);
+        HostNode node = root;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(labels[i], label -> new HostNode());
+        }
+        return node;
+    }
+
+    private static class HostNode {
+        private final Map<String, HostNode> children = new HashMap<>();
+        private final PortSets exact = new PortSets();
+        private final PortSets subdomains = new PortSets();
+    }
+
+    /**
+     * The allowed ports per protocol.
+     */
+    static class PortSets {
+        private final Map<String, PortSet> byProtocol = new HashMap<>();
+
+        PortSet forProtocol(final String protocol) {
+            return byProtocol.computeIfAbsent(protocol.toLowerCase(Locale.ENGLISH), p -> new PortSet());
+        }
+
+        private boolean matches(final String protocol, final int port) {
+            final PortSet ports = byProtocol.get(protocol);
+            return ports != null && ports.contains(port);
+        }
+    }
+
+    /**
+     * A set of ports, either all ports or an explicit set of them.
+     */
+    static class PortSet {
+        private boolean any = false;
+        private final Set<Integer> ports = new HashSet<>();
+
+        void addAll() {
+            any = true;
+        }
+
+        void add(final int port) {
+            ports.add(port);
+        }
+
+        private boolean contains(final int port) {
+            return any || ports.contains(port);
+        }
+    }
+}
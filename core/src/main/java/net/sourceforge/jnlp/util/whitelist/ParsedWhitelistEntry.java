@@ -57,6 +57,12 @@ class ParsedWhitelistEntry implements WhitelistEntry {
         return valid;
     }
 
+    void compileInto(final CompiledUrlWhitelist whitelist) {
+        if (valid) {
+            port.addTo(host.portsIn(whitelist).forProtocol(protocol.effective()));
+        }
+    }
+
     @Override
     public boolean matches(final URL url) {
         if (!isValid() || url == null) {
@@ -5,7 +5,6 @@ import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
-import net.sourceforge.jnlp.util.IpUtil;
 
 import java.net.URL;
 import java.util.List;
@@ -17,15 +16,26 @@ public class UrlWhiteListUtils {
 
     private static final Logger LOG = LoggerFactory.getLogger(UrlWhiteListUtils.class);
 
-    private static List<WhitelistEntry> applicationUrlWhiteList;
+    private static volatile CompiledUrlWhitelist applicationUrlWhiteList;
 
     public static List<WhitelistEntry> getApplicationUrlWhiteList() {
+        return getCompiledApplicationUrlWhiteList().getEntries();
+    }
+
+    /**
+     * @return the server whitelist of the configuration, compiled once when it is first used
+     */
+    public static CompiledUrlWhitelist getCompiledApplicationUrlWhiteList() {
         if (applicationUrlWhiteList == null) {
-            applicationUrlWhiteList = loadWhitelistFromConfiguration(KEY_SECURITY_SERVER_WHITELIST);
+            applicationUrlWhiteList = CompiledUrlWhitelist.compile(loadWhitelistFromConfiguration(KEY_SECURITY_SERVER_WHITELIST));
         }
         return applicationUrlWhiteList;
     }
 
+    public static boolean isUrlInApplicationUrlWhiteList(final URL url) {
+        return getCompiledApplicationUrlWhiteList().isAllowed(url);
+    }
+
     public static List<WhitelistEntry> loadWhitelistFromConfiguration(final String whitelistPropertyName) {
         return JNLPRuntime.getConfiguration().getPropertyAsList(whitelistPropertyName)
                 .stream()
@@ -38,16 +48,7 @@ public class UrlWhiteListUtils {
         Assert.requireNonNull(url, "url");
         Assert.requireNonNull(whiteList, "whiteList");
 
-        if (whiteList.isEmpty()) {
-            return true; // empty whitelist == allow all connections
-        }
-
-        // is it localhost or loopback
-        if (IpUtil.isLocalhostOrLoopback(url)) {
-            return true; // localhost need not be in whitelist
-        }
-
-        return whiteList.stream().anyMatch(wlEntry -> wlEntry.matches(url));
+        return CompiledUrlWhitelist.compile(whiteList).isAllowed(url);
     }
 
     static WhitelistEntry parseEntry(final String wlUrlStr) {
@@ -53,6 +53,11 @@ abstract class WhitelistEntryHost extends WhitelistEntryPart {
         super(valid, effective, error);
     }
 
+    /**
+     * @return the allowed ports of this host in the given whitelist, {@code null} for an invalid host
+     */
+    abstract CompiledUrlWhitelist.PortSets portsIn(CompiledUrlWhitelist whitelist);
+
     /**
      * Exact host. Does not contain a wildcard.
      */
@@ -68,6 +73,11 @@ abstract class WhitelistEntryHost extends WhitelistEntryPart {
         public boolean matches(final URL url) {
             return host.equalsIgnoreCase(url.getHost());
         }
+
+        @Override
+        CompiledUrlWhitelist.PortSets portsIn(final CompiledUrlWhitelist whitelist) {
+            return whitelist.exactHost(host);
+        }
     }
 
     /**
@@ -95,6 +105,12 @@ abstract class WhitelistEntryHost extends WhitelistEntryPart {
             final String postfix = fromUrl.substring(fromUrlLength - hostPostfixLength);
             return hostPostfix.equalsIgnoreCase(postfix);
         }
+
+        @Override
+        CompiledUrlWhitelist.PortSets portsIn(final CompiledUrlWhitelist whitelist) {
+            // the postfix starts with the subdomain separator
+            return whitelist.subdomainsOf(hostPostfix.substring(1));
+        }
     }
 
     /**
@@ -111,6 +127,11 @@ abstract class WhitelistEntryHost extends WhitelistEntryPart {
         public boolean matches(final URL url) {
             return true;
         }
+
+        @Override
+        CompiledUrlWhitelist.PortSets portsIn(final CompiledUrlWhitelist whitelist) {
+            return whitelist.anyHost();
+        }
     }
 
     /**
@@ -131,5 +152,10 @@ abstract class WhitelistEntryHost extends WhitelistEntryPart {
         public boolean matches(final URL url) {
             return false;
         }
+
+        @Override
+        CompiledUrlWhitelist.PortSets portsIn(final CompiledUrlWhitelist whitelist) {
+            return null;
+        }
     }
 }
@@ -32,6 +32,8 @@ abstract class WhitelistEntryPort extends WhitelistEntryPart {
         super(valid, effective, error);
     }
 
+    abstract void addTo(CompiledUrlWhitelist.PortSet ports);
+
     /**
      * Exact port given.
      */
@@ -48,6 +50,11 @@ abstract class WhitelistEntryPort extends WhitelistEntryPart {
             return port == getPort(url);
         }
 
+        @Override
+        void addTo(final CompiledUrlWhitelist.PortSet ports) {
+            ports.add(port);
+        }
+
         private int getPort(final URL url) {
             final int port = url.getPort();
             if (port > 0) {
@@ -71,6 +78,11 @@ abstract class WhitelistEntryPort extends WhitelistEntryPart {
         public boolean matches(final URL url) {
             return true;
         }
+
+        @Override
+        void addTo(final CompiledUrlWhitelist.PortSet ports) {
+            ports.addAll();
+        }
     }
 
     /**
@@ -87,5 +99,9 @@ abstract class WhitelistEntryPort extends WhitelistEntryPart {
         public boolean matches(final URL url) {
             return false;
         }
+
+        @Override
+        void addTo(final CompiledUrlWhitelist.PortSet ports) {
+        }
     }
 }
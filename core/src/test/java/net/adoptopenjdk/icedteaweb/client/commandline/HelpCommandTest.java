@@ -88,6 +88,7 @@ public class HelpCommandTest extends AbstractCommandTest {
                 "    -list           - Shows a list of all the IcedTea-Web settings and their current values.(No argument expected)" + EOL +
                 "    -reset name     - Resets the specified settings to their original values.(Expected one or more arguments)" + EOL +
                 "    -reset all      - Resets all settings to their original values.(No argument expected)" + EOL +
+                "    -seedcache url  - Downloads the resources of the applications into the system cache, which is shared by all users. The system cache is configured by deployment.system.cachedir.(Expected one or more arguments)" + EOL +
                 "    -set name value - Sets the settings to the new value specified, if it is an appropriate value.(Expected even number of arguments with param=value as valid argument)" + EOL +
                 "    -verbose        - Enable verbose output.(No argument expected)" + EOL +
                 EOL + EOL));
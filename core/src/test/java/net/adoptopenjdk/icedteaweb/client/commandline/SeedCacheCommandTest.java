@@ -0,0 +1,44 @@
+package net.adoptopenjdk.icedteaweb.client.commandline;
+
+import net.adoptopenjdk.icedteaweb.commandline.CommandLineOptions;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static net.adoptopenjdk.icedteaweb.client.commandline.CommandLine.ERROR;
+import static net.adoptopenjdk.icedteaweb.client.commandline.CommandLine.SUCCESS;
+import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertEquals;
+
+public class SeedCacheCommandTest extends AbstractCommandTest {
+    @Test
+    public void testSeedCacheCommandWithoutSystemCache() {
+        // GIVEN -----------
+        final String[] args = {"-seedcache", "https://example.com/app.jnlp"}; // use literals for readability
+
+        // test if literals still backed by constants
+        assertThat(Arrays.asList(args), hasItem(CommandLineOptions.SEEDCACHE.getOption()));
+
+        // WHEN ------------
+        final int status = getCommandLine(args).handle();
+
+        // THEN ------------
+        assertEquals(ERROR, status);
+    }
+
+    @Test
+    public void testSeedCacheHelp() {
+        // GIVEN -----------
+        final String[] args = {"-seedcache", "-help"}; // use literals for readability
+
+        // WHEN ------------
+        final int status = getCommandLine(args).handle();
+
+        // THEN ------------
+        assertEquals(SUCCESS, status);
+        assertThat(getOutContent(), containsString(R("CLSeedCacheDescription")));
+    }
+}
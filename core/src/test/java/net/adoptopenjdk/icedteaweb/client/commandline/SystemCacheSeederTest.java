@@ -0,0 +1,114 @@
+package net.adoptopenjdk.icedteaweb.client.commandline;
+
+import net.adoptopenjdk.icedteaweb.testing.ServerAccess;
+import net.adoptopenjdk.icedteaweb.testing.ServerLauncher;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SystemCacheSeederTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ServerLauncher server;
+    private String userCacheDir;
+    private File systemCacheDir;
+
+    @Before
+    public void setUp() throws Exception {
+        final File serverDir = temporaryFolder.newFolder("server");
+        server = ServerAccess.getIndependentInstance(serverDir.getAbsolutePath(), ServerAccess.findFreePort());
+        userCacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        systemCacheDir = new File(temporaryFolder.getRoot(), "system-cache");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        PathsAndFiles.CACHE_DIR.setValue(userCacheDir);
+    }
+
+    @Test
+    public void jarsOfTheApplicationAreAddedToTheSystemCache() throws Exception {
+        //given
+        final File jar = writeJar("app.jar");
+        final URL jnlpUrl = writeJnlp("app.jnlp", "app.jar");
+
+        //when
+        final boolean success = new SystemCacheSeeder(systemCacheDir).seed(Collections.singletonList(jnlpUrl));
+
+        //than
+        assertTrue(success);
+        assertTrue(new File(systemCacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME).isFile());
+        final List<Path> cachedJars = findFiles("app.jar");
+        assertEquals(1, cachedJars.size());
+        assertArrayEquals(Files.readAllBytes(jar.toPath()), Files.readAllBytes(cachedJars.get(0)));
+        assertTrue(cachedJars.get(0).toFile().canRead());
+    }
+
+    @Test
+    public void missingJarIsReported() throws Exception {
+        //given
+        final URL jnlpUrl = writeJnlp("broken.jnlp", "missing.jar");
+
+        //when
+        final boolean success = new SystemCacheSeeder(systemCacheDir).seed(Collections.singletonList(jnlpUrl));
+
+        //than
+        assertFalse(success);
+        assertTrue(findFiles("missing.jar").isEmpty());
+    }
+
+    private List<Path> findFiles(final String name) throws IOException {
+        try (Stream<Path> files = Files.walk(systemCacheDir.toPath())) {
+            return files.filter(file -> file.getFileName().toString().equals(name)).collect(Collectors.toList());
+        }
+    }
+
+    private File writeJar(final String name) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        final File jar = new File(server.getDir(), name);
+        try (JarOutputStream ignored = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            // only the manifest
+        }
+        return jar;
+    }
+
+    private URL writeJnlp(final String name, final String jarHref) throws IOException {
+        final URL codebase = server.getUrl("/");
+        final String jnlp = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jnlp spec=\"1.0\" codebase=\"" + codebase + "\" href=\"" + name + "\">\n"
+                + "  <information><title>Seeded</title><vendor>IcedTea-Web</vendor></information>\n"
+                + "  <resources><j2se version=\"1.8+\"/><jar href=\"" + jarHref + "\" main=\"true\"/></resources>\n"
+                + "  <application-desc main-class=\"Main\"/>\n"
+                + "</jnlp>\n";
+        Files.write(new File(server.getDir(), name).toPath(), jnlp.getBytes(StandardCharsets.UTF_8));
+        return server.getUrl(name);
+    }
+}
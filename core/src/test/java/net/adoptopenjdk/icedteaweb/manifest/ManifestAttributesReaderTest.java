@@ -1,10 +1,33 @@
 package net.adoptopenjdk.icedteaweb.manifest;
 
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
 import net.sourceforge.jnlp.util.logging.NoStdOutErrTest;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 public class ManifestAttributesReaderTest extends NoStdOutErrTest {
+
+    private static final Attributes.Name NAME = new Attributes.Name("Application-Name");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<URL, File> cacheFiles = new HashMap<>();
     @Test
     public void testSplitEmptyOrNullEntryPoints() throws Exception {
         Assert.assertArrayEquals(null, ManifestAttributesReader.splitEntryPoints(""));
@@ -26,4 +49,74 @@ public class ManifestAttributesReaderTest extends NoStdOutErrTest {
         Assert.assertArrayEquals(new String[]{"a.b.c", "cde"}, ManifestAttributesReader.splitEntryPoints("  a.b.c cde    "));
         Assert.assertArrayEquals(new String[]{"a.b.c", "cde"}, ManifestAttributesReader.splitEntryPoints("a.b.c         cde    "));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAttributeOfMainJarIsUsedFirst() throws Exception {
+        final JARDesc first = jar("first", false, "from first");
+        final JARDesc main = jar("main", true, "from main");
+
+        Assert.assertEquals("from main", getAttribute(first, main));
+    }
+
+    @Test
+    public void testAttributeOfFirstJarIsUsedIfMainJarHasNone() throws Exception {
+        final JARDesc first = jar("first", false, "from first");
+        final JARDesc main = jar("main", true, null);
+        final JARDesc other = jar("other", false, "from other");
+
+        Assert.assertEquals("from first", getAttribute(first, main, other));
+    }
+
+    @Test
+    public void testUniqueAttributeOfOtherJarIsUsed() throws Exception {
+        final JARDesc first = jar("first", false, null);
+        final JARDesc main = jar("main", true, null);
+        final JARDesc other = jar("other", false, "from other");
+
+        Assert.assertEquals("from other", getAttribute(first, main, other));
+    }
+
+    @Test
+    public void testAmbiguousAttributeOfOtherJarsIsIgnored() throws Exception {
+        final JARDesc first = jar("first", false, null);
+        final JARDesc main = jar("main", true, null);
+        final JARDesc other = jar("other", false, "from other");
+        final JARDesc another = jar("another", false, "from another");
+
+        Assert.assertNull(getAttribute(first, main, other, another));
+    }
+
+    @Test
+    public void testSnapshotIsIncompleteIfJarIsNotAvailable() throws Exception {
+        final JARDesc main = jar("main", true, "from main");
+        final JARDesc missing = new JARDesc(new URL("http://localhost/missing.jar"), null, null, false, false, false, true);
+
+        final ManifestAttributesSnapshot complete = ManifestAttributesReader.readSnapshot(Collections.singletonList(main), cacheFiles::get);
+        final ManifestAttributesSnapshot incomplete = ManifestAttributesReader.readSnapshot(Arrays.asList(main, missing), cacheFiles::get);
+
+        Assert.assertTrue(complete.isComplete());
+        Assert.assertEquals("from main", complete.getApplicationName());
+        Assert.assertFalse(incomplete.isComplete());
+        Assert.assertEquals("from main", incomplete.getApplicationName());
+    }
+
+    private String getAttribute(final JARDesc... jars) {
+        final List<JARDesc> jarList = Arrays.asList(jars);
+        return ManifestAttributesReader.getAttributesFromJars(Collections.singleton(NAME), jarList, cacheFiles::get).get(NAME);
+    }
+
+    private JARDesc jar(final String name, final boolean main, final String applicationName) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (applicationName != null) {
+            manifest.getMainAttributes().put(NAME, applicationName);
+        }
+        final File file = temporaryFolder.newFile(name + ".jar");
+        try (JarOutputStream ignored = new JarOutputStream(new FileOutputStream(file), manifest)) {
+            // only the manifest
+        }
+        final URL location = new URL("http://localhost/" + name + ".jar");
+        cacheFiles.put(location, file);
+        return new JARDesc(location, null, null, false, main, false, true);
+    }
+}
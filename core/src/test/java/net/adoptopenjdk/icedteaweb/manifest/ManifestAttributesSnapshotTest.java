@@ -0,0 +1,83 @@
+package net.adoptopenjdk.icedteaweb.manifest;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ManifestAttributesSnapshotTest {
+
+    @Test
+    public void testEmptySnapshot() {
+        final ManifestAttributesSnapshot snapshot = ManifestAttributesSnapshot.EMPTY;
+        assertNull(snapshot.getEntryPoint());
+        assertNull(snapshot.getEntryPoints());
+        assertNull(snapshot.getApplicationName());
+        assertNull(snapshot.getPermissions());
+        assertNull(snapshot.getCodebase());
+        assertNull(snapshot.getApplicationLibraryAllowableCodebase());
+        assertNull(snapshot.getCallerAllowableCodebase());
+        assertEquals(ManifestBoolean.UNDEFINED, snapshot.isTrustedOnly());
+        assertEquals(ManifestBoolean.UNDEFINED, snapshot.isTrustedLibrary());
+    }
+
+    @Test
+    public void testValues() {
+        final Map<ManifestAttributes, String> values = new EnumMap<>(ManifestAttributes.class);
+        values.put(ManifestAttributes.ENTRY_POINT, " a.b.C  d.E ");
+        values.put(ManifestAttributes.APPLICATION_NAME, "Test");
+        values.put(ManifestAttributes.PERMISSIONS, "sandbox");
+        values.put(ManifestAttributes.TRUSTED_ONLY, " TRUE ");
+        values.put(ManifestAttributes.TRUSTED_LIBRARY, "false");
+        final ManifestAttributesSnapshot snapshot = new ManifestAttributesSnapshot(values, true);
+
+        assertArrayEquals(new String[]{"a.b.C", "d.E"}, snapshot.getEntryPoints());
+        assertEquals("Test", snapshot.getApplicationName());
+        assertEquals("Test", snapshot.get(ManifestAttributes.APPLICATION_NAME));
+        assertEquals("sandbox", snapshot.getPermissions());
+        assertEquals(ManifestBoolean.TRUE, snapshot.isTrustedOnly());
+        assertEquals(ManifestBoolean.FALSE, snapshot.isTrustedLibrary());
+    }
+
+    @Test
+    public void testIsIndependentOfSourceMap() {
+        final Map<ManifestAttributes, String> values = new EnumMap<>(ManifestAttributes.class);
+        values.put(ManifestAttributes.APPLICATION_NAME, "Test");
+        final ManifestAttributesSnapshot snapshot = new ManifestAttributesSnapshot(values, true);
+        values.put(ManifestAttributes.APPLICATION_NAME, "Changed");
+
+        assertEquals("Test", snapshot.getApplicationName());
+    }
+
+    @Test
+    public void testCodebaseMatchersAreCompiledOnce() throws Exception {
+        final Map<ManifestAttributes, String> values = new EnumMap<>(ManifestAttributes.class);
+        values.put(ManifestAttributes.CODEBASE, "*.example.com");
+        values.put(ManifestAttributes.APPLICATION_LIBRARY_ALLOWABLE_CODEBASE, "https://lib.example.com/app");
+        values.put(ManifestAttributes.CALLER_ALLOWABLE_CODEBASE, "caller.example.com");
+        final ManifestAttributesSnapshot snapshot = new ManifestAttributesSnapshot(values, true);
+
+        assertSame(snapshot.getCodebase(), snapshot.getCodebase());
+        assertSame(snapshot.getCallerAllowableCodebase(), snapshot.getCallerAllowableCodebase());
+        assertTrue(snapshot.getCodebase().matches(new URL("http://www.example.com/any/path")));
+        assertFalse(snapshot.getCodebase().matches(new URL("http://www.example.org/")));
+        assertTrue(snapshot.getApplicationLibraryAllowableCodebase().matches(new URL("https://lib.example.com/app")));
+        assertFalse(snapshot.getApplicationLibraryAllowableCodebase().matches(new URL("https://lib.example.com/other")));
+        assertTrue(snapshot.getCallerAllowableCodebase().matches(new URL("http://caller.example.com/page.html")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBooleanValue() {
+        final Map<ManifestAttributes, String> values = new EnumMap<>(ManifestAttributes.class);
+        values.put(ManifestAttributes.TRUSTED_ONLY, "yes");
+        new ManifestAttributesSnapshot(values, true).isTrustedOnly();
+    }
+}
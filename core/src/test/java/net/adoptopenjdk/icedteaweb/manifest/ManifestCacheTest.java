@@ -0,0 +1,80 @@
+package net.adoptopenjdk.icedteaweb.manifest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ManifestCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ManifestCache cache = new ManifestCache();
+
+    @Test
+    public void testReadsMainAttributes() throws Exception {
+        final File jar = createJar("main.jar", "net.example.Main", "lib/a.jar");
+
+        assertEquals("net.example.Main", cache.getMainAttribute(jar, Attributes.Name.MAIN_CLASS));
+        assertEquals("lib/a.jar", cache.getMainAttribute(jar, Attributes.Name.CLASS_PATH));
+        assertTrue(cache.hasMainAttribute(jar, Attributes.Name.CLASS_PATH));
+        assertNull(cache.getMainAttribute(jar, new Attributes.Name("Application-Name")));
+    }
+
+    @Test
+    public void testRereadsChangedJar() throws Exception {
+        final File jar = createJar("main.jar", "net.example.Main", null);
+        assertEquals("net.example.Main", cache.getMainAttribute(jar, Attributes.Name.MAIN_CLASS));
+
+        createJar("main.jar", "net.example.other.NewMain", null);
+        assertTrue(jar.setLastModified(jar.lastModified() + 2000));
+
+        assertEquals("net.example.other.NewMain", cache.getMainAttribute(jar, Attributes.Name.MAIN_CLASS));
+        assertFalse(cache.hasMainAttribute(jar, Attributes.Name.CLASS_PATH));
+    }
+
+    @Test
+    public void testJarWithoutManifest() throws Exception {
+        final File jar = temporaryFolder.newFile("plain.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("a.txt"));
+            out.write("a".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertNull(cache.getMainAttribute(jar, Attributes.Name.MAIN_CLASS));
+    }
+
+    @Test
+    public void testMissingJar() {
+        assertNull(cache.getMainAttribute(new File(temporaryFolder.getRoot(), "missing.jar"), Attributes.Name.MAIN_CLASS));
+    }
+
+    private File createJar(final String name, final String mainClass, final String classPath) throws IOException {
+        final File jar = new File(temporaryFolder.getRoot(), name);
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            out.putNextEntry(new ZipEntry("a.txt"));
+            out.write("a".getBytes(StandardCharsets.UTF_8));
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,23 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class DaemonThreadPoolProviderTest {
+
+    @Test
+    public void managedPoolsAreReported() {
+        //when
+        final List<String> names = DaemonThreadPoolProvider.getManagedPools().stream()
+                .map(ManagedThreadPool::getName)
+                .collect(Collectors.toList());
+
+        //than
+        assertThat(names, contains("resource", "io"));
+    }
+}
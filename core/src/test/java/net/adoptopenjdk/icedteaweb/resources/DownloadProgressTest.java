@@ -0,0 +1,142 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.DownloadOptions;
+import org.junit.Test;
+
+import javax.jnlp.DownloadServiceListener;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DownloadProgressTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> scheduledFlushes = new ArrayList<>();
+
+    @Test
+    public void progressIsCoalesced() throws Exception {
+        final URL[] urls = {new URL("http://example.com/progress/a.jar"), new URL("http://example.com/progress/b.jar")};
+        final Resource[] resources = {resource(urls[0]), resource(urls[1])};
+        final RecordingListener listener = new RecordingListener();
+        progress(urls, resources, null, listener, 60_000).register();
+
+        resources[0].setSize(1000);
+        for (int i = 1; i < 1000; i++) {
+            resources[0].setTransferred(i);
+        }
+        final int eventsWhileDownloading = listener.percentages.size();
+        assertTrue("too many events: " + eventsWhileDownloading, eventsWhileDownloading <= 2);
+
+        resources[0].setStatus(DOWNLOADED);
+        resources[0].setTransferred(1000);
+        assertEquals(Integer.valueOf(50), listener.lastPercentage());
+        assertEquals(urls[0], listener.lastUrl);
+
+        resources[1].setStatus(DOWNLOADED);
+        resources[1].setSize(10);
+        assertEquals(Integer.valueOf(100), listener.lastPercentage());
+        assertEquals(urls[1], listener.lastUrl);
+    }
+
+    @Test
+    public void changesArePublishedAfterTheInterval() throws Exception {
+        final URL[] urls = {new URL("http://example.com/progress/c.jar")};
+        final Resource[] resources = {resource(urls[0])};
+        final RecordingListener listener = new RecordingListener();
+        progress(urls, resources, null, listener, 1).register();
+
+        resources[0].setSize(1000);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        resources[0].setTransferred(10);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        resources[0].setTransferred(20);
+
+        assertEquals(3, listener.percentages.size());
+        assertEquals(20, listener.lastReadSoFar);
+    }
+
+    @Test
+    public void heldBackChangeIsFlushedAtTheEndOfTheInterval() throws Exception {
+        final URL[] urls = {new URL("http://example.com/progress/d.jar")};
+        final Resource[] resources = {resource(urls[0])};
+        final RecordingListener listener = new RecordingListener();
+        progress(urls, resources, null, listener, 50).register();
+
+        resources[0].setSize(1000);
+        resources[0].setTransferred(10);
+        resources[0].setTransferred(20);
+        assertEquals(1, listener.percentages.size());
+        assertEquals(1, scheduledFlushes.size());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        scheduledFlushes.remove(0).run();
+
+        assertEquals(2, listener.percentages.size());
+        assertEquals(20, listener.lastReadSoFar);
+        assertTrue(scheduledFlushes.isEmpty());
+    }
+
+    @Test
+    public void onlyTheReportedResourceIsPassedOn() throws Exception {
+        final URL[] urls = {new URL("http://example.com/progress/e.jar"), new URL("http://example.com/progress/f.jar")};
+        final Resource[] resources = {resource(urls[0]), resource(urls[1])};
+        final RecordingListener listener = new RecordingListener();
+        progress(urls, resources, urls[1], listener, 50).register();
+
+        resources[0].setStatus(DOWNLOADED);
+        resources[0].setSize(10);
+        assertTrue(listener.percentages.isEmpty());
+        assertTrue(scheduledFlushes.isEmpty());
+
+        resources[1].setSize(1000);
+        assertEquals(urls[1], listener.lastUrl);
+        assertEquals(Integer.valueOf(50), listener.lastPercentage());
+        assertEquals(1, listener.percentages.size());
+    }
+
+    private DownloadProgress progress(final URL[] urls, final Resource[] resources, final URL reportedUrl,
+                                      final DownloadServiceListener listener, final long publishIntervalMillis) {
+        return new DownloadProgress(urls, resources, reportedUrl, listener, publishIntervalMillis, now::get,
+                (flush, delayNanos) -> scheduledFlushes.add(flush));
+    }
+
+    private static Resource resource(final URL url) {
+        return Resource.createOrGetResource(url, VersionString.fromString("1.0"), DownloadOptions.NONE, UpdatePolicy.ALWAYS);
+    }
+
+    private static class RecordingListener implements DownloadServiceListener {
+        private final List<Integer> percentages = new ArrayList<>();
+        private URL lastUrl;
+        private long lastReadSoFar;
+
+        @Override
+        public synchronized void progress(final URL url, final String version, final long readSoFar, final long total, final int overallPercent) {
+            percentages.add(overallPercent);
+            lastUrl = url;
+            lastReadSoFar = readSoFar;
+        }
+
+        private synchronized Integer lastPercentage() {
+            return percentages.get(percentages.size() - 1);
+        }
+
+        @Override
+        public void validating(final URL url, final String version, final long entry, final long total, final int overallPercent) {
+        }
+
+        @Override
+        public void upgradingArchive(final URL url, final String version, final int patchPercent, final int overallPercent) {
+        }
+
+        @Override
+        public void downloadFailed(final URL url, final String version) {
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.HIGH;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.LOW;
+import static net.adoptopenjdk.icedteaweb.resources.ManagedThreadPool.Priority.NORMAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ManagedThreadPoolTest {
+
+    private ManagedThreadPool pool;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new ManagedThreadPool("test", 1);
+        release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void waitingTasksRunByPriority() throws Exception {
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        pool.submit(LOW, () -> order.add("low"));
+        pool.submit(NORMAL, () -> order.add("normal-1"));
+        pool.submit(HIGH, () -> order.add("high"));
+        final ExecutorService normal = pool.withPriority(NORMAL);
+        final Future<?> last = normal.submit(() -> order.add("normal-2"));
+        pool.submit(LOW, () -> order.add("low-2"));
+
+        assertEquals(5, pool.getQueueDepth());
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("high", "normal-1", "normal-2", "low", "low-2"), order);
+        assertEquals(5, pool.getPeakQueueDepth());
+    }
+
+    @Test
+    public void cancelledTasksAreRemovedFromTheQueue() throws Exception {
+        final Future<?> cancelled = pool.submit(NORMAL, () -> {
+            throw new IllegalStateException("cancelled task was run");
+        });
+        final Future<String> kept = pool.submit(LOW, () -> "kept");
+        assertEquals(2, pool.getQueueDepth());
+
+        assertTrue(cancelled.cancel(true));
+        assertEquals(1, pool.getQueueDepth());
+
+        release.countDown();
+        assertEquals("kept", kept.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void priorityViewCanNotBeShutDown() {
+        pool.withPriority(HIGH).shutdown();
+    }
+
+    @Test
+    public void threadsAreNamedDaemons() throws Exception {
+        release.countDown();
+        final Thread thread = pool.submit(HIGH, Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName(), thread.getName().startsWith("itw-test-"));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
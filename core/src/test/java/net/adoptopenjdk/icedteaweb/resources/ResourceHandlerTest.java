@@ -24,7 +24,10 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.net.URL;
 import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
@@ -181,6 +184,49 @@ public class ResourceHandlerTest extends NoStdOutErrTest {
         assertTrue(resource.hasStatus(ERROR));
     }
 
+    @Test
+    public void testWaitedForPrefetchOvertakesQueuedDownloads() throws Exception {
+        final ManagedThreadPool pool = new ManagedThreadPool("saturated", 1);
+        final CountDownLatch releaseRunning = new CountDownLatch(1);
+        final CountDownLatch releaseQueued = new CountDownLatch(1);
+        try {
+            //given - the only thread is busy and other downloads are queued
+            final CountDownLatch running = new CountDownLatch(1);
+            pool.submit(ManagedThreadPool.Priority.NORMAL, () -> {
+                running.countDown();
+                awaitQuietly(releaseRunning);
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                pool.submit(ManagedThreadPool.Priority.NORMAL, () -> awaitQuietly(releaseQueued));
+            }
+            final String expected = "prefetched";
+            final Resource resource = setupResource("prefetched-resource", expected);
+            resource.putIntoCache(pool.withPriority(ManagedThreadPool.Priority.LOW));
+
+            //when
+            final Future<Resource> download = resource.putIntoCacheNow(pool.withPriority(ManagedThreadPool.Priority.HIGH));
+            releaseRunning.countDown();
+
+            //than - the queued downloads still block the thread once they run
+            download.get(10, TimeUnit.SECONDS);
+            assertEquals(expected, readFile(resource.getLocalFile()));
+            assertEquals(3, pool.getQueueDepth());
+        } finally {
+            releaseRunning.countDown();
+            releaseQueued.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void setupFile(String fileName, String text) throws Exception {
         final File file = new File(downloadServer.getDir(), fileName);
         Files.write(file.toPath(), text.getBytes(UTF_8));
@@ -0,0 +1,54 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.DownloadOptions;
+import net.sourceforge.jnlp.util.ResourceLocation;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ResourceRegistryTest {
+
+    @Test
+    public void sameLocationAndVersionGiveSameResource() throws Exception {
+        final URL url = new URL("http://example.com/registry/a.jar");
+        final Resource first = Resource.createOrGetResource(url, VersionString.fromString("1.0"), DownloadOptions.NONE, UpdatePolicy.ALWAYS);
+
+        assertSame(first, Resource.createOrGetResource(new URL("http://EXAMPLE.com:80/registry/a.jar"), VersionString.fromString("1.0"), DownloadOptions.NONE, UpdatePolicy.ALWAYS));
+        assertNotSame(first, Resource.createOrGetResource(url, VersionString.fromString("2.0"), DownloadOptions.NONE, UpdatePolicy.ALWAYS));
+        assertNotSame(first, Resource.createOrGetResource(url, null, DownloadOptions.NONE, UpdatePolicy.ALWAYS));
+    }
+
+    @Test
+    public void collectedResourcesAreRemoved() throws Exception {
+        //given
+        final List<ResourceRegistry.ResourceReference> references = new ArrayList<>();
+        final ResourceRegistry registry = new ResourceRegistry((key, resource, queue) -> {
+            final ResourceRegistry.ResourceReference reference = new ResourceRegistry.ResourceReference(key, resource, queue);
+            references.add(reference);
+            return reference;
+        });
+        final URL url = new URL("http://example.com/registry/b.jar");
+        final ResourceLocation location = ResourceLocation.of(url);
+        final Resource resource = registry.getOrCreate(location, null, () -> Resource.createOrGetResource(url, null, null, UpdatePolicy.ALWAYS));
+        assertEquals(1, registry.size());
+
+        //when - what the garbage collector does once the resource is no longer used
+        references.get(0).clear();
+        references.get(0).enqueue();
+
+        //than
+        assertEquals(0, registry.size());
+        final URL otherUrl = new URL("http://example.com/registry/c.jar");
+        final Resource recreated = registry.getOrCreate(location, null, () -> Resource.createOrGetResource(otherUrl, null, null, UpdatePolicy.ALWAYS));
+        assertNotSame(resource, recreated);
+        assertEquals(1, registry.size());
+        assertEquals(2, references.size());
+    }
+}
@@ -189,4 +189,43 @@ public class ResourceTrackerTest extends NoStdOutErrTest {
         String output = new String(Files.readAllBytes(downloadFile.toPath()));
         assertEquals(s, output);
     }
+
+    @Test
+    public void resourceKeepsTheHighestRequestedPriority() throws Exception {
+        //given
+        final URL url = new URL("http://example.com/priority/shared.jar");
+        final ResourceTracker prefetching = new ResourceTracker(false);
+        final ResourceTracker starting = new ResourceTracker(false);
+
+        //when
+        prefetching.addResource(url, null, UpdatePolicy.ALWAYS, DownloadPriority.LAZY_PREFETCH);
+        final Resource resource = Resource.createOrGetResource(url, null, null, UpdatePolicy.ALWAYS);
+        final DownloadPriority prefetchPriority = resource.getDownloadPriority();
+        starting.addResource(url, null, UpdatePolicy.ALWAYS, DownloadPriority.MAIN_JAR);
+        prefetching.addResource(url, null, UpdatePolicy.ALWAYS, DownloadPriority.LAZY_PREFETCH);
+
+        //than
+        assertEquals(DownloadPriority.LAZY_PREFETCH, prefetchPriority);
+        assertEquals(DownloadPriority.MAIN_JAR, resource.getDownloadPriority());
+    }
+
+    @Test
+    public void waitedForLazyResourceIsDownloadedInTheForeground() throws Exception {
+        //given
+        final String content = "lazy but needed now";
+        final File file = new File(downloadServer.getDir(), "priority-lazy.jar");
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+        file.deleteOnExit();
+        final URL url = downloadServer.getUrl("priority-lazy.jar");
+        final ResourceTracker tracker = new ResourceTracker(false);
+        tracker.addResource(url, null, UpdatePolicy.FORCE, DownloadPriority.LAZY_PREFETCH);
+
+        //when
+        final File cacheFile = tracker.getCacheFile(url);
+
+        //than
+        final Resource resource = Resource.createOrGetResource(url, null, null, UpdatePolicy.FORCE);
+        assertEquals(DownloadPriority.EAGER, resource.getDownloadPriority());
+        assertEquals(content, new String(Files.readAllBytes(cacheFile.toPath()), UTF_8));
+    }
 }
@@ -0,0 +1,83 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlobStoreTest {
+
+    private static final byte[] CONTENT = "the same library jar".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private BlobStore blobStore;
+    private String hash;
+
+    @Before
+    public void setUp() throws IOException {
+        blobStore = new BlobStore(temporaryFolder.newFolder("cache"));
+        hash = StringUtils.toHex(BlobStore.newDigest().digest(CONTENT));
+    }
+
+    @Test
+    public void identicalCacheFilesShareOneBlob() throws Exception {
+        final File first = writeCacheFile("first.jar");
+        final File second = writeCacheFile("second.jar");
+
+        assertTrue(blobStore.share(first, hash));
+        assertTrue(blobStore.share(second, hash));
+
+        assertTrue(Files.isSameFile(first.toPath(), second.toPath()));
+        assertTrue(Files.isSameFile(first.toPath(), blobStore.getBlobFile(hash).toPath()));
+        assertArrayEquals(CONTENT, Files.readAllBytes(second.toPath()));
+    }
+
+    @Test
+    public void cacheFileIsCreatedFromKnownBlob() throws Exception {
+        final File target = new File(temporaryFolder.newFolder("entry"), "library.jar");
+        assertFalse(blobStore.linkInto(hash, target));
+
+        blobStore.share(writeCacheFile("first.jar"), hash);
+
+        assertTrue(blobStore.linkInto(hash, target));
+        assertArrayEquals(CONTENT, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void onlyUnreferencedBlobsAreRemoved() throws Exception {
+        final File cacheFile = writeCacheFile("first.jar");
+        blobStore.share(cacheFile, hash);
+
+        blobStore.removeUnreferenced(Collections.singleton(hash));
+        assertTrue(blobStore.contains(hash));
+
+        blobStore.removeUnreferenced(Collections.emptySet());
+        assertFalse(blobStore.contains(hash));
+        assertArrayEquals(CONTENT, Files.readAllBytes(cacheFile.toPath()));
+    }
+
+    @Test
+    public void invalidHashIsNeverShared() throws Exception {
+        assertFalse(blobStore.share(writeCacheFile("first.jar"), "../../etc"));
+        assertFalse(blobStore.contains("ABC"));
+    }
+
+    private File writeCacheFile(final String name) throws IOException {
+        final File file = new File(temporaryFolder.newFolder(), name);
+        Files.write(file.toPath(), CONTENT);
+        return file;
+    }
+}
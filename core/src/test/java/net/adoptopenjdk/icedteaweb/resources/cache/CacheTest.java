@@ -0,0 +1,195 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.StringUtils;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheTest {
+
+    private static final byte[] SYSTEM_CONTENT = "seeded by the administrator".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] USER_CONTENT = "downloaded by the user".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File systemDir;
+    private SystemCache systemCache;
+    private CacheImpl userCache;
+    private CacheKey key;
+
+    @Before
+    public void setUp() throws IOException {
+        systemDir = temporaryFolder.newFolder("system-cache");
+        systemCache = new SystemCache(systemDir);
+        final File userDir = temporaryFolder.newFolder("user-cache");
+        userCache = new CacheImpl(new DummyInfrastructureFileDescriptor(new File(userDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)), new DummyInfrastructureFileDescriptor(userDir));
+        key = new CacheKey(new URL("https://example.com/app/app.jar"), null);
+    }
+
+    @After
+    public void disableDeduplication() {
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_CACHE_DEDUPLICATION, String.valueOf(false));
+    }
+
+    @Test
+    public void knownContentOfSameOriginIsLinked() throws Exception {
+        //given
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_CACHE_DEDUPLICATION, String.valueOf(true));
+        userCache.addToCache(new DownloadInfo(key.getLocation(), null, 0), new ByteArrayInputStream(USER_CONTENT));
+        final URL other = new URL("https://example.com/other/app.jar");
+
+        //when
+        final Optional<File> file = userCache.addKnownContentToCache(new DownloadInfo(other, null, 0), sha256(USER_CONTENT));
+
+        //than
+        assertTrue(file.isPresent());
+        assertContent(USER_CONTENT, file.get());
+    }
+
+    @Test
+    public void knownContentOfOtherOriginIsNotLinked() throws Exception {
+        //given
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_CACHE_DEDUPLICATION, String.valueOf(true));
+        userCache.addToCache(new DownloadInfo(key.getLocation(), null, 0), new ByteArrayInputStream(USER_CONTENT));
+        final URL hostile = new URL("https://hostile.example.org/app.jar");
+
+        //when
+        final Optional<File> file = userCache.addKnownContentToCache(new DownloadInfo(hostile, null, 0), sha256(USER_CONTENT));
+
+        //than
+        assertFalse(file.isPresent());
+        assertFalse(userCache.isCached(new CacheKey(hostile, null)));
+    }
+
+    @Test
+    public void systemCopyIsUsedIfUserHasNone() throws Exception {
+        //given
+        addToSystemCache(System.currentTimeMillis(), 1000L);
+
+        //when
+        final File file = Cache.getCacheFile(systemCache, userCache, key);
+
+        //than
+        assertTrue(file.getAbsolutePath().startsWith(systemDir.getAbsolutePath()));
+        assertEquals(1000L, Cache.getInfo(systemCache, userCache, key).getLastModified());
+        assertTrue(Cache.isCached(systemCache, userCache, key));
+    }
+
+    @Test
+    public void userCopyDownloadedLaterIsUsed() throws Exception {
+        //given - served without a Last-Modified header, so both copies have no modification time
+        addToSystemCache(System.currentTimeMillis() - 60_000, 0);
+        userCache.addToCache(new DownloadInfo(key.getLocation(), null, 0), new ByteArrayInputStream(USER_CONTENT));
+
+        //when
+        final File file = Cache.getCacheFile(systemCache, userCache, key);
+
+        //than
+        assertContent(USER_CONTENT, file);
+    }
+
+    @Test
+    public void systemCopySeededLaterIsUsed() throws Exception {
+        //given
+        userCache.addToCache(new DownloadInfo(key.getLocation(), null, 1000L), new ByteArrayInputStream(USER_CONTENT));
+        addToSystemCache(System.currentTimeMillis() + 60_000, 2000L);
+
+        //when
+        final File file = Cache.getCacheFile(systemCache, userCache, key);
+
+        //than
+        assertContent(SYSTEM_CONTENT, file);
+        assertEquals(2000L, Cache.getInfo(systemCache, userCache, key).getLastModified());
+    }
+
+    @Test
+    public void outdatedSystemCopyIsNotUpToDate() throws Exception {
+        //given
+        addToSystemCache(System.currentTimeMillis(), 1000L);
+
+        //when
+        final boolean current = Cache.isUpToDate(systemCache, userCache, key, 1000L);
+        final boolean outdated = Cache.isUpToDate(systemCache, userCache, key, 2000L);
+
+        //than
+        assertTrue(current);
+        assertFalse(outdated);
+    }
+
+    @Test
+    public void userCopyRefreshedAfterOutdatedSystemCopyIsUpToDate() throws Exception {
+        //given
+        addToSystemCache(System.currentTimeMillis() - 60_000, 1000L);
+        userCache.addToCache(new DownloadInfo(key.getLocation(), null, 2000L), new ByteArrayInputStream(USER_CONTENT));
+
+        //when
+        final boolean upToDate = Cache.isUpToDate(systemCache, userCache, key, 2000L);
+        final File file = Cache.getCacheFile(systemCache, userCache, key);
+
+        //than
+        assertTrue(upToDate);
+        assertContent(USER_CONTENT, file);
+    }
+
+    private static String sha256(final byte[] content) {
+        return StringUtils.toHex(BlobStore.newDigest().digest(content));
+    }
+
+    private static void assertContent(final byte[] expected, final File file) throws IOException {
+        assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+
+    private void addToSystemCache(final long downloadedAt, final long lastModified) throws IOException {
+        final CacheIndexEntry entry = new CacheIndexEntry("0/0", System.currentTimeMillis(), key);
+        final CachedFile infoFile = CacheImpl.getInfoFile(systemDir, entry);
+        final File cacheFile = infoFile.getCacheFile();
+        Files.createDirectories(cacheFile.getParentFile().toPath());
+        Files.write(cacheFile.toPath(), SYSTEM_CONTENT);
+        infoFile.storeInfo(downloadedAt, lastModified, SYSTEM_CONTENT.length);
+
+        final File indexFile = new File(systemDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME);
+        try (OutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write((CacheAction.createAddActionFor(entry).serialize() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class DummyInfrastructureFileDescriptor extends InfrastructureFileDescriptor {
+        private final File backend;
+
+        private DummyInfrastructureFileDescriptor(File backend) {
+            super();
+            this.backend = backend;
+        }
+
+        @Override
+        public File getFile() {
+            return backend;
+        }
+
+        @Override
+        public String getFullPath() {
+            return backend.getAbsolutePath();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SystemCacheTest {
+
+    private static final byte[] CONTENT = "the seeded jar".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File rootDir;
+    private SystemCache systemCache;
+    private URL jarUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        rootDir = temporaryFolder.newFolder("system-cache");
+        systemCache = new SystemCache(rootDir);
+        jarUrl = new URL("https://example.com/app/app.jar");
+    }
+
+    @Test
+    public void seededEntryIsFound() throws Exception {
+        //given
+        final CacheKey key = new CacheKey(jarUrl, null);
+        addEntry("0/0", key, true);
+
+        //when
+        final Optional<CachedFile> result = systemCache.getResourceInfo(key);
+
+        //than
+        assertTrue(result.isPresent());
+        assertEquals(new File(rootDir, "0" + File.separator + "0" + File.separator + "app.jar"), result.get().getCacheFile());
+        assertEquals(1000L, result.get().getLastModified());
+    }
+
+    @Test
+    public void incompleteEntryIsIgnored() throws Exception {
+        //given
+        final CacheKey key = new CacheKey(jarUrl, null);
+        addEntry("0/0", key, false);
+
+        //when
+        final Optional<CachedFile> result = systemCache.getResourceInfo(key);
+
+        //than
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    public void entriesSeededLaterAreFound() throws Exception {
+        //given
+        final CacheKey key = new CacheKey(jarUrl, null);
+        assertFalse(systemCache.getResourceInfo(key).isPresent());
+
+        //when
+        addEntry("0/0", key, true);
+
+        //than
+        assertTrue(systemCache.getResourceInfo(key).isPresent());
+    }
+
+    @Test
+    public void matchingVersionIsFound() throws Exception {
+        //given
+        addEntry("0/0", new CacheKey(jarUrl, VersionId.fromString("1.0")), true);
+        addEntry("0/1", new CacheKey(jarUrl, VersionId.fromString("2.0")), true);
+
+        //when
+        final Optional<CacheIndexEntry> matching = systemCache.getBestMatchingEntry(jarUrl, VersionString.fromString("2.0"));
+        final Optional<CacheIndexEntry> missing = systemCache.getBestMatchingEntry(jarUrl, VersionString.fromString("3.0"));
+
+        //than
+        assertEquals(VersionId.fromString("2.0"), matching.map(CacheIndexEntry::getVersion).orElse(null));
+        assertFalse(missing.isPresent());
+        assertEquals(2, systemCache.getAllEntries(jarUrl).size());
+    }
+
+    @Test
+    public void withoutRootDirTheSystemCacheIsDisabled() {
+        final SystemCache disabled = new SystemCache(null);
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.getResourceInfo(new CacheKey(jarUrl, null)).isPresent());
+        assertTrue(disabled.getAllEntries(jarUrl).isEmpty());
+    }
+
+    private void addEntry(final String id, final CacheKey key, final boolean complete) throws IOException {
+        final CacheIndexEntry entry = new CacheIndexEntry(id, System.currentTimeMillis(), key);
+        final CachedFile infoFile = CacheImpl.getInfoFile(rootDir, entry);
+        final File cacheFile = infoFile.getCacheFile();
+        Files.createDirectories(cacheFile.getParentFile().toPath());
+        Files.write(cacheFile.toPath(), CONTENT);
+        if (complete) {
+            infoFile.storeInfo(System.currentTimeMillis(), 1000L, CONTENT.length);
+        }
+
+        final File indexFile = new File(rootDir, "recently_used.cache");
+        try (OutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write((CacheAction.createAddActionFor(entry).serialize() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AdvertisedDigestTest {
+
+    // SHA-256 of "hello"
+    private static final String HEX = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final String BASE64 = "LPJNul+wow4m6DsqxbninhsWHlwfp0JecwQzYpOLmCQ=";
+
+    @Test
+    public void testChecksumHeader() {
+        assertEquals(HEX, AdvertisedDigest.sha256(header("X-Checksum-Sha256", HEX.toUpperCase())));
+    }
+
+    @Test
+    public void testDigestHeader() {
+        assertEquals(HEX, AdvertisedDigest.sha256(header("Digest", "MD5=XUFAKrxLKna5cZ2REBfFkg==, SHA-256=" + BASE64)));
+    }
+
+    @Test
+    public void testReprDigestHeader() {
+        assertEquals(HEX, AdvertisedDigest.sha256(header("Repr-Digest", "sha-512=:abc:, sha-256=:" + BASE64 + ":")));
+    }
+
+    @Test
+    public void testInvalidOrMissingHash() {
+        assertNull(AdvertisedDigest.sha256(header("Digest", "SHA-256=not base64!")));
+        assertNull(AdvertisedDigest.sha256(header("Digest", "SHA-256=XUFAKrxLKna5cZ2REBfFkg==")));
+        assertNull(AdvertisedDigest.sha256(header("X-Checksum-Sha256", "1234")));
+        assertNull(AdvertisedDigest.sha256(header("Content-Type", "application/java-archive")));
+    }
+
+    private static Function<String, String> header(final String name, final String value) {
+        final Map<String, String> headers = Collections.singletonMap(name, value);
+        return headers::get;
+    }
+}
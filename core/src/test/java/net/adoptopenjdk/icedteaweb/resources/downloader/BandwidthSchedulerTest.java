@@ -0,0 +1,319 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.adoptopenjdk.icedteaweb.resources.DownloadPriority;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.adoptopenjdk.icedteaweb.resources.DownloadPriority.EAGER;
+import static net.adoptopenjdk.icedteaweb.resources.DownloadPriority.LAZY_PREFETCH;
+import static net.adoptopenjdk.icedteaweb.resources.DownloadPriority.MAIN_JAR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BandwidthSchedulerTest {
+
+    private static final int LIMIT = 10 * BandwidthScheduler.CHUNK_SIZE;
+
+    private static final int MAIN_SIZE = 128 * 1024;
+    private static final int LAZY_SIZE = 1024 * 1024;
+    private static final int LINK_BYTES_PER_SECOND = 256 * 1024;
+    private static final int SERVER_CHUNK = 4 * 1024;
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private HttpServer server;
+
+    @Before
+    public void startThrottledServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/main.jar", exchange -> send(exchange, MAIN_SIZE));
+        server.createContext("/lazy.jar", exchange -> send(exchange, LAZY_SIZE));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void stopThreads() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private static void send(final HttpExchange exchange, final int size) throws IOException {
+        exchange.sendResponseHeaders(200, size);
+        final byte[] chunk = new byte[SERVER_CHUNK];
+        new Random(size).nextBytes(chunk);
+        try {
+            // the server sends with about 1 MB/s per connection
+            for (int sent = 0; sent < size; sent += SERVER_CHUNK) {
+                exchange.getResponseBody().write(chunk, 0, Math.min(SERVER_CHUNK, size - sent));
+                Thread.sleep(4);
+            }
+        } catch (InterruptedException | IOException ignored) {
+            // client is gone
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Test
+    public void mainJarPreemptsLazyPrefetchOnLimitedLink() throws Exception {
+        final long lazyBytesDuringMain = lazyBytesReadWhileMainIsDownloaded(LINK_BYTES_PER_SECOND, LAZY_PREFETCH, MAIN_JAR);
+
+        assertTrue("lazy prefetch read " + lazyBytesDuringMain + " bytes during the main jar download", lazyBytesDuringMain <= MAIN_SIZE / 4);
+    }
+
+    @Test
+    public void equalPrioritiesShareTheLimitedLink() throws Exception {
+        final long lazyBytesDuringMain = lazyBytesReadWhileMainIsDownloaded(LINK_BYTES_PER_SECOND, EAGER, EAGER);
+
+        assertTrue("lazy read only " + lazyBytesDuringMain + " bytes during the main jar download", lazyBytesDuringMain > MAIN_SIZE / 4);
+    }
+
+    @Test
+    public void lazyPrefetchKeepsReadingWithoutLimit() throws Exception {
+        final long lazyBytesDuringMain = lazyBytesReadWhileMainIsDownloaded(0, LAZY_PREFETCH, MAIN_JAR);
+
+        assertTrue("lazy prefetch read only " + lazyBytesDuringMain + " bytes during the main jar download", lazyBytesDuringMain > MAIN_SIZE / 4);
+    }
+
+    private long lazyBytesReadWhileMainIsDownloaded(final int limit, final DownloadPriority lazyPriority, final DownloadPriority mainPriority) throws Exception {
+        final BandwidthScheduler scheduler = new BandwidthScheduler(limit);
+        final AtomicLong lazyRead = new AtomicLong();
+        final CountDownLatch lazyStarted = new CountDownLatch(1);
+
+        final CompletableFuture<Void> lazy = CompletableFuture.runAsync(() -> {
+            try (InputStream in = open("/lazy.jar", scheduler, lazyPriority)) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    lazyRead.addAndGet(read);
+                    if (lazyRead.get() >= 32 * 1024) {
+                        lazyStarted.countDown();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            assertTrue(lazyStarted.await(10, TimeUnit.SECONDS));
+
+            final long lazyBefore = lazyRead.get();
+            try (InputStream in = open("/main.jar", scheduler, mainPriority)) {
+                assertEquals(MAIN_SIZE, readFully(in));
+            }
+            final long lazyDuringMain = lazyRead.get() - lazyBefore;
+
+            assertFalse("lazy download should still be running", lazy.isDone());
+            return lazyDuringMain;
+        } finally {
+            lazy.cancel(true);
+        }
+    }
+
+    @Test
+    public void lowerPrioritiesDoNotWaitWithoutLimit() throws Exception {
+        final BandwidthScheduler scheduler = new BandwidthScheduler(0, now::get);
+        final BandwidthScheduler.Transfer main = scheduler.open(() -> MAIN_JAR);
+        final BandwidthScheduler.Transfer eager = scheduler.open(() -> EAGER);
+        final BandwidthScheduler.Transfer lazy = scheduler.open(() -> LAZY_PREFETCH);
+
+        assertEquals(100, main.acquire(100));
+        assertEquals(100, eager.acquire(100));
+        assertEquals(100, lazy.acquire(100));
+    }
+
+    @Test
+    public void mainJarPreemptsEagerTransferWithLimit() throws Exception {
+        //given
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer eager = scheduler.open(() -> EAGER);
+        assertEquals(100, eager.acquire(100));
+        final BandwidthScheduler.Transfer main = scheduler.open(() -> MAIN_JAR);
+
+        //when
+        final AtomicInteger granted = new AtomicInteger();
+        final Thread eagerRead = acquireInBackground(eager, 100, granted);
+
+        //than
+        awaitWaiting(eagerRead);
+        assertEquals(100, main.acquire(100));
+        assertEquals(0, granted.get());
+
+        main.close();
+        eagerRead.join(5000);
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    public void backgroundTransferWaitsForForegroundWithLimit() throws Exception {
+        //given
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer foreground = scheduler.open(() -> EAGER);
+        final BandwidthScheduler.Transfer background = scheduler.open(() -> LAZY_PREFETCH);
+        assertEquals(100, foreground.acquire(100));
+
+        //when
+        final AtomicInteger granted = new AtomicInteger();
+        final Thread backgroundRead = acquireInBackground(background, 100, granted);
+
+        //than
+        awaitWaiting(backgroundRead);
+        assertEquals(0, granted.get());
+
+        foreground.close();
+        backgroundRead.join(5000);
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    public void idleTransferNoLongerHoldsBackOthers() throws Exception {
+        //given
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer main = scheduler.open(() -> MAIN_JAR);
+        assertEquals(100, main.acquire(100));
+        final BandwidthScheduler.Transfer lazy = scheduler.open(() -> LAZY_PREFETCH);
+
+        //when
+        final AtomicInteger granted = new AtomicInteger();
+        final Thread lazyRead = acquireInBackground(lazy, 100, granted);
+        awaitWaiting(lazyRead);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(BandwidthScheduler.IDLE_MILLIS));
+
+        //than
+        lazyRead.join(5000);
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    public void equalPrioritiesDoNotWaitForEachOther() throws Exception {
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer first = scheduler.open(() -> EAGER);
+        final BandwidthScheduler.Transfer second = scheduler.open(() -> EAGER);
+
+        assertEquals(100, first.acquire(100));
+        assertEquals(100, second.acquire(100));
+        assertEquals(100, first.acquire(100));
+    }
+
+    @Test
+    public void limitIsEnforcedByTheClock() throws Exception {
+        //given
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer transfer = scheduler.open(() -> EAGER);
+        assertEquals(BandwidthScheduler.CHUNK_SIZE, transfer.acquire(BandwidthScheduler.CHUNK_SIZE));
+
+        //when
+        final AtomicInteger granted = new AtomicInteger();
+        final Thread read = acquireInBackground(transfer, BandwidthScheduler.CHUNK_SIZE, granted);
+
+        //than
+        awaitWaiting(read);
+        assertEquals(0, granted.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        read.join(5000);
+        assertEquals(BandwidthScheduler.CHUNK_SIZE, granted.get());
+    }
+
+    @Test
+    public void unusedBytesAreReturned() throws Exception {
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer transfer = scheduler.open(() -> EAGER);
+
+        try (InputStream in = new ThrottledInputStream(new ByteArrayInputStream(new byte[100]), transfer)) {
+            assertEquals(100, in.read(new byte[BandwidthScheduler.CHUNK_SIZE]));
+        }
+
+        // only the bytes read are gone from the bucket, without any time passing
+        final BandwidthScheduler.Transfer next = scheduler.open(() -> EAGER);
+        assertEquals(BandwidthScheduler.CHUNK_SIZE - 100, next.acquire(BandwidthScheduler.CHUNK_SIZE - 100));
+    }
+
+    @Test
+    public void endOfStreamEndsTheTransfer() throws Exception {
+        final BandwidthScheduler scheduler = new BandwidthScheduler(LIMIT, now::get);
+        final BandwidthScheduler.Transfer main = scheduler.open(() -> MAIN_JAR);
+        try (InputStream in = new ThrottledInputStream(new ByteArrayInputStream(new byte[10]), main)) {
+            assertEquals(10, in.read(new byte[100]));
+            assertEquals(-1, in.read(new byte[100]));
+
+            // the main jar is complete even though its stream is still open
+            final BandwidthScheduler.Transfer lazy = scheduler.open(() -> LAZY_PREFETCH);
+            assertEquals(100, lazy.acquire(100));
+        }
+    }
+
+    private InputStream open(final String path, final BandwidthScheduler scheduler, final DownloadPriority priority) throws IOException {
+        final URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), path);
+        return new ThrottledInputStream(url.openStream(), scheduler.open(() -> priority));
+    }
+
+    private static long readFully(final InputStream in) throws IOException {
+        final byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private Thread acquireInBackground(final BandwidthScheduler.Transfer transfer, final int bytes, final AtomicInteger granted) {
+        final Thread thread = new Thread(() -> {
+            try {
+                granted.set(transfer.acquire(bytes));
+            } catch (IOException e) {
+                // interrupted at the end of the test
+            }
+        });
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * The fake clock does not move on its own, so a thread waiting in the scheduler stays there
+     * until the test changes something.
+     */
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue("thread ended without waiting", thread.isAlive());
+            if (System.nanoTime() - deadline > 0) {
+                fail("thread did not wait for the scheduler");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+public class DownloadPipelineTest {
+
+    @Test
+    public void testContentPassesThroughAllStages() throws Exception {
+        //given
+        final byte[] content = new byte[DownloadPipeline.CHUNK_SIZE * DownloadPipeline.QUEUE_CAPACITY * 3 + 17];
+        new Random(42).nextBytes(content);
+        final AtomicReference<Thread> gzipThread = new AtomicReference<>();
+
+        //when
+        final InputStream network = DownloadPipeline.readAhead("network", new ByteArrayInputStream(gzip(content)));
+        final byte[] result;
+        try (final InputStream unpacked = new GzipUnpacker().unpack(new ThreadRecordingInputStream(network, gzipThread))) {
+            result = IOUtils.readContent(unpacked);
+        }
+
+        //than
+        Assert.assertArrayEquals(content, result);
+        Assert.assertNotSame(Thread.currentThread(), gzipThread.get());
+        Assert.assertTrue(gzipThread.get().getName(), gzipThread.get().getName().startsWith("itw-stage-"));
+    }
+
+    @Test
+    public void testFailureOfStageIsThrownByTheNextStage() throws Exception {
+        //given
+        final InputStream failing = DownloadPipeline.start("failing", new ByteArrayInputStream(new byte[0]), (in, out) -> {
+            out.write(new byte[100]);
+            out.close();
+            throw new IOException("broken stage");
+        });
+
+        //when
+        try (final InputStream in = failing) {
+            IOUtils.readContent(in);
+            Assert.fail("failure of the stage was not thrown");
+        } catch (IOException e) {
+            //than
+            Assert.assertEquals("broken stage", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testClosingTheReaderStopsTheStage() throws Exception {
+        //given
+        final CountDownLatch inputClosed = new CountDownLatch(1);
+        final InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 1;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                return len;
+            }
+
+            @Override
+            public void close() {
+                inputClosed.countDown();
+            }
+        };
+        final InputStream pipe = DownloadPipeline.readAhead("endless", endless);
+        Assert.assertTrue(pipe.read(new byte[10]) > 0);
+
+        //when
+        pipe.close();
+
+        //than
+        Assert.assertTrue(inputClosed.await(5, TimeUnit.SECONDS));
+    }
+
+    private static byte[] gzip(final byte[] content) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (final GZIPOutputStream out = new GZIPOutputStream(result)) {
+            out.write(content);
+        }
+        return result.toByteArray();
+    }
+
+    private static class ThreadRecordingInputStream extends InputStream {
+        private final InputStream delegate;
+        private final AtomicReference<Thread> thread;
+
+        private ThreadRecordingInputStream(final InputStream delegate, final AtomicReference<Thread> thread) {
+            this.delegate = delegate;
+            this.thread = thread;
+        }
+
+        @Override
+        public int read() throws IOException {
+            thread.set(Thread.currentThread());
+            return delegate.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            thread.set(Thread.currentThread());
+            return delegate.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package net.adoptopenjdk.icedteaweb.resources.jardiff;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class JarDiffIndexTest {
+
+    @Test
+    public void testTokenizeEscapedWhitespace() {
+        Assert.assertEquals(Arrays.asList("move", "a b/c.txt", "d e.txt"), JarDiffIndex.tokenize("move a\\ b/c.txt  d\\ e.txt"));
+        Assert.assertEquals(Arrays.asList("remove", "x.class"), JarDiffIndex.tokenize("\tremove x.class "));
+        Assert.assertEquals(Arrays.asList(), JarDiffIndex.tokenize("   "));
+    }
+
+    @Test
+    public void testReadCommands() throws Exception {
+        final JarDiffIndex index = read("version 1.0\nremove old.class\nmove a\\ b.txt c.txt\nmove a\\ b.txt d.txt\n\n");
+
+        Assert.assertTrue(index.isRemoved("old.class"));
+        Assert.assertFalse(index.isRemoved("a b.txt"));
+        Assert.assertTrue(index.isMoveSource("a b.txt"));
+        Assert.assertEquals(2, index.getMoves().size());
+        Assert.assertEquals("a b.txt", index.getMoves().get(1).getOldName());
+        Assert.assertEquals("d.txt", index.getMoves().get(1).getNewName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidMove() throws Exception {
+        read("version 1.0\nmove a b c\n");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongVersion() throws Exception {
+        read("version 2.0\n");
+    }
+
+    private static JarDiffIndex read(final String content) throws IOException {
+        return JarDiffIndex.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -3,6 +3,7 @@ package net.adoptopenjdk.icedteaweb.resources.jardiff;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
@@ -17,7 +18,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.jar.JarOutputStream;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class JarDiffMergerTest {
 
@@ -135,11 +138,33 @@ public class JarDiffMergerTest {
         Assert.assertEquals(originalHashes, createdHashes);
     }
 
+    @Test
+    public void testUnchangedEntriesAreCopiedRaw() throws Exception {
+        //given
+        final URL jar1Url = JarDiffMergerTest.class.getResource("version-1.jar");
+        final URL diffUrl = JarDiffMergerTest.class.getResource("diff-1-to-2.jardiff");
+
+        //when
+        final Path createdJar = merge(jar1Url, diffUrl);
+
+        //than
+        try (final ZipFile original = new ZipFile(jar1Url.getFile()); final ZipFile created = new ZipFile(createdJar.toFile())) {
+            final ZipEntry originalManifest = original.getEntry(JarFile.MANIFEST_NAME);
+            final ZipEntry createdManifest = created.getEntry(JarFile.MANIFEST_NAME);
+            Assert.assertEquals(originalManifest.getMethod(), createdManifest.getMethod());
+            Assert.assertEquals(originalManifest.getCompressedSize(), createdManifest.getCompressedSize());
+            Assert.assertEquals(originalManifest.getCrc(), createdManifest.getCrc());
+        }
+        try (final JarInputStream jarInputStream = new JarInputStream(Files.newInputStream(createdJar))) {
+            Assert.assertNotNull(jarInputStream.getManifest());
+        }
+    }
+
     private Path merge(final URL jar1Url, final URL diffUrl) throws IOException {
         final Path tempDirectory = Files.createTempDirectory("jardiff");
         final Path createdJar = Paths.get(tempDirectory.toFile().getAbsolutePath(), "created.jar");
         try (final FileOutputStream os = new FileOutputStream(createdJar.toFile())) {
-            JarDiffMerger.merge(new JarFile(jar1Url.getFile()), new JarFile(diffUrl.getFile()), new JarOutputStream(os));
+            JarDiffMerger.merge(new File(jar1Url.getFile()), new File(diffUrl.getFile()), os);
         }
         return createdJar;
     }
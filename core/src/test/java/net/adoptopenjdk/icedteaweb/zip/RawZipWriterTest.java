@@ -0,0 +1,117 @@
+package net.adoptopenjdk.icedteaweb.zip;
+
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public class RawZipWriterTest {
+
+    private static final byte[] TEXT = repeat("compressible content ", 500).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NESTED = "nested jar bytes".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEntriesAreCopiedWithCompressedBytesCrcAndSizes() throws Exception {
+        //given
+        final File source = createZip();
+        final File target = temporaryFolder.newFile("target.zip");
+
+        //when
+        try (final RawZipFile zip = new RawZipFile(source); final OutputStream out = new FileOutputStream(target)) {
+            final RawZipWriter writer = new RawZipWriter();
+            writer.add("renamed.txt", zip, zip.getEntry("text.txt"));
+            writer.add("lib/nested.jar", zip, zip.getEntry("lib/nested.jar"));
+            try (final InputStream content = writer.open()) {
+                IOUtils.copy(content, out);
+            }
+        }
+
+        //than
+        try (final ZipFile original = new ZipFile(source); final ZipFile copy = new ZipFile(target)) {
+            assertSameEntry(original.getEntry("text.txt"), copy.getEntry("renamed.txt"));
+            assertSameEntry(original.getEntry("lib/nested.jar"), copy.getEntry("lib/nested.jar"));
+            Assert.assertArrayEquals(TEXT, read(copy, "renamed.txt"));
+            Assert.assertArrayEquals(NESTED, read(copy, "lib/nested.jar"));
+            Assert.assertEquals(2, copy.size());
+        }
+    }
+
+    @Test
+    public void testStoredAndDeflatedEntriesAreRead() throws Exception {
+        //given
+        final File source = createZip();
+
+        //when
+        final byte[] text;
+        final byte[] nested;
+        try (final RawZipFile zip = new RawZipFile(source)) {
+            try (final InputStream in = zip.getInputStream(zip.getEntry("text.txt"))) {
+                text = IOUtils.readContent(in);
+            }
+            try (final InputStream in = zip.getInputStream(zip.getEntry("lib/nested.jar"))) {
+                nested = IOUtils.readContent(in);
+            }
+        }
+
+        //than
+        Assert.assertArrayEquals(TEXT, text);
+        Assert.assertArrayEquals(NESTED, nested);
+    }
+
+    private File createZip() throws IOException {
+        final File zip = temporaryFolder.newFile("source.zip");
+        try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            // deflated entries are written with a data descriptor after their data
+            out.putNextEntry(new ZipEntry("text.txt"));
+            out.write(TEXT);
+
+            final ZipEntry stored = new ZipEntry("lib/nested.jar");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(NESTED.length);
+            final CRC32 crc = new CRC32();
+            crc.update(NESTED);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(NESTED);
+        }
+        return zip;
+    }
+
+    private static void assertSameEntry(final ZipEntry expected, final ZipEntry actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getMethod(), actual.getMethod());
+        Assert.assertEquals(expected.getCrc(), actual.getCrc());
+        Assert.assertEquals(expected.getSize(), actual.getSize());
+        Assert.assertEquals(expected.getCompressedSize(), actual.getCompressedSize());
+        Assert.assertEquals(expected.getTime(), actual.getTime());
+    }
+
+    private static byte[] read(final ZipFile zip, final String name) throws IOException {
+        try (final InputStream in = zip.getInputStream(zip.getEntry(name))) {
+            return IOUtils.readContent(in);
+        }
+    }
+
+    private static String repeat(final String text, final int count) {
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(text);
+        }
+        return result.toString();
+    }
+}
@@ -43,12 +43,16 @@ import org.junit.Test;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 @NotThreadSafe
@@ -162,4 +166,165 @@ public class NativeLibraryStorageTest {
         storage.cleanupTemporaryFolder();
         assertFalse(searchDirectory.exists());
     }
+
+    @Test
+    public void testExtractedLibrariesAreReused() throws Exception {
+        final File tempDirectory = FileTestUtils.createTempDirectory();
+        final File cacheDirectory = new File(tempDirectory, "cache");
+        assertTrue(cacheDirectory.mkdir());
+        final File library = new File(tempDirectory, "libfoo.so");
+        FileTestUtils.createFileWithContents(library, "native code");
+        final File jarLocation = new File(tempDirectory, "native.jar");
+        FileTestUtils.createJarWithContents(jarLocation, library);
+        final URL jarUrl = jarLocation.toURI().toURL();
+
+        final NativeLibraryStorage first = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        first.addSearchJar(jarUrl);
+        final File extracted = first.findLibrary("libfoo.so");
+        assertNotNull(extracted);
+        assertTrue(extracted.getPath().startsWith(new File(cacheDirectory, NativeLibraryStorage.EXTRACTION_DIR_NAME).getPath()));
+        assertEquals("native code", new String(Files.readAllBytes(extracted.toPath()), UTF_8));
+
+        /* A second launch finds the same file without extracting it again */
+        assertTrue(extracted.setLastModified(1000));
+        final NativeLibraryStorage second = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        second.addSearchJar(jarUrl);
+        assertEquals(extracted, second.findLibrary("libfoo.so"));
+        assertEquals(1000, extracted.lastModified());
+
+        /* The extraction stays as long as its jar is unchanged */
+        NativeLibraryStorage.removeStaleExtractions(cacheDirectory);
+        assertTrue(extracted.isFile());
+
+        assertTrue(jarLocation.delete());
+        NativeLibraryStorage.removeStaleExtractions(cacheDirectory);
+        assertFalse(extracted.getParentFile().exists());
+    }
+
+    @Test
+    public void testChangedJarIsExtractedAgain() throws Exception {
+        final File tempDirectory = FileTestUtils.createTempDirectory();
+        final File cacheDirectory = new File(tempDirectory, "cache");
+        assertTrue(cacheDirectory.mkdir());
+        final File library = new File(tempDirectory, "libfoo.so");
+        final File jarLocation = new File(tempDirectory, "native.jar");
+        final URL jarUrl = jarLocation.toURI().toURL();
+
+        FileTestUtils.createFileWithContents(library, "version 1");
+        FileTestUtils.createJarWithContents(jarLocation, library);
+        final NativeLibraryStorage first = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        first.addSearchJar(jarUrl);
+        final File firstExtraction = first.findLibrary("libfoo.so");
+
+        final long firstModified = jarLocation.lastModified();
+        FileTestUtils.createFileWithContents(library, "version 2");
+        FileTestUtils.createJarWithContents(jarLocation, library);
+        /* the jar has the same size, so make sure its modification time differs */
+        assertTrue(jarLocation.setLastModified(firstModified + 2000));
+        final NativeLibraryStorage second = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        second.addSearchJar(jarUrl);
+        final File secondExtraction = second.findLibrary("libfoo.so");
+
+        assertNotEquals(firstExtraction.getParentFile(), secondExtraction.getParentFile());
+        assertEquals("version 2", new String(Files.readAllBytes(secondExtraction.toPath()), UTF_8));
+
+        NativeLibraryStorage.removeStaleExtractions(cacheDirectory);
+        assertFalse(firstExtraction.getParentFile().exists());
+        assertTrue(secondExtraction.isFile());
+    }
+
+    @Test
+    public void testJarsWithSameContentShareExtraction() throws Exception {
+        final File tempDirectory = FileTestUtils.createTempDirectory();
+        final File cacheDirectory = new File(tempDirectory, "cache");
+        assertTrue(cacheDirectory.mkdir());
+        final File library = new File(tempDirectory, "libfoo.so");
+        FileTestUtils.createFileWithContents(library, "native code");
+        final File firstJar = new File(tempDirectory, "first.jar");
+        FileTestUtils.createJarWithContents(firstJar, library);
+        final File secondJar = new File(tempDirectory, "second.jar");
+        Files.copy(firstJar.toPath(), secondJar.toPath());
+        final URL firstUrl = firstJar.toURI().toURL();
+        final URL secondUrl = secondJar.toURI().toURL();
+
+        final NativeLibraryStorage first = new NativeLibraryStorage(trackerWithCache(firstUrl), cacheDirectory);
+        first.addSearchJar(firstUrl);
+        final NativeLibraryStorage second = new NativeLibraryStorage(trackerWithCache(secondUrl), cacheDirectory);
+        second.addSearchJar(secondUrl);
+        final File extracted = first.findLibrary("libfoo.so");
+        assertEquals(extracted, second.findLibrary("libfoo.so"));
+
+        /* the extraction is kept as long as one of its jars is unchanged */
+        assertTrue(firstJar.delete());
+        NativeLibraryStorage.removeStaleExtractions(cacheDirectory);
+        assertTrue(extracted.isFile());
+
+        assertTrue(secondJar.delete());
+        NativeLibraryStorage.removeStaleExtractions(cacheDirectory);
+        assertFalse(extracted.getParentFile().exists());
+    }
+
+    @Test
+    public void testModifiedExtractionIsReplaced() throws Exception {
+        final File tempDirectory = FileTestUtils.createTempDirectory();
+        final File cacheDirectory = new File(tempDirectory, "cache");
+        assertTrue(cacheDirectory.mkdir());
+        final File library = new File(tempDirectory, "libfoo.so");
+        FileTestUtils.createFileWithContents(library, "native code");
+        final File jarLocation = new File(tempDirectory, "native.jar");
+        FileTestUtils.createJarWithContents(jarLocation, library);
+        final URL jarUrl = jarLocation.toURI().toURL();
+
+        final NativeLibraryStorage first = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        first.addSearchJar(jarUrl);
+        final File extracted = first.findLibrary("libfoo.so");
+        /* same length, different content */
+        FileTestUtils.createFileWithContents(extracted, "native cod3");
+
+        final NativeLibraryStorage second = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        second.addSearchJar(jarUrl);
+
+        assertEquals(extracted, second.findLibrary("libfoo.so"));
+        assertEquals("native code", new String(Files.readAllBytes(extracted.toPath()), UTF_8));
+    }
+
+    @Test
+    public void testRecordedHashIsUsedForUnchangedJar() throws Exception {
+        final File tempDirectory = FileTestUtils.createTempDirectory();
+        final File cacheDirectory = new File(tempDirectory, "cache");
+        assertTrue(cacheDirectory.mkdir());
+        final File library = new File(tempDirectory, "libfoo.so");
+        FileTestUtils.createFileWithContents(library, "native code");
+        final File jarLocation = new File(tempDirectory, "native.jar");
+        FileTestUtils.createJarWithContents(jarLocation, library);
+        final URL jarUrl = jarLocation.toURI().toURL();
+
+        final NativeLibraryStorage first = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        first.addSearchJar(jarUrl);
+        final String hash = first.findLibrary("libfoo.so").getParentFile().getName();
+
+        /* replace the recorded hash, a second launch must use it instead of hashing the jar again */
+        final File hashesFile = new File(new File(cacheDirectory, NativeLibraryStorage.EXTRACTION_DIR_NAME), NativeLibraryStorage.HASHES_FILE_NAME);
+        final String hashes = new String(Files.readAllBytes(hashesFile.toPath()), UTF_8);
+        assertTrue(hashes.contains(hash));
+        Files.write(hashesFile.toPath(), hashes.replace(hash, "recorded").getBytes(UTF_8));
+
+        final NativeLibraryStorage second = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        second.addSearchJar(jarUrl);
+        assertEquals("recorded", second.findLibrary("libfoo.so").getParentFile().getName());
+
+        /* a changed jar is hashed again */
+        assertTrue(jarLocation.setLastModified(jarLocation.lastModified() + 2000));
+        final NativeLibraryStorage third = new NativeLibraryStorage(trackerWithCache(jarUrl), cacheDirectory);
+        third.addSearchJar(jarUrl);
+        assertEquals(hash, third.findLibrary("libfoo.so").getParentFile().getName());
+    }
+
+    private static ResourceTracker trackerWithCache(URL... urlsToCache) {
+        final ResourceTracker tracker = new ResourceTracker();
+        for (URL urlToCache : urlsToCache) {
+            tracker.addResource(urlToCache, VersionString.fromString("1.0"), UpdatePolicy.ALWAYS);
+        }
+        return tracker;
+    }
 }
@@ -0,0 +1,114 @@
+package net.sourceforge.jnlp.proxy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyBypassMatcherTest {
+
+    @Test
+    public void testEmptyListMatchesNothing() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Collections.emptyList());
+
+        assertFalse(matcher.matches("example.com"));
+        assertFalse(matcher.matches("10.0.0.1"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void testExactHost() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("example.org", " Intranet "));
+
+        assertTrue(matcher.matches("example.org"));
+        assertTrue(matcher.matches("EXAMPLE.org"));
+        assertTrue(matcher.matches("intranet"));
+        assertFalse(matcher.matches("www.example.org"));
+        assertFalse(matcher.matches("example.com"));
+    }
+
+    @Test
+    public void testDomainSuffix() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("*.example.org", ".corp.example.com"));
+
+        assertTrue(matcher.matches("www.example.org"));
+        assertTrue(matcher.matches("a.b.example.org"));
+        assertTrue(matcher.matches("host.corp.example.com"));
+        assertFalse(matcher.matches("example.org"));
+        assertFalse(matcher.matches("corp.example.com"));
+        assertFalse(matcher.matches("www.example.com"));
+        assertFalse(matcher.matches("wwwexample.org"));
+    }
+
+    @Test
+    public void testIpv4Ranges() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("10.0.0.0/8", "192.168.*", "172.16.1.1"));
+
+        assertTrue(matcher.matches("10.1.2.3"));
+        assertTrue(matcher.matches("192.168.17.4"));
+        assertTrue(matcher.matches("172.16.1.1"));
+        assertFalse(matcher.matches("11.0.0.1"));
+        assertFalse(matcher.matches("192.169.0.1"));
+        assertFalse(matcher.matches("172.16.1.2"));
+        assertFalse(matcher.matches("10.example.com"));
+    }
+
+    @Test
+    public void testIpv6Ranges() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("fe80::/10", "[::1]"));
+
+        assertTrue(matcher.matches("[fe80::1]"));
+        assertTrue(matcher.matches("0:0:0:0:0:0:0:1"));
+        assertFalse(matcher.matches("[2001:db8::1]"));
+    }
+
+    @Test
+    public void testShortIpv4FormsAreNoRanges() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("10", "127.1", "0x7f000001"));
+
+        assertTrue(matcher.matches("10"));
+        assertTrue(matcher.matches("127.1"));
+        assertFalse(matcher.matches("0.0.0.10"));
+        assertFalse(matcher.matches("127.0.0.1"));
+        assertFalse(matcher.matches("10.0.0.1"));
+    }
+
+    @Test
+    public void testWildcardPatterns() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Arrays.asList("build*.example.org", "*internal*"));
+
+        assertTrue(matcher.matches("build42.example.org"));
+        assertTrue(matcher.matches("my-internal-host"));
+        assertFalse(matcher.matches("test.example.org"));
+    }
+
+    @Test
+    public void testMatchAll() {
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(Collections.singletonList("*"));
+
+        assertTrue(matcher.matches("example.org"));
+        assertTrue(matcher.matches("10.0.0.1"));
+    }
+
+    @Test
+    public void testLongListStillMatches() {
+        final List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            entries.add("host" + i + ".example.org");
+            entries.add("*.domain" + i + ".example.com");
+            entries.add("10." + (i % 256) + "." + (i / 256) + ".0/24");
+        }
+        final ProxyBypassMatcher matcher = new ProxyBypassMatcher(entries);
+
+        assertTrue(matcher.matches("host9999.example.org"));
+        assertTrue(matcher.matches("www.domain9999.example.com"));
+        assertTrue(matcher.matches("10.15.39.200"));
+        assertFalse(matcher.matches("host10000.example.org"));
+        assertFalse(matcher.matches("10.15.40.1"));
+    }
+}
@@ -0,0 +1,182 @@
+package net.sourceforge.jnlp.proxy.pac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PacResultCacheTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    public void testHit() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "PROXY proxy:8080");
+
+        assertEquals("PROXY proxy:8080", cache.get("http://example.com"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testMiss() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "PROXY proxy:8080");
+
+        assertNull(cache.get("http://example.org"));
+        assertNull(cache.get("https://example.com"));
+    }
+
+    @Test
+    public void testLaterPutReplacesEntry() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "PROXY proxy:8080");
+        cache.put("http://example.com", "DIRECT");
+
+        assertEquals("DIRECT", cache.get("http://example.com"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEntryIsValidUntilTimeToLiveHasPassed() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "DIRECT");
+
+        now.set(TimeUnit.SECONDS.toNanos(10) - 1);
+        assertEquals("DIRECT", cache.get("http://example.com"));
+
+        now.set(TimeUnit.SECONDS.toNanos(10));
+        assertNull(cache.get("http://example.com"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiryIsMeasuredFromPut() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "DIRECT");
+        now.set(TimeUnit.SECONDS.toNanos(5));
+        cache.put("http://example.org", "DIRECT");
+
+        now.set(TimeUnit.SECONDS.toNanos(12));
+
+        assertNull(cache.get("http://example.com"));
+        assertEquals("DIRECT", cache.get("http://example.org"));
+    }
+
+    @Test
+    public void testExpiryWorksAcrossNanoTimeOverflow() {
+        now.set(Long.MAX_VALUE - TimeUnit.SECONDS.toNanos(1));
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "DIRECT");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals("DIRECT", cache.get("http://example.com"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertNull(cache.get("http://example.com"));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 100, now::get);
+        for (int i = 0; i < 10_000; i++) {
+            now.incrementAndGet();
+            cache.put("http://host" + i + ".example.com", "DIRECT");
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals("DIRECT", cache.get("http://host9999.example.com"));
+    }
+
+    @Test
+    public void testExpiredEntriesAreEvictedFirst() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 4, now::get);
+        cache.put("http://old1.example.com", "DIRECT");
+        cache.put("http://old2.example.com", "DIRECT");
+        now.set(TimeUnit.SECONDS.toNanos(9));
+        cache.put("http://new1.example.com", "DIRECT");
+        cache.put("http://new2.example.com", "DIRECT");
+        now.set(TimeUnit.SECONDS.toNanos(11));
+
+        cache.put("http://new3.example.com", "DIRECT");
+
+        assertEquals(3, cache.size());
+        assertEquals("DIRECT", cache.get("http://new1.example.com"));
+        assertEquals("DIRECT", cache.get("http://new2.example.com"));
+        assertEquals("DIRECT", cache.get("http://new3.example.com"));
+    }
+
+    @Test
+    public void testZeroSizeDisablesCaching() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 0, now::get);
+        cache.put("http://example.com", "DIRECT");
+
+        assertNull(cache.get("http://example.com"));
+    }
+
+    @Test
+    public void testZeroTimeToLiveDisablesCaching() {
+        final PacResultCache cache = new PacResultCache(0, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", "DIRECT");
+
+        assertNull(cache.get("http://example.com"));
+    }
+
+    @Test
+    public void testNullValuesAreNotCached() {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 10, now::get);
+        cache.put("http://example.com", null);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentLookupsGetTheValueOfTheirKey() throws Exception {
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 50, now::get);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        final String key = "http://host" + ((i + offset) % 100) + ".example.com";
+                        final String expected = "PROXY " + key + ":8080";
+                        final String cached = cache.get(key);
+                        if (cached == null) {
+                            cache.put(key, expected);
+                        } else {
+                            assertEquals(expected, cached);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 50 + 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSizeIsRejected() {
+        new PacResultCache(1, TimeUnit.MINUTES, -1);
+    }
+}
@@ -0,0 +1,168 @@
+package net.sourceforge.jnlp.proxy.pac;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RhinoBasedPacEvaluatorTest {
+
+    private static final List<String> PAC_FILES = Arrays.asList(
+            "simple.pac",
+            "patterns.pac",
+            "stateful.pac",
+            "path.pac",
+            "broken.pac",
+            "missing-function.pac");
+
+    private static final List<String> URLS = Arrays.asList(
+            "http://intranet",
+            "http://www.intranet.example.com/index.html",
+            "https://www.example.com/app.jnlp",
+            "http://www.example.org/",
+            "http://printer.local/status",
+            "ftp://files.example.com/pub/file.txt",
+            "http://10.1.2.3/app.jar",
+            "http://192.168.17.4:8080/app.jar",
+            "http://172.16.0.1/app.jar",
+            "http://a.b.c.example.com/deep/path",
+            "http://www.example.com/static/logo.png",
+            "http://www.example.com/app.jar");
+
+    @Test
+    public void testResultsMatchUncompiledEvaluation() throws Exception {
+        for (String pacFile : PAC_FILES) {
+            final URL pacUrl = getPacUrl(pacFile);
+            final RhinoBasedPacEvaluator evaluator = new RhinoBasedPacEvaluator(pacUrl);
+            for (String url : URLS) {
+                final String expected = evaluateUncompiled(pacUrl, new URL(url));
+                // evaluate twice without the result cache, state left by the first lookup must not leak
+                assertEquals(pacFile + " " + url, expected, evaluator.getProxiesWithoutCaching(new URL(url)));
+                assertEquals(pacFile + " " + url, expected, evaluator.getProxiesWithoutCaching(new URL(url)));
+            }
+        }
+    }
+
+    @Test
+    public void testCacheHitsAvoidEvaluation() throws Exception {
+        //given
+        final AtomicLong now = new AtomicLong();
+        final AtomicInteger evaluations = new AtomicInteger();
+        final PacResultCache cache = new PacResultCache(10, TimeUnit.SECONDS, 100, now::get);
+        final RhinoBasedPacEvaluator evaluator = new RhinoBasedPacEvaluator(getPacUrl("simple.pac"), cache) {
+            @Override
+            String getProxiesWithoutCaching(URL url) {
+                evaluations.incrementAndGet();
+                return super.getProxiesWithoutCaching(url);
+            }
+        };
+
+        //when
+        for (int i = 0; i < 1000; i++) {
+            final URL url = new URL("http://host" + (i % 10) + ".example.com/path" + i);
+            assertEquals("PROXY proxy.example.com:8080; DIRECT", evaluator.getProxies(url));
+        }
+        final int evaluationsWithinTimeToLive = evaluations.get();
+        now.set(TimeUnit.SECONDS.toNanos(10));
+        evaluator.getProxies(new URL("http://host0.example.com/"));
+
+        //than - one evaluation per host, and one more once the result expired
+        assertEquals(10, evaluationsWithinTimeToLive);
+        assertEquals(11, evaluations.get());
+    }
+
+    @Test
+    public void testStateDoesNotLeakBetweenLookups() throws Exception {
+        final RhinoBasedPacEvaluator evaluator = new RhinoBasedPacEvaluator(getPacUrl("stateful.pac"));
+        final URL url = new URL("http://Host.example.com/");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("PROXY host.example.com.proxy.example.com:8080", evaluator.getProxiesWithoutCaching(url));
+        }
+    }
+
+    @Test
+    public void testConcurrentLookupsShareCompiledScope() throws Exception {
+        final URL pacUrl = getPacUrl("stateful.pac");
+        final RhinoBasedPacEvaluator evaluator = new RhinoBasedPacEvaluator(pacUrl);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final URL url = new URL("http://Host" + i + ".example.com/");
+                results.add(executor.submit((Callable<String>) () -> evaluator.getProxies(url)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("PROXY host" + i + ".example.com.proxy.example.com:8080", results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResultsAreCachedPerUrlIfThePacFileUsesTheUrl() {
+        assertFalse(RhinoBasedPacEvaluator.dependsOnUrl("function FindProxyForURL(url, host) { return host == 'a' ? 'DIRECT' : 'PROXY p:80'; }"));
+        assertFalse(RhinoBasedPacEvaluator.dependsOnUrl("function FindProxyForURL (url,host) { return isPlainHostName(host) ? 'DIRECT' : 'PROXY p:80'; }"));
+
+        assertTrue(RhinoBasedPacEvaluator.dependsOnUrl("function FindProxyForURL(url, host) { return shExpMatch(url, '*.jar') ? 'DIRECT' : 'PROXY p:80'; }"));
+        assertTrue(RhinoBasedPacEvaluator.dependsOnUrl("function FindProxyForURL(url, host) { return check(arguments[0]); }"));
+        assertTrue(RhinoBasedPacEvaluator.dependsOnUrl("function FindProxyForURL(u, h) { return u.indexOf('/static/') > 0 ? 'DIRECT' : 'PROXY p:80'; }"));
+        assertTrue(RhinoBasedPacEvaluator.dependsOnUrl("var FindProxyForURL = function(url, host) { return 'DIRECT'; }"));
+        assertTrue(RhinoBasedPacEvaluator.dependsOnUrl(null));
+    }
+
+    private static URL getPacUrl(String name) {
+        return RhinoBasedPacEvaluatorTest.class.getResource(name);
+    }
+
+    /**
+     * Evaluates the PAC file the way it was done before the scripts were compiled once:
+     * a fresh context and scope with helper functions and PAC script evaluated for each lookup.
+     */
+    private static String evaluateUncompiled(URL pacUrl, URL url) throws Exception {
+        final String pacFuncs = read(RhinoBasedPacEvaluatorTest.class.getResourceAsStream("/net/sourceforge/jnlp/runtime/pac-funcs.js"));
+        final String pac = read(pacUrl.openStream());
+        final Context cx = Context.enter();
+        try {
+            cx.setOptimizationLevel(-1);
+            final Scriptable scope = cx.initStandardObjects();
+            cx.evaluateString(scope, pacFuncs, "internal", 1, null);
+            cx.evaluateString(scope, pac, pacUrl.toString(), 1, null);
+            final Object function = scope.get("FindProxyForURL", scope);
+            if (!(function instanceof Function)) {
+                return null;
+            }
+            return (String) ((Function) function).call(cx, scope, scope, new Object[]{url.toString(), url.getHost()});
+        } catch (Exception e) {
+            return PacConstants.DIRECT;
+        } finally {
+            Context.exit();
+        }
+    }
+
+    private static String read(InputStream in) {
+        try (Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
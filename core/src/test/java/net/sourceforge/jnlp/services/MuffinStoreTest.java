@@ -0,0 +1,218 @@
+package net.sourceforge.jnlp.services;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.jnlp.PersistenceService;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MuffinStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void muffinsCanBeWrittenAndRead() throws Exception {
+        final MuffinStore store = new MuffinStore(new File(temporaryFolder.getRoot(), "store"));
+
+        store.create("/app/a", 100);
+        Assert.assertTrue(store.exists("/app/a"));
+        Assert.assertEquals(0, store.getLength("/app/a"));
+        Assert.assertEquals(PersistenceService.CACHED, store.getTag("/app/a"));
+
+        store.write("/app/a", bytes("hello"));
+        store.setTag("/app/a", PersistenceService.DIRTY);
+
+        Assert.assertEquals("hello", string(store.read("/app/a")));
+        Assert.assertEquals(5, store.getLength("/app/a"));
+        Assert.assertEquals(PersistenceService.DIRTY, store.getTag("/app/a"));
+        Assert.assertEquals(100, store.getMaxSize("/app/a"));
+        Assert.assertEquals(Collections.singletonList("/app/a"), store.getNames());
+    }
+
+    @Test(expected = IOException.class)
+    public void createFailsForExistingMuffin() throws Exception {
+        final MuffinStore store = new MuffinStore(new File(temporaryFolder.getRoot(), "store"));
+        store.create("/a", 10);
+        store.create("/a", 10);
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void readFailsForMissingMuffin() throws Exception {
+        final MuffinStore store = new MuffinStore(new File(temporaryFolder.getRoot(), "store"));
+        store.read("/missing");
+    }
+
+    @Test
+    public void putIfAbsentKeepsExistingMuffin() throws Exception {
+        final MuffinStore store = new MuffinStore(new File(temporaryFolder.getRoot(), "store"));
+        Assert.assertTrue(store.putIfAbsent("/a", bytes("moved"), PersistenceService.DIRTY, 100));
+        Assert.assertFalse(store.putIfAbsent("/a", bytes("again"), PersistenceService.CACHED, 100));
+
+        Assert.assertEquals("moved", string(store.read("/a")));
+        Assert.assertEquals(PersistenceService.DIRTY, store.getTag("/a"));
+    }
+
+    @Test
+    public void writeIsLimitedByMaxSize() throws Exception {
+        final MuffinStore store = new MuffinStore(new File(temporaryFolder.getRoot(), "store"));
+        store.create("/a", 3);
+        store.write("/a", bytes("abc"));
+        try {
+            store.write("/a", bytes("abcd"));
+            Assert.fail("write beyond the maximal size must fail");
+        } catch (IOException expected) {
+            Assert.assertEquals("abc", string(store.read("/a")));
+        }
+
+        Assert.assertEquals(3, store.setMaxSize("/a", 1));
+        Assert.assertEquals(10, store.setMaxSize("/a", 10));
+        store.write("/a", bytes("abcd"));
+        Assert.assertEquals("abcd", string(store.read("/a")));
+    }
+
+    @Test
+    public void indexIsRestoredWhenReopened() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore store = new MuffinStore(file);
+        store.create("/a", 100);
+        store.create("/b", 100);
+        store.write("/a", bytes("first"));
+        store.write("/a", bytes("second"));
+        store.setTag("/b", PersistenceService.TEMPORARY);
+        store.delete("/b");
+        store.create("/c", 100);
+        store.close();
+
+        final MuffinStore reopened = new MuffinStore(file);
+        Assert.assertEquals(Arrays.asList("/a", "/c"), sorted(reopened.getNames().toArray(new String[0])));
+        Assert.assertEquals("second", string(reopened.read("/a")));
+        Assert.assertEquals(0, reopened.getLength("/c"));
+    }
+
+    @Test
+    public void tornLastRecordIsIgnoredAndOverwritten() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore store = new MuffinStore(file);
+        store.create("/a", 100);
+        store.write("/a", bytes("complete"));
+        store.write("/a", bytes("torn"));
+        store.close();
+
+        // simulate a crash while the last record was written
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        final MuffinStore reopened = new MuffinStore(file);
+        Assert.assertEquals("complete", string(reopened.read("/a")));
+        reopened.write("/a", bytes("next"));
+        reopened.close();
+
+        Assert.assertEquals("next", string(new MuffinStore(file).read("/a")));
+    }
+
+    @Test
+    public void compactionKeepsLiveMuffins() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore store = new MuffinStore(file);
+        store.create("/a", Long.MAX_VALUE);
+        store.create("/b", Long.MAX_VALUE);
+        store.setTag("/b", PersistenceService.DIRTY);
+        store.write("/b", bytes("kept"));
+        final byte[] large = new byte[32 * 1024];
+        for (int i = 0; i < 10; i++) {
+            Arrays.fill(large, (byte) i);
+            store.write("/a", large);
+        }
+
+        // superseded records are dropped automatically
+        Assert.assertTrue(file.length() < 3 * large.length);
+        Assert.assertArrayEquals(large, store.read("/a"));
+        Assert.assertEquals("kept", string(store.read("/b")));
+        Assert.assertEquals(PersistenceService.DIRTY, store.getTag("/b"));
+
+        store.delete("/a");
+        store.compact();
+        Assert.assertTrue(file.length() < 100);
+        Assert.assertEquals(Collections.singletonList("/b"), store.getNames());
+        Assert.assertEquals("kept", string(new MuffinStore(file).read("/b")));
+        Assert.assertFalse(new File(file.getPath() + ".compact").exists());
+    }
+
+    @Test
+    public void manySmallMuffinsAreNotCompactedOnEveryChange() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore store = new MuffinStore(file);
+        // well beyond the minimal compaction size, but no superseded records yet
+        for (int i = 0; i < 5000; i++) {
+            store.create("/app/muffin" + i, 100);
+        }
+
+        long length = file.length();
+        for (int i = 0; i < 100; i++) {
+            store.write("/app/muffin" + i, bytes("x"));
+            store.delete("/app/muffin" + (4999 - i));
+
+            // appended, not compacted
+            Assert.assertTrue(file.length() > length);
+            length = file.length();
+        }
+        Assert.assertEquals(4900, store.getNames().size());
+    }
+
+    @Test
+    public void changesOfOtherInstancesAreVisible() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore first = new MuffinStore(file, 0);
+        final MuffinStore second = new MuffinStore(file, 0);
+
+        first.create("/a", 100);
+        first.write("/a", bytes("from first"));
+        Assert.assertEquals("from first", string(second.read("/a")));
+
+        second.write("/a", bytes("from second"));
+        Assert.assertEquals("from second", string(first.read("/a")));
+
+        first.compact();
+        second.create("/b", 100);
+        Assert.assertEquals(Arrays.asList("/a", "/b"), sorted(first.getNames().toArray(new String[0])));
+        Assert.assertEquals("from second", string(second.read("/a")));
+    }
+
+    @Test
+    public void readsAreAnsweredFromMemoryWithinTheRefreshInterval() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "store");
+        final MuffinStore first = new MuffinStore(file, 0);
+        final MuffinStore second = new MuffinStore(file, Long.MAX_VALUE);
+        first.create("/a", 100);
+
+        Assert.assertFalse(second.exists("/a"));
+        Assert.assertEquals(Collections.emptyList(), second.getNames());
+
+        // a change picks up the changes of other processes first
+        second.create("/b", 100);
+        Assert.assertTrue(second.exists("/a"));
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static java.util.List<String> sorted(final String[] names) {
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+}
@@ -0,0 +1,56 @@
+package net.sourceforge.jnlp.services;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SingleInstanceProtocolTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final String[] arguments = {"-open", "", null, "žluťoučký kůň", "a b c"};
+        assertArrayEquals(arguments, roundTrip(arguments));
+    }
+
+    @Test
+    public void testEmptyAndNullArguments() throws Exception {
+        assertArrayEquals(new String[0], roundTrip(new String[0]));
+        assertNull(roundTrip(null));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTooLargeFrame() throws Exception {
+        final ByteBuffer header = ByteBuffer.allocate(SingleInstanceProtocol.HEADER_SIZE);
+        header.putInt(0, SingleInstanceProtocol.MAX_MESSAGE_SIZE + 1);
+        SingleInstanceProtocol.readBodySize(header);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsIllegalArgumentLength() throws Exception {
+        final ByteBuffer body = ByteBuffer.allocate(12);
+        body.putInt(1).putInt(100).putInt(0);
+        body.flip();
+        SingleInstanceProtocol.decode(body);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTrailingBytes() throws Exception {
+        final ByteBuffer body = ByteBuffer.allocate(9);
+        body.putInt(1).putInt(0).put((byte) 1);
+        body.flip();
+        SingleInstanceProtocol.decode(body);
+    }
+
+    private static String[] roundTrip(final String[] arguments) throws IOException {
+        final ByteBuffer frame = SingleInstanceProtocol.encode(arguments);
+        final int size = SingleInstanceProtocol.readBodySize(frame);
+        assertEquals(frame.remaining() - SingleInstanceProtocol.HEADER_SIZE, size);
+        frame.position(SingleInstanceProtocol.HEADER_SIZE);
+        return SingleInstanceProtocol.decode(frame.slice());
+    }
+}
@@ -0,0 +1,100 @@
+package net.sourceforge.jnlp.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SingleInstanceServerTest {
+
+    private final BlockingQueue<String[]> activations = new LinkedBlockingQueue<>();
+    private ExecutorService executor;
+    private SingleInstanceServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        server = new SingleInstanceServer(activations::add, executor, 500);
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReceivesArguments() throws Exception {
+        SingleInstanceServer.send(server.getPort(), new String[]{"a", "b"}, 1000);
+        SingleInstanceServer.send(server.getPort(), new String[]{"c"}, 1000);
+
+        assertArrayEquals(new String[]{"a", "b"}, activations.poll(5, TimeUnit.SECONDS));
+        assertArrayEquals(new String[]{"c"}, activations.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStalledClientDoesNotBlockOthers() throws Exception {
+        try (Socket stalled = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            // only half of the header
+            stalled.getOutputStream().write(new byte[]{0, 0});
+            stalled.getOutputStream().flush();
+
+            SingleInstanceServer.send(server.getPort(), new String[]{"x"}, 1000);
+            assertArrayEquals(new String[]{"x"}, activations.poll(2, TimeUnit.SECONDS));
+
+            // the stalled connection is closed by the server after the timeout
+            stalled.setSoTimeout(5000);
+            assertEquals(-1, stalled.getInputStream().read());
+        }
+        assertNull(activations.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testMalformedMessageIsDropped() throws Exception {
+        try (Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            final OutputStream out = client.getOutputStream();
+            out.write(new byte[]{(byte) 0x7f, 0, 0, 0});
+            out.flush();
+        }
+        SingleInstanceServer.send(server.getPort(), new String[]{"valid"}, 1000);
+
+        assertArrayEquals(new String[]{"valid"}, activations.poll(5, TimeUnit.SECONDS));
+        assertNull(activations.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPortIsNotFreeWhileServing() throws Exception {
+        // SingleInstanceLock relies on this to detect a running instance
+        try (ServerSocket ignored = new ServerSocket(server.getPort())) {
+            fail("port should be in use");
+        } catch (BindException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCloseReleasesPort() throws Exception {
+        final int port = server.getPort();
+
+        server.close();
+
+        try (ServerSocket ignored = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            // port is free again
+        }
+    }
+}
@@ -339,6 +339,19 @@ public class ClasspathMatcherTest {
         Assert.assertEquals("^.*\\Qabcd\\E$", ClasspathMatcher.sourceToRegExString("*abcd"));
         Assert.assertEquals("^\\Qabcd\\E.*$", ClasspathMatcher.sourceToRegExString("abcd*"));
     }
+
+    @Test
+    public void sourceToMatcherBehavesLikeRegExTest() {
+        final String[] sources = {"*", "**", "abcd", "*abcd", "abcd*", "*bc*", "a*d", "*.cz", ""};
+        final String[] inputs = {"", "abcd", "xabcd", "abcdx", "xabcdx", "bc", "a*d", "aXd", "aa.cz", ".cz", "cz"};
+        for (String source : sources) {
+            for (String input : inputs) {
+                Assert.assertEquals(source + " x " + input,
+                        ClasspathMatcher.sourceToRegEx(source).matcher(input).matches(),
+                        ClasspathMatcher.sourceToMatcher(source).test(input));
+            }
+        }
+    }
     //http://docs.oracle.com/javase/7/docs/technotes/guides/jweb/manifest.html#codebase
     //examples
     private static final URL[] urls = {
@@ -691,4 +704,37 @@ public class ClasspathMatcherTest {
         Assert.assertTrue(cps22.matches(new URL("http://aaa.com/some/path/")));
 
     }
+
+    @Test
+    public void domainIndexMatchTest() throws MalformedURLException {
+        ClasspathMatchers cps = ClasspathMatchers.compile("aa.cz *.bb.cz https://cc.cz:8443 *cz.org *dd.net");
+
+        Assert.assertTrue(cps.matches(new URL("http://aa.cz/x")));
+        Assert.assertFalse(cps.matches(new URL("http://x.aa.cz/x")));
+        Assert.assertFalse(cps.matches(new URL("http://a.cz/x")));
+        Assert.assertTrue(cps.matches(new URL("http://bb.cz")));
+        Assert.assertTrue(cps.matches(new URL("http://x.y.bb.cz")));
+        Assert.assertFalse(cps.matches(new URL("http://xbb.cz")));
+        Assert.assertTrue(cps.matches(new URL("https://cc.cz:8443/a.jar")));
+        Assert.assertFalse(cps.matches(new URL("https://cc.cz/a.jar")));
+        Assert.assertFalse(cps.matches(new URL("http://cc.cz:8443/a.jar")));
+        Assert.assertTrue(cps.matches(new URL("http://xcz.org")));
+        Assert.assertTrue(cps.matches(new URL("http://xdd.net")));
+        Assert.assertFalse(cps.matches(new URL("http://dd.net.cz")));
+        Assert.assertFalse(cps.matches(new URL("http://cz")));
+    }
+
+    @Test
+    public void rememberedDecisionsTest() throws MalformedURLException {
+        ClasspathMatchers cps = ClasspathMatchers.compile("*.aa.cz/lib", true);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(cps.matches(new URL("http://x.aa.cz/lib")));
+            Assert.assertFalse(cps.matches(new URL("http://x.aa.cz/other")));
+        }
+        for (int i = 0; i < 500; i++) {
+            Assert.assertEquals(i % 2 == 0, cps.matches(new URL("http://x" + i + ".aa.cz/" + (i % 2 == 0 ? "lib" : "other"))));
+        }
+        Assert.assertTrue(cps.matches(new URL("http://x.aa.cz/lib")));
+    }
 }
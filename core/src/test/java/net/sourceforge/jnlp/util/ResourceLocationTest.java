@@ -0,0 +1,42 @@
+package net.sourceforge.jnlp.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URL;
+
+public class ResourceLocationTest {
+
+    @Test
+    public void equalLocationsAreEqual() throws Exception {
+        final ResourceLocation location = ResourceLocation.of(new URL("http://www.example.com/app/a.jar"));
+
+        Assert.assertEquals(location, ResourceLocation.of(new URL("HTTP://WWW.Example.COM/app/a.jar")));
+        Assert.assertEquals(location, ResourceLocation.of(new URL("http://www.example.com:80/app/a.jar")));
+        Assert.assertEquals(location.hashCode(), ResourceLocation.of(new URL("http://www.example.com:80/app/a.jar")).hashCode());
+    }
+
+    @Test
+    public void differentLocationsAreNotEqual() throws Exception {
+        final ResourceLocation location = ResourceLocation.of(new URL("http://www.example.com/app/a.jar"));
+
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("https://www.example.com/app/a.jar")));
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("http://www.example.com:8080/app/a.jar")));
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("http://www.example.com/app/A.jar")));
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("http://www.example.com/app/a.jar?v=1")));
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("http://www.example.com/app/a.jar#ref")));
+        // URL.equals would resolve both host names
+        Assert.assertNotEquals(location, ResourceLocation.of(new URL("http://example.com/app/a.jar")));
+    }
+
+    @Test
+    public void locationIsNormalizedOnce() throws Exception {
+        final URL url = new URL("http://www.example.com/some app/a b.jar");
+        final ResourceLocation location = ResourceLocation.of(url);
+
+        Assert.assertEquals(UrlUtils.normalizeUrlQuietly(url), location.getUrl());
+        Assert.assertEquals("http://www.example.com/some%20app/a%20b.jar", location.toString());
+        Assert.assertSame(location, ResourceLocation.of(new URL("http://www.example.com/some app/a b.jar")));
+        Assert.assertEquals(location, ResourceLocation.of(location.getUrl()));
+    }
+}
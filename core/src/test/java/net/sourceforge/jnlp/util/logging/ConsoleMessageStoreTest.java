@@ -0,0 +1,171 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.Header;
+import net.sourceforge.jnlp.util.logging.headers.JavaMessage;
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.DEBUG;
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.ERROR;
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleMessageStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testKeepsMessagesInOrderOfArrival() {
+        final ConsoleMessageStore store = new ConsoleMessageStore(10, null);
+        store.add(message(INFO, false, "a"));
+        store.add(message(ERROR, true, "b"));
+        store.add(message(DEBUG, false, "c"));
+
+        assertEquals(3, store.size());
+        assertEquals(Arrays.asList("a", "b", "c"), texts(store.getMessages()));
+    }
+
+    @Test
+    public void testEvictsOldestMessages() {
+        final ConsoleMessageStore store = new ConsoleMessageStore(3, null);
+        for (int i = 0; i < 5; i++) {
+            store.add(message(INFO, false, "m" + i));
+        }
+
+        assertEquals(3, store.size());
+        assertEquals(2, store.getFirstSequence());
+        assertEquals(5, store.getNextSequence());
+        assertEquals(Arrays.asList("m2", "m3", "m4"), texts(store.getMessages()));
+        assertEquals(0, store.getSpilledCount());
+    }
+
+    @Test
+    public void testSpillsEvictedMessagesToFile() throws Exception {
+        final File spillFile = new File(temporaryFolder.getRoot(), "console.log");
+        final ConsoleMessageStore store = new ConsoleMessageStore(2, spillFile);
+        for (int i = 0; i < 5; i++) {
+            store.add(message(INFO, false, "m" + i));
+        }
+        store.flushSpill();
+
+        assertEquals(3, store.getSpilledCount());
+        final List<String> spilled = Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, spilled.size());
+        assertTrue(spilled.get(0).endsWith(" m0"));
+        assertTrue(spilled.get(1).endsWith(" m1"));
+        assertTrue(spilled.get(2).endsWith(" m2"));
+    }
+
+    @Test
+    public void testRotatesSpillFileAtMaximalSize() throws Exception {
+        final File spillFile = new File(temporaryFolder.getRoot(), "console.log");
+        final long maxSpillBytes = 1024;
+        final ConsoleMessageStore store = new ConsoleMessageStore(1, spillFile, maxSpillBytes);
+        for (int i = 0; i < 100; i++) {
+            store.add(message(INFO, false, "message number " + i));
+        }
+        store.closeSpill();
+
+        assertEquals(99, store.getSpilledCount());
+        assertTrue(spillFile.length() <= maxSpillBytes);
+        assertTrue(store.getSpillBackupFile().length() <= maxSpillBytes);
+        final List<String> spilled = Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8);
+        assertTrue(spilled.get(spilled.size() - 1).endsWith(" message number 98"));
+    }
+
+    @Test
+    public void testSpillFileIsOpenedAgainAfterClose() throws Exception {
+        final File spillFile = new File(temporaryFolder.getRoot(), "console.log");
+        final ConsoleMessageStore store = new ConsoleMessageStore(1, spillFile);
+        store.add(message(INFO, false, "m0"));
+        store.add(message(INFO, false, "m1"));
+        store.closeSpill();
+        store.add(message(INFO, false, "m2"));
+        store.closeSpill();
+
+        final List<String> spilled = Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, spilled.size());
+        assertTrue(spilled.get(1).endsWith(" m1"));
+    }
+
+    @Test
+    public void testFiltersByLevelAndOrigin() {
+        final ConsoleMessageStore store = new ConsoleMessageStore(100, null);
+        store.add(message(INFO, false, "itw-info"));
+        store.add(message(ERROR, true, "app-error"));
+        store.add(message(DEBUG, false, "itw-debug"));
+        store.add(message(INFO, true, "app-info"));
+        store.add(message(ERROR, false, "itw-error"));
+
+        assertEquals(Arrays.asList("app-error", "app-info"), texts(store.getEntries(0, (level, isClientApp) -> isClientApp)));
+        assertEquals(Arrays.asList("itw-info", "app-info", "itw-error"), texts(store.getEntries(0, (level, isClientApp) -> level != DEBUG && !(isClientApp && level == ERROR))));
+        assertEquals(Arrays.asList("itw-debug", "app-info", "itw-error"), texts(store.getEntries(2, (level, isClientApp) -> true)));
+    }
+
+    @Test
+    public void testEvictionUpdatesIndexes() {
+        final ConsoleMessageStore store = new ConsoleMessageStore(50, null);
+        for (int i = 0; i < 200; i++) {
+            store.add(message(OutputControllerLevel.values()[i % 3], i % 2 == 0, "m" + i));
+        }
+
+        final List<ConsoleMessageStore.Entry> entries = store.getEntries(0, (level, isClientApp) -> level == INFO && isClientApp);
+        for (ConsoleMessageStore.Entry entry : entries) {
+            assertTrue(entry.getSequence() >= 150);
+            assertEquals("m" + entry.getSequence(), entry.getMessage().getMessage());
+        }
+        assertEquals(50, store.getEntries(0, (level, isClientApp) -> true).size());
+    }
+
+    @Test
+    public void testHasEntriesSince() {
+        final ConsoleMessageStore store = new ConsoleMessageStore(10, null);
+        store.add(message(INFO, false, "a"));
+        store.add(message(ERROR, true, "b"));
+
+        assertTrue(store.hasEntriesSince(0, (level, isClientApp) -> level == INFO));
+        assertFalse(store.hasEntriesSince(1, (level, isClientApp) -> level == INFO));
+        assertTrue(store.hasEntriesSince(1, (level, isClientApp) -> isClientApp));
+        assertFalse(store.hasEntriesSince(2, (level, isClientApp) -> true));
+    }
+
+    @Test
+    public void testClearKeepsSequenceNumbers() {
+        final File spillFile = new File(temporaryFolder.getRoot(), "console.log");
+        final ConsoleMessageStore store = new ConsoleMessageStore(10, spillFile);
+        store.add(message(INFO, false, "a"));
+        store.add(message(INFO, false, "b"));
+        store.clear();
+        store.add(message(INFO, false, "c"));
+
+        assertEquals(1, store.size());
+        assertEquals(2, store.getFirstSequence());
+        assertEquals(Arrays.asList("c"), texts(store.getMessages()));
+        assertFalse(spillFile.exists());
+    }
+
+    private static MessageWithHeader message(final OutputControllerLevel level, final boolean isClientApp, final String text) {
+        return new JavaMessage(new Header(level, isClientApp), text);
+    }
+
+    private static List<String> texts(final List<?> messagesOrEntries) {
+        final List<String> result = new ArrayList<>();
+        for (Object o : messagesOrEntries) {
+            final MessageWithHeader message = o instanceof ConsoleMessageStore.Entry ? ((ConsoleMessageStore.Entry) o).getMessage() : (MessageWithHeader) o;
+            result.add(message.getMessage());
+        }
+        return result;
+    }
+}
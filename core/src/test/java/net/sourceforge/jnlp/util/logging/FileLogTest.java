@@ -38,7 +38,9 @@ import net.sourceforge.jnlp.util.logging.filelogs.LogBasedFileLog;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -46,6 +48,9 @@ import java.io.IOException;
 
 public class FileLogTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private static final File[] loggingTargets = new File[12];
     private static final String line1 = "I'm logged line one";
     private static final String line2 = "I'm logged line two";
@@ -174,4 +179,72 @@ public class FileLogTest {
         Assert.assertTrue(r3.evaluate(s2));
 
     }
+
+    @Test
+    public void oldSessionLogsAreRemoved() throws Exception {
+        final String suffix = "-" + FileLog.getLogFileNamePostfix() + ".log";
+        final File oldest = createLogFile("a" + suffix, 1000);
+        final File oldestRotated = createLogFile("a" + suffix + ".1.gz", 1000);
+        final File older = createLogFile("b" + suffix, 2000);
+        final File olderRotated = createLogFile("b" + suffix + ".1", 5000);
+        final File newer = createLogFile("c" + suffix, 3000);
+        final File unrelated = createLogFile("notes.txt", 0);
+        final File current = createLogFile("d" + suffix, 4000);
+        final File currentLock = createLogFile("d" + suffix + ".lck", 4000);
+
+        FileLog.removeOldSessionLogs(current, 3);
+
+        Assert.assertFalse(oldest.exists());
+        Assert.assertFalse(oldestRotated.exists());
+        Assert.assertTrue(older.exists());
+        Assert.assertTrue(olderRotated.exists());
+        Assert.assertTrue(newer.exists());
+        Assert.assertTrue(unrelated.exists());
+        Assert.assertTrue(current.exists());
+        Assert.assertTrue(currentLock.exists());
+    }
+
+    @Test
+    public void consoleSpillFilesAreNoSessions() throws Exception {
+        final String suffix = "-" + FileLog.getLogFileNamePostfix() + ".log";
+        final String spillSuffix = "-console" + suffix;
+        final File oldest = createLogFile("a" + suffix, 1000);
+        final File oldestSpill = createLogFile("a" + spillSuffix, 1000);
+        final File oldestSpillRotated = createLogFile("a" + spillSuffix + ".1", 1000);
+        final File older = createLogFile("b" + suffix, 2000);
+        final File olderSpill = createLogFile("b" + spillSuffix, 2000);
+        final File newer = createLogFile("c" + suffix, 3000);
+        final File newerSpill = createLogFile("c" + spillSuffix, 3000);
+        final File current = createLogFile("d" + suffix, 4000);
+        final File currentSpill = createLogFile("d" + spillSuffix, 4000);
+
+        FileLog.removeOldSessionLogs(current, 3);
+
+        Assert.assertFalse(oldest.exists());
+        Assert.assertFalse(oldestSpill.exists());
+        Assert.assertFalse(oldestSpillRotated.exists());
+        Assert.assertTrue(older.exists());
+        Assert.assertTrue(olderSpill.exists());
+        Assert.assertTrue(newer.exists());
+        Assert.assertTrue(newerSpill.exists());
+        Assert.assertTrue(current.exists());
+        Assert.assertTrue(currentSpill.exists());
+    }
+
+    @Test
+    public void allSessionLogsAreKeptWithoutLimit() throws Exception {
+        final String suffix = "-" + FileLog.getLogFileNamePostfix() + ".log";
+        final File old = createLogFile("a" + suffix, 1000);
+        final File current = createLogFile("b" + suffix, 2000);
+
+        FileLog.removeOldSessionLogs(current, 0);
+
+        Assert.assertTrue(old.exists());
+    }
+
+    private File createLogFile(String name, long lastModified) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        Assert.assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
 }
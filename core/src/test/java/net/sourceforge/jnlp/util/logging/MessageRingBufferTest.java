@@ -0,0 +1,117 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.Header;
+import net.sourceforge.jnlp.util.logging.headers.JavaMessage;
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MessageRingBufferTest {
+
+    @Test
+    public void testOfferAndDrainInOrder() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(4);
+        assertTrue(buffer.isEmpty());
+
+        final MessageWithHeader first = msg("first");
+        final MessageWithHeader second = msg("second");
+        assertTrue(buffer.offer(first));
+        assertTrue(buffer.offer(second));
+        assertFalse(buffer.isEmpty());
+
+        final List<MessageWithHeader> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertSame(first, drained.get(0));
+        assertSame(second, drained.get(1));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testOfferFailsIfFull() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(2);
+        assertTrue(buffer.offer(msg("1")));
+        assertTrue(buffer.offer(msg("2")));
+        assertFalse(buffer.offer(msg("3")));
+
+        final List<MessageWithHeader> drained = new ArrayList<>();
+        assertEquals(1, buffer.drainTo(drained, 1));
+        assertTrue(buffer.offer(msg("3")));
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals("2", drained.get(1).getMessage());
+        assertEquals("3", drained.get(2).getMessage());
+    }
+
+    @Test
+    public void testWrapsAroundManyTimes() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(8);
+        final List<MessageWithHeader> drained = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(buffer.offer(msg(String.valueOf(i))));
+            if (i % 5 == 4) {
+                buffer.drainTo(drained, 8);
+            }
+        }
+        buffer.drainTo(drained, 8);
+        assertEquals(1000, drained.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i), drained.get(i).getMessage());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final MessageRingBuffer buffer = new MessageRingBuffer(64);
+        final int threads = 4;
+        final int iterations = 10000;
+        final Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final String prefix = t + ":";
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    final MessageWithHeader message = msg(prefix + i);
+                    while (!buffer.offer(message)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers[t].start();
+        }
+
+        final int[] next = new int[threads];
+        final List<MessageWithHeader> drained = new ArrayList<>();
+        int received = 0;
+        while (received < threads * iterations) {
+            drained.clear();
+            final int count = buffer.drainTo(drained, 16);
+            if (count == 0) {
+                Thread.yield();
+            }
+            received += count;
+            for (MessageWithHeader message : drained) {
+                final String[] parts = message.getMessage().split(":");
+                final int thread = Integer.parseInt(parts[0]);
+                assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo() {
+        new MessageRingBuffer(3);
+    }
+
+    private static MessageWithHeader msg(String text) {
+        return new JavaMessage(new Header(OutputControllerLevel.INFO, false), text);
+    }
+}
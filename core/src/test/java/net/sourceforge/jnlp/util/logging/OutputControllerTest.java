@@ -47,8 +47,15 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class OutputControllerTest {
 
@@ -347,6 +354,122 @@ public class OutputControllerTest {
 
     }
 
+    @Test
+    public void isBlockingOverflowKeepingAllMessages() throws Exception {
+        LogConfig.getLogConfig().setLogToFile(false);
+        LogConfig.getLogConfig().setLogToStreams(true);
+        LogConfig.getLogConfig().setLogToSysLog(false);
+        ByteArrayOutputStream os1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        OutputController oc = new OutputController(os1, os2);
+        oc.setOverflowPolicy(OutputController.OverflowPolicy.BLOCK);
+
+        final int threads = 4;
+        final int iterations = 5000;
+        final Thread[] loggers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            loggers[t] = new Thread(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    oc.log(msg(OutputControllerLevel.ERROR, "thread " + id + " line " + i + ";"));
+                }
+            });
+            loggers[t].start();
+        }
+        for (Thread logger : loggers) {
+            logger.join();
+        }
+        oc.flush();
+
+        final String s2 = os2.toString(UTF_8);
+        final int[] next = new int[threads];
+        final Matcher matcher = Pattern.compile("thread (\\d+) line (\\d+);").matcher(s2);
+        while (matcher.find()) {
+            final int thread = Integer.parseInt(matcher.group(1));
+            Assert.assertEquals("thread " + thread, next[thread]++, Integer.parseInt(matcher.group(2)));
+        }
+        for (int t = 0; t < threads; t++) {
+            Assert.assertEquals(iterations, next[t]);
+        }
+        Assert.assertFalse(s2.contains("dropped"));
+    }
+
+    @Test
+    public void isBlockingOverflowKeepingMessagesLoggedWhileFlushing() throws Exception {
+        LogConfig.getLogConfig().setLogToFile(false);
+        LogConfig.getLogConfig().setLogToStreams(true);
+        LogConfig.getLogConfig().setLogToSysLog(false);
+        final int iterations = 10000;
+        final AtomicReference<OutputController> controller = new AtomicReference<>();
+        final AtomicBoolean logged = new AtomicBoolean();
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        // a sink which logs while it is written, the buffer fills up and is flushed again
+        final OutputStream os1 = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written.write(b);
+                if (logged.compareAndSet(false, true)) {
+                    for (int i = 0; i < iterations; i++) {
+                        controller.get().log(msg(OutputControllerLevel.ERROR, "nested line " + i + ";"));
+                    }
+                }
+            }
+        };
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        OutputController oc = new OutputController(os1, os2);
+        controller.set(oc);
+        oc.setOverflowPolicy(OutputController.OverflowPolicy.BLOCK);
+
+        oc.log(msg(OutputControllerLevel.INFO, line1));
+        oc.flush();
+
+        final Matcher matcher = Pattern.compile("nested line (\\d+);").matcher(os2.toString(UTF_8));
+        final Set<Integer> lines = new HashSet<>();
+        while (matcher.find()) {
+            lines.add(Integer.parseInt(matcher.group(1)));
+        }
+        Assert.assertEquals(iterations, lines.size());
+        final String s1 = written.toString(UTF_8);
+        Assert.assertEquals("written once", s1.indexOf(line1), s1.lastIndexOf(line1));
+    }
+
+    @Test
+    public void isDroppingOverflowCountingMessages() throws Exception {
+        LogConfig.getLogConfig().setLogToFile(false);
+        LogConfig.getLogConfig().setLogToStreams(true);
+        LogConfig.getLogConfig().setLogToSysLog(false);
+        ByteArrayOutputStream os1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        OutputController oc = new OutputController(os1, os2);
+        oc.setOverflowPolicy(OutputController.OverflowPolicy.DROP);
+
+        for (int i = 0; i < 10000; i++) {
+            oc.log(msg(OutputControllerLevel.INFO, "line " + i + ";"));
+        }
+        oc.flush();
+
+        final String s1 = os1.toString(UTF_8);
+        final String s2 = os2.toString(UTF_8);
+        Assert.assertTrue(s1.contains("line 0;"));
+        Assert.assertTrue(s1.contains("line 8191;"));
+        Assert.assertFalse(s1.contains("line 8192;"));
+        Assert.assertTrue(s2.contains("1808 log messages were dropped"));
+
+        oc.log(msg(OutputControllerLevel.INFO, line1));
+        oc.flush();
+        Assert.assertTrue(os1.toString(UTF_8).contains(line1));
+        Assert.assertFalse(os2.toString(UTF_8).replaceFirst("1808 log messages were dropped", "").contains("dropped"));
+    }
+
+    @Test
+    public void isDebugEnabledBeforeConsumerIsStarted() {
+        JNLPRuntime.setDebug(false);
+        LogConfig.getLogConfig().setDebugEnabled(false);
+        OutputController oc = new OutputController(new ByteArrayOutputStream(), new ByteArrayOutputStream());
+        // the configuration is not known yet, so nothing may be filtered by the producers
+        Assert.assertTrue(oc.isDebugEnabled());
+    }
+
     /**
      * add syslog once implemented
      */
@@ -130,6 +130,33 @@ public class TeeOutputStreamTest {
         assertThat(loggedMessages, hasItems(new String(new byte[]{b})));
         }
 
+    @Test
+    public void testLongLineWrittenByteByByteIsLoggedOnce() {
+        final int length = TeeOutputStream.MAX_UNTERMINATED_LENGTH - EOL.length() - 1;
+        for (int i = 0; i < length; i++) {
+            tos.write('x');
+        }
+        assertThat(loggedMessages, is(empty()));
+
+        tos.print(EOL);
+        assertThat(loggedMessages.size(), is(1));
+        assertThat(loggedMessages.get(0).length(), is(length + EOL.length()));
+    }
+
+    @Test
+    public void testUnterminatedOutputIsLoggedInChunks() {
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < TeeOutputStream.MAX_UNTERMINATED_LENGTH; i++) {
+            // three bytes in UTF-8, so chunks end in the middle of a character
+            expected.append(i % 2 == 0 ? 'x' : '你');
+        }
+        tos.print(expected);
+        assertThat(loggedMessages.size() > 1, is(true));
+
+        tos.flush();
+        assertThat(String.join("", loggedMessages), is(out.toString()));
+    }
+
     private void assertUnmodifiedByPrint(String s) {
         tos.print(s);
         assertThat(loggedMessages, is(empty()));
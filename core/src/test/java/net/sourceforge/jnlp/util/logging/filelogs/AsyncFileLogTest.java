@@ -0,0 +1,134 @@
+package net.sourceforge.jnlp.util.logging.filelogs;
+
+import net.sourceforge.jnlp.util.logging.OutputController.OverflowPolicy;
+import net.sourceforge.jnlp.util.logging.SingleStreamLogger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFileLogTest {
+
+    @Test
+    public void testAllMessagesAreWrittenInOrder() {
+        final RecordingLog recording = new RecordingLog();
+        final AsyncFileLog log = new AsyncFileLog(recording, OverflowPolicy.BLOCK, 16);
+        for (int i = 0; i < 1000; i++) {
+            log.log("message " + i);
+        }
+        log.close();
+
+        final List<String> lines = recording.lines();
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("message " + i, lines.get(i));
+        }
+        assertTrue(recording.closed);
+    }
+
+    @Test
+    public void testMessagesAreWrittenInBatches() throws Exception {
+        final RecordingLog recording = new RecordingLog();
+        recording.blockNextWrite();
+        final AsyncFileLog log = new AsyncFileLog(recording, OverflowPolicy.BLOCK, 100);
+        log.log("first");
+        recording.awaitBlockedWrite();
+        for (int i = 0; i < 50; i++) {
+            log.log("message " + i);
+        }
+        recording.unblock();
+        log.close();
+
+        assertEquals(51, recording.lines().size());
+        assertEquals(2, recording.writes.size());
+    }
+
+    @Test
+    public void testDropsAndReportsMessagesIfQueueIsFull() throws Exception {
+        final RecordingLog recording = new RecordingLog();
+        recording.blockNextWrite();
+        final AsyncFileLog log = new AsyncFileLog(recording, OverflowPolicy.DROP, 10);
+        log.log("first");
+        recording.awaitBlockedWrite();
+        for (int i = 0; i < 25; i++) {
+            log.log("message " + i);
+        }
+        recording.unblock();
+        log.close();
+
+        final List<String> lines = recording.lines();
+        assertEquals("first", lines.get(0));
+        assertTrue(lines.get(1), lines.get(1).endsWith("15 log messages were dropped because writing the log file was too slow"));
+        assertEquals("message 0", lines.get(2));
+        assertEquals("message 9", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void testMessagesAfterCloseAreNotWritten() {
+        final RecordingLog recording = new RecordingLog();
+        final AsyncFileLog log = new AsyncFileLog(recording, OverflowPolicy.BLOCK, 16);
+        log.log("before close");
+        log.close();
+
+        log.log("after close");
+        log.log("after close again");
+
+        assertEquals(Arrays.asList("before close"), recording.lines());
+    }
+
+    private static class RecordingLog implements SingleStreamLogger {
+        private final List<String> writes = new ArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockNextWrite = false;
+        private volatile boolean closed = false;
+
+        void blockNextWrite() {
+            blockNextWrite = true;
+        }
+
+        void awaitBlockedWrite() throws InterruptedException {
+            blocked.await();
+        }
+
+        void unblock() {
+            release.countDown();
+        }
+
+        @Override
+        public void log(String s) {
+            if (blockNextWrite) {
+                blockNextWrite = false;
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            synchronized (writes) {
+                writes.add(s);
+            }
+        }
+
+        List<String> lines() {
+            final List<String> lines = new ArrayList<>();
+            synchronized (writes) {
+                for (String write : writes) {
+                    lines.addAll(Arrays.asList(write.split(System.lineSeparator())));
+                }
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
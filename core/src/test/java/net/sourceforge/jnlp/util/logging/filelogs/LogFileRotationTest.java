@@ -0,0 +1,109 @@
+package net.sourceforge.jnlp.util.logging.filelogs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogFileRotationTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNoneNeverRotates() {
+        assertFalse(LogFileRotation.NONE.isEnabled());
+        assertFalse(LogFileRotation.NONE.isRotationNeeded(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRotationShiftsFilesAndKeepsCount() throws Exception {
+        final File log = new File(temporaryFolder.getRoot(), "itw.log");
+        final LogFileRotation rotation = new LogFileRotation(10, 2, false);
+
+        for (int i = 1; i <= 3; i++) {
+            write(log, "content" + i);
+            rotation.rotate(log);
+        }
+
+        assertFalse(log.exists());
+        assertEquals("content3", read(new File(log.getPath() + ".1")));
+        assertEquals("content2", read(new File(log.getPath() + ".2")));
+        assertFalse(new File(log.getPath() + ".3").exists());
+    }
+
+    @Test
+    public void testRotatedFilesAreCompressed() throws Exception {
+        final File log = new File(temporaryFolder.getRoot(), "itw.log");
+        final LogFileRotation rotation = new LogFileRotation(10, 3, true);
+
+        write(log, "first");
+        rotation.rotate(log);
+        write(log, "second");
+        rotation.rotate(log);
+
+        assertFalse(log.exists());
+        assertEquals("second", readGzip(new File(log.getPath() + ".1.gz")));
+        assertEquals("first", readGzip(new File(log.getPath() + ".2.gz")));
+    }
+
+    @Test
+    public void testWriterBasedFileLogRotatesAtMaxSize() throws Exception {
+        final File log = new File(temporaryFolder.getRoot(), "itw.log");
+        final WriterBasedFileLog fileLog = new WriterBasedFileLog(log.getPath(), false, new LogFileRotation(1000, 2, false));
+        for (int i = 0; i < 100; i++) {
+            fileLog.log("line number " + i + " with some additional text");
+        }
+        fileLog.close();
+
+        assertTrue(log.length() < 1000);
+        assertTrue(new File(log.getPath() + ".1").length() >= 1000);
+        assertTrue(new File(log.getPath() + ".2").exists());
+        assertFalse(new File(log.getPath() + ".3").exists());
+        assertTrue(read(log).contains("line number 99 "));
+    }
+
+    @Test
+    public void testLogBasedFileLogRotatesAtMaxSize() throws Exception {
+        final File log = new File(temporaryFolder.getRoot(), "legacy.log");
+        final LogBasedFileLog fileLog = new LogBasedFileLog("rotation-test", log.getPath(), false, new LogFileRotation(1000, 1, true));
+        for (int i = 0; i < 100; i++) {
+            fileLog.log("line number " + i + " with some additional text");
+        }
+        fileLog.close();
+
+        assertTrue(log.length() < 1000);
+        assertTrue(new File(log.getPath() + ".1.gz").exists());
+        assertFalse(new File(log.getPath() + ".2.gz").exists());
+        assertTrue(read(log).contains("line number 99 "));
+    }
+
+    private static void write(final File file, final String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws Exception {
+        return read(new FileInputStream(file));
+    }
+
+    private static String readGzip(final File file) throws Exception {
+        return read(new GZIPInputStream(new FileInputStream(file)));
+    }
+
+    private static String read(final InputStream in) {
+        try (Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
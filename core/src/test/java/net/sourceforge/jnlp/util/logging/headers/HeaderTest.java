@@ -0,0 +1,43 @@
+package net.sourceforge.jnlp.util.logging.headers;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class HeaderTest {
+
+    @Test
+    public void testCallerIsFirstFrameOutsideOfLogging() {
+        final Header header = new Header(INFO, false);
+
+        assertThat(header.callerClass, startsWith(HeaderTest.class.getName() + ".testCallerIsFirstFrameOutsideOfLogging("));
+    }
+
+    @Test
+    public void testGivenCallerIsUsed() {
+        final Header header = new Header(INFO, "some.Caller");
+
+        assertThat(header.callerClass, is("some.Caller"));
+    }
+
+    @Test
+    public void testTimestampIsCapturedAndFormattedLikeBefore() {
+        final long before = System.currentTimeMillis();
+        final Header header = new Header(INFO, false);
+        final long after = System.currentTimeMillis();
+
+        assertTrue(before <= header.timestampMillis && header.timestampMillis <= after);
+        assertThat(header.timestampForSorting.getTime(), is(header.timestampMillis));
+        final String expected = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS z").format(new Date(header.timestampMillis));
+        assertThat(header.timestamp, is(expected));
+        assertThat(header.toString(), containsString("[" + expected + "]"));
+    }
+}
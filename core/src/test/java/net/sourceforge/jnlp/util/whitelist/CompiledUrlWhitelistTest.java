@@ -0,0 +1,67 @@
+package net.sourceforge.jnlp.util.whitelist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CompiledUrlWhitelistTest {
+
+    @Test
+    public void emptyWhitelistAllowsAll() throws Exception {
+        final CompiledUrlWhitelist whitelist = CompiledUrlWhitelist.compile(Collections.emptyList());
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://any.host.com/a.jar")));
+    }
+
+    @Test
+    public void hostsAreMatchedByLabels() throws Exception {
+        final CompiledUrlWhitelist whitelist = compile("Docs.Example.com", "*.example.org", "http://*.example.org:8080", "https://*.Example.NET:*");
+
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://docs.example.com/a.jar")));
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://DOCS.example.com:443/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://x.docs.example.com/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://example.com/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("http://docs.example.com/a.jar")));
+
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://a.example.org/a.jar")));
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://a.b.example.org/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://example.org/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://aexample.org/a.jar")));
+        Assert.assertTrue(whitelist.isAllowed(new URL("http://a.example.org:8080/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("http://a.example.org/a.jar")));
+
+        Assert.assertTrue(whitelist.isAllowed(new URL("https://a.example.net:1234/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("http://a.example.net:1234/a.jar")));
+    }
+
+    @Test
+    public void invalidEntriesAreIgnored() throws Exception {
+        final CompiledUrlWhitelist whitelist = compile("docs.*.net", "ftp://example.com", "example.com:ABC");
+
+        Assert.assertEquals(3, whitelist.getEntries().size());
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://docs.any.net/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("ftp://example.com/a.jar")));
+        Assert.assertFalse(whitelist.isAllowed(new URL("https://example.com/a.jar")));
+    }
+
+    @Test
+    public void decisionsAreStable() throws Exception {
+        final CompiledUrlWhitelist whitelist = compile("*.example.com");
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(whitelist.isAllowed(new URL("https://host.example.com/a" + i + ".jar")));
+            Assert.assertFalse(whitelist.isAllowed(new URL("https://host.example.org/a" + i + ".jar")));
+        }
+    }
+
+    private static CompiledUrlWhitelist compile(final String... entries) {
+        final List<WhitelistEntry> parsed = Arrays.stream(entries)
+                .map(WhitelistEntry::parse)
+                .collect(Collectors.toList());
+        return CompiledUrlWhitelist.compile(parsed);
+    }
+}